@@ -1,19 +1,31 @@
 package com.mkl.tools.eu;
 
+import com.mkl.tools.eu.map.AliasIndex;
 import com.mkl.tools.eu.map.ClientGenerator;
 import com.mkl.tools.eu.map.CounterGenerator;
 import com.mkl.tools.eu.map.DBGenerator;
 import com.mkl.tools.eu.map.DataExtractor;
+import com.mkl.tools.eu.map.MapCoordinates;
+import com.mkl.tools.eu.map.ModelSnapshot;
+import com.mkl.tools.eu.map.ProvinceIndex;
+import com.mkl.tools.eu.map.ProvinceRegistry;
+import com.mkl.tools.eu.map.RestructureCache;
+import com.mkl.tools.eu.sql.SqlRowWriter;
 import com.mkl.tools.eu.tables.TablesGenerator;
+import com.mkl.tools.eu.util.FileChannelWriter;
+import com.mkl.tools.eu.util.StageExecutor;
 import com.mkl.tools.eu.util.ToolsUtil;
 import com.mkl.tools.eu.vo.Leader;
 import com.mkl.tools.eu.vo.country.Country;
 import com.mkl.tools.eu.vo.province.*;
 import org.apache.commons.io.IOUtils;
-import org.apache.commons.lang3.StringUtils;
 
+import java.io.File;
+import java.io.IOException;
 import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -24,6 +36,32 @@ import java.util.Map;
  * @author MKL
  */
 public final class MapGenerator {
+    /** File of the snapshot of the extracted model. */
+    private static final String SNAPSHOT_FILE = "target/cache/model.snapshot";
+    /** Input files of the extraction kept in the snapshot. */
+    private static final String[] SNAPSHOT_INPUTS = {"input/translations.utf", "input/ressources.txt", "input/europe.grid.ps", "input/rotw.grid.ps"};
+    /** File of the cache of the restructuration of the provinces. */
+    private static final String RESTRUCTURE_CACHE_FILE = "target/cache/restructure.cache";
+    /** Stages of the extraction kept in the snapshot. */
+    private static final String[] SNAPSHOT_STAGES = {"aliases", "regions", "europePaths", "rotwPaths"};
+    /** Option to write the SQL script with multi-row inserts and explicit IDs. */
+    private static final String BATCH_SQL_OPTION = "--batch-sql";
+    /** Option to write the referential as bulk load files too. */
+    private static final String BULK_LOAD_OPTION = "--bulk-load";
+    /** Directory of the bulk load files. */
+    private static final String BULK_LOAD_DIRECTORY = "src/main/resources/output/bulk";
+    /** Option to write the script of the changes of the referential since the previous run too. */
+    private static final String DELTA_SQL_OPTION = "--delta-sql";
+    /** Directory of the script of the changes and of the rows of the previous run. */
+    private static final String DELTA_SQL_DIRECTORY = "src/main/resources/output";
+    /** Option to write the geometry in a binary file too. */
+    private static final String BINARY_OPTION = "--binary";
+    /** Option to write the geo.json files of the levels of detail too. */
+    private static final String LOD_OPTION = "--lod";
+    /** Option to write the map in a topo.json file too. */
+    private static final String TOPO_JSON_OPTION = "--topojson";
+    /** Option to write the adjacency of the provinces in a binary file too. */
+    private static final String ADJACENCY_OPTION = "--adjacency";
 
     /** No constructor for utility class. */
     private MapGenerator() {
@@ -32,102 +70,258 @@ public final class MapGenerator {
 
     /**
      * Do all the stuff.
+     * <p>
+     * The steps are described as stages with their dependencies so that independent steps run at the same time.
+     * The stages are added in the order of a serial run, which gives the order of the log.
+     * </p>
      *
-     * @param args no args.
+     * @param args {@value #BATCH_SQL_OPTION} to write the SQL script with multi-row inserts and explicit IDs,
+     *             {@value #BULK_LOAD_OPTION} to write the referential as bulk load files too,
+     *             {@value #DELTA_SQL_OPTION} to write the script of the changes since the previous run too,
+     *             {@value #TOPO_JSON_OPTION} to write the map in a topo.json file too,
+     *             {@value #LOD_OPTION} to write the geo.json files of the levels of detail too,
+     *             {@value #BINARY_OPTION} to write the geometry in a binary file too,
+     *             {@value #ADJACENCY_OPTION} to write the adjacency of the provinces in a binary file too.
      * @throws Exception exception.
      */
     public static void main(String[] args) throws Exception {
         Writer log = ToolsUtil.createFileWriter("src/main/resources/log.txt", false);
-        Writer sqlWriter = ToolsUtil.createFileWriter("src/main/resources/output/delete_insert_referentiel.sql", false);
+        FileChannelWriter sqlWriter = ToolsUtil.createFileWriter("src/main/resources/output/delete_insert_referentiel.sql", false);
+        List<String> options = Arrays.asList(args);
+        SqlRowWriter rowWriter = DBGenerator.createRowWriter(sqlWriter, options.contains(BATCH_SQL_OPTION),
+                options.contains(BULK_LOAD_OPTION) ? new File(BULK_LOAD_DIRECTORY) : null,
+                options.contains(DELTA_SQL_OPTION) ? new File(DELTA_SQL_DIRECTORY) : null);
 
         try {
-            Map<String, List<Path>> specialBorders = new HashMap<>();
-            Map<String, Province> provinces = new HashMap<>();
-            List<Border> borders = new ArrayList<>();
+            Model model = new Model();
+            StageExecutor executor = new StageExecutor(log);
 
-            Map<String, Map<String, List<String>>> aliases = DataExtractor.extractAliases(log);
+            // The extraction of the grids is long: its result is kept in a snapshot as long as the inputs are unchanged.
+            String snapshotKey = ModelSnapshot.computeKey(SNAPSHOT_INPUTS);
+            ModelSnapshot snapshot = ModelSnapshot.load(SNAPSHOT_FILE, snapshotKey);
 
-            Map<String, Region> regions = DataExtractor.extractRegions(aliases, log);
+            if (snapshot != null) {
+                executor.addStage("aliases", stageLog -> {
+                    model.aliases = snapshot.getAliases();
+                    stageLog.append(snapshot.getLogs().get("aliases"));
+                });
 
-            DataExtractor.extractPaths(provinces, specialBorders, regions, aliases, "input/europe.grid.ps", false, log);
-            DataExtractor.extractPaths(provinces, specialBorders, regions, aliases, "input/rotw.grid.ps", true, log);
-            // World is round
-            borders.add(new Border(provinces.get("sPacifique NE"), provinces.get("sPacifique"), null));
-            borders.add(new Border(provinces.get("sPacifique SE"), provinces.get("sPacifique"), null));
-            // Bering strait
-            borders.add(new Border(provinces.get("rKamchatka~I"), provinces.get("rAmour~N"), "BERING_STRAIT"));
-            borders.add(new Border(provinces.get("rKamchatka~I"), provinces.get("rBaikal~NE"), "BERING_STRAIT"));
-            borders.add(new Border(provinces.get("rKamchatka~I"), provinces.get("rYakoutie~S"), "BERING_STRAIT"));
-            borders.add(new Border(provinces.get("rKamchatka~I"), provinces.get("rYakoutie~NE"), "BERING_STRAIT"));
+                executor.addStage("regions", stageLog -> {
+                    model.regions = snapshot.getRegions();
+                    stageLog.append(snapshot.getLogs().get("regions"));
+                }, "aliases");
 
-            DataExtractor.createSpecialBoxes(provinces, log);
+                executor.addStage("europePaths", stageLog -> {
+                    model.europe = snapshot.getEurope();
+                    stageLog.append(snapshot.getLogs().get("europePaths"));
+                }, "regions");
 
-            // Provinces need to be restructured for trade zone/rotw process
-            for (Province province : provinces.values()) {
-                province.restructure();
+                executor.addStage("rotwPaths", stageLog -> {
+                    model.rotw = snapshot.getRotw();
+                    stageLog.append(snapshot.getLogs().get("rotwPaths"));
+                }, "regions");
+
+                executor.addStage("saveSnapshot", stageLog -> {
+                }, "europePaths", "rotwPaths");
+            } else {
+                executor.addStage("aliases", stageLog -> model.aliases = DataExtractor.extractAliases(stageLog));
+
+                executor.addStage("regions", stageLog -> model.regions = DataExtractor.extractRegions(model.aliases, stageLog), "aliases");
+
+                executor.addStage("europePaths", stageLog -> model.europe = DataExtractor.extractPaths(model.regions, model.aliases,
+                        "input/europe.grid.ps", false, stageLog), "regions");
+
+                executor.addStage("rotwPaths", stageLog -> model.rotw = DataExtractor.extractPaths(model.regions, model.aliases,
+                        "input/rotw.grid.ps", true, stageLog), "regions");
+
+                executor.addStage("saveSnapshot", stageLog -> {
+                    ModelSnapshot newSnapshot = new ModelSnapshot(model.aliases, model.regions, model.europe, model.rotw);
+                    for (String stage : SNAPSHOT_STAGES) {
+                        newSnapshot.getLogs().put(stage, executor.getLog(stage));
+                    }
+                    newSnapshot.save(SNAPSHOT_FILE, snapshotKey);
+                }, "europePaths", "rotwPaths");
             }
 
-            DataExtractor.extractProvinceData(provinces, aliases, "input/europe.utf", false, log);
-            DataExtractor.extractProvinceData(provinces, aliases, "input/rotw.utf", true, log);
+            // The snapshot is saved before the next stages modify the extracted model.
+            executor.addStage("provinces", stageLog -> {
+                DataExtractor.mergeGrid(model.europe, model.provinces, model.specialBorders);
+                DataExtractor.mergeGrid(model.rotw, model.provinces, model.specialBorders);
+                Map<String, Province> provinces = model.provinces;
+                List<Border> borders = model.borders;
+                // World is round
+                borders.add(new Border(provinces.get("sPacifique NE"), provinces.get("sPacifique"), null));
+                borders.add(new Border(provinces.get("sPacifique SE"), provinces.get("sPacifique"), null));
+                // Bering strait
+                borders.add(new Border(provinces.get("rKamchatka~I"), provinces.get("rAmour~N"), Border.BorderType.BERING_STRAIT));
+                borders.add(new Border(provinces.get("rKamchatka~I"), provinces.get("rBaikal~NE"), Border.BorderType.BERING_STRAIT));
+                borders.add(new Border(provinces.get("rKamchatka~I"), provinces.get("rYakoutie~S"), Border.BorderType.BERING_STRAIT));
+                borders.add(new Border(provinces.get("rKamchatka~I"), provinces.get("rYakoutie~NE"), Border.BorderType.BERING_STRAIT));
 
-            Map<String, Country> countries = DataExtractor.createCountries(log);
+                DataExtractor.createSpecialBoxes(provinces);
+            }, "saveSnapshot");
 
-            DataExtractor.extractCountriesData(countries, provinces, aliases, log);
+            // Provinces need to be restructured for trade zone/rotw process
+            // Only the provinces whose paths changed since the previous run are restructured.
+            executor.addStage("restructure", stageLog -> {
+                model.restructureCache = RestructureCache.load(RESTRUCTURE_CACHE_FILE);
+                StageExecutor.forEach(model.provinces.values(), model.restructureCache::restructure, stageLog);
+            }, "provinces");
 
-            DataExtractor.extractSeaData(provinces, countries, borders, aliases, "input/source.eps", false, log);
-            DataExtractor.extractSeaData(provinces, countries, borders, aliases, "input/sourceRotw.eps", true, log);
+            executor.addStage("provinceIndex", stageLog -> model.provinceIndex = new ProvinceIndex(model.provinces), "restructure");
 
-            List<Mine> mines = new ArrayList<>();
-            mines.addAll(DataExtractor.extractMinesSaltData(provinces, countries, borders, aliases, "input/portsandmines.eps", false, log));
-            mines.addAll(DataExtractor.extractMinesSaltData(provinces, countries, borders, aliases, "input/portsandminesRotw.eps", true, log));
+            executor.addStage("europeProvinceData", stageLog -> DataExtractor.extractProvinceData(model.provinces, model.provinceIndex,
+                    model.aliases, "input/europe.utf", false, stageLog), "provinceIndex");
+            executor.addStage("rotwProvinceData", stageLog -> DataExtractor.extractProvinceData(model.provinces, model.provinceIndex,
+                    model.aliases, "input/rotw.utf", true, stageLog), "europeProvinceData");
 
-            for (Province province : provinces.values()) {
-                if (province.getInfo() != null && province.getInfo().getDefaultOwner() == null) {
-                    log.append(province.getName()).append("\tProvince has no owner\n");
-                }
-                if (StringUtils.equals("SEA", province.getTerrain()) && province.getSeaInfo() == null) {
-                    log.append(province.getName()).append("\tSea zone has no info\n");
-                } else if (!StringUtils.equals("SEA", province.getTerrain()) && province.getSeaInfo() != null) {
-                    log.append(province.getName()).append("\tProvince has sea info\n");
-                }
-            }
+            executor.addStage("countries", stageLog -> model.countries = DataExtractor.createCountries(stageLog));
 
-            for (Region region : regions.values()) {
-                int nbReal = 0;
-                for (String province : provinces.keySet()) {
-                    if (province.startsWith("r" + region.getName() + "~")) {
-                        nbReal++;
-                    }
-                }
+            executor.addStage("countriesData", stageLog -> DataExtractor.extractCountriesData(model.countries, model.provinces,
+                    model.aliases, stageLog), "countries", "rotwProvinceData");
 
-                if (nbReal != region.getNumber()) {
-                    log.append(region.getName()).append("\tRegion has wrong number of provinces.\t")
-                            .append(Integer.toString(region.getNumber())).append("\t").append(Integer.toString(nbReal))
-                            .append("\n");
-                }
-            }
+            executor.addStage("europeSeaData", stageLog -> DataExtractor.extractSeaData(model.provinces, model.provinceIndex,
+                    model.countries, model.borders, model.aliases, "input/source.eps", false, stageLog), "countriesData");
+            executor.addStage("rotwSeaData", stageLog -> DataExtractor.extractSeaData(model.provinces, model.provinceIndex,
+                    model.countries, model.borders, model.aliases, "input/sourceRotw.eps", true, stageLog), "europeSeaData");
 
-            List<Leader> leaders = TablesGenerator.computeLeaders(null);
+            // All the provinces exist once the squares of the trade zones are added.
+            executor.addStage("provinceIds", stageLog -> model.provinceIds = new ProvinceRegistry(model.provinces), "rotwSeaData");
 
-            CounterGenerator.moveExistingCounter(countries, leaders,
+            executor.addStage("europeMines", stageLog -> model.mines.addAll(DataExtractor.extractMinesSaltData(model.provinces,
+                    model.provinceIndex, model.provinceIds, model.countries, model.borders, model.aliases, "input/portsandmines.eps",
+                    false, stageLog)), "provinceIds");
+            executor.addStage("rotwMines", stageLog -> model.mines.addAll(DataExtractor.extractMinesSaltData(model.provinces,
+                    model.provinceIndex, model.provinceIds, model.countries, model.borders, model.aliases, "input/portsandminesRotw.eps",
+                    true, stageLog)), "europeMines");
+
+            executor.addStage("validation", stageLog -> validate(model, stageLog), "rotwMines");
+
+            executor.addStage("leaders", stageLog -> model.leaders = TablesGenerator.computeLeaders(null));
+
+            executor.addStage("counters", stageLog -> CounterGenerator.moveExistingCounter(model.countries, model.leaders,
                     "D:\\dev\\upide\\old-lipn.univ-paris13.fr\\~dubacq\\europa\\pions\\0.6\\",
                     "D:\\dev\\workspace\\eu\\front\\eu-front-client\\data\\counters\\v2\\",
-                    log);
+                    stageLog), "countriesData", "leaders");
+
+            // The paths are transformed to map coordinates once for all the files of the client,
+            // after the squares of the trade zones are added.
+            executor.addStage("mapCoordinates", stageLog -> model.mapCoordinates = new MapCoordinates(model.provinces), "rotwMines");
+
+            executor.addStage("mapData", stageLog -> ClientGenerator.createMapData(model.provinces, model.mapCoordinates,
+                    model.restructureCache, stageLog), "mapCoordinates");
+
+            if (options.contains(TOPO_JSON_OPTION)) {
+                executor.addStage("topoData", stageLog -> ClientGenerator.createTopoData(model.provinces, model.mapCoordinates),
+                        "mapCoordinates");
+            }
+
+            if (options.contains(LOD_OPTION)) {
+                executor.addStage("mapLevels", stageLog -> ClientGenerator.createMapLevels(model.provinces, model.mapCoordinates),
+                        "mapCoordinates");
+            }
+
+            if (options.contains(BINARY_OPTION)) {
+                executor.addStage("binaryData", stageLog -> ClientGenerator.createBinaryData(model.provinces, model.mapCoordinates,
+                        stageLog), "mapCoordinates");
+            }
+
+            executor.addStage("saveRestructureCache", stageLog -> model.restructureCache.save(RESTRUCTURE_CACHE_FILE), "mapData");
+
+            executor.addStage("borderData", stageLog -> ClientGenerator.createBorderData(model.borders, model.provinces,
+                    model.specialBorders, stageLog), "rotwMines");
 
-            ClientGenerator.createMapData(provinces, log);
+            if (options.contains(ADJACENCY_OPTION)) {
+                executor.addStage("adjacencyData", stageLog -> ClientGenerator.createAdjacencyData(model.borders, model.provinceIds),
+                        "borderData");
+            }
+
+            // The sql stages are chained because they share the same script.
+            executor.addStage("deleteScript", stageLog -> DBGenerator.createDeleteScript(sqlWriter));
 
-            ClientGenerator.createBorderData(borders, provinces, specialBorders, log);
+            executor.addStage("provincesScript", stageLog -> DBGenerator.createProvincesData(model.provinces, model.borders,
+                    model.regions, rowWriter), "deleteScript", "borderData");
 
-            DBGenerator.createDeleteScript(sqlWriter);
+            executor.addStage("countriesScript", stageLog -> DBGenerator.createCountriesData(model.countries, rowWriter),
+                    "provincesScript", "countriesData");
 
-            DBGenerator.createProvincesData(provinces, borders, regions, sqlWriter);
+            executor.addStage("minesScript", stageLog -> DBGenerator.createMinesData(model.mines, rowWriter),
+                    "countriesScript", "rotwMines");
 
-            DBGenerator.createCountriesData(countries, sqlWriter);
+            executor.addStage("finishScript", stageLog -> rowWriter.finish(), "minesScript");
 
-            DBGenerator.createMinesData(mines, sqlWriter);
+            executor.execute();
+        } catch (Exception e) {
+            // A failed run keeps the previous script, its log tells why it failed.
+            sqlWriter.abort();
+            throw e;
         } finally {
             IOUtils.closeQuietly(sqlWriter);
             IOUtils.closeQuietly(log);
         }
     }
+
+    /**
+     * Check the consistency of the data gathered.
+     *
+     * @param model data gathered.
+     * @param log   log writer.
+     * @throws IOException exception.
+     */
+    private static void validate(Model model, Writer log) throws IOException {
+        for (Province province : model.provinces.values()) {
+            if (province.getInfo() != null && province.getInfo().getDefaultOwner() == null) {
+                log.append(province.getName()).append("\tProvince has no owner\n");
+            }
+            if (province.getTerrain() == Province.Terrain.SEA && province.getSeaInfo() == null) {
+                log.append(province.getName()).append("\tSea zone has no info\n");
+            } else if (province.getTerrain() != Province.Terrain.SEA && province.getSeaInfo() != null) {
+                log.append(province.getName()).append("\tProvince has sea info\n");
+            }
+        }
+
+        for (Region region : model.regions.values()) {
+            int nbReal = model.provinceIds.countWithPrefix("r" + region.getName() + "~");
+
+            if (nbReal != region.getNumber()) {
+                log.append(region.getName()).append("\tRegion has wrong number of provinces.\t")
+                        .append(Integer.toString(region.getNumber())).append("\t").append(Integer.toString(nbReal))
+                        .append("\n");
+            }
+        }
+    }
+
+    /**
+     * Data gathered by the stages.
+     */
+    private static class Model {
+        /** The aliases. */
+        private AliasIndex aliases;
+        /** The regions. */
+        private Map<String, Region> regions;
+        /** Content of the europe grid. */
+        private Grid europe;
+        /** Content of the rotw grid. */
+        private Grid rotw;
+        /** Rivers, mountain passes and straits. */
+        private Map<Border.BorderType, List<Path>> specialBorders = new EnumMap<>(Border.BorderType.class);
+        /** The provinces. */
+        private Map<String, Province> provinces = new HashMap<>();
+        /** The borders. */
+        private List<Border> borders = new ArrayList<>();
+        /** The countries. */
+        private Map<String, Country> countries;
+        /** The gold mines. */
+        private List<Mine> mines = new ArrayList<>();
+        /** The leaders. */
+        private List<Leader> leaders;
+        /** Cache of the restructuration of the provinces. */
+        private RestructureCache restructureCache;
+        /** Spatial index of the provinces. */
+        private ProvinceIndex provinceIndex;
+        /** Ids of the provinces. */
+        private ProvinceRegistry provinceIds;
+        /** Map coordinates of the provinces. */
+        private MapCoordinates mapCoordinates;
+    }
 }
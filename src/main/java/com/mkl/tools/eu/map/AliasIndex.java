@@ -0,0 +1,287 @@
+package com.mkl.tools.eu.map;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable index of the aliases read in the translations file.
+ * <p>
+ * The aliases are grouped by type (province, seazone, granderegion,...). For a type T, T maps a real name to its aliases
+ * and TInv maps an alias to its real names. A name matches an alias if it is the alias, or the part of the alias
+ * between parenthesis (or brackets), or if both have the same part between parenthesis (or brackets). All these forms
+ * are hashed once so that a name is resolved without looking at all the aliases.
+ * </p>
+ * <p>
+ * The real names keep the iteration order of the aliases read, so that the first match and the ambiguities are
+ * the same as a search through all the aliases.
+ * </p>
+ *
+ * @author MKL
+ */
+public class AliasIndex {
+    /** Suffix of the types holding the inverse aliases. */
+    private static final String INVERSE = "Inv";
+    /** Type of the provinces. */
+    private static final String PROVINCE = "province";
+    /** The aliases by type, as read in the translations file. */
+    private final Map<String, Map<String, List<String>>> aliases;
+    /** The aliases of each type by matching form. */
+    private final Map<String, Forms> forms = new HashMap<>();
+    /** The aliases and inverse aliases of the provinces by matching form. */
+    private final Forms provinceForms;
+    /** The aliases and the inverse aliases of each province. */
+    private final Map<String, List<String>> provinceAlternatives = new HashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param aliases the aliases by type, as read in the translations file. They must not be modified afterwards.
+     */
+    public AliasIndex(Map<String, Map<String, List<String>>> aliases) {
+        Map<String, Map<String, List<String>>> copy = new HashMap<>();
+        for (Map.Entry<String, Map<String, List<String>>> type : aliases.entrySet()) {
+            Map<String, List<String>> typeCopy = new HashMap<>();
+            for (Map.Entry<String, List<String>> alias : type.getValue().entrySet()) {
+                typeCopy.put(alias.getKey(), Collections.unmodifiableList(new ArrayList<>(alias.getValue())));
+            }
+            copy.put(type.getKey(), Collections.unmodifiableMap(typeCopy));
+        }
+        this.aliases = Collections.unmodifiableMap(copy);
+
+        for (Map.Entry<String, Map<String, List<String>>> type : aliases.entrySet()) {
+            Forms typeForms = new Forms();
+            int ordinal = 0;
+            for (Map.Entry<String, List<String>> alias : type.getValue().entrySet()) {
+                int alternative = 0;
+                for (String value : alias.getValue()) {
+                    typeForms.add(value, new Match(alias.getKey(), ordinal, alternative++));
+                }
+                ordinal++;
+            }
+            forms.put(type.getKey(), typeForms);
+        }
+
+        provinceForms = new Forms();
+        Map<String, List<String>> provinces = aliases.getOrDefault(PROVINCE, Collections.emptyMap());
+        Map<String, List<String>> inverses = aliases.getOrDefault(PROVINCE + INVERSE, Collections.emptyMap());
+        Map<String, List<String>> inverseByProvince = new HashMap<>();
+        for (Map.Entry<String, List<String>> inverse : inverses.entrySet()) {
+            for (String province : inverse.getValue()) {
+                List<String> provinceInverses = inverseByProvince.computeIfAbsent(province, key -> new ArrayList<>());
+                if (!provinceInverses.contains(inverse.getKey())) {
+                    provinceInverses.add(inverse.getKey());
+                }
+            }
+        }
+        int ordinal = 0;
+        for (Map.Entry<String, List<String>> province : provinces.entrySet()) {
+            List<String> alternatives = new ArrayList<>(province.getValue());
+            alternatives.addAll(inverseByProvince.getOrDefault(province.getKey(), Collections.emptyList()));
+            provinceAlternatives.put(province.getKey(), Collections.unmodifiableList(alternatives));
+            int alternative = 0;
+            for (String value : alternatives) {
+                provinceForms.add(value, new Match(province.getKey(), ordinal, alternative++));
+            }
+            ordinal++;
+        }
+    }
+
+    /** @return the aliases by type, as read in the translations file. */
+    public Map<String, Map<String, List<String>>> getAliases() {
+        return aliases;
+    }
+
+    /**
+     * @param type the type of alias.
+     * @param name the real name.
+     * @return the aliases of the real name, <code>null</code> if it is not a real name of this type.
+     */
+    public List<String> getAliases(String type, String name) {
+        Map<String, List<String>> typeAliases = aliases.get(type);
+        return typeAliases != null ? typeAliases.get(name) : null;
+    }
+
+    /**
+     * @param type  the type of alias.
+     * @param alias the alias.
+     * @return the real names of the alias, <code>null</code> if it is not an inverse alias of this type.
+     */
+    public List<String> getInverse(String type, String alias) {
+        return getAliases(type + INVERSE, alias);
+    }
+
+    /**
+     * @param province the real name of a province.
+     * @return the aliases of the province followed by the aliases that refer to it in the inverse aliases.
+     */
+    public List<String> getProvinceAlternatives(String province) {
+        return provinceAlternatives.getOrDefault(province, Collections.emptyList());
+    }
+
+    /**
+     * Find a name in the aliases and return the internal code.
+     * If the name matches aliases of several real names, the ambiguities are logged and the last one is returned.
+     *
+     * @param name input value.
+     * @param type type of alias.
+     * @param log  log writer.
+     * @return the internal code.
+     * @throws IOException exception.
+     */
+    public String findInAliases(String name, String type, Writer log) throws IOException {
+        String realName = null;
+        if (aliases.get(type).containsKey(name)) {
+            realName = name;
+        } else if (aliases.get(type + INVERSE) != null && aliases.get(type + INVERSE).containsKey(name)) {
+            realName = aliases.get(type + INVERSE).get(name).get(0);
+        } else {
+            for (Match match : forms.get(type).find(name).values()) {
+                if (realName != null) {
+                    log.append(name).append("\tCan't find root name: ambiguous values\t")
+                            .append(realName).append("\t").append(match.name).append("\n");
+                }
+                realName = match.name;
+            }
+        }
+        return realName;
+    }
+
+    /**
+     * Find the first province (in the iteration order) having an alias or an inverse alias that matches one of the names.
+     *
+     * @param names the names to match.
+     * @return the real name of the province, <code>null</code> if none matches.
+     */
+    public String findProvince(List<String> names) {
+        Match first = null;
+        for (String name : names) {
+            Map.Entry<Long, Match> match = provinceForms.find(name).firstEntry();
+            if (match != null && (first == null || match.getValue().ordinal < first.ordinal)) {
+                first = match.getValue();
+            }
+        }
+        return first != null ? first.name : null;
+    }
+
+    /**
+     * Returns the part of a name between the two separators, as done when matching names.
+     *
+     * @param name  the name.
+     * @param open  opening separator.
+     * @param close closing separator.
+     * @return the part of the name between the separators, <code>null</code> if the name has not both separators.
+     */
+    private static String subName(String name, char open, char close) {
+        if (name != null && name.indexOf(open) >= 0 && name.indexOf(close) >= 0) {
+            return name.substring(name.indexOf(open) + 1, name.lastIndexOf(close));
+        }
+        return null;
+    }
+
+    /**
+     * Aliases of a type hashed by their matching forms.
+     */
+    private static class Forms {
+        /** Aliases by value. */
+        private final Map<String, List<Match>> exact = new HashMap<>();
+        /** Aliases with a parenthesis by the part between parenthesis. */
+        private final Map<String, List<Match>> parenthesis = new HashMap<>();
+        /** Aliases with brackets but no parenthesis by the part between brackets. */
+        private final Map<String, List<Match>> brackets = new HashMap<>();
+
+        /**
+         * Adds an alias. The forms that would give an empty name are left out as they never match.
+         *
+         * @param value the alias.
+         * @param match the real name of the alias.
+         */
+        private void add(String value, Match match) {
+            if (!StringUtils.isEmpty(value)) {
+                exact.computeIfAbsent(value, key -> new ArrayList<>()).add(match);
+            }
+            String sub = subName(value, '(', ')');
+            if (sub != null) {
+                if (!sub.isEmpty()) {
+                    parenthesis.computeIfAbsent(sub, key -> new ArrayList<>()).add(match);
+                }
+            } else {
+                sub = subName(value, '[', ']');
+                if (!StringUtils.isEmpty(sub)) {
+                    brackets.computeIfAbsent(sub, key -> new ArrayList<>()).add(match);
+                }
+            }
+        }
+
+        /**
+         * Finds the aliases matching a name.
+         *
+         * @param name the name.
+         * @return the matching aliases sorted by the position of their real name then their position in the aliases.
+         */
+        private TreeMap<Long, Match> find(String name) {
+            TreeMap<Long, Match> matches = new TreeMap<>();
+            if (name == null) {
+                return matches;
+            }
+            addAll(exact.get(name), matches);
+            addAll(parenthesis.get(name), matches);
+            String sub = subName(name, '(', ')');
+            if (sub != null) {
+                addAll(parenthesis.get(sub), matches);
+            }
+            addAll(brackets.get(name), matches);
+            sub = subName(name, '[', ']');
+            if (sub != null) {
+                addAll(brackets.get(sub), matches);
+            }
+            return matches;
+        }
+
+        /**
+         * Adds aliases to the matches, an alias matching several ways being added once.
+         *
+         * @param candidates aliases to add.
+         * @param matches    matches found so far.
+         */
+        private static void addAll(List<Match> candidates, TreeMap<Long, Match> matches) {
+            if (candidates != null) {
+                for (Match candidate : candidates) {
+                    matches.put(((long) candidate.ordinal << 32) | candidate.alternative, candidate);
+                }
+            }
+        }
+    }
+
+    /**
+     * An alias with its real name.
+     */
+    private static class Match {
+        /** The real name. */
+        private final String name;
+        /** Position of the real name in the iteration order. */
+        private final int ordinal;
+        /** Position of the alias in the aliases of the real name. */
+        private final int alternative;
+
+        /**
+         * Constructor.
+         *
+         * @param name        the real name.
+         * @param ordinal     position of the real name in the iteration order.
+         * @param alternative position of the alias in the aliases of the real name.
+         */
+        private Match(String name, int ordinal, int alternative) {
+            this.name = name;
+            this.ordinal = ordinal;
+            this.alternative = alternative;
+        }
+    }
+}
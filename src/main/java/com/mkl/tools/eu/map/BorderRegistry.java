@@ -0,0 +1,59 @@
+package com.mkl.tools.eu.map;
+
+import com.mkl.tools.eu.vo.province.Border;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index of a list of borders by the pair of their provinces.
+ * <p>
+ * The borders are hashed by the names of their two provinces, as in {@link Border#equals(Object)}, so that finding the
+ * border between two provinces does not scan the list. The borders added through the registry are appended to the
+ * list, which keeps its order. The list must not be modified directly while the registry is in use.
+ * </p>
+ *
+ * @author MKL
+ */
+public class BorderRegistry {
+    /** The borders. */
+    private final List<Border> borders;
+    /** Borders by themselves, equal borders being between the same provinces. */
+    private final Map<Border, Border> bordersByKey = new HashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param borders the existing borders, where the new ones will be added.
+     */
+    public BorderRegistry(List<Border> borders) {
+        this.borders = borders;
+        for (Border border : borders) {
+            // As indexOf, the first of two equal borders is the one found.
+            bordersByKey.putIfAbsent(border, border);
+        }
+    }
+
+    /**
+     * @param border a border.
+     * @return the existing border between the same provinces, <code>null</code> if there is none.
+     */
+    public Border find(Border border) {
+        return bordersByKey.get(border);
+    }
+
+    /**
+     * Adds a border if there is no border between the same provinces yet.
+     *
+     * @param border the border.
+     * @return <code>true</code> if the border was added.
+     */
+    public boolean add(Border border) {
+        if (bordersByKey.putIfAbsent(border, border) != null) {
+            return false;
+        }
+        borders.add(border);
+        return true;
+    }
+}
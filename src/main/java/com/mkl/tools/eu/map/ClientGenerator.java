@@ -1,17 +1,29 @@
 package com.mkl.tools.eu.map;
 
+import com.mkl.tools.eu.util.DecimalFormatter;
+import com.mkl.tools.eu.util.FileChannelWriter;
+import com.mkl.tools.eu.util.LineSimplifier;
+import com.mkl.tools.eu.util.StageExecutor;
 import com.mkl.tools.eu.util.ToolsUtil;
+import com.mkl.tools.eu.util.Triangulator;
 import com.mkl.tools.eu.vo.province.*;
-import com.thoughtworks.xstream.XStream;
-import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.tuple.Pair;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.Writer;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Utility class that gather all injection data for client.
@@ -19,17 +31,56 @@ import java.util.Map;
  * @author MKL.
  */
 public class ClientGenerator {
+    /**
+     * Number of decimals of the coordinates of the geo.json file, far below the unit of the input maps (0.0015).
+     * The geometries kept by the restructure cache are written with it.
+     */
+    static final int GEO_JSON_DECIMALS = 5;
+    /**
+     * Tolerances of the simplification of the paths for each level of detail, in map coordinates.
+     * The whole map is about 13 wide: the last level is about a pixel when it is drawn on 1500 pixels.
+     */
+    private static final double[] LOD_TOLERANCES = {0.002, 0.008};
+    /** Ratio between the tolerance of a level of detail and the lowest tolerance tried to keep the area of a ring. */
+    private static final double MAX_REFINEMENT = 64;
+    /** Path of the geo.json file of a level of detail, given the level (1, 2,...). */
+    private static final String LOD_GEO_JSON_FILE = "src/main/resources/output/countries.lod%d.geo.json";
+    /** Path of the binary file of the geometry. */
+    private static final String BINARY_FILE = "src/main/resources/output/countries.geo.bin";
+    /** First bytes of the binary file of the geometry. */
+    private static final String BINARY_MAGIC = "EUGB";
+    /** Version of the format of the binary file of the geometry. */
+    private static final int BINARY_VERSION = 2;
+    /** Size of the header of the binary file of the geometry, in 4 bytes words. */
+    private static final int BINARY_HEADER_SIZE = 8;
+    /** Path of the topo.json file. */
+    private static final String TOPO_JSON_FILE = "src/main/resources/output/countries.topo.json";
+    /** Path of the borders file. */
+    private static final String BORDERS_FILE = "src/main/resources/output/borders.xml";
+    /** Path of the binary file of the adjacency of the provinces. */
+    private static final String ADJACENCY_FILE = "src/main/resources/output/borders.adj.bin";
+    /** First bytes of the binary file of the adjacency. */
+    private static final String ADJACENCY_MAGIC = "EUAJ";
+    /** Version of the format of the binary file of the adjacency. */
+    private static final int ADJACENCY_VERSION = 1;
+    /** Size of the header of the binary file of the adjacency, in 4 bytes words. */
+    private static final int ADJACENCY_HEADER_SIZE = 6;
+    /** Indentation of the borders file, as written by XStream. */
+    private static final String XML_INDENT = "  ";
 
     /**
      * Create the geo.json file used by the application.
      *
-     * @param provinces data gathered by the input.
-     * @param log       log writer.
+     * @param provinces   data gathered by the input.
+     * @param coordinates map coordinates of the provinces.
+     * @param cache       cache of the restructuration holding the geometries of the provinces that did not change.
+     * @param log         log writer.
      * @throws Exception exception.
      */
 
-    public static void createMapData(Map<String, Province> provinces, Writer log) throws Exception {
-        Writer writer = ToolsUtil.createFileWriter("src/main/resources/output/countries.geo.json", false);
+    public static void createMapData(Map<String, Province> provinces, MapCoordinates coordinates, RestructureCache cache, Writer log) throws Exception {
+        GeoJsonWriter writer = new GeoJsonWriter("src/main/resources/output/countries.geo.json", GEO_JSON_DECIMALS);
+        DecimalFormatter formatter = writer.getFormatter();
         writer.append("{\"type\":\"FeatureCollection\",\"features\":[\n");
         boolean first = true;
 
@@ -40,171 +91,582 @@ public class ClientGenerator {
             } else {
                 first = false;
             }
-            writer.append("    {\"type\":\"Feature\",\"properties\":{\"terrain\":\"").append(province.getTerrain())
-                    .append("\"");
+            if (province.getCoords().isEmpty()) {
+                log.append(province.getName()).append("\t").append("No border.").append("\n");
+            }
 
-            if (!province.getPortions().get(0).isRotw()) {
-                writer.append(",\"rotw\":\"false\"");
-            } else {
-                writer.append(",\"rotw\":\"true\"");
-            }
-
-            if (province.getInfo() != null) {
-                writer
-                        .append(",\"income\":\"").append(Integer.toString(province.getInfo().getIncome())).append("\"")
-                        .append(",\"owner\":\"").append(province.getInfo().getDefaultOwner()).append("\"")
-                        .append(",\"fortress\":\"").append(Integer.toString(province.getInfo().getFortress())).append("\"")
-                        .append(",\"capital\":\"").append(Boolean.toString(province.getInfo().isCapital())).append("\"")
-                        .append(",\"port\":\"").append(Boolean.toString(province.getInfo().isPort())).append("\"")
-                        .append(",\"arsenal\":\"").append(Boolean.toString(province.getInfo().isArsenal())).append("\"")
-                        .append(",\"praesidiable\":\"").append(Boolean.toString(province.getInfo().isPraesidiable())).append("\"")
-                        .append(",\"metadata\":\"").append(String.join(";;", province.getInfo().getMetadata(province.getName()))).append("\"");
-
-                if (province.getInfo().getX() != null) {
-                    double coordinate = getXMapCoordinate(province.getInfo().getX(), province.getPortions().get(0).isRotw());
-                    writer.append(",\"xFortress\":\"").append(Double.toString(coordinate)).append("\"");
+            String geometry = cache.getGeometry(province);
+            if (geometry == null) {
+                StringBuilder geometryBuilder = new StringBuilder();
+                writeGeometry(province, coordinates, geometryBuilder, formatter, null);
+                geometry = geometryBuilder.toString();
+                cache.putGeometry(province, geometry);
+            }
+            writeFeature(province, geometry, writer);
+        }
+
+        writer.append("\n]}");
+
+        writer.flush();
+        writer.close();
+    }
+
+    /**
+     * Create the geo.json files of the levels of detail, one by tolerance of {@link #LOD_TOLERANCES}.
+     * <p>
+     * The paths are simplified one by one, and not the polygons, so that a path shared by two provinces is simplified
+     * the same way on both sides and the provinces still join. The rings which would lose their area keep more points
+     * of their paths, before any province is written.
+     * </p>
+     *
+     * @param provinces   data gathered by the input.
+     * @param coordinates map coordinates of the provinces.
+     * @throws Exception exception.
+     */
+    public static void createMapLevels(Map<String, Province> provinces, MapCoordinates coordinates) throws Exception {
+        for (int level = 1; level <= LOD_TOLERANCES.length; level++) {
+            LevelOfDetail lod = new LevelOfDetail(LOD_TOLERANCES[level - 1], coordinates);
+            for (Province province : provinces.values()) {
+                for (int index = 0; index < province.getCoords().size(); index++) {
+                    lod.keepArea(province.getCoords().get(index), province.getPortions().get(index));
                 }
-                if (province.getInfo().getY() != null) {
-                    double coordinate = getYMapCoordinate(province.getInfo().getY(), province.getPortions().get(0).isRotw());
-                    writer.append(",\"yFortress\":\"").append(Double.toString(coordinate)).append("\"");
+            }
+            GeoJsonWriter writer = new GeoJsonWriter(String.format(LOD_GEO_JSON_FILE, level), GEO_JSON_DECIMALS);
+            writer.append("{\"type\":\"FeatureCollection\",\"features\":[\n");
+            StringBuilder builder = new StringBuilder();
+            boolean first = true;
+
+            for (String prov : provinces.keySet()) {
+                Province province = provinces.get(prov);
+                if (!first) {
+                    writer.append(",\n");
+                } else {
+                    first = false;
                 }
-                if (province.getInfo().getXPort() != null) {
-                    double coordinate = getXMapCoordinate(province.getInfo().getXPort(), province.getPortions().get(0).isRotw());
-                    writer.append(",\"xPort\":\"").append(Double.toString(coordinate)).append("\"");
+                builder.setLength(0);
+                writeGeometry(province, coordinates, builder, writer.getFormatter(), lod);
+                writeFeature(province, builder, writer);
+            }
+
+            writer.append("\n]}");
+
+            writer.flush();
+            writer.close();
+        }
+    }
+
+    /**
+     * Create the binary file of the geometry of the provinces, to be read as typed arrays by the client.
+     * <p>
+     * All the numbers are little endian and each part starts on a multiple of 4 bytes:
+     * </p>
+     * <ul>
+     * <li>header: the magic "EUGB", then version, number of provinces, number of polygons, number of rings, number of
+     * vertices, number of triangle indexes and size of the ids in bytes (uint32).</li>
+     * <li>province-id table: offset of the id of each province in the ids, plus the size of the ids (uint32).</li>
+     * <li>province offsets: index of the first polygon of each province, plus the number of polygons (uint32).</li>
+     * <li>polygon offsets: index of the first ring of each polygon, plus the number of rings (uint32).</li>
+     * <li>ring offsets: index of the first vertex of each ring, plus the number of vertices (uint32).</li>
+     * <li>vertices: x and y in map coordinates of each vertex (float32).</li>
+     * <li>triangle offsets: index of the first triangle index of each polygon, plus the number of indexes (uint32).</li>
+     * <li>triangle indexes: indexes in the vertices of the points of the triangles of the polygons, three by triangle,
+     * the enclaves being holes (uint32).</li>
+     * <li>ids: names of the provinces in UTF-8, padded to a multiple of 4 bytes.</li>
+     * </ul>
+     * <p>
+     * The provinces are in the same order as in the geo.json file, which holds their properties.
+     * The polygons are triangulated in parallel.
+     * </p>
+     *
+     * @param provinces   data gathered by the input.
+     * @param coordinates map coordinates of the provinces.
+     * @param log         log writer.
+     * @throws Exception exception.
+     */
+    public static void createBinaryData(Map<String, Province> provinces, MapCoordinates coordinates, Writer log) throws Exception {
+        List<Province> list = new ArrayList<>(provinces.values());
+        Map<String, List<int[]>> triangles = new ConcurrentHashMap<>();
+        StageExecutor.forEach(list, (province, provinceLog) -> {
+            List<int[]> polygonTriangles = new ArrayList<>();
+            for (Polygon polygon : province.getCoords()) {
+                polygonTriangles.add(triangulate(polygon, coordinates.getCoords(polygon)));
+            }
+            triangles.put(province.getName(), polygonTriangles);
+        }, log);
+
+        byte[][] ids = new byte[list.size()][];
+        int idsSize = 0;
+        int nbPolygons = 0;
+        int nbRings = 0;
+        int nbVertices = 0;
+        int nbIndexes = 0;
+        for (int i = 0; i < list.size(); i++) {
+            ids[i] = list.get(i).getName().getBytes(StandardCharsets.UTF_8);
+            idsSize += ids[i].length;
+            for (Polygon polygon : list.get(i).getCoords()) {
+                nbPolygons++;
+                nbRings += polygon.getNbRings();
+                nbVertices += polygon.getNbCoords();
+            }
+            for (int[] polygonTriangles : triangles.get(list.get(i).getName())) {
+                nbIndexes += polygonTriangles.length;
+            }
+        }
+
+        int size = 4 * (BINARY_HEADER_SIZE + list.size() + 1 + list.size() + 1 + nbPolygons + 1 + nbRings + 1 + 2 * nbVertices
+                + nbPolygons + 1 + nbIndexes) + (idsSize + 3) / 4 * 4;
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(BINARY_MAGIC.getBytes(StandardCharsets.US_ASCII)).putInt(BINARY_VERSION)
+                .putInt(list.size()).putInt(nbPolygons).putInt(nbRings).putInt(nbVertices).putInt(nbIndexes).putInt(idsSize);
+        int offset = 0;
+        for (byte[] id : ids) {
+            buffer.putInt(offset);
+            offset += id.length;
+        }
+        buffer.putInt(offset);
+        offset = 0;
+        for (Province province : list) {
+            buffer.putInt(offset);
+            offset += province.getCoords().size();
+        }
+        buffer.putInt(offset);
+        offset = 0;
+        for (Province province : list) {
+            for (Polygon polygon : province.getCoords()) {
+                buffer.putInt(offset);
+                offset += polygon.getNbRings();
+            }
+        }
+        buffer.putInt(offset);
+        offset = 0;
+        for (Province province : list) {
+            for (Polygon polygon : province.getCoords()) {
+                for (int ring = 0; ring < polygon.getNbRings(); ring++) {
+                    buffer.putInt(offset);
+                    offset += polygon.getRingSize(ring);
                 }
-                if (province.getInfo().getYPort() != null) {
-                    double coordinate = getYMapCoordinate(province.getInfo().getYPort(), province.getPortions().get(0).isRotw());
-                    writer.append(",\"yPort\":\"").append(Double.toString(coordinate)).append("\"");
+            }
+        }
+        buffer.putInt(offset);
+        for (Province province : list) {
+            for (Polygon polygon : province.getCoords()) {
+                for (double coordinate : coordinates.getCoords(polygon)) {
+                    buffer.putFloat((float) coordinate);
                 }
-            } else if (province.getRotwInfo() != null) {
-                writer.append(",\"region\":\"").append(province.getRotwInfo().getRegion()).append("\"");
-                if (province.getRotwInfo().getFortress() != null) {
-                    writer.append(",\"fortress\":\"").append(Integer.toString(province.getRotwInfo().getFortress())).append("\"")
-                            .append(",\"metadata\":\"").append(String.join(";;", province.getRotwInfo().getMetadata())).append("\"");
+            }
+        }
+        offset = 0;
+        for (Province province : list) {
+            for (int[] polygonTriangles : triangles.get(province.getName())) {
+                buffer.putInt(offset);
+                offset += polygonTriangles.length;
+            }
+        }
+        buffer.putInt(offset);
+        // The indexes of the triangles are relative to the polygon, they are shifted to its first vertex.
+        offset = 0;
+        for (Province province : list) {
+            List<int[]> polygonTriangles = triangles.get(province.getName());
+            for (int j = 0; j < polygonTriangles.size(); j++) {
+                for (int index : polygonTriangles.get(j)) {
+                    buffer.putInt(offset + index);
                 }
-            } else if (province.getSeaInfo() != null) {
-                writer
-                        .append(",\"difficulty\":\"").append(Integer.toString(province.getSeaInfo().getDifficulty())).append("\"")
-                        .append(",\"penalty\":\"").append(Integer.toString(province.getSeaInfo().getPenalty())).append("\"");
-            } else if (province.getTradeInfo() != null) {
-                writer
-                        .append(",\"type\":\"").append(province.getTradeInfo().getType()).append("\"")
-                        .append(",\"country\":\"").append(province.getTradeInfo().getCountryName()).append("\"")
-                        .append(",\"monopoly\":\"").append(Integer.toString(province.getTradeInfo().getMonopoly())).append("\"")
-                        .append(",\"presence\":\"").append(Integer.toString(province.getTradeInfo().getPresence())).append("\"");
-            }
-
-            writer.append("},\"geometry\":{\"type\":\"");
-            if (province.getCoords().size() == 1) {
-                writer.append("Polygon");
-            } else if (province.getCoords().size() > 1) {
-                writer.append("MultiPolygon");
-            } else {
-                log.append(province.getName()).append("\t").append("No border.").append("\n");
+                offset += province.getCoords().get(j).getNbCoords();
             }
-            writer.append("\",\"coordinates\":[");
+        }
+        for (byte[] id : ids) {
+            buffer.put(id);
+        }
+        // Through Buffer, as the covariant overrides of ByteBuffer do not exist before Java 9.
+        ((Buffer) buffer).flip();
+        ((Buffer) buffer).limit(size);
 
-            if (province.getCoords().size() == 1) {
-                writePolygone(province.getCoords().get(0), writer);
-            } else {
-                boolean firstPolygon = true;
-                for (Pair<List<List<Pair<Double, Double>>>, Boolean> polygon : province.getCoords()) {
-                    if (!firstPolygon) {
-                        writer.append(", ");
-                    } else {
-                        firstPolygon = false;
-                    }
-                    writer.append("[");
+        writeBinaryFile(buffer, BINARY_FILE);
+    }
 
-                    writePolygone(polygon, writer);
+    /**
+     * Write a binary file, creating its directory if needed.
+     *
+     * @param buffer   content of the file, between its position and its limit.
+     * @param fileName path of the file.
+     * @throws IOException exception.
+     */
+    private static void writeBinaryFile(ByteBuffer buffer, String fileName) throws IOException {
+        File file = new File(fileName);
+        if (file.getParentFile() != null && !file.getParentFile().exists() && !file.getParentFile().mkdirs()) {
+            throw new IOException("Can't create directory of " + fileName);
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
 
-                    writer.append("]");
+    /**
+     * Triangulates a polygon in map coordinates, the first ring being the outer border and the next ones its enclaves.
+     * The rings with less than 3 points are ignored.
+     *
+     * @param polygon   the polygon.
+     * @param mapCoords map coordinates of the polygon.
+     * @return the indexes in the polygon of the points of the triangles, three by triangle.
+     */
+    private static int[] triangulate(Polygon polygon, double[] mapCoords) {
+        double[] coords = new double[2 * polygon.getNbCoords()];
+        int[] indexes = new int[polygon.getNbCoords()];
+        int[] holeStarts = new int[polygon.getNbRings()];
+        int nbHoles = 0;
+        int nbPoints = 0;
+        for (int ring = 0; ring < polygon.getNbRings(); ring++) {
+            if (polygon.getRingSize(ring) < 3) {
+                continue;
+            }
+            if (nbPoints > 0) {
+                holeStarts[nbHoles++] = nbPoints;
+            }
+            for (int i = polygon.getRingStart(ring); i < polygon.getRingEnd(ring); i++) {
+                coords[2 * nbPoints] = mapCoords[2 * i];
+                coords[2 * nbPoints + 1] = mapCoords[2 * i + 1];
+                indexes[nbPoints++] = i;
+            }
+        }
+
+        int[] triangles = Triangulator.triangulate(Arrays.copyOf(coords, 2 * nbPoints), Arrays.copyOf(holeStarts, nbHoles));
+        for (int i = 0; i < triangles.length; i++) {
+            triangles[i] = indexes[triangles[i]];
+        }
+        return triangles;
+    }
+
+    /**
+     * Create the topo.json file holding the same features as the geo.json file.
+     * <p>
+     * Each path is written once as an arc, shared by the provinces on both sides of it, and the rings of the
+     * provinces refer to the arcs by index (~index when the path is reversed). The coordinates are quantized on the
+     * precision of the geo.json file and delta-encoded. When two consecutive paths of a ring do not join, a small arc
+     * links them so that the rings give the same points as the geo.json file.
+     * </p>
+     *
+     * @param provinces   data gathered by the input.
+     * @param coordinates map coordinates of the provinces.
+     * @throws Exception exception.
+     */
+    public static void createTopoData(Map<String, Province> provinces, MapCoordinates coordinates) throws Exception {
+        long factor = Math.round(Math.pow(10, GEO_JSON_DECIMALS));
+        // The translation is the lowest point of the map, rounded down on the precision of the coordinates.
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        for (Province province : provinces.values()) {
+            for (Polygon polygon : province.getCoords()) {
+                double[] mapCoords = coordinates.getCoords(polygon);
+                for (int i = 0; i < mapCoords.length; i += 2) {
+                    minX = Math.min(minX, mapCoords[i]);
+                    minY = Math.min(minY, mapCoords[i + 1]);
                 }
             }
+        }
+        if (minX == Double.POSITIVE_INFINITY) {
+            minX = 0;
+            minY = 0;
+        }
+        TopoArcs arcs = new TopoArcs(Math.floor(minX * factor) / factor, Math.floor(minY * factor) / factor, factor, coordinates);
+
+        GeoJsonWriter writer = new GeoJsonWriter(TOPO_JSON_FILE, GEO_JSON_DECIMALS);
+        writer.append("{\"type\":\"Topology\",\"transform\":{\"scale\":[").appendNumber(1d / factor).append(',').appendNumber(1d / factor)
+                .append("],\"translate\":[").appendNumber(arcs.translateX).append(',').appendNumber(arcs.translateY)
+                .append("]},\"objects\":{\"countries\":{\"type\":\"GeometryCollection\",\"geometries\":[\n");
+        StringBuilder builder = new StringBuilder();
+        boolean first = true;
+
+        for (String prov : provinces.keySet()) {
+            Province province = provinces.get(prov);
+            if (!first) {
+                writer.append(",\n");
+            } else {
+                first = false;
+            }
+            writer.append("    {\"type\":");
+            if (province.getCoords().isEmpty()) {
+                writer.append("null");
+            } else if (province.getCoords().size() == 1) {
+                writer.append("\"Polygon\"");
+            } else {
+                writer.append("\"MultiPolygon\"");
+            }
+            writer.append(",\"id\":\"").append(province.getName()).append("\",\"properties\":{");
+            writeProperties(province, writer);
+            writer.append('}');
 
-            writer.append("]},\"id\":\"").append(province.getName()).append("\"}");
+            if (!province.getCoords().isEmpty()) {
+                builder.setLength(0);
+                writeTopoGeometry(province, arcs, builder);
+                writer.append(",\"arcs\":").append(builder);
+            }
+            writer.append('}');
         }
 
-        writer.append("\n]}");
+        writer.append("\n]}},\"arcs\":[");
+        arcs.write(writer);
+        writer.append("]}");
 
         writer.flush();
         writer.close();
     }
 
+    /**
+     * Write the arcs of the geometry of a province in a topo.json format.
+     *
+     * @param province the province.
+     * @param arcs     arcs of the topology.
+     * @param builder  where to write the arcs.
+     */
+    private static void writeTopoGeometry(Province province, TopoArcs arcs, StringBuilder builder) {
+        List<Polygon> polygons = province.getCoords();
+        if (polygons.size() == 1) {
+            writeTopoPolygon(polygons.get(0), province.getPortions().get(0), arcs, builder);
+        } else {
+            builder.append('[');
+            for (int i = 0; i < polygons.size(); i++) {
+                if (i > 0) {
+                    builder.append(',');
+                }
+                writeTopoPolygon(polygons.get(i), province.getPortions().get(i), arcs, builder);
+            }
+            builder.append(']');
+        }
+    }
+
+    /**
+     * Write the arcs of the rings of a polygon in a topo.json format.
+     *
+     * @param polygon the polygon.
+     * @param portion the portion of province of the polygon, holding its paths.
+     * @param arcs    arcs of the topology.
+     * @param builder where to write the arcs.
+     */
+    private static void writeTopoPolygon(Polygon polygon, SubProvince portion, TopoArcs arcs, StringBuilder builder) {
+        builder.append('[');
+        int path = 0;
+        for (int ring = 0; ring < polygon.getNbRings(); ring++) {
+            if (ring > 0) {
+                builder.append(',');
+            }
+            builder.append('[');
+            boolean firstArc = true;
+            int lastX = 0;
+            int lastY = 0;
+            while (path < polygon.getNbPaths() && polygon.getPathStart(path) < polygon.getRingEnd(ring)) {
+                DirectedPath directedPath = portion.getPaths().get(polygon.getPathIndex(path));
+                int arc = arcs.getArc(directedPath.getPath(), polygon.isRotw());
+                int[] points = arcs.getPoints(arc);
+                int firstPoint = directedPath.isInverse() ? points.length - 2 : 0;
+                int lastPoint = directedPath.isInverse() ? 0 : points.length - 2;
+                if (!firstArc) {
+                    builder.append(',');
+                    if (points[firstPoint] != lastX || points[firstPoint + 1] != lastY) {
+                        builder.append(arcs.addLink(lastX, lastY, points[firstPoint], points[firstPoint + 1])).append(',');
+                    }
+                } else {
+                    firstArc = false;
+                }
+                builder.append(directedPath.isInverse() ? ~arc : arc);
+                lastX = points[lastPoint];
+                lastY = points[lastPoint + 1];
+                path++;
+            }
+            builder.append(']');
+        }
+        builder.append(']');
+    }
+
+    /**
+     * Write a province as a feature of a geo.json file.
+     *
+     * @param province the province.
+     * @param geometry type and coordinates of its geometry.
+     * @param writer   where to write the feature.
+     * @throws IOException exception.
+     */
+    private static void writeFeature(Province province, CharSequence geometry, GeoJsonWriter writer) throws IOException {
+        writer.append("    {\"type\":\"Feature\",\"properties\":{");
+        writeProperties(province, writer);
+        writer.append("},\"geometry\":{\"type\":\"").append(geometry);
+        writer.append("]},\"id\":\"").append(province.getName()).append("\"}");
+    }
+
+    /**
+     * Write the properties of a province in a geo.json format, without the braces.
+     *
+     * @param province the province.
+     * @param writer   where to write the properties.
+     * @throws IOException exception.
+     */
+    private static void writeProperties(Province province, GeoJsonWriter writer) throws IOException {
+        writer.append("\"terrain\":\"").append(String.valueOf(province.getTerrainName())).append("\"");
+
+        if (!province.getPortions().get(0).isRotw()) {
+            writer.append(",\"rotw\":\"false\"");
+        } else {
+            writer.append(",\"rotw\":\"true\"");
+        }
+
+        if (province.getInfo() != null) {
+            writer
+                    .append(",\"income\":\"").append(Integer.toString(province.getInfo().getIncome())).append("\"")
+                    .append(",\"owner\":\"").append(province.getInfo().getDefaultOwner()).append("\"")
+                    .append(",\"fortress\":\"").append(Integer.toString(province.getInfo().getFortress())).append("\"")
+                    .append(",\"capital\":\"").append(Boolean.toString(province.getInfo().isCapital())).append("\"")
+                    .append(",\"port\":\"").append(Boolean.toString(province.getInfo().isPort())).append("\"")
+                    .append(",\"arsenal\":\"").append(Boolean.toString(province.getInfo().isArsenal())).append("\"")
+                    .append(",\"praesidiable\":\"").append(Boolean.toString(province.getInfo().isPraesidiable())).append("\"")
+                    .append(",\"metadata\":\"").append(String.join(";;", province.getInfo().getMetadata(province.getName()))).append("\"");
+
+            if (province.getInfo().getX() != null) {
+                double coordinate = MapCoordinates.getX(province.getInfo().getX(), province.getPortions().get(0).isRotw());
+                writer.append(",\"xFortress\":\"").appendNumber(coordinate).append("\"");
+            }
+            if (province.getInfo().getY() != null) {
+                double coordinate = MapCoordinates.getY(province.getInfo().getY(), province.getPortions().get(0).isRotw());
+                writer.append(",\"yFortress\":\"").appendNumber(coordinate).append("\"");
+            }
+            if (province.getInfo().getXPort() != null) {
+                double coordinate = MapCoordinates.getX(province.getInfo().getXPort(), province.getPortions().get(0).isRotw());
+                writer.append(",\"xPort\":\"").appendNumber(coordinate).append("\"");
+            }
+            if (province.getInfo().getYPort() != null) {
+                double coordinate = MapCoordinates.getY(province.getInfo().getYPort(), province.getPortions().get(0).isRotw());
+                writer.append(",\"yPort\":\"").appendNumber(coordinate).append("\"");
+            }
+        } else if (province.getRotwInfo() != null) {
+            writer.append(",\"region\":\"").append(province.getRotwInfo().getRegion()).append("\"");
+            if (province.getRotwInfo().getFortress() != null) {
+                writer.append(",\"fortress\":\"").append(Integer.toString(province.getRotwInfo().getFortress())).append("\"")
+                        .append(",\"metadata\":\"").append(String.join(";;", province.getRotwInfo().getMetadata())).append("\"");
+            }
+        } else if (province.getSeaInfo() != null) {
+            writer
+                    .append(",\"difficulty\":\"").append(Integer.toString(province.getSeaInfo().getDifficulty())).append("\"")
+                    .append(",\"penalty\":\"").append(Integer.toString(province.getSeaInfo().getPenalty())).append("\"");
+        } else if (province.getTradeInfo() != null) {
+            writer
+                    .append(",\"type\":\"").append(province.getTradeInfo().getType()).append("\"")
+                    .append(",\"country\":\"").append(province.getTradeInfo().getCountryName()).append("\"")
+                    .append(",\"monopoly\":\"").append(Integer.toString(province.getTradeInfo().getMonopoly())).append("\"")
+                    .append(",\"presence\":\"").append(Integer.toString(province.getTradeInfo().getPresence())).append("\"");
+        }
+    }
+
+    /**
+     * Write the type and the coordinates of the geometry of a province in a geo.json format.
+     *
+     * @param province    the province.
+     * @param coordinates map coordinates of the provinces.
+     * @param builder     where to write the geometry.
+     * @param formatter   formatter of the coordinates.
+     * @param lod         level of detail, <code>null</code> for the full resolution.
+     */
+    private static void writeGeometry(Province province, MapCoordinates coordinates, StringBuilder builder, DecimalFormatter formatter, LevelOfDetail lod) {
+        if (province.getCoords().size() == 1) {
+            builder.append("Polygon");
+        } else if (province.getCoords().size() > 1) {
+            builder.append("MultiPolygon");
+        }
+        builder.append("\",\"coordinates\":[");
+
+        if (province.getCoords().size() == 1) {
+            writePolygone(province.getCoords().get(0), province.getPortions().get(0), coordinates, builder, formatter, lod);
+        } else {
+            boolean firstPolygon = true;
+            for (int index = 0; index < province.getCoords().size(); index++) {
+                if (!firstPolygon) {
+                    builder.append(',');
+                } else {
+                    firstPolygon = false;
+                }
+                builder.append('[');
+
+                writePolygone(province.getCoords().get(index), province.getPortions().get(index), coordinates, builder, formatter, lod);
+
+                builder.append(']');
+            }
+        }
+    }
+
     /**
      * Write a polygon in a geo.json format.
      *
-     * @param polygons List of coordinates of the polygons.
-     * @param writer   File Writer.
-     * @throws Exception exception.
+     * @param polygons    List of coordinates of the polygons.
+     * @param portion     portion of province of the polygon, holding its paths.
+     * @param coordinates map coordinates of the provinces.
+     * @param builder     where to write the polygon.
+     * @param formatter   formatter of the coordinates.
+     * @param lod         level of detail, <code>null</code> for the full resolution.
      */
-    private static void writePolygone(Pair<List<List<Pair<Double, Double>>>, Boolean> polygons, Writer writer) throws Exception {
+    private static void writePolygone(Polygon polygons, SubProvince portion, MapCoordinates coordinates, StringBuilder builder, DecimalFormatter formatter, LevelOfDetail lod) {
+        double[] mapCoords = coordinates.getCoords(polygons);
         boolean firstPolygon = true;
-        for (List<Pair<Double, Double>> polygon : polygons.getLeft()) {
+        int path = 0;
+        for (int ring = 0; ring < polygons.getNbRings(); ring++) {
             if (!firstPolygon) {
-                writer.append(", ");
+                builder.append(',');
             } else {
                 firstPolygon = false;
             }
-            writer.append("[");
+            builder.append('[');
 
 
             boolean firstCoord = true;
-            for (Pair<Double, Double> coord : polygon) {
-                if (!firstCoord) {
-                    writer.append(", ");
-                } else {
+            if (lod == null) {
+                for (int i = polygons.getRingStart(ring); i < polygons.getRingEnd(ring); i++) {
+                    writeCoords(mapCoords, i, !firstCoord, builder, formatter);
                     firstCoord = false;
                 }
-                double x = getXMapCoordinate(coord.getLeft(), polygons.getRight());
-                double y = getYMapCoordinate(coord.getRight(), polygons.getRight());
-                writer.append("[").append(Double.toString(x)).append(", ").append(Double.toString(y)).append("]");
+            } else {
+                int[] points = new int[polygons.getRingSize(ring)];
+                int nbPoints = lod.getRingPoints(polygons, portion, ring, path, points);
+                for (int k = 0; k < nbPoints; k++) {
+                    writeCoords(mapCoords, points[k], !firstCoord, builder, formatter);
+                    firstCoord = false;
+                }
+                path = getNextRingPath(polygons, ring, path);
             }
 
-            writer.append("]");
+            builder.append(']');
         }
     }
 
     /**
-     * Transform a client x coordinate to a map x coordinate.
-     *
-     * @param xCoordinate client x coordinate.
-     * @param rotw        flag saying that the coordinate is in the rotw map.
-     * @return the map x coordinate.
+     * @param polygons the polygon.
+     * @param ring     index of a ring.
+     * @param path     index of the first path of the ring.
+     * @return the index of the first path of the next ring.
      */
-    private static double getXMapCoordinate(double xCoordinate, boolean rotw) {
-        double x;
-        if (rotw) {
-            x = 4.659 + xCoordinate * 12.484 / 8183;
-        } else {
-            x = 4.658 + xCoordinate * 12.859 / 8425;
+    private static int getNextRingPath(Polygon polygons, int ring, int path) {
+        int next = path;
+        while (next < polygons.getNbPaths() && polygons.getPathStart(next) < polygons.getRingEnd(ring)) {
+            next++;
         }
-
-        return x;
+        return next;
     }
 
     /**
-     * Transform a client y coordinate to a map y coordinate.
+     * Write a point of a polygon in a geo.json format.
      *
-     * @param yCoordinate client y coordinate.
-     * @param rotw        flag saying that the coordinate is in the rotw map.
-     * @return the map y coordinate.
+     * @param mapCoords map coordinates of the polygon.
+     * @param index     index of the point.
+     * @param separator flag saying that the point follows another one.
+     * @param builder   where to write the point.
+     * @param formatter formatter of the coordinates.
      */
-    private static double getYMapCoordinate(double yCoordinate, boolean rotw) {
-        double y;
-        /*
-            The map is linear on the X axis but not on the Y axis.
-            I have no idea of the real function on the Y axis.
-         */
-        if (rotw) {
-            double factor = 0.001499 - 0.00000519 * (yCoordinate / 1000);
-            y = 11.409 + yCoordinate * factor;
-        } else {
-            double factor = 0.001525 - 0.00000179 * (yCoordinate / 1000);
-            y = 2.109 + yCoordinate * factor;
+    private static void writeCoords(double[] mapCoords, int index, boolean separator, StringBuilder builder, DecimalFormatter formatter) {
+        if (separator) {
+            builder.append(',');
         }
-
-        return y;
+        builder.append('[');
+        formatter.append(builder, mapCoords[2 * index]);
+        builder.append(',');
+        formatter.append(builder, mapCoords[2 * index + 1]);
+        builder.append(']');
     }
 
     /**
@@ -216,7 +678,7 @@ public class ClientGenerator {
      * @param log            log writer.
      * @throws Exception exception.
      */
-    public static void createBorderData(List<Border> borders, Map<String, Province> provinces, Map<String, List<Path>> specialBorders, Writer log) throws Exception {
+    public static void createBorderData(List<Border> borders, Map<String, Province> provinces, Map<Border.BorderType, List<Path>> specialBorders, Writer log) throws Exception {
         Map<Path, List<Province>> provincesByPath = new HashMap<>();
         for (Province province : provinces.values()) {
             for (SubProvince subProvince : province.getPortions()) {
@@ -235,11 +697,189 @@ public class ClientGenerator {
 
         createBorders(borders, provincesByPath, specialBorders, log);
 
-        XStream xstream = new XStream();
-        xstream.processAnnotations(Border.class);
+        FileChannelWriter borderWriter = ToolsUtil.createFileWriter(BORDERS_FILE, false);
+        try {
+            writeBorders(borders, borderWriter);
+        } catch (IOException | RuntimeException e) {
+            borderWriter.abort();
+            throw e;
+        }
+        borderWriter.close();
+    }
+
+    /**
+     * Write the borders in the xml format that XStream used for a list of borders: two spaces indentation,
+     * no declaration, no final line break and no element for a border without type.
+     *
+     * @param borders the borders.
+     * @param writer  the writer.
+     * @throws IOException exception.
+     */
+    private static void writeBorders(List<Border> borders, Writer writer) throws IOException {
+        if (borders.isEmpty()) {
+            writer.write("<list/>");
+            return;
+        }
+
+        writer.write("<list>");
+        for (Border border : borders) {
+            writer.write('\n');
+            writer.write(XML_INDENT);
+            writer.write("<border>");
+            writeXmlElement("first", border.getFirst(), writer);
+            writeXmlElement("second", border.getSecond(), writer);
+            if (border.getType() != null) {
+                writeXmlElement("type", border.getType().name(), writer);
+            }
+            writer.write('\n');
+            writer.write(XML_INDENT);
+            writer.write("</border>");
+        }
+        writer.write("\n</list>");
+    }
+
+    /**
+     * Write a text element of a border, on its own line.
+     *
+     * @param name   name of the element.
+     * @param text   text of the element.
+     * @param writer the writer.
+     * @throws IOException exception.
+     */
+    private static void writeXmlElement(String name, String text, Writer writer) throws IOException {
+        writer.write('\n');
+        writer.write(XML_INDENT);
+        writer.write(XML_INDENT);
+        writer.write('<');
+        writer.write(name);
+        writer.write('>');
+        // Same escaping as XStream.
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&':
+                    writer.write("&amp;");
+                    break;
+                case '<':
+                    writer.write("&lt;");
+                    break;
+                case '>':
+                    writer.write("&gt;");
+                    break;
+                case '"':
+                    writer.write("&quot;");
+                    break;
+                case '\'':
+                    writer.write("&apos;");
+                    break;
+                case '\r':
+                    writer.write("&#xd;");
+                    break;
+                case '\t':
+                case '\n':
+                    writer.write(c);
+                    break;
+                default:
+                    if (Character.isDefined(c) && !Character.isISOControl(c)) {
+                        writer.write(c);
+                    } else {
+                        writer.write("&#x" + Integer.toHexString(c) + ";");
+                    }
+            }
+        }
+        writer.write("</");
+        writer.write(name);
+        writer.write('>');
+    }
+
+    /**
+     * Create the binary file of the adjacency of the provinces, in compressed sparse rows, that the server can map
+     * in memory.
+     * <p>
+     * All the values are little endian 4 bytes integers, except the types and the names. The provinces are
+     * identified by their ids in the {@link ProvinceRegistry}.
+     * </p>
+     * <ul>
+     * <li>Header: the magic number "EUAJ", the version, the number of provinces, the number of neighbours (twice
+     * the number of borders), the number of types of border and the size in bytes of the names.</li>
+     * <li>Offsets of the neighbours of each province, plus the total: the neighbours of the province <code>i</code>
+     * are between <code>offsets[i]</code> and <code>offsets[i + 1]</code>.</li>
+     * <li>Ids of the neighbours, in ascending order for each province.</li>
+     * <li>Type of the border with each neighbour, one byte: 0 without type, else the ordinal of the
+     * {@link Border.BorderType} plus 1. Padded to 4 bytes.</li>
+     * <li>Offsets in the names of the names of the provinces then of the types, plus the total.</li>
+     * <li>Names in UTF-8, padded to 4 bytes.</li>
+     * </ul>
+     *
+     * @param borders     the borders.
+     * @param provinceIds ids of the provinces.
+     * @throws IOException exception.
+     */
+    public static void createAdjacencyData(List<Border> borders, ProvinceRegistry provinceIds) throws IOException {
+        Border.BorderType[] types = Border.BorderType.values();
+        int nbProvinces = provinceIds.size();
+        int nbNeighbours = 2 * borders.size();
+        int[] offsets = new int[nbProvinces + 1];
+        for (Border border : borders) {
+            offsets[provinceIds.getId(border.getFirst()) + 1]++;
+            offsets[provinceIds.getId(border.getSecond()) + 1]++;
+        }
+        for (int i = 0; i < nbProvinces; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        // Neighbour and type packed in a long so that the neighbours of a province can be sorted with their types.
+        long[] neighbours = new long[nbNeighbours];
+        int[] sizes = new int[nbProvinces];
+        for (Border border : borders) {
+            int first = provinceIds.getId(border.getFirst());
+            int second = provinceIds.getId(border.getSecond());
+            long type = border.getType() != null ? border.getType().ordinal() + 1 : 0;
+            neighbours[offsets[first] + sizes[first]++] = ((long) second << 8) | type;
+            neighbours[offsets[second] + sizes[second]++] = ((long) first << 8) | type;
+        }
+        for (int i = 0; i < nbProvinces; i++) {
+            Arrays.sort(neighbours, offsets[i], offsets[i + 1]);
+        }
+
+        List<byte[]> names = new ArrayList<>();
+        int namesSize = 0;
+        for (int i = 0; i < nbProvinces; i++) {
+            names.add(provinceIds.getName(i).getBytes(StandardCharsets.UTF_8));
+            namesSize += names.get(names.size() - 1).length;
+        }
+        for (Border.BorderType type : types) {
+            names.add(type.name().getBytes(StandardCharsets.UTF_8));
+            namesSize += names.get(names.size() - 1).length;
+        }
+
+        int size = 4 * (ADJACENCY_HEADER_SIZE + nbProvinces + 1 + nbNeighbours + names.size() + 1)
+                + (nbNeighbours + 3) / 4 * 4 + (namesSize + 3) / 4 * 4;
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(ADJACENCY_MAGIC.getBytes(StandardCharsets.US_ASCII)).putInt(ADJACENCY_VERSION)
+                .putInt(nbProvinces).putInt(nbNeighbours).putInt(types.length).putInt(namesSize);
+        for (int offset : offsets) {
+            buffer.putInt(offset);
+        }
+        for (long neighbour : neighbours) {
+            buffer.putInt((int) (neighbour >>> 8));
+        }
+        for (long neighbour : neighbours) {
+            buffer.put((byte) neighbour);
+        }
+        // Through Buffer, as the covariant overrides of ByteBuffer do not exist before Java 9.
+        ((Buffer) buffer).position(buffer.position() + (4 - nbNeighbours % 4) % 4);
+        int offset = 0;
+        for (byte[] name : names) {
+            buffer.putInt(offset);
+            offset += name.length;
+        }
+        buffer.putInt(offset);
+        for (byte[] name : names) {
+            buffer.put(name);
+        }
+        ((Buffer) buffer).clear();
 
-        Writer borderWriter = ToolsUtil.createFileWriter("src/main/resources/output/borders.xml", false);
-        xstream.toXML(borders, borderWriter);
+        writeBinaryFile(buffer, ADJACENCY_FILE);
     }
 
     /**
@@ -251,7 +891,16 @@ public class ClientGenerator {
      * @param log             log writer.
      * @throws IOException exception.
      */
-    private static void createBorders(List<Border> borders, Map<Path, List<Province>> provincesByPath, Map<String, List<Path>> specialBorders, Writer log) throws IOException {
+    private static void createBorders(List<Border> borders, Map<Path, List<Province>> provincesByPath, Map<Border.BorderType, List<Path>> specialBorders, Writer log) throws IOException {
+        BorderRegistry registry = new BorderRegistry(borders);
+        // Type of each special path. If a path is in several lists, the last list wins as when they were scanned.
+        Map<Path, Border.BorderType> specialTypes = new HashMap<>();
+        for (Border.BorderType specialType : specialBorders.keySet()) {
+            for (Path specialPath : specialBorders.get(specialType)) {
+                specialTypes.put(specialPath, specialType);
+            }
+        }
+
         for (Path path : provincesByPath.keySet()) {
             List<Province> provincesForPath = provincesByPath.get(path);
             if (path.getName().contains("bord")) {
@@ -264,23 +913,18 @@ public class ClientGenerator {
                     Province second = provincesForPath.get(j);
 
                     if (first != second) {
-                        String type = null;
-                        for (String specialType : specialBorders.keySet()) {
-                            if (specialBorders.get(specialType).contains(path)) {
-                                type = specialType;
-                            }
-                        }
+                        Border.BorderType type = specialTypes.get(path);
 
                         // no special border between heterogeneous terrains
-                        if ((StringUtils.equals("SEA", first.getTerrain()) && second.getTerrain() != null && !StringUtils.equals("SEA", second.getTerrain()))
-                                || (StringUtils.equals("SEA", second.getTerrain()) && first.getTerrain() != null && !StringUtils.equals("SEA", first.getTerrain()))) {
+                        if ((first.getTerrain() == Province.Terrain.SEA && second.getTerrainName() != null && second.getTerrain() != Province.Terrain.SEA)
+                                || (second.getTerrain() == Province.Terrain.SEA && first.getTerrainName() != null && first.getTerrain() != Province.Terrain.SEA)) {
                             type = null;
                         }
 
                         Border border = new Border(first, second, type);
-                        if (borders.contains(border)) {
-                            Border existingBorder = borders.get(borders.indexOf(border));
-                            if (!StringUtils.equals(border.getType(), existingBorder.getType())) {
+                        Border existingBorder = registry.find(border);
+                        if (existingBorder != null) {
+                            if (border.getType() != existingBorder.getType()) {
                                 log.append(first.getName()).append("\t").append("Duplicate borders").append("\t")
                                         .append(second.getName()).append("\n");
                             }
@@ -290,11 +934,268 @@ public class ClientGenerator {
                                 existingBorder.setType(border.getType());
                             }
                         } else {
-                            borders.add(border);
+                            registry.add(border);
                         }
                     }
                 }
             }
         }
     }
+
+    /**
+     * Simplification of the paths for a level of detail.
+     */
+    private static class LevelOfDetail {
+        /** Maximum distance between a removed point and the simplified path, in map coordinates. */
+        private final double tolerance;
+        /** Map coordinates of the paths. */
+        private final MapCoordinates coordinates;
+        /** Indexes of the points kept of each path of the europe map. */
+        private final Map<Path, int[]> europeKept = new IdentityHashMap<>();
+        /** Indexes of the points kept of each path of the rotw map. */
+        private final Map<Path, int[]> rotwKept = new IdentityHashMap<>();
+
+        /**
+         * Constructor.
+         *
+         * @param tolerance   maximum distance between a removed point and the simplified path, in map coordinates.
+         * @param coordinates map coordinates of the paths.
+         */
+        LevelOfDetail(double tolerance, MapCoordinates coordinates) {
+            this.tolerance = tolerance;
+            this.coordinates = coordinates;
+        }
+
+        /**
+         * Returns the points kept of a path, simplifying it the first time.
+         *
+         * @param path the path.
+         * @param rotw flag saying that the path is drawn in the rotw map.
+         * @return the indexes of the points kept, in the direction of the path.
+         */
+        int[] getKept(Path path, boolean rotw) {
+            Map<Path, int[]> kept = rotw ? rotwKept : europeKept;
+            return kept.computeIfAbsent(path, key -> LineSimplifier.simplify(coordinates.getCoords(key, rotw), tolerance));
+        }
+
+        /**
+         * Gives the points of a ring kept by the simplification of each of its paths, without the end of the previous
+         * path when the next one starts on it.
+         *
+         * @param polygons the polygon.
+         * @param portion  portion of province of the polygon, holding its paths.
+         * @param ring     index of the ring.
+         * @param path     index of the first path of the ring.
+         * @param points   where to write the indexes of the points kept in the polygon.
+         * @return the number of points kept.
+         */
+        int getRingPoints(Polygon polygons, SubProvince portion, int ring, int path, int[] points) {
+            int nbPoints = 0;
+            int previous = -1;
+            for (int current = path; current < getNextRingPath(polygons, ring, path); current++) {
+                DirectedPath directedPath = portion.getPaths().get(polygons.getPathIndex(current));
+                int[] kept = getKept(directedPath.getPath(), polygons.isRotw());
+                int start = polygons.getPathStart(current);
+                int last = polygons.getPathEnd(current) - 1;
+                for (int k = 0; k < kept.length; k++) {
+                    int i = directedPath.isInverse() ? last - kept[kept.length - 1 - k] : start + kept[k];
+                    if (previous < 0 || polygons.getX(i) != polygons.getX(previous) || polygons.getY(i) != polygons.getY(previous)) {
+                        points[nbPoints++] = i;
+                        previous = i;
+                    }
+                }
+            }
+            return nbPoints;
+        }
+
+        /**
+         * Keeps more points of the paths of the rings of a polygon which would have no area once simplified, with a lower
+         * tolerance each time. The points are kept by path, so that the neighbours of the polygon still join.
+         *
+         * @param polygons the polygon.
+         * @param portion  portion of province of the polygon, holding its paths.
+         */
+        void keepArea(Polygon polygons, SubProvince portion) {
+            double[] mapCoords = coordinates.getCoords(polygons);
+            int path = 0;
+            for (int ring = 0; ring < polygons.getNbRings(); ring++) {
+                int nextPath = getNextRingPath(polygons, ring, path);
+                int[] points = new int[polygons.getRingSize(ring)];
+                double ringTolerance = tolerance;
+                while (ringTolerance > 0 && !hasArea(mapCoords, points, getRingPoints(polygons, portion, ring, path, points))) {
+                    // The last try keeps all the points which are not aligned.
+                    ringTolerance = ringTolerance > tolerance / MAX_REFINEMENT ? ringTolerance / 2 : 0;
+                    for (int current = path; current < nextPath; current++) {
+                        keepMore(portion.getPaths().get(polygons.getPathIndex(current)).getPath(), polygons.isRotw(), ringTolerance);
+                    }
+                }
+                path = nextPath;
+            }
+        }
+
+        /**
+         * Adds the points kept by a lower tolerance to the points kept of a path.
+         *
+         * @param path          the path.
+         * @param rotw          flag saying that the path is drawn in the rotw map.
+         * @param pathTolerance the lower tolerance.
+         */
+        private void keepMore(Path path, boolean rotw, double pathTolerance) {
+            int[] kept = getKept(path, rotw);
+            int[] more = LineSimplifier.simplify(coordinates.getCoords(path, rotw), pathTolerance);
+            // Both are sorted: they are merged without duplicates.
+            int[] merged = new int[kept.length + more.length];
+            int size = 0;
+            int i = 0;
+            int j = 0;
+            while (i < kept.length || j < more.length) {
+                int next = j == more.length || (i < kept.length && kept[i] <= more[j]) ? kept[i] : more[j];
+                if (i < kept.length && kept[i] == next) {
+                    i++;
+                }
+                if (j < more.length && more[j] == next) {
+                    j++;
+                }
+                merged[size++] = next;
+            }
+            (rotw ? rotwKept : europeKept).put(path, Arrays.copyOf(merged, size));
+        }
+
+        /**
+         * @param mapCoords map coordinates of the polygon.
+         * @param points    indexes of points of the polygon.
+         * @param nbPoints  number of points.
+         * @return <code>true</code> if the points hold three distinct points which are not aligned.
+         */
+        private static boolean hasArea(double[] mapCoords, int[] points, int nbPoints) {
+            if (nbPoints < 3) {
+                return false;
+            }
+            double x = mapCoords[2 * points[0]];
+            double y = mapCoords[2 * points[0] + 1];
+            // Direction of the first point distinct from the first one.
+            double dx = 0;
+            double dy = 0;
+            for (int k = 1; k < nbPoints; k++) {
+                double px = mapCoords[2 * points[k]] - x;
+                double py = mapCoords[2 * points[k] + 1] - y;
+                if (dx == 0 && dy == 0) {
+                    dx = px;
+                    dy = py;
+                } else if (dx * py - dy * px != 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Arcs of a topo.json file, with their quantized coordinates.
+     */
+    private static class TopoArcs {
+        /** Translation of the quantized coordinates on the x axis. */
+        private final double translateX;
+        /** Translation of the quantized coordinates on the y axis. */
+        private final double translateY;
+        /** Inverse of the scale of the quantized coordinates. */
+        private final long factor;
+        /** Map coordinates of the paths. */
+        private final MapCoordinates coordinates;
+        /** Index of the arc of each path of the europe map. */
+        private final Map<Path, Integer> europeArcs = new IdentityHashMap<>();
+        /** Index of the arc of each path of the rotw map. */
+        private final Map<Path, Integer> rotwArcs = new IdentityHashMap<>();
+        /** Quantized coordinates of the arcs, interleaved. */
+        private final List<int[]> points = new ArrayList<>();
+
+        /**
+         * Constructor.
+         *
+         * @param translateX  translation of the quantized coordinates on the x axis.
+         * @param translateY  translation of the quantized coordinates on the y axis.
+         * @param factor      inverse of the scale of the quantized coordinates.
+         * @param coordinates map coordinates of the paths.
+         */
+        TopoArcs(double translateX, double translateY, long factor, MapCoordinates coordinates) {
+            this.translateX = translateX;
+            this.translateY = translateY;
+            this.factor = factor;
+            this.coordinates = coordinates;
+        }
+
+        /**
+         * Returns the arc of a path, adding it the first time.
+         *
+         * @param path the path.
+         * @param rotw flag saying that the path is drawn in the rotw map.
+         * @return the index of the arc of the path.
+         */
+        int getArc(Path path, boolean rotw) {
+            Map<Path, Integer> arcs = rotw ? rotwArcs : europeArcs;
+            Integer arc = arcs.get(path);
+            if (arc == null) {
+                double[] mapCoords = coordinates.getCoords(path, rotw);
+                int[] coords = new int[mapCoords.length];
+                for (int i = 0; i < mapCoords.length; i += 2) {
+                    coords[i] = (int) Math.round((mapCoords[i] - translateX) * factor);
+                    coords[i + 1] = (int) Math.round((mapCoords[i + 1] - translateY) * factor);
+                }
+                arc = points.size();
+                points.add(coords);
+                arcs.put(path, arc);
+            }
+            return arc;
+        }
+
+        /**
+         * Adds an arc linking two paths that do not join.
+         *
+         * @param fromX quantized x coordinate of the end of the first path.
+         * @param fromY quantized y coordinate of the end of the first path.
+         * @param toX   quantized x coordinate of the start of the second path.
+         * @param toY   quantized y coordinate of the start of the second path.
+         * @return the index of the arc.
+         */
+        int addLink(int fromX, int fromY, int toX, int toY) {
+            points.add(new int[]{fromX, fromY, toX, toY});
+            return points.size() - 1;
+        }
+
+        /**
+         * @param arc index of the arc.
+         * @return the quantized coordinates of the arc, interleaved.
+         */
+        int[] getPoints(int arc) {
+            return points.get(arc);
+        }
+
+        /**
+         * Writes the arcs, each point being written as the difference with the previous one.
+         *
+         * @param writer where to write the arcs.
+         * @throws IOException exception.
+         */
+        void write(Writer writer) throws IOException {
+            StringBuilder builder = new StringBuilder();
+            for (int arc = 0; arc < points.size(); arc++) {
+                int[] coords = points.get(arc);
+                builder.setLength(0);
+                builder.append(arc > 0 ? ",\n[" : "\n[");
+                int x = 0;
+                int y = 0;
+                for (int i = 0; i < coords.length; i += 2) {
+                    if (i > 0) {
+                        builder.append(',');
+                    }
+                    builder.append('[').append(coords[i] - x).append(',').append(coords[i + 1] - y).append(']');
+                    x = coords[i];
+                    y = coords[i + 1];
+                }
+                builder.append(']');
+                writer.append(builder);
+            }
+            writer.append('\n');
+        }
+    }
 }
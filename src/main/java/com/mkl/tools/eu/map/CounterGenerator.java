@@ -295,8 +295,8 @@ public class CounterGenerator {
         if (!countriesWithoutControl.contains(country.getName())) {
             types.add(new ImmutablePair<>("{0}" + File.separator + "{0}_CONTROL.png", "Control_{0}.png"));
         }
-        if (StringUtils.equals("MINORMAJOR", country.getType())
-                || StringUtils.equals("MAJOR", country.getType())) {
+        if (country.getType() == Country.CountryType.MINORMAJOR
+                || country.getType() == Country.CountryType.MAJOR) {
             types.add(new ImmutablePair<>("{0}" + File.separator + "{0}_STABILITY.png", "Stability_{0}.png"));
             types.add(new ImmutablePair<>("{0}" + File.separator + "{0}_STABILITY.png", "Stability_{0}.png"));
             types.add(new ImmutablePair<>("{0}" + File.separator + "{0}_TECH_LAND.png", "Tech_Land_{0}.png"));
@@ -304,7 +304,7 @@ public class CounterGenerator {
                 types.add(new ImmutablePair<>("{0}" + File.separator + "{0}_TECH_NAVAL.png", "Tech_Naval_{0}.png"));
             }
         }
-        if (country.getFidelity() > 0 && !StringUtils.equals("ROTW", country.getType())) {
+        if (country.getFidelity() > 0 && country.getType() != Country.CountryType.ROTW) {
             types.add(new ImmutablePair<>("{0}" + File.separator + "{0}_DIPLOMACY.png", "Diplomacy_*{0}_F*_recto.png"));
             types.add(new ImmutablePair<>("{0}" + File.separator + "{0}_DIPLOMACY_WAR.png", "Diplomacy_*{0}_F*_verso.png"));
         }
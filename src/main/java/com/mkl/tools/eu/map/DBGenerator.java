@@ -1,5 +1,12 @@
 package com.mkl.tools.eu.map;
 
+import com.mkl.tools.eu.sql.BatchSqlWriter;
+import com.mkl.tools.eu.sql.BulkLoadSqlWriter;
+import com.mkl.tools.eu.sql.CompositeSqlWriter;
+import com.mkl.tools.eu.sql.DeltaSqlWriter;
+import com.mkl.tools.eu.sql.ScriptSqlWriter;
+import com.mkl.tools.eu.sql.SqlRow;
+import com.mkl.tools.eu.sql.SqlRowWriter;
 import com.mkl.tools.eu.vo.country.Country;
 import com.mkl.tools.eu.vo.province.Border;
 import com.mkl.tools.eu.vo.province.Mine;
@@ -7,8 +14,11 @@ import com.mkl.tools.eu.vo.province.Province;
 import com.mkl.tools.eu.vo.province.Region;
 import org.apache.commons.lang3.StringUtils;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -18,6 +28,54 @@ import java.util.Map;
  * @author MKL.
  */
 public class DBGenerator {
+    /** Columns of R_REGION. */
+    private static final String[] REGION_COLUMNS = {"NAME", "INCOME", "DIFFICULTY", "TOLERANCE", "NATIVES_NUMBER", "NATIVES_TYPE", "COLD_AREA"};
+    /** Columns of R_RESOURCES. */
+    private static final String[] RESOURCES_COLUMNS = {"NUMBER", "TYPE", "ID_R_REGION"};
+    /** Columns of R_PROVINCE. */
+    private static final String[] PROVINCE_COLUMNS = {"NAME", "TERRAIN"};
+    /** Columns of R_PROVINCE_EU without salt. */
+    private static final String[] PROVINCE_EU_COLUMNS = {"ID", "INCOME", "FORTRESS", "R_COUNTRY", "CAPITAL", "PORT", "ARSENAL", "PRAESIDIABLE", "METADATA"};
+    /** Columns of R_PROVINCE_EU with salt. */
+    private static final String[] PROVINCE_EU_SALT_COLUMNS = {"ID", "INCOME", "FORTRESS", "R_COUNTRY", "CAPITAL", "PORT", "ARSENAL", "PRAESIDIABLE", "SALT", "METADATA"};
+    /** Columns of R_PROVINCE_SEA. */
+    private static final String[] PROVINCE_SEA_COLUMNS = {"ID", "DIFFICULTY", "PENALTY"};
+    /** Columns of R_PROVINCE_TZ. */
+    private static final String[] PROVINCE_TZ_COLUMNS = {"ID", "TYPE", "R_PROVINCE", "R_COUNTRY", "MONOPOLY", "PRESENCE"};
+    /** Columns of R_PROVINCE_ROTW. */
+    private static final String[] PROVINCE_ROTW_COLUMNS = {"ID", "REGION", "FORTRESS", "METADATA"};
+    /** Columns of R_PROVINCE_BOX. */
+    private static final String[] PROVINCE_BOX_COLUMNS = {"ID"};
+    /** Columns of R_BORDER. */
+    private static final String[] BORDER_COLUMNS = {"TYPE", "ID_R_PROVINCE_FROM", "ID_R_PROVINCE_TO"};
+    /** Columns of R_COUNTRY. */
+    private static final String[] COUNTRY_COLUMNS = {"NAME", "TYPE", "RELIGION", "CULTURE", "GEOPOLITICS_COUNTRY", "GEOPOLITICS_BONUS",
+            "RM", "SUB", "MA", "EC", "EW", "VA", "AN", "FIDELITY", "ARMY_CLASS", "ELECTOR", "HRE"};
+    /** Columns of R_COUNTRY_PROVINCE_EU and R_COUNTRY_PROVINCE_EU_CAPITALS. */
+    private static final String[] COUNTRY_PROVINCE_COLUMNS = {"ID_R_COUNTRY", "ID_R_PROVINCE_EU"};
+    /** Columns of R_LIMIT, R_BASIC_FORCE and R_REINFORCEMENTS. */
+    private static final String[] LIMIT_COLUMNS = {"NUMBER", "TYPE", "ID_R_COUNTRY"};
+    /** Columns of R_GOLD. */
+    private static final String[] GOLD_COLUMNS = {"R_PROVINCE", "VALUE"};
+    /** Natural key of the tables, the tables without key being keyed by all their columns. */
+    private static final Map<String, String[]> TABLE_KEYS = new HashMap<>();
+
+    static {
+        TABLE_KEYS.put("R_REGION", new String[]{"NAME"});
+        TABLE_KEYS.put("R_RESOURCES", new String[]{"TYPE", "ID_R_REGION"});
+        TABLE_KEYS.put("R_PROVINCE", new String[]{"NAME"});
+        TABLE_KEYS.put("R_PROVINCE_EU", new String[]{"ID"});
+        TABLE_KEYS.put("R_PROVINCE_SEA", new String[]{"ID"});
+        TABLE_KEYS.put("R_PROVINCE_TZ", new String[]{"ID"});
+        TABLE_KEYS.put("R_PROVINCE_ROTW", new String[]{"ID"});
+        TABLE_KEYS.put("R_PROVINCE_BOX", new String[]{"ID"});
+        TABLE_KEYS.put("R_BORDER", new String[]{"ID_R_PROVINCE_FROM", "ID_R_PROVINCE_TO"});
+        TABLE_KEYS.put("R_COUNTRY", new String[]{"NAME"});
+        TABLE_KEYS.put("R_LIMIT", new String[]{"TYPE", "ID_R_COUNTRY"});
+        TABLE_KEYS.put("R_BASIC_FORCE", new String[]{"TYPE", "ID_R_COUNTRY"});
+        TABLE_KEYS.put("R_REINFORCEMENTS", new String[]{"TYPE", "ID_R_COUNTRY"});
+        TABLE_KEYS.put("R_GOLD", new String[]{"R_PROVINCE"});
+    }
 
     /**
      * Create the delete statement at the beginning of the script.
@@ -45,105 +103,126 @@ public class DBGenerator {
                 .append("\n");
     }
 
+    /**
+     * Creates the writer of the rows of the SQL injection script.
+     *
+     * @param sqlWriter      where to write the db instructions.
+     * @param batch          <code>true</code> to write multi-row inserts with explicit IDs, <code>false</code> to write
+     *                       an insert by row with sub queries for the references.
+     * @param bulkDirectory  if not <code>null</code>, directory where to write the rows as bulk load files too.
+     * @param deltaDirectory if not <code>null</code>, directory where to write the script of the changes since the
+     *                       previous run too.
+     * @return the writer of the rows.
+     */
+    public static SqlRowWriter createRowWriter(Writer sqlWriter, boolean batch, File bulkDirectory, File deltaDirectory) {
+        List<SqlRowWriter> rowWriters = new ArrayList<>();
+        if (batch) {
+            rowWriters.add(new BatchSqlWriter(sqlWriter));
+        } else {
+            rowWriters.add(new ScriptSqlWriter(sqlWriter, "R_BORDER"));
+        }
+        if (bulkDirectory != null) {
+            rowWriters.add(new BulkLoadSqlWriter(bulkDirectory, "load_referentiel.sql"));
+        }
+        if (deltaDirectory != null) {
+            rowWriters.add(new DeltaSqlWriter(new File(deltaDirectory, "delta_referentiel.sql"),
+                    new File(deltaDirectory, "referentiel.rows"), TABLE_KEYS));
+        }
+        if (rowWriters.size() == 1) {
+            return rowWriters.get(0);
+        }
+        return new CompositeSqlWriter(rowWriters.toArray(new SqlRowWriter[rowWriters.size()]));
+    }
+
     /**
      * Create a SQL injection script for provinces, borders.
      *
      * @param provinces list of provinces.
      * @param borders   list of borders.
      * @param regions   list of regions.
-     * @param sqlWriter where to write the db instructions.
+     * @param rowWriter where to write the rows.
      * @throws IOException exception.
      */
-    public static void createProvincesData(Map<String, Province> provinces, List<Border> borders, Map<String, Region> regions, Writer sqlWriter) throws IOException {
+    public static void createProvincesData(Map<String, Province> provinces, List<Border> borders, Map<String, Region> regions, SqlRowWriter rowWriter) throws IOException {
         for (Region region : regions.values()) {
-            sqlWriter.append("INSERT INTO R_REGION (NAME, INCOME, DIFFICULTY, TOLERANCE, NATIVES_NUMBER, NATIVES_TYPE, COLD_AREA)\n")
-                    .append("    VALUES (").append(stringToString(region.getName()))
-                    .append(", ").append(integerToString(region.getIncome()))
-                    .append(", ").append(integerToString(region.getDifficulty()))
-                    .append(", ").append(integerToString(region.getTolerance()))
-                    .append(", ").append(integerToString(region.getNativesNumber()))
-                    .append(", ").append(stringToString(region.getNativesType()))
-                    .append(", ").append(integerToString(region.getColdArea()))
-                    .append(");\n");
+            rowWriter.write(new SqlRow("R_REGION", REGION_COLUMNS,
+                    stringToString(region.getName()),
+                    integerToString(region.getIncome()),
+                    integerToString(region.getDifficulty()),
+                    integerToString(region.getTolerance()),
+                    integerToString(region.getNativesNumber()),
+                    stringToString(region.getNativesType()),
+                    integerToString(region.getColdArea())).named(region.getName()));
             for (Region.Resources resources : region.getResources()) {
-                sqlWriter.append("INSERT INTO R_RESOURCES (NUMBER, TYPE, ID_R_REGION)\n")
-                        .append("    VALUES (").append(integerToString(resources.getNumber()))
-                        .append(", ").append(stringToString(resources.getName()))
-                        .append(", (SELECT ID FROM R_REGION WHERE NAME = '").append(region.getName()).append("')")
-                        .append(");\n");
+                rowWriter.write(new SqlRow("R_RESOURCES", RESOURCES_COLUMNS,
+                        integerToString(resources.getNumber()),
+                        stringToString(resources.getName()),
+                        new SqlRow.Reference("R_REGION", region.getName())));
             }
         }
 
         for (Province province : provinces.values()) {
-            sqlWriter.append("INSERT INTO R_PROVINCE (NAME, TERRAIN)\n")
-                    .append("    VALUES (").append(stringToString(province.getName()))
-                    .append(", ").append(stringToString(province.getTerrain()))
-                    .append(");\n");
+            rowWriter.write(new SqlRow("R_PROVINCE", PROVINCE_COLUMNS,
+                    stringToString(province.getName()),
+                    stringToString(province.getTerrainName())).named(province.getName()));
+            SqlRow.Reference id = new SqlRow.Reference("R_PROVINCE", province.getName());
 
             if (province.getInfo() != null) {
-                sqlWriter.append("INSERT INTO R_PROVINCE_EU (ID, INCOME, FORTRESS, R_COUNTRY, CAPITAL, PORT, ARSENAL, PRAESIDIABLE");
+                String metadata = stringToString(String.join(";;", province.getInfo().getMetadata(province.getName())));
                 if (province.getInfo().getSalt() != null) {
-                    sqlWriter.append(", SALT");
+                    rowWriter.write(new SqlRow("R_PROVINCE_EU", PROVINCE_EU_SALT_COLUMNS, id,
+                            integerToString(province.getInfo().getIncome()),
+                            integerToString(province.getInfo().getFortress()),
+                            stringToString(province.getInfo().getDefaultOwner()),
+                            booleanToBit(province.getInfo().isCapital()),
+                            booleanToBit(province.getInfo().isPort()),
+                            booleanToBit(province.getInfo().isArsenal()),
+                            booleanToBit(province.getInfo().isPraesidiable()),
+                            integerToString(province.getInfo().getSalt()),
+                            metadata));
+                } else {
+                    rowWriter.write(new SqlRow("R_PROVINCE_EU", PROVINCE_EU_COLUMNS, id,
+                            integerToString(province.getInfo().getIncome()),
+                            integerToString(province.getInfo().getFortress()),
+                            stringToString(province.getInfo().getDefaultOwner()),
+                            booleanToBit(province.getInfo().isCapital()),
+                            booleanToBit(province.getInfo().isPort()),
+                            booleanToBit(province.getInfo().isArsenal()),
+                            booleanToBit(province.getInfo().isPraesidiable()),
+                            metadata));
                 }
-                sqlWriter.append(", METADATA)\n")
-                        .append("    VALUES (").append(" (SELECT ID FROM R_PROVINCE WHERE NAME = '").append(province.getName()).append("')")
-                        .append(", ").append(integerToString(province.getInfo().getIncome()))
-                        .append(", ").append(integerToString(province.getInfo().getFortress()))
-                        .append(", ").append(stringToString(province.getInfo().getDefaultOwner()))
-                        .append(", ").append(booleanToBit(province.getInfo().isCapital()))
-                        .append(", ").append(booleanToBit(province.getInfo().isPort()))
-                        .append(", ").append(booleanToBit(province.getInfo().isArsenal()))
-                        .append(", ").append(booleanToBit(province.getInfo().isPraesidiable()));
-                if (province.getInfo().getSalt() != null) {
-                    sqlWriter.append(", ").append(integerToString(province.getInfo().getSalt()));
-                }
-                sqlWriter.append(", ").append(stringToString(String.join(";;", province.getInfo().getMetadata(province.getName()))))
-                        .append(");\n");
-
             } else if (province.getSeaInfo() != null) {
-                sqlWriter.append("INSERT INTO R_PROVINCE_SEA (ID, DIFFICULTY, PENALTY)\n")
-                        .append("    VALUES (").append(" (SELECT ID FROM R_PROVINCE WHERE NAME = '").append(province.getName()).append("')")
-                        .append(", ").append(integerToString(province.getSeaInfo().getDifficulty()))
-                        .append(", ").append(integerToString(province.getSeaInfo().getPenalty()))
-                        .append(");\n");
+                rowWriter.write(new SqlRow("R_PROVINCE_SEA", PROVINCE_SEA_COLUMNS, id,
+                        integerToString(province.getSeaInfo().getDifficulty()),
+                        integerToString(province.getSeaInfo().getPenalty())));
             } else if (province.getTradeInfo() != null) {
-                sqlWriter.append("INSERT INTO R_PROVINCE_TZ (ID, TYPE, R_PROVINCE, R_COUNTRY, MONOPOLY, PRESENCE)\n")
-                        .append("    VALUES (").append(" (SELECT ID FROM R_PROVINCE WHERE NAME = '").append(province.getName()).append("')")
-                        .append(", ").append(stringToString(province.getTradeInfo().getType()))
-                        .append(", ").append(stringToString(province.getTradeInfo().getSeaZone()))
-                        .append(", ").append(stringToString(province.getTradeInfo().getCountryName()))
-                        .append(", ").append(integerToString(province.getTradeInfo().getMonopoly()))
-                        .append(", ").append(integerToString(province.getTradeInfo().getPresence()))
-                        .append(");\n");
+                rowWriter.write(new SqlRow("R_PROVINCE_TZ", PROVINCE_TZ_COLUMNS, id,
+                        stringToString(province.getTradeInfo().getType()),
+                        stringToString(province.getTradeInfo().getSeaZone()),
+                        stringToString(province.getTradeInfo().getCountryName()),
+                        integerToString(province.getTradeInfo().getMonopoly()),
+                        integerToString(province.getTradeInfo().getPresence())));
             } else if (province.getRotwInfo() != null) {
-                sqlWriter.append("INSERT INTO R_PROVINCE_ROTW (ID, REGION, FORTRESS, METADATA)\n")
-                        .append("    VALUES (").append(" (SELECT ID FROM R_PROVINCE WHERE NAME = '").append(province.getName()).append("')")
-                        .append(", ").append(stringToString(province.getRotwInfo().getRegion()))
-                        .append(", ").append(integerToString(province.getRotwInfo().getFortress()))
-                        .append(", ").append(stringToString(String.join(";;", province.getRotwInfo().getMetadata()).replaceAll("'", "''")))
-                        .append(");\n");
+                rowWriter.write(new SqlRow("R_PROVINCE_ROTW", PROVINCE_ROTW_COLUMNS, id,
+                        stringToString(province.getRotwInfo().getRegion()),
+                        integerToString(province.getRotwInfo().getFortress()),
+                        stringToString(String.join(";;", province.getRotwInfo().getMetadata()).replaceAll("'", "''"))));
             } else {
-                sqlWriter.append("INSERT INTO R_PROVINCE_BOX (ID)\n")
-                        .append("    VALUES (").append(" (SELECT ID FROM R_PROVINCE WHERE NAME = '").append(province.getName()).append("')")
-                        .append(");\n");
+                rowWriter.write(new SqlRow("R_PROVINCE_BOX", PROVINCE_BOX_COLUMNS, id));
             }
         }
 
-        sqlWriter.append("\n");
+        rowWriter.endGroup();
 
         for (Border border : borders) {
-            sqlWriter.append("INSERT INTO R_BORDER (TYPE, ID_R_PROVINCE_FROM, ID_R_PROVINCE_TO)\n")
-                    .append("    VALUES (").append(stringToString(border.getType())).append(",\n")
-                    .append("        (SELECT ID FROM R_PROVINCE WHERE NAME = '")
-                    .append(border.getFirst()).append("'),\n")
-                    .append("        (SELECT ID FROM R_PROVINCE WHERE NAME = '")
-                    .append(border.getSecond()).append("'));\n");
-            sqlWriter.append("INSERT INTO R_BORDER (TYPE, ID_R_PROVINCE_FROM, ID_R_PROVINCE_TO)\n")
-                    .append("    VALUES (").append(stringToString(border.getType())).append(",\n")
-                    .append("        (SELECT ID FROM R_PROVINCE WHERE NAME = '")
-                    .append(border.getSecond()).append("'),\n")
-                    .append("        (SELECT ID FROM R_PROVINCE WHERE NAME = '")
-                    .append(border.getFirst()).append("'));\n");
+            rowWriter.write(new SqlRow("R_BORDER", BORDER_COLUMNS,
+                    enumToString(border.getType()),
+                    new SqlRow.Reference("R_PROVINCE", border.getFirst()),
+                    new SqlRow.Reference("R_PROVINCE", border.getSecond())));
+            rowWriter.write(new SqlRow("R_BORDER", BORDER_COLUMNS,
+                    enumToString(border.getType()),
+                    new SqlRow.Reference("R_PROVINCE", border.getSecond()),
+                    new SqlRow.Reference("R_PROVINCE", border.getFirst())));
         }
     }
 
@@ -151,71 +230,54 @@ public class DBGenerator {
      * Create a SQL injection script for countries.
      *
      * @param countries list of countries.
-     * @param sqlWriter where to write the db instructions.
+     * @param rowWriter where to write the rows.
      * @throws IOException exception.
      */
-    public static void createCountriesData(Map<String, Country> countries, Writer sqlWriter) throws IOException {
+    public static void createCountriesData(Map<String, Country> countries, SqlRowWriter rowWriter) throws IOException {
         for (Country country : countries.values()) {
-            sqlWriter.append("INSERT INTO R_COUNTRY (NAME, TYPE, RELIGION, CULTURE, GEOPOLITICS_COUNTRY, GEOPOLITICS_BONUS" +
-                    ", RM, SUB, MA, EC, EW, VA, AN" +
-                    ", FIDELITY, ARMY_CLASS, ELECTOR, HRE)\n")
-                    .append("    VALUES (").append(stringToString(country.getName()))
-                    .append(", ").append(stringToString(country.getType()))
-                    .append(", ").append(stringToString(country.getReligion()))
-                    .append(", ").append(stringToString(country.getCulture()))
-                    .append(", ").append(stringToString(country.getPreference()))
-                    .append(", ").append(integerToString(country.getPreferenceBonus()))
-                    .append(", ").append(integerToString(country.getRoyalMarriage()))
-                    .append(", ").append(integerToString(country.getSubsidies()))
-                    .append(", ").append(integerToString(country.getMilitaryAlliance()))
-                    .append(", ").append(integerToString(country.getExpCorps()))
-                    .append(", ").append(integerToString(country.getEntryInWar()))
-                    .append(", ").append(integerToString(country.getVassal()))
-                    .append(", ").append(integerToString(country.getAnnexion()))
-                    .append(", ").append(integerToString(country.getFidelity()))
-                    .append(", ").append(stringToString(country.getArmyClass()))
-                    .append(", ").append(booleanToBit(country.isElector()))
-                    .append(", ").append(booleanToBit(country.isHre()))
-                    .append(");\n");
+            rowWriter.write(new SqlRow("R_COUNTRY", COUNTRY_COLUMNS,
+                    stringToString(country.getName()),
+                    enumToString(country.getType()),
+                    stringToString(country.getReligion()),
+                    stringToString(country.getCulture()),
+                    stringToString(country.getPreference()),
+                    integerToString(country.getPreferenceBonus()),
+                    integerToString(country.getRoyalMarriage()),
+                    integerToString(country.getSubsidies()),
+                    integerToString(country.getMilitaryAlliance()),
+                    integerToString(country.getExpCorps()),
+                    integerToString(country.getEntryInWar()),
+                    integerToString(country.getVassal()),
+                    integerToString(country.getAnnexion()),
+                    integerToString(country.getFidelity()),
+                    stringToString(country.getArmyClass()),
+                    booleanToBit(country.isElector()),
+                    booleanToBit(country.isHre())).named(country.getName()));
+            SqlRow.Reference id = new SqlRow.Reference("R_COUNTRY", country.getName());
 
             for (String province : country.getCapitals()) {
-                sqlWriter.append("INSERT INTO R_COUNTRY_PROVINCE_EU_CAPITALS (ID_R_COUNTRY, ID_R_PROVINCE_EU)\n")
-                        .append("    VALUES (")
-                        .append(" (SELECT ID FROM R_COUNTRY WHERE NAME = '").append(country.getName()).append("')")
-                        .append(", (SELECT ID FROM R_PROVINCE WHERE NAME = '").append(province).append("')")
-                        .append(");\n");
+                rowWriter.write(new SqlRow("R_COUNTRY_PROVINCE_EU_CAPITALS", COUNTRY_PROVINCE_COLUMNS,
+                        id, new SqlRow.Reference("R_PROVINCE", province)));
             }
 
             for (String province : country.getProvinces()) {
-                sqlWriter.append("INSERT INTO R_COUNTRY_PROVINCE_EU (ID_R_COUNTRY, ID_R_PROVINCE_EU)\n")
-                        .append("    VALUES (")
-                        .append(" (SELECT ID FROM R_COUNTRY WHERE NAME = '").append(country.getName()).append("')")
-                        .append(", (SELECT ID FROM R_PROVINCE WHERE NAME = '").append(province).append("')")
-                        .append(");\n");
+                rowWriter.write(new SqlRow("R_COUNTRY_PROVINCE_EU", COUNTRY_PROVINCE_COLUMNS,
+                        id, new SqlRow.Reference("R_PROVINCE", province)));
             }
 
             for (Country.Limit limit : country.getLimits()) {
-                sqlWriter.append("INSERT INTO R_LIMIT (NUMBER, TYPE, ID_R_COUNTRY)\n")
-                        .append("    VALUES (").append(limit.getNumber().toString())
-                        .append(", ").append(stringToString(limit.getType()))
-                        .append(", (SELECT ID FROM R_COUNTRY WHERE NAME = '").append(country.getName()).append("')")
-                        .append(");\n");
+                rowWriter.write(new SqlRow("R_LIMIT", LIMIT_COLUMNS,
+                        limit.getNumber().toString(), stringToString(limit.getType()), id));
             }
 
             for (Country.Limit limit : country.getBasicForces()) {
-                sqlWriter.append("INSERT INTO R_BASIC_FORCE (NUMBER, TYPE, ID_R_COUNTRY)\n")
-                        .append("    VALUES (").append(limit.getNumber().toString())
-                        .append(", ").append(stringToString(limit.getType()))
-                        .append(", (SELECT ID FROM R_COUNTRY WHERE NAME = '").append(country.getName()).append("')")
-                        .append(");\n");
+                rowWriter.write(new SqlRow("R_BASIC_FORCE", LIMIT_COLUMNS,
+                        limit.getNumber().toString(), stringToString(limit.getType()), id));
             }
 
             for (Country.Limit limit : country.getReinforcements()) {
-                sqlWriter.append("INSERT INTO R_REINFORCEMENTS (NUMBER, TYPE, ID_R_COUNTRY)\n")
-                        .append("    VALUES (").append(limit.getNumber().toString())
-                        .append(", ").append(stringToString(limit.getType()))
-                        .append(", (SELECT ID FROM R_COUNTRY WHERE NAME = '").append(country.getName()).append("')")
-                        .append(");\n");
+                rowWriter.write(new SqlRow("R_REINFORCEMENTS", LIMIT_COLUMNS,
+                        limit.getNumber().toString(), stringToString(limit.getType()), id));
             }
         }
     }
@@ -224,15 +286,14 @@ public class DBGenerator {
      * Create a SQL injection script for gold mines.
      *
      * @param mines     list of mines.
-     * @param sqlWriter where to write the db instructions.
+     * @param rowWriter where to write the rows.
      * @throws IOException exception.
      */
-    public static void createMinesData(List<Mine> mines, Writer sqlWriter) throws IOException {
+    public static void createMinesData(List<Mine> mines, SqlRowWriter rowWriter) throws IOException {
         for (Mine mine : mines) {
-            sqlWriter.append("INSERT INTO R_GOLD (R_PROVINCE, VALUE)\n")
-                    .append("    VALUES (").append(stringToString(mine.getProvince()))
-                    .append(", ").append(integerToString(mine.getGold()))
-                    .append(");\n");
+            rowWriter.write(new SqlRow("R_GOLD", GOLD_COLUMNS,
+                    stringToString(mine.getProvince()),
+                    integerToString(mine.getGold())));
         }
     }
 
@@ -273,6 +334,16 @@ public class DBGenerator {
         return db;
     }
 
+    /**
+     * Convert an enum to String (database).
+     *
+     * @param toConvert enum to convert.
+     * @return a String.
+     */
+    private static String enumToString(Enum<?> toConvert) {
+        return stringToString(toConvert != null ? toConvert.name() : null);
+    }
+
     /**
      * Convert an Integer to String (database).
      *
@@ -1,11 +1,12 @@
 package com.mkl.tools.eu.map;
 
+import com.mkl.tools.eu.util.CoordinateScanner;
+import com.mkl.tools.eu.util.LineDispatcher;
+import com.mkl.tools.eu.util.LineRule;
 import com.mkl.tools.eu.util.ToolsUtil;
 import com.mkl.tools.eu.vo.country.Country;
 import com.mkl.tools.eu.vo.province.*;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.tuple.ImmutablePair;
-import org.apache.commons.lang3.tuple.Pair;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -15,7 +16,6 @@ import java.util.*;
 import java.util.function.BiPredicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 /**
  * Utility class that gather all extraction data from external files.
@@ -25,6 +25,83 @@ import java.util.stream.Collectors;
 public class DataExtractor {
     /** Size of a square. */
     private static final double SQUARE_SIZE = 112.5;
+    /** Inverse alias in the translations file. */
+    private static final LineRule INVERSE_ALIAS = LineRule.contains("]=>", "(.*)=\\[(.*)\\]=>(.*)");
+    /** Cell of the resources file. */
+    private static final LineRule REGION_CELL = LineRule.startsWith("<gnm:Cell Row=\"", "<gnm:Cell Row=\"(\\d*)\" Col=\"(\\d*)\" ValueType=\"\\d*\">(.*)</gnm:Cell>");
+    /** Beginning of a path in the grid files. */
+    private static final LineRule BEGIN_PATH = LineRule.contains(" beginpath", "/(mer|bord|path)\\d+ beginpath.*");
+    /** List of paths of a special border in the grid files. */
+    private static final LineRule MULTI_PATH = new LineRule(line -> line.contains("/mer") || line.contains("/path"), "\\s*(/mer|/path)\\d+ .*");
+    /** Square portion of province in the grid files. */
+    private static final LineRule SQUARE = LineRule.contains(" carre", "\\s*(\\d{4}) (\\d{4}) \\d\\([^\\)]*\\)\\(([^\\)]*)\\)\\(([^\\)]*)\\) (true|false) carre\\s*");
+    /** Portion of province in the grid files. */
+    private static final LineRule PORTION = LineRule.contains("ppdef", ".*\\((.*)\\) ?ppdef.*");
+    /** Paths of a portion of province in the grid files. */
+    private static final Pattern PORTION_PATH = Pattern.compile("(/path\\d+ AR?)|(/bord\\d+ AR?)|(/mer\\d+ AR?)|(carre[a-zA-Z]+ AR?)");
+    /** Lines of a block of the province data files. */
+    private static final LineDispatcher<ProvinceInfo> PROVINCE_BLOCK = new LineDispatcher<ProvinceInfo>()
+            .add(LineRule.startsWith("NOM ", "NOM [^\"]* \"(.*)\" .*"), (m, info) -> {
+                if (!StringUtils.isEmpty(info.getNameCity())) {
+                    info.getAltNameCity().add(purifyName(m.group(1)));
+                } else {
+                    info.setNameCity(purifyName(m.group(1)));
+                }
+            })
+            .add(LineRule.startsWith("ALTNOM ", "ALTNOM [^\"]* \"(.*)\" .*"), (m, info) -> info.getAltNameCity().add(purifyName(m.group(1))))
+            .add(LineRule.startsWith("PROV", "(PROV|PROVCURVE|PROVCURVEX) [^\"]* \"(.*)\" .*"), (m, info) -> {
+                if (!StringUtils.isEmpty(info.getNameProvince())) {
+                    info.getAltNameProvince().add(purifyName(m.group(2)));
+                } else {
+                    info.setNameProvince(purifyName(m.group(2)));
+                }
+            })
+            .add(LineRule.startsWith("ALTPROV ", "ALTPROV [^\"]* \"(.*)\" .*"), (m, info) -> info.getAltNameProvince().add(purifyName(m.group(1))))
+            .add(LineRule.startsWith("CITE ", "CITE (\\d{4}) (\\d{4}) (.*)"), (m, info) -> {
+                String string = m.group(3);
+                string = string.replace("jaune", "");
+                info.setCapital(string.contains("capitale"));
+                info.setFortress(Integer.parseInt(string.substring(string.length() - 1)));
+                info.setX(Integer.parseInt(m.group(1)));
+                info.setY(Integer.parseInt(m.group(2)));
+            })
+            .add(LineRule.startsWith("IMG ", "IMG (\\d{4}) (\\d{4}) (anchor\\d?)"), (m, info) -> {
+                info.setXPort(Integer.parseInt(m.group(1)));
+                info.setYPort(Integer.parseInt(m.group(2)));
+                String string = m.group(3);
+                info.setPort(StringUtils.equals("anchor", string) || StringUtils.equals("anchor4", string));
+                info.setArsenal(StringUtils.equals("anchor2", string) || StringUtils.equals("anchor5", string));
+                info.setPraesidiable(StringUtils.equals("anchor4", string) || StringUtils.equals("anchor5", string));
+            });
+    /** Sea zone in the sea data files. */
+    private static final LineRule SEA_ZONE = LineRule.startsWith("(img:orage", "\\(img:orage(\\d)\\) \\d{4} \\d{4} \\(([^\\)]*)\\).*");
+    /** The three forms of trade zones in the sea data files. */
+    private static final LineDispatcher<TradeZoneLine> TRADE_ZONE = new LineDispatcher<TradeZoneLine>()
+            .add(LineRule.startsWith("(", "\\((\\d*)\\) (\\d) (\\d{4}) (\\d{4}) .*"), (m, zone) -> {
+                zone.monopoly = Integer.parseInt(m.group(1));
+                zone.presence = Integer.parseInt(m.group(2));
+                zone.x = Double.parseDouble(m.group(3));
+                zone.y = Double.parseDouble(m.group(4));
+            })
+            .add(LineRule.contains(" (", "\\w* \\w* (\\d*) (\\d) \\([^\\)]*\\) \\w* \\(([^\\)]*)\\) (\\d*) (\\d*) .*"), (m, zone) -> {
+                zone.monopoly = Integer.parseInt(m.group(1));
+                zone.presence = Integer.parseInt(m.group(2));
+                zone.country = m.group(3);
+                zone.x = Double.parseDouble(m.group(4));
+                zone.y = Double.parseDouble(m.group(5));
+            })
+            .add(LineRule.contains(" @ ", "\\w* \\w* (\\d*) (\\d) \\([^\\)]*\\) @ (\\d*) (\\d*) .*"), (m, zone) -> {
+                zone.monopoly = Integer.parseInt(m.group(1));
+                zone.presence = Integer.parseInt(m.group(2));
+                zone.x = Double.parseDouble(m.group(3));
+                zone.y = Double.parseDouble(m.group(4));
+            });
+    /** Strait in the sea data files. */
+    private static final LineRule STRAIT = LineRule.endsWith(" detroit", "\\[(\\d+) (\\d+) *\\-?\\d+ (\\d+) (\\d+) \\d+ \\d+\\.?\\d*\\] detroit");
+    /** Mine or salt in the mines data files. */
+    private static final LineRule MINE = LineRule.startsWith("(", "\\((.*)\\) (\\d{4}) (\\d{4}) .*");
+    /** Mine or salt placed with offsets in the mines data files. */
+    private static final LineRule MINE_OFFSET = LineRule.startsWith("(", "\\((.*)\\) (\\d{4}) \\d{2} add (\\d{4}) \\d{2} add .*");
 
     /**
      * Extract the aliases.
@@ -33,7 +110,7 @@ public class DataExtractor {
      * @return the aliases.
      * @throws Exception exception.
      */
-    public static Map<String, Map<String, List<String>>> extractAliases(Writer log) throws Exception {
+    public static AliasIndex extractAliases(Writer log) throws Exception {
         Map<String, Map<String, List<String>>> aliases = new HashMap<>();
 
         String line;
@@ -43,11 +120,11 @@ public class DataExtractor {
                 continue;
             }
 
-            Matcher m = Pattern.compile("(.*)=\\[(.*)\\]=>(.*)").matcher(line);
+            Matcher m = INVERSE_ALIAS.match(line);
             String type;
             String key;
             List<String> alias = new ArrayList<>(1);
-            if (m.matches()) {
+            if (m != null) {
                 type = m.group(2) + "Inv";
                 key = m.group(1);
                 String alt = m.group(3);
@@ -79,7 +156,7 @@ public class DataExtractor {
             aliases.get(type).put(key, alias);
         }
 
-        return aliases;
+        return new AliasIndex(aliases);
     }
 
     /**
@@ -90,7 +167,7 @@ public class DataExtractor {
      * @return the regions.
      * @throws Exception exception.
      */
-    public static Map<String, Region> extractRegions(Map<String, Map<String, List<String>>> aliases, Writer log) throws Exception {
+    public static Map<String, Region> extractRegions(AliasIndex aliases, Writer log) throws Exception {
         Map<String, Region> regions = new HashMap<>();
         Map<Integer, Region> regionsByRow = new HashMap<>();
 
@@ -102,8 +179,8 @@ public class DataExtractor {
             }
             line = line.trim();
 
-            Matcher m = Pattern.compile("<gnm:Cell Row=\"(\\d*)\" Col=\"(\\d*)\" ValueType=\"\\d*\">(.*)</gnm:Cell>").matcher(line);
-            if (m.matches()) {
+            Matcher m = REGION_CELL.match(line);
+            if (m != null) {
                 int row = Integer.parseInt(m.group(1));
                 int col = Integer.parseInt(m.group(2));
                 String value = m.group(3);
@@ -113,7 +190,7 @@ public class DataExtractor {
                 }
 
                 if (col == 0) {
-                    String realName = findInAliases(value, "granderegion", aliases, log);
+                    String realName = aliases.findInAliases(value, "granderegion", log);
                     if (StringUtils.isEmpty(realName)) {
                         log.append(value).append("\tRegion not found.\n");
                     } else {
@@ -217,48 +294,45 @@ public class DataExtractor {
 
     /**
      * Extract the paths data in order to have the provinces shapes and borders.
+     * Nothing is shared with the other grids so that europe and rotw can be extracted at the same time.
      *
-     * @param provinces      List of provinces shapes.
-     * @param specialBorders List of special borders.
-     * @param regions        List of regions.
-     * @param aliases        the aliases.
-     * @param inputFile      Name of the file to parse.
-     * @param rotw           flag saying that the file is for the ROTW map.
-     * @param log            log writer.
+     * @param regions   List of regions.
+     * @param aliases   the aliases.
+     * @param inputFile Name of the file to parse.
+     * @param rotw      flag saying that the file is for the ROTW map.
+     * @param log       log writer.
+     * @return the content of the grid, to be merged with {@link #mergeGrid(Grid, Map, Map)}.
      * @throws IOException exception.
      */
-    public static void extractPaths(Map<String, Province> provinces, Map<String, List<Path>> specialBorders,
-                                    Map<String, Region> regions, Map<String, Map<String, List<String>>> aliases,
+    public static Grid extractPaths(Map<String, Region> regions, AliasIndex aliases,
                                     String inputFile, boolean rotw, Writer log) throws IOException {
+        Grid grid = new Grid(rotw);
         String line;
         BufferedReader reader = new BufferedReader(new InputStreamReader(DataExtractor.class.getClassLoader().getResourceAsStream(inputFile)));
-        Map<String, Path> paths = new HashMap<>();
+        Map<String, Path> paths = grid.getPaths();
         Path currentPath = null;
+        CoordinateScanner scanner = new CoordinateScanner();
         List<Path> pathsBorder = null;
         boolean specialBordersParsing = true;
         boolean zoomParsing = false;
-        Pattern mer = Pattern.compile("/mer\\d+ beginpath.*");
-        Pattern bord = Pattern.compile("/bord\\d+ beginpath.*");
-        Pattern path = Pattern.compile("/path\\d+ beginpath.*");
-        Pattern multiPath = Pattern.compile("\\s*(/mer|/path)\\d+ .*");
-        Pattern square = Pattern.compile("\\s*(\\d{4}) (\\d{4}) \\d\\([^\\)]*\\)\\(([^\\)]*)\\)\\([^\\)]*\\) (true|false) carre\\s*");
+        Matcher square;
         while ((line = reader.readLine()) != null) {
-            if (mer.matcher(line).matches() || bord.matcher(line).matches() || path.matcher(line).matches()) {
+            if (BEGIN_PATH.match(line) != null) {
                 currentPath = new Path(line.split(" ")[0], !line.contains("contpath"), rotw);
             } else if (line.startsWith("endpath") && currentPath != null) {
                 paths.put(currentPath.getName(), currentPath);
                 currentPath = null;
             } else if (currentPath != null) {
-                String[] coords = line.split(" ");
-                for (int i = 0; i < line.length() - 1; i = i + 2) {
-                    try {
-                        currentPath.getCoords().add(new ImmutablePair<>(Double.parseDouble(coords[i]), Double.parseDouble(coords[i + 1])));
-                    } catch (NumberFormatException e) {
+                scanner.reset(line);
+                while (scanner.next()) {
+                    double x = scanner.getValue();
+                    if (!scanner.next()) {
                         break;
                     }
+                    currentPath.addCoords(x, scanner.getValue());
                 }
             } else if (line.startsWith("/prov")) {
-                addSubProvince(line, provinces, paths, regions, aliases, rotw, zoomParsing, log);
+                addSubProvince(line, grid, regions, aliases, zoomParsing, log);
             } else if (line.startsWith("%#%% Zoom")) {
                 zoomParsing = true;
             } else if (specialBordersParsing && StringUtils.equals("[", line.trim())) {
@@ -267,24 +341,15 @@ public class DataExtractor {
                 specialBordersParsing = false;
                 pathsBorder = null;
             } else if (line.endsWith("change pathtype to river")) {
-                if (!specialBorders.containsKey("RIVER")) {
-                    specialBorders.put("RIVER", new ArrayList<>());
-                }
-                specialBorders.get("RIVER").addAll(pathsBorder);
+                grid.getSpecialBorders().computeIfAbsent(Border.BorderType.RIVER, key -> new ArrayList<>()).addAll(pathsBorder);
                 pathsBorder = new ArrayList<>();
             } else if (line.endsWith("change pathtype to pass")) {
-                if (!specialBorders.containsKey("PASS")) {
-                    specialBorders.put("PASS", new ArrayList<>());
-                }
-                specialBorders.get("PASS").addAll(pathsBorder);
+                grid.getSpecialBorders().computeIfAbsent(Border.BorderType.PASS, key -> new ArrayList<>()).addAll(pathsBorder);
                 pathsBorder = new ArrayList<>();
             } else if (line.endsWith("change pathtype to strait")) {
-                if (!specialBorders.containsKey("STRAIT")) {
-                    specialBorders.put("STRAIT", new ArrayList<>());
-                }
-                specialBorders.get("STRAIT").addAll(pathsBorder);
+                grid.getSpecialBorders().computeIfAbsent(Border.BorderType.STRAIT, key -> new ArrayList<>()).addAll(pathsBorder);
                 pathsBorder = new ArrayList<>();
-            } else if (specialBordersParsing && multiPath.matcher(line).matches()) {
+            } else if (specialBordersParsing && MULTI_PATH.match(line) != null) {
                 String[] specialsBorder = line.trim().split(" ");
                 for (String specialBorder : specialsBorder) {
                     Path pathBorder = paths.get(specialBorder);
@@ -294,32 +359,47 @@ public class DataExtractor {
                         pathsBorder.add(pathBorder);
                     }
                 }
-            } else if (square.matcher(line).matches()) {
-                addSquare(line, provinces, regions, aliases, rotw, zoomParsing, log);
+            } else if ((square = SQUARE.match(line)) != null) {
+                addSquare(square, grid, regions, aliases, zoomParsing, log);
             }
         }
 
         reader.close();
+
+        return grid;
     }
 
     /**
-     * Adds a portion to an existing province.
+     * Merge the content of a grid in the provinces and the special borders.
+     *
+     * @param grid           content of the grid.
+     * @param provinces      List of provinces shapes.
+     * @param specialBorders List of special borders.
+     */
+    public static void mergeGrid(Grid grid, Map<String, Province> provinces, Map<Border.BorderType, List<Path>> specialBorders) {
+        for (Grid.Placement placement : grid.getPlacements()) {
+            addPortion(placement.getProvinceName(), placement.getPortion(), placement.isZoom(), provinces);
+        }
+        for (Map.Entry<Border.BorderType, List<Path>> entry : grid.getSpecialBorders().entrySet()) {
+            specialBorders.computeIfAbsent(entry.getKey(), key -> new ArrayList<>()).addAll(entry.getValue());
+        }
+    }
+
+    /**
+     * Adds a portion of province to the grid.
      *
      * @param line        to parse.
-     * @param provinces   existing provinces.
-     * @param paths       list of paths.
+     * @param grid        grid being parsed.
      * @param regions     List of regions (rotw).
      * @param aliases     the aliases.
-     * @param rotw        flag saying that the subProvince is for the ROTW map.
      * @param zoomParsing flag saying that the subProvince is in a zoom (for Europe map).
      * @param log         log writer.
      * @throws IOException exception.
      */
-    private static void addSubProvince(String line, Map<String, Province> provinces, Map<String, Path> paths,
-                                       Map<String, Region> regions, Map<String, Map<String, List<String>>> aliases,
-                                       boolean rotw, boolean zoomParsing, Writer log) throws IOException {
-        Matcher m = Pattern.compile(".*\\((.*)\\) ?ppdef.*").matcher(line);
-        if (!m.matches()) {
+    private static void addSubProvince(String line, Grid grid, Map<String, Region> regions, AliasIndex aliases,
+                                       boolean zoomParsing, Writer log) throws IOException {
+        Matcher m = PORTION.match(line);
+        if (m == null) {
             return;
         }
         String provinceName = m.group(1);
@@ -345,50 +425,34 @@ public class DataExtractor {
         if (provinceName == null) {
             return;
         }
-        Province province = provinces.get(provinceName);
-        if (province == null) {
-            province = new Province(provinceName, log);
-            provinces.put(provinceName, province);
-        }
-        SubProvince portion = new SubProvince(terrain, secondary, rotw);
-        m = Pattern.compile("(/path\\d+ AR?)|(/bord\\d+ AR?)|(/mer\\d+ AR?)|(carre[a-zA-Z]+ AR?)").matcher(line);
+        SubProvince portion = new SubProvince(terrain, secondary, grid.isRotw());
+        m = PORTION_PATH.matcher(line);
         while (m.find()) {
             String string = m.group();
-            Path pathFound = paths.get(string.split(" ")[0]);
+            Path pathFound = grid.getPaths().get(string.split(" ")[0]);
             if (pathFound != null) {
                 portion.getPaths().add(new DirectedPath(pathFound, string.split(" ")[1].contains("R")));
             } else {
-                log.append(province.getName()).append("\t").append("Path not found").append("\t").append(string.split(" ")[0]).append("\n");
+                log.append(provinceName).append("\t").append("Path not found").append("\t").append(string.split(" ")[0]).append("\n");
             }
         }
 
-        if ((zoomParsing && !portion.isLight() && !portion.isSecondary())
-                || (!province.getPortions().isEmpty() && province.getPortions().get(0).isSecondary() && !portion.isSecondary())
-                || (!province.getPortions().isEmpty() && province.getPortions().get(0).isLight() && !portion.isLight())) {
-            province.getPortions().add(0, portion);
-        } else {
-            province.getPortions().add(portion);
-        }
+        grid.getPlacements().add(new Grid.Placement(provinceName, portion, zoomParsing));
     }
 
     /**
-     * Adds a portion to an existing province.
+     * Adds a square portion of province to the grid.
      *
-     * @param line        to parse.
-     * @param provinces   existing provinces.
+     * @param m           the line matched by {@link #SQUARE}.
+     * @param grid        grid being parsed.
      * @param regions     List of regions (rotw).
      * @param aliases     the aliases.
-     * @param rotw        flag saying that the subProvince is for the ROTW map.
      * @param zoomParsing flag saying that the subProvince is in a zoom (for Europe map).
      * @param log         log writer.
      * @throws IOException exception.
      */
-    private static void addSquare(String line, Map<String, Province> provinces, Map<String, Region> regions,
-                                  Map<String, Map<String, List<String>>> aliases, boolean rotw, boolean zoomParsing, Writer log) throws IOException {
-        Matcher m = Pattern.compile("\\s*(\\d{4}) (\\d{4}) \\d\\([^\\)]*\\)\\(([^\\)]*)\\)\\(([^\\)]*)\\) (true|false) carre\\s*").matcher(line);
-        if (!m.matches()) {
-            return;
-        }
+    private static void addSquare(Matcher m, Grid grid, Map<String, Region> regions,
+                                  AliasIndex aliases, boolean zoomParsing, Writer log) throws IOException {
         double x = Integer.parseInt(m.group(1)) - SQUARE_SIZE / 2;
         double y = Integer.parseInt(m.group(2)) - SQUARE_SIZE / 2;
         String provinceName = m.group(3);
@@ -407,7 +471,8 @@ public class DataExtractor {
         if (provinceName == null) {
             return;
         }
-        createSquare(provinceName, squareName, x, y, SQUARE_SIZE, terrain, zoomParsing, rotw, secondary, provinces, log);
+        SubProvince portion = createRectanglePortion(squareName, x, y, SQUARE_SIZE, SQUARE_SIZE, terrain, grid.isRotw(), secondary);
+        grid.getPlacements().add(new Grid.Placement(provinceName, portion, zoomParsing));
     }
 
     /**
@@ -423,12 +488,11 @@ public class DataExtractor {
      * @param rotw         flag saying that the square is in the rotw map.
      * @param secondary    flag saying that the square is secondary.
      * @param provinces    existing provinces.
-     * @param log          log writer.
      * @return the created province.
      */
     private static Province createSquare(String provinceName, String squareName, double x, double y, double size, String terrain, boolean zoomParsing,
-                                         boolean rotw, boolean secondary, Map<String, Province> provinces, Writer log) {
-        return createRectangle(provinceName, squareName, x, y, size, size, terrain, zoomParsing, rotw, secondary, provinces, log);
+                                         boolean rotw, boolean secondary, Map<String, Province> provinces) {
+        return createRectangle(provinceName, squareName, x, y, size, size, terrain, zoomParsing, rotw, secondary, provinces);
     }
 
     /**
@@ -445,33 +509,58 @@ public class DataExtractor {
      * @param rotw         flag saying that the rectangle is in the rotw map.
      * @param secondary    flag saying that the rectangle is secondary.
      * @param provinces    existing provinces.
-     * @param log          log writer.
      * @return the created province.
      */
     private static Province createRectangle(String provinceName, String squareName, double x, double y, double xSize, double ySize, String terrain, boolean zoomParsing,
-                                            boolean rotw, boolean secondary, Map<String, Province> provinces, Writer log) {
-        Province province = provinces.get(provinceName);
-        if (province == null) {
-            province = new Province(provinceName, log);
-            provinces.put(provinceName, province);
-        }
+                                            boolean rotw, boolean secondary, Map<String, Province> provinces) {
+        SubProvince portion = createRectanglePortion(squareName, x, y, xSize, ySize, terrain, rotw, secondary);
+
+        return addPortion(provinceName, portion, zoomParsing, provinces);
+    }
+
+    /**
+     * Create a rectangle portion of province.
+     *
+     * @param squareName name of the rectangle.
+     * @param x          coordinate x of the rectangle.
+     * @param y          coordinate y of the rectangle.
+     * @param xSize      width of the rectangle.
+     * @param ySize      height of the rectangle.
+     * @param terrain    terrain of the rectangle.
+     * @param rotw       flag saying that the rectangle is in the rotw map.
+     * @param secondary  flag saying that the rectangle is secondary.
+     * @return the portion.
+     */
+    private static SubProvince createRectanglePortion(String squareName, double x, double y, double xSize, double ySize, String terrain,
+                                                      boolean rotw, boolean secondary) {
         SubProvince portion = new SubProvince(terrain, secondary, rotw);
         Path squarePath = new Path(squareName, true, rotw);
-        squarePath.getCoords().add(new ImmutablePair<>(x, y));
-        squarePath.getCoords().add(new ImmutablePair<>(x + xSize, y));
-        squarePath.getCoords().add(new ImmutablePair<>(x + xSize, y + ySize));
-        squarePath.getCoords().add(new ImmutablePair<>(x, y + ySize));
-        squarePath.getCoords().add(new ImmutablePair<>(x, y));
+        squarePath.addCoords(x, y);
+        squarePath.addCoords(x + xSize, y);
+        squarePath.addCoords(x + xSize, y + ySize);
+        squarePath.addCoords(x, y + ySize);
+        squarePath.addCoords(x, y);
         portion.getPaths().add(new DirectedPath(squarePath, false));
 
+        return portion;
+    }
 
-        if ((zoomParsing && !portion.isLight() && !portion.isSecondary())
-                || (!province.getPortions().isEmpty() && province.getPortions().get(0).isSecondary() && !portion.isSecondary())
-                || (!province.getPortions().isEmpty() && province.getPortions().get(0).isLight() && !portion.isLight())) {
-            province.getPortions().add(0, portion);
-        } else {
-            province.getPortions().add(portion);
+    /**
+     * Adds a portion to a province, creating the province if needed.
+     *
+     * @param provinceName name of the province.
+     * @param portion      portion to add.
+     * @param zoomParsing  flag saying that the portion is in a zoom.
+     * @param provinces    existing provinces.
+     * @return the province.
+     */
+    private static Province addPortion(String provinceName, SubProvince portion, boolean zoomParsing, Map<String, Province> provinces) {
+        Province province = provinces.get(provinceName);
+        if (province == null) {
+            province = new Province(provinceName);
+            provinces.put(provinceName, province);
         }
+        province.addPortion(portion, zoomParsing);
 
         return province;
     }
@@ -494,7 +583,7 @@ public class DataExtractor {
      * @throws IOException exception.
      */
     private static String getRealProvinceName(String input, Map<String, Region> regions,
-                                              Map<String, Map<String, List<String>>> aliases,
+                                              AliasIndex aliases,
                                               String terrain, Writer log) throws IOException {
         if (StringUtils.equals("noman", terrain) || StringUtils.equals("lac", terrain)) {
             return null;
@@ -519,7 +608,7 @@ public class DataExtractor {
             provinceName = input.substring(0, input.indexOf('~'));
         }
 
-        String realName = findInAliases(provinceName, aliasPrefix, aliases, log);
+        String realName = aliases.findInAliases(provinceName, aliasPrefix, log);
 
         if (realName == null) {
             boolean needToLog = terrain != null
@@ -543,49 +632,18 @@ public class DataExtractor {
         return prefix + realName + suffix;
     }
 
-    /**
-     * Find a name in the aliases and return the internal code.
-     *
-     * @param name    input value.
-     * @param prefix  prefix in aliases.
-     * @param aliases the aliases.
-     * @param log     log writer.
-     * @return the internal code.
-     * @throws IOException exception.
-     */
-    private static String findInAliases(String name, String prefix, Map<String, Map<String, List<String>>> aliases, Writer log) throws IOException {
-        String realName = null;
-        if (aliases.get(prefix).containsKey(name)) {
-            realName = name;
-        } else if (aliases.get(prefix + "Inv") != null && aliases.get(prefix + "Inv").containsKey(name)) {
-            realName = aliases.get(prefix + "Inv").get(name).get(0);
-        } else {
-            for (String key : aliases.get(prefix).keySet()) {
-                for (String value : aliases.get(prefix).get(key)) {
-                    if (!StringUtils.isEmpty(matchProvinceName(value, name, StringUtils::equals))) {
-                        if (realName != null) {
-                            log.append(name).append("\tCan't find root name: ambiguous values\t")
-                                    .append(realName).append("\t").append(key).append("\n");
-                        }
-                        realName = key;
-                    }
-                }
-            }
-        }
-        return realName;
-    }
-
     /**
      * Extract data about the provinces.
      *
-     * @param provinces data gathered so far.
-     * @param aliases   the aliases.
-     * @param file      name of the file to parse.
-     * @param rotw      flag saying that the file is for the ROTW map.
-     * @param log       log writer.
+     * @param provinces     data gathered so far.
+     * @param provinceIndex spatial index of the provinces.
+     * @param aliases       the aliases.
+     * @param file          name of the file to parse.
+     * @param rotw          flag saying that the file is for the ROTW map.
+     * @param log           log writer.
      * @throws Exception exception.
      */
-    public static void extractProvinceData(Map<String, Province> provinces, Map<String, Map<String, List<String>>> aliases,
+    public static void extractProvinceData(Map<String, Province> provinces, ProvinceIndex provinceIndex, AliasIndex aliases,
                                            String file, boolean rotw, Writer log) throws Exception {
         String line;
         BufferedReader reader = new BufferedReader(new InputStreamReader(DataExtractor.class.getClassLoader().getResourceAsStream(file)));
@@ -598,7 +656,7 @@ public class DataExtractor {
                 block.add(line);
             } else if (line.startsWith("; ---") || line.startsWith("; %%%")) {
                 if (!block.isEmpty()) {
-                    processBlock(block, provinces, aliases, rotw, log);
+                    processBlock(block, provinces, provinceIndex, aliases, rotw, log);
                 }
                 block.clear();
             } else if (!block.isEmpty()) {
@@ -606,70 +664,26 @@ public class DataExtractor {
             }
         }
         if (!block.isEmpty()) {
-            processBlock(block, provinces, aliases, rotw, log);
+            processBlock(block, provinces, provinceIndex, aliases, rotw, log);
         }
     }
 
     /**
      * Process a block of the extractProvinceData segment.
      *
-     * @param block     to parse.
-     * @param provinces data gathered so far.
-     * @param aliases   the aliases.
-     * @param rotw      flag saying that the file is for the ROTW map.
-     * @param log       log writer.
+     * @param block         to parse.
+     * @param provinces     data gathered so far.
+     * @param provinceIndex spatial index of the provinces.
+     * @param aliases       the aliases.
+     * @param rotw          flag saying that the file is for the ROTW map.
+     * @param log           log writer.
      * @throws Exception exception.
      */
-    private static void processBlock(List<String> block, Map<String, Province> provinces, Map<String, Map<String, List<String>>> aliases,
-                                     boolean rotw, Writer log) throws Exception {
+    private static void processBlock(List<String> block, Map<String, Province> provinces, ProvinceIndex provinceIndex,
+                                     AliasIndex aliases, boolean rotw, Writer log) throws Exception {
         ProvinceInfo info = new ProvinceInfo();
         for (String line : block) {
-            Matcher m = Pattern.compile("NOM [^\"]* \"(.*)\" .*").matcher(line);
-            if (m.matches()) {
-                if (!StringUtils.isEmpty(info.getNameCity())) {
-                    info.getAltNameCity().add(purifyName(m.group(1)));
-                } else {
-                    info.setNameCity(purifyName(m.group(1)));
-                }
-                continue;
-            }
-            m = Pattern.compile("ALTNOM [^\"]* \"(.*)\" .*").matcher(line);
-            if (m.matches()) {
-                info.getAltNameCity().add(purifyName(m.group(1)));
-                continue;
-            }
-            m = Pattern.compile("(PROV|PROVCURVE|PROVCURVEX) [^\"]* \"(.*)\" .*").matcher(line);
-            if (m.matches()) {
-                if (!StringUtils.isEmpty(info.getNameProvince())) {
-                    info.getAltNameProvince().add(purifyName(m.group(2)));
-                } else {
-                    info.setNameProvince(purifyName(m.group(2)));
-                }
-                continue;
-            }
-            m = Pattern.compile("ALTPROV [^\"]* \"(.*)\" .*").matcher(line);
-            if (m.matches()) {
-                info.getAltNameProvince().add(purifyName(m.group(1)));
-                continue;
-            }
-            m = Pattern.compile("CITE (\\d{4}) (\\d{4}) (.*)").matcher(line);
-            if (m.matches()) {
-                String string = m.group(3);
-                string = string.replace("jaune", "");
-                info.setCapital(string.contains("capitale"));
-                info.setFortress(Integer.parseInt(string.substring(string.length() - 1)));
-                info.setX(Integer.parseInt(m.group(1)));
-                info.setY(Integer.parseInt(m.group(2)));
-                continue;
-            }
-            m = Pattern.compile("IMG (\\d{4}) (\\d{4}) (anchor\\d?)").matcher(line);
-            if (m.matches()) {
-                info.setXPort(Integer.parseInt(m.group(1)));
-                info.setYPort(Integer.parseInt(m.group(2)));
-                String string = m.group(3);
-                info.setPort(StringUtils.equals("anchor", string) || StringUtils.equals("anchor4", string));
-                info.setArsenal(StringUtils.equals("anchor2", string) || StringUtils.equals("anchor5", string));
-                info.setPraesidiable(StringUtils.equals("anchor4", string) || StringUtils.equals("anchor5", string));
+            if (PROVINCE_BLOCK.dispatch(line, info)) {
                 continue;
             }
             if (line.startsWith("VALUE ")) {
@@ -729,7 +743,7 @@ public class DataExtractor {
             found.setInfo(info);
         } else {
             if (rotw && StringUtils.isEmpty(info.getNameProvince())) {
-                Province province = findProvinceAtCoordinates(provinces, null,
+                Province province = provinceIndex.findProvinceAtCoordinates(null,
                         info.getX(), info.getY(), true);
                 province.getRotwInfo().transfertFromProvinceInfo(info);
             } else {
@@ -799,47 +813,16 @@ public class DataExtractor {
      * @param aliases List of aliases.
      * @return the province related to the info.
      */
-    private static String deepSearchProvince(ProvinceInfo info, Map<String, Map<String, List<String>>> aliases) {
-        String province = null;
-
-        for (String provinceName : aliases.get("province").keySet()) {
-            List<String> alts = aliases.get("province").get(provinceName);
-            alts.addAll(aliases.get("provinceInv").keySet().stream().filter(alias -> aliases.get("provinceInv").get(alias).contains(provinceName)).collect(Collectors.toList()));
-
-            for (String alt : alts) {
-                String name = matchProvinceName(alt, info.getNameProvince(), StringUtils::equals);
-                if (StringUtils.isEmpty(name)) {
-                    for (String altInfo : info.getAltNameProvince()) {
-                        name = matchProvinceName(alt, altInfo, StringUtils::equals);
-                        if (!StringUtils.isEmpty(name)) {
-                            break;
-                        }
-                    }
-                }
-
-                if (StringUtils.isEmpty(name)) {
-                    if (info.getAltNameProvince().size() == 1) {
-                        String nameToTest = info.getNameProvince() + info.getAltNameProvince().get(0);
-                        name = matchProvinceName(alt, nameToTest, StringUtils::equals);
-                        if (StringUtils.isEmpty(name)) {
-                            nameToTest = info.getNameProvince() + " " + info.getAltNameProvince().get(0);
-                            name = matchProvinceName(alt, nameToTest, StringUtils::equals);
-                        }
-                    }
-                }
-
-                if (!StringUtils.isEmpty(name)) {
-                    province = provinceName;
-                    break;
-                }
-            }
-
-            if (!StringUtils.isEmpty(province)) {
-                break;
-            }
+    private static String deepSearchProvince(ProvinceInfo info, AliasIndex aliases) {
+        List<String> names = new ArrayList<>();
+        names.add(info.getNameProvince());
+        names.addAll(info.getAltNameProvince());
+        if (info.getAltNameProvince().size() == 1) {
+            names.add(info.getNameProvince() + info.getAltNameProvince().get(0));
+            names.add(info.getNameProvince() + " " + info.getAltNameProvince().get(0));
         }
 
-        return province;
+        return aliases.findProvince(names);
     }
 
     /**
@@ -923,21 +906,21 @@ public class DataExtractor {
     /**
      * Create the special boxes on the maps.
      *
-     * @param log log writer.
+     * @param provinces existing provinces.
      */
-    public static void createSpecialBoxes(Map<String, Province> provinces, Writer log) {
+    public static void createSpecialBoxes(Map<String, Province> provinces) {
         // Military rounds track
         double xBegin = 1550;
         double yBegin = 32;
         for (int i = 0; i <= 5; i++) {
             createSquare("B_MR_W" + i, "B_MR_W" + i, xBegin + 2 * i * SQUARE_SIZE, yBegin, SQUARE_SIZE,
-                    null, false, false, false, provinces, log);
+                    null, false, false, false, provinces);
             String name = "B_MR_S" + (i + 1);
             if (i == 5) {
                 name = "B_MR_End";
             }
             createSquare(name, name, xBegin + 2 * i * SQUARE_SIZE, yBegin + 2 * SQUARE_SIZE, SQUARE_SIZE,
-                    null, false, false, false, provinces, log);
+                    null, false, false, false, provinces);
         }
 
         // Turn track
@@ -946,12 +929,12 @@ public class DataExtractor {
         yBegin = 3550;
         for (int i = 1; i <= 42; i++) {
             createSquare("B_Turn_" + i, "B_Turn_" + i, xBegin + i * turnSize, yBegin, turnSize,
-                    null, false, true, false, provinces, log);
+                    null, false, true, false, provinces);
         }
         xBegin = 8187;
         for (int i = 0; i <= 19; i++) {
             createSquare("B_Turn_" + (43 + i), "B_Turn_" + (43 + i), xBegin, yBegin - i * turnSize, turnSize,
-                    null, false, true, false, provinces, log);
+                    null, false, true, false, provinces);
         }
 
         // Prices track
@@ -971,10 +954,10 @@ public class DataExtractor {
             }
             String name = "B_PB_" + Integer.toString(value) + suffix;
             createRectangle(name, name, xBegin + 2 * SQUARE_SIZE * i, yBegin, 2 * SQUARE_SIZE, SQUARE_SIZE,
-                    null, false, true, false, provinces, log);
+                    null, false, true, false, provinces);
             name = "B_PH_" + Integer.toString(value) + suffix;
             createRectangle(name, name, xBegin + 2 * SQUARE_SIZE * i, yBegin + SQUARE_SIZE, 2 * SQUARE_SIZE, SQUARE_SIZE,
-                    null, false, true, false, provinces, log);
+                    null, false, true, false, provinces);
         }
 
         // Production track
@@ -983,19 +966,19 @@ public class DataExtractor {
         for (int i = 1; i <= 40; i++) {
             String name = "B_PROD40_" + i;
             createSquare(name, name, xBegin + SQUARE_SIZE * i, yBegin, SQUARE_SIZE,
-                    null, false, true, false, provinces, log);
+                    null, false, true, false, provinces);
         }
         yBegin += SQUARE_SIZE;
         for (int i = 1; i <= 30; i++) {
             String name = "B_PROD30_" + i;
             createSquare(name, name, xBegin + SQUARE_SIZE * i, yBegin, SQUARE_SIZE,
-                    null, false, true, false, provinces, log);
+                    null, false, true, false, provinces);
         }
         yBegin += SQUARE_SIZE;
         for (int i = 1; i <= 20; i++) {
             String name = "B_PROD20_" + i;
             createSquare(name, name, xBegin + SQUARE_SIZE * i, yBegin, SQUARE_SIZE,
-                    null, false, true, false, provinces, log);
+                    null, false, true, false, provinces);
         }
 
         // Great orient income track
@@ -1004,7 +987,7 @@ public class DataExtractor {
         for (int i = 0; i <= 9; i++) {
             String name = "B_GOI_-" + (10 * i);
             createSquare(name, name, xBegin + SQUARE_SIZE * i, yBegin, SQUARE_SIZE,
-                    null, false, true, false, provinces, log);
+                    null, false, true, false, provinces);
         }
 
         // Technology track
@@ -1015,7 +998,7 @@ public class DataExtractor {
             int row = 5 - i / 12;
             int col = i % 12;
             createSquare(name, name, xBegin + 2 * SQUARE_SIZE * col, yBegin + 2 * SQUARE_SIZE * row, 2 * SQUARE_SIZE,
-                    null, false, true, false, provinces, log);
+                    null, false, true, false, provinces);
         }
 
         // Stability track
@@ -1025,7 +1008,7 @@ public class DataExtractor {
         for (int i = 0; i < 7; i++) {
             String name = "B_STAB_" + (i - 3);
             createSquare(name, name, xBegin + stabSize * i, yBegin, stabSize,
-                    null, false, true, false, provinces, log);
+                    null, false, true, false, provinces);
         }
 
         // Diplomacy rotw track
@@ -1052,7 +1035,7 @@ public class DataExtractor {
             for (int col = 0; col < diplomacyRotw[row].length; col++) {
                 String name = "B_DR_" + diplomacyRotw[row][col];
                 createRectangle(name, name, xBegin + 4.5 * SQUARE_SIZE * col, yBegin + 2 * SQUARE_SIZE * row, 4.5 * SQUARE_SIZE, 2 * SQUARE_SIZE,
-                        null, false, true, false, provinces, log);
+                        null, false, true, false, provinces);
             }
         }
 
@@ -1063,7 +1046,7 @@ public class DataExtractor {
         xBegin = 5347;
         yBegin = 3765;
         createRectangle("B_DE_NEUTRALS", "B_DE_NEUTRALS", 4900, yBegin, xBegin - 4900, 12 * diplomacyHeight,
-                null, false, true, false, provinces, log);
+                null, false, true, false, provinces);
         String[] levels = new String[7];
         levels[0] = "RM";
         levels[1] = "SUB";
@@ -1089,7 +1072,7 @@ public class DataExtractor {
             for (int col = 0; col < levels.length; col++) {
                 String name = "B_DE_" + countries[row] + "-" + levels[col];
                 createRectangle(name, name, xBegin + 2 * diplomacySize * col, yBegin + diplomacyHeight * row, 2 * diplomacySize, diplomacyHeight,
-                        null, false, true, false, provinces, log);
+                        null, false, true, false, provinces);
             }
         }
     }
@@ -1097,30 +1080,32 @@ public class DataExtractor {
     /**
      * Extract data about the seas.
      *
-     * @param provinces data gathered so far.
-     * @param countries the countries.
-     * @param borders   existing borders.
-     * @param aliases   the aliases.
-     * @param rotw      flag to know if europe or rotw part is being parsed.
-     * @param log       log writer.
+     * @param provinces     data gathered so far.
+     * @param provinceIndex spatial index of the provinces.
+     * @param countries     the countries.
+     * @param borders       existing borders.
+     * @param aliases       the aliases.
+     * @param rotw          flag to know if europe or rotw part is being parsed.
+     * @param log           log writer.
      * @throws Exception exception.
      */
-    public static void extractSeaData(Map<String, Province> provinces, Map<String, Country> countries, List<Border> borders,
-                                      Map<String, Map<String, List<String>>> aliases, String file,
+    public static void extractSeaData(Map<String, Province> provinces, ProvinceIndex provinceIndex, Map<String, Country> countries, List<Border> borders,
+                                      AliasIndex aliases, String file,
                                       boolean rotw, Writer log) throws Exception {
         String line;
         Province lastSeazone = null;
+        BorderRegistry registry = new BorderRegistry(borders);
         BufferedReader reader = new BufferedReader(new InputStreamReader(DataExtractor.class.getClassLoader().getResourceAsStream(file)));
         while ((line = reader.readLine()) != null) {
             if (line.contains("%")) {
                 line = line.substring(0, line.indexOf('%')).trim();
             }
             if (line.startsWith("(img:orage")) {
-                Matcher m = Pattern.compile("\\(img:orage(\\d)\\) \\d{4} \\d{4} \\(([^\\)]*)\\).*").matcher(line);
-                if (m.matches()) {
+                Matcher m = SEA_ZONE.match(line);
+                if (m != null) {
                     int difficulty = Integer.parseInt(m.group(1));
                     String name = m.group(2);
-                    String realName = findInAliases(name, "seazone", aliases, log);
+                    String realName = aliases.findInAliases(name, "seazone", log);
                     lastSeazone = isSeaZone(realName, provinces);
                     if (lastSeazone != null) {
                         lastSeazone.setSeaInfo(new SeaInfo());
@@ -1144,57 +1129,28 @@ public class DataExtractor {
                     || line.endsWith("zp")
                     || line.endsWith("zpshield")
                     || line.endsWith("zmshield")) {
-                Integer monopoly = null;
-                Integer presence = null;
-                String country = null;
-                Double x = null;
-                Double y = null;
                 String type = "ZP";
                 if (line.contains("zm")) {
                     type = "ZM";
                 }
 
-                Matcher m = Pattern.compile("\\((\\d*)\\) (\\d) (\\d{4}) (\\d{4}) .*").matcher(line);
-                if (m.matches()) {
-                    monopoly = Integer.parseInt(m.group(1));
-                    presence = Integer.parseInt(m.group(2));
-                    x = Double.parseDouble(m.group(3));
-                    y = Double.parseDouble(m.group(4));
-                }
-
-                m = Pattern.compile("\\w* \\w* (\\d*) (\\d) \\([^\\)]*\\) \\w* \\(([^\\)]*)\\) (\\d*) (\\d*) .*").matcher(line);
-                if (m.matches()) {
-                    monopoly = Integer.parseInt(m.group(1));
-                    presence = Integer.parseInt(m.group(2));
-                    country = m.group(3);
-                    x = Double.parseDouble(m.group(4));
-                    y = Double.parseDouble(m.group(5));
-                }
-
-                m = Pattern.compile("\\w* \\w* (\\d*) (\\d) \\([^\\)]*\\) @ (\\d*) (\\d*) .*").matcher(line);
-                if (m.matches()) {
-                    monopoly = Integer.parseInt(m.group(1));
-                    presence = Integer.parseInt(m.group(2));
-                    x = Double.parseDouble(m.group(3));
-                    y = Double.parseDouble(m.group(4));
-                }
-
-                if (monopoly != null) {
-                    x += SQUARE_SIZE / 6;
-                    y += SQUARE_SIZE / 5;
+                TradeZoneLine zone = new TradeZoneLine();
+                if (TRADE_ZONE.dispatch(line, zone)) {
+                    double x = zone.x + SQUARE_SIZE / 6;
+                    double y = zone.y + SQUARE_SIZE / 5;
                     TradeZone tradeZone = new TradeZone();
-                    tradeZone.setMonopoly(monopoly);
-                    tradeZone.setPresence(presence);
+                    tradeZone.setMonopoly(zone.monopoly);
+                    tradeZone.setPresence(zone.presence);
                     tradeZone.setType(type);
-                    Province seaZone = findProvinceAtCoordinates(provinces, "SEA", x, y, rotw);
+                    Province seaZone = provinceIndex.findProvinceAtCoordinates(Province.Terrain.SEA, x, y, rotw);
                     if (seaZone != null) {
                         tradeZone.setSeaZone(seaZone.getName());
                     } else {
                         log.append("Can't find sea zone\t").append(line).append("\n");
                     }
-                    String realCountry = transformMajorName(country);
-                    if (!countries.containsKey(realCountry) && !StringUtils.isEmpty(country)) {
-                        log.append(country).append("\tCountry not found.\n");
+                    String realCountry = transformMajorName(zone.country);
+                    if (!countries.containsKey(realCountry) && !StringUtils.isEmpty(zone.country)) {
+                        log.append(zone.country).append("\tCountry not found.\n");
                     }
                     tradeZone.setCountryName(realCountry);
                     String name;
@@ -1204,27 +1160,25 @@ public class DataExtractor {
                         name = type + tradeZone.getSeaZone().substring(1);
                     }
 
-                    Province square = createSquare(name, name, x, y, SQUARE_SIZE, null, false, rotw, false, provinces, log);
-                    square.restructure();
+                    Province square = createSquare(name, name, x, y, SQUARE_SIZE, null, false, rotw, false, provinces);
+                    square.restructure(log);
                     square.setTradeInfo(tradeZone);
                 } else {
                     log.append("Can't parse ZM/ZP\t").append(line).append("\n");
                 }
             } else if (line.endsWith(" detroit")) {
-                Matcher m = Pattern.compile("\\[(\\d+) (\\d+) *\\-?\\d+ (\\d+) (\\d+) \\d+ \\d+\\.?\\d*\\] detroit").matcher(line);
-                if (m.matches()) {
+                Matcher m = STRAIT.match(line);
+                if (m != null) {
                     int x1 = Integer.parseInt(m.group(1));
                     int y1 = Integer.parseInt(m.group(2));
                     int x2 = Integer.parseInt(m.group(3));
                     int y2 = Integer.parseInt(m.group(4));
 
-                    Province provA = findProvinceAtCoordinates(provinces, null, x1, y1, rotw);
-                    Province provB = findProvinceAtCoordinates(provinces, null, x2, y2, rotw);
+                    Province provA = provinceIndex.findProvinceAtCoordinates(null, x1, y1, rotw);
+                    Province provB = provinceIndex.findProvinceAtCoordinates(null, x2, y2, rotw);
                     if (provA != null && provB != null && provA != provB) {
-                        Border border = new Border(provA, provB, "STRAIT");
-                        if (!borders.contains(border)) {
-                            borders.add(border);
-                        }
+                        Border border = new Border(provA, provB, Border.BorderType.STRAIT);
+                        registry.add(border);
                     }
                 } else {
                     log.append("Can't parse strait\t").append(line).append("\n");
@@ -1233,63 +1187,6 @@ public class DataExtractor {
         }
     }
 
-    /**
-     * Find the province at the given coordinates.
-     *
-     * @param provinces data gathered so far.
-     * @param terrain   terrain to filter search.
-     * @param x         coordinate.
-     * @param y         coordinate.
-     * @param rotw      search must be done on rotw provinces.
-     */
-    private static Province findProvinceAtCoordinates(Map<String, Province> provinces, String terrain, double x, double y, boolean rotw) {
-        Province province = null;
-        for (Province prov : provinces.values()) {
-            if (terrain == null || StringUtils.equals(terrain, prov.getTerrain())) {
-                for (Pair<List<List<Pair<Double, Double>>>, Boolean> coord : prov.getCoords()) {
-                    if (coord.getRight() == rotw) {
-                        for (List<Pair<Double, Double>> points : coord.getLeft()) {
-                            if (isInside(x, y, points)) {
-                                if (!StringUtils.equals("SEA", prov.getTerrain()) &&
-                                        !StringUtils.equals("SEA", terrain)) {
-                                    return prov;
-                                } else {
-                                    province = prov;
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-        }
-
-        return province;
-    }
-
-    /**
-     * Checks whether the position is within the border of the coordinates.
-     * <p>
-     * Uses a polygon containment algorithm described here:
-     * http://www.ecse.rpi.edu/Homepages/wrf/Research/Short_Notes/pnpoly.html
-     *
-     * @param checkX The x position to check if inside.
-     * @param checkY The y position to check if inside.
-     * @param coords The coordinates of the polygon
-     * @return True if inside, false otherwise.
-     */
-    private static boolean isInside(double checkX, double checkY, List<Pair<Double, Double>> coords) {
-        boolean inside = false;
-        for (int i = 0, j = coords.size() - 1; i < coords.size(); j = i++) {
-            Pair<Double, Double> pi = coords.get(i);
-            Pair<Double, Double> pj = coords.get(j);
-            if ((((pi.getRight() <= checkY) && (checkY < pj.getRight())) || ((pj.getRight() <= checkY) && (checkY < pi.getRight())))
-                    && (checkX < (pj.getLeft() - pi.getLeft()) * (checkY - pi.getRight()) / (pj.getRight() - pi.getRight()) + pi.getLeft())) {
-                inside = !inside;
-            }
-        }
-        return inside;
-    }
-
     /**
      * Transform a name in ZP/ZM to a Major name.
      *
@@ -1333,28 +1230,33 @@ public class DataExtractor {
     /**
      * Extract data about the mines and salt.
      *
-     * @param provinces data gathered so far.
-     * @param countries the countries.
-     * @param borders   existing borders.
-     * @param aliases   the aliases.
-     * @param rotw      flag to know if europe or rotw part is being parsed.
-     * @param log       log writer.
+     * @param provinces     data gathered so far.
+     * @param provinceIndex spatial index of the provinces.
+     * @param provinceIds   ids of the provinces.
+     * @param countries     the countries.
+     * @param borders       existing borders.
+     * @param aliases       the aliases.
+     * @param rotw          flag to know if europe or rotw part is being parsed.
+     * @param log           log writer.
      * @throws Exception exception.
      */
-    public static List<Mine> extractMinesSaltData(Map<String, Province> provinces, Map<String, Country> countries, List<Border> borders,
-                                                  Map<String, Map<String, List<String>>> aliases, String file,
+    public static List<Mine> extractMinesSaltData(Map<String, Province> provinces, ProvinceIndex provinceIndex, ProvinceRegistry provinceIds,
+                                                  Map<String, Country> countries, List<Border> borders,
+                                                  AliasIndex aliases, String file,
                                                   boolean rotw, Writer log) throws Exception {
         List<Mine> mines = new ArrayList<>();
+        // The mine of each province, by id.
+        Mine[] minesById = new Mine[provinceIds.size()];
         String line;
         BufferedReader reader = new BufferedReader(new InputStreamReader(DataExtractor.class.getClassLoader().getResourceAsStream(file)));
         while ((line = reader.readLine()) != null) {
             if (line.contains("%")) {
                 line = line.substring(0, line.indexOf('%')).trim();
             }
-            Matcher m = Pattern.compile("\\((.*)\\) (\\d{4}) (\\d{4}) .*").matcher(line);
-            if (!m.matches()) {
-                m = Pattern.compile("\\((.*)\\) (\\d{4}) \\d{2} add (\\d{4}) \\d{2} add .*").matcher(line);
-                if (!m.matches()) {
+            Matcher m = MINE.match(line);
+            if (m == null) {
+                m = MINE_OFFSET.match(line);
+                if (m == null) {
                     continue;
                 }
             }
@@ -1363,16 +1265,17 @@ public class DataExtractor {
             // image is in the neighboring province
             Double x = Double.parseDouble(m.group(2)) + 10;
             Double y = Double.parseDouble(m.group(3)) + 10;
-            Province province = findProvinceAtCoordinates(provinces, null, x, y, rotw);
+            Province province = provinceIndex.findProvinceAtCoordinates(null, x, y, rotw);
             String provinceName = province.getName();
             if (province != null) {
                 if (StringUtils.equals("img:mine", type)) {
-                    Optional<Mine> opt = mines.stream().filter(mine1 -> StringUtils.equals(provinceName, mine1.getProvince())).findFirst();
-                    if (opt.isPresent()) {
-                        opt.get().setGold(opt.get().getGold() + Mine.DEFAULT_GOLD);
+                    Mine existingMine = minesById[provinceIds.getId(provinceName)];
+                    if (existingMine != null) {
+                        existingMine.setGold(existingMine.getGold() + Mine.DEFAULT_GOLD);
                     } else {
                         Mine mine = new Mine(province.getName());
                         mines.add(mine);
+                        minesById[provinceIds.getId(provinceName)] = mine;
                     }
                 } else if (StringUtils.equals("img:sel", type)) {
                     // the salt of Corfou is in the ionenne sea
@@ -1391,13 +1294,14 @@ public class DataExtractor {
                 } else if (StringUtils.isNumeric(type)) {
                     int nb = Integer.parseInt(type);
                     if (rotw) {
-                        Optional<Mine> opt = mines.stream().filter(mine1 -> StringUtils.equals(provinceName, mine1.getProvince())).findFirst();
-                        if (opt.isPresent()) {
-                            opt.get().setGold(nb);
+                        Mine existingMine = minesById[provinceIds.getId(provinceName)];
+                        if (existingMine != null) {
+                            existingMine.setGold(nb);
                         } else {
                             Mine mine = new Mine(province.getName());
                             mine.setGold(nb);
                             mines.add(mine);
+                            minesById[provinceIds.getId(provinceName)] = mine;
                             log.append("Warning: shouldn't define a special mine in a province without mine\t").append(province.getName()).append("\t").append(line).append("\n");
                         }
                     } else {
@@ -1431,7 +1335,7 @@ public class DataExtractor {
      */
     public static Map<String, Country> createCountries(Writer log) throws Exception {
         Map<String, Country> countries = new HashMap<>();
-        Country major = new Country("MAJOR");
+        Country major = new Country(Country.CountryType.MAJOR);
         major.setName("france");
         major.setLongLabel("Kingdom of France");
         major.setShortLabel("France");
@@ -1439,7 +1343,7 @@ public class DataExtractor {
         major.setCulture("Latin");
         major.setReligion("catholique");
         countries.put(major.getName(), major);
-        major = new Country("MAJOR");
+        major = new Country(Country.CountryType.MAJOR);
         major.setName("angleterre");
         major.setLongLabel("Kingdom of England");
         major.setShortLabel("England");
@@ -1447,7 +1351,7 @@ public class DataExtractor {
         major.setCulture("Latin");
         major.setReligion("catholique");
         countries.put(major.getName(), major);
-        major = new Country("MAJOR");
+        major = new Country(Country.CountryType.MAJOR);
         major.setName("espagne");
         major.setLongLabel("Kingdom of Spain");
         major.setShortLabel("Spain");
@@ -1455,7 +1359,7 @@ public class DataExtractor {
         major.setCulture("Latin");
         major.setReligion("catholique");
         countries.put(major.getName(), major);
-        major = new Country("MAJOR");
+        major = new Country(Country.CountryType.MAJOR);
         major.setName("russie");
         major.setLongLabel("Kingdom of Russia");
         major.setShortLabel("Russia");
@@ -1463,7 +1367,7 @@ public class DataExtractor {
         major.setCulture("Orthodoxe");
         major.setReligion("orthodoxe");
         countries.put(major.getName(), major);
-        major = new Country("MAJOR");
+        major = new Country(Country.CountryType.MAJOR);
         major.setName("turquie");
         major.setLongLabel("Ottoman Empire");
         major.setShortLabel("Turkey");
@@ -1471,7 +1375,7 @@ public class DataExtractor {
         major.setCulture("Islam");
         major.setReligion("sunnite");
         countries.put(major.getName(), major);
-        major = new Country("MAJOR");
+        major = new Country(Country.CountryType.MAJOR);
         major.setName("prusse");
         major.setLongLabel("Kingdom of Prussia");
         major.setShortLabel("Prussia");
@@ -1494,22 +1398,22 @@ public class DataExtractor {
                 Country country = null;
                 String minor = String.join("", block);
                 if (minor.startsWith("\\minorcountry")) {
-                    country = new Country("MINOR");
+                    country = new Country(Country.CountryType.MINOR);
                 }
                 if (minor.startsWith("\\minorcountryminmaj")) {
-                    country = new Country("MINORMAJOR");
+                    country = new Country(Country.CountryType.MINORMAJOR);
                 }
                 if (minor.startsWith("\\minorcountryvirtual")) {
-                    country = new Country("REVOLT");
+                    country = new Country(Country.CountryType.REVOLT);
                 }
                 if (minor.startsWith("\\minorcountryreallyvirtual")) {
-                    country = new Country("VIRTUAL");
+                    country = new Country(Country.CountryType.VIRTUAL);
                 }
                 if (minor.startsWith("\\minorcountryhab")) {
-                    country = new Country("HAB");
+                    country = new Country(Country.CountryType.HAB);
                 }
                 if (minor.startsWith("\\minorcountryrotw")) {
-                    country = new Country("ROTW");
+                    country = new Country(Country.CountryType.ROTW);
                 }
 
                 if (country != null) {
@@ -1588,7 +1492,7 @@ public class DataExtractor {
      * @throws Exception exception.
      */
     public static void extractCountriesData(Map<String, Country> countries, Map<String, Province> provinces,
-                                            Map<String, Map<String, List<String>>> aliases, Writer log) throws Exception {
+                                            AliasIndex aliases, Writer log) throws Exception {
         String line;
         BufferedReader reader = new BufferedReader(new InputStreamReader(DataExtractor.class.getClassLoader().getResourceAsStream("input/engCorpsMineurs.tex")));
         List<String> block = new ArrayList<>();
@@ -1697,7 +1601,7 @@ public class DataExtractor {
 
         // Default value for potential independent kingdoms
         for (Country country : countries.values()) {
-            if (country.getFidelity() == 0 && StringUtils.equals("REVOLT", country.getType())
+            if (country.getFidelity() == 0 && country.getType() == Country.CountryType.REVOLT
                     && country.getName().startsWith("V")) {
                 country.setFidelity(10);
 
@@ -2059,18 +1963,18 @@ public class DataExtractor {
      * @throws Exception exception.
      */
     private static String getRealProvince(Country country, String prov, Map<String, Province> provinces,
-                                          Map<String, Map<String, List<String>>> aliases, Writer log) throws Exception {
+                                          AliasIndex aliases, Writer log) throws Exception {
         String realProv = null;
         Province province = isProvince(prov, provinces);
 
         if (province == null) {
-            List<String> inv = aliases.get("provinceInv").get(prov);
+            List<String> inv = aliases.getInverse("province", prov);
             if (inv != null && inv.size() == 1) {
                 prov = inv.get(0);
                 province = isProvince(prov, provinces);
             }
             if (province == null) {
-                for (String alias : aliases.get("province").get(prov)) {
+                for (String alias : aliases.getProvinceAlternatives(prov)) {
                     province = isProvince(alias, provinces);
                     if (province != null) {
                         break;
@@ -2082,8 +1986,8 @@ public class DataExtractor {
             log.append(country.getName()).append("\tProvince does not exist\t").append(prov).append("\n");
         } else {
             realProv = province.getName();
-            if (StringUtils.equals("MINOR", country.getType())
-                    || (StringUtils.equals("MINORMAJOR", country.getType()) && !StringUtils.equals("hollande", country.getName()))) {
+            if (country.getType() == Country.CountryType.MINOR
+                    || (country.getType() == Country.CountryType.MINORMAJOR && !StringUtils.equals("hollande", country.getName()))) {
                 if (!StringUtils.isEmpty(province.getInfo().getDefaultOwner())) {
                     if (StringUtils.equals("ukraine", province.getInfo().getDefaultOwner())) {
                         province.getInfo().setDefaultOwner(country.getName());
@@ -2161,4 +2065,20 @@ public class DataExtractor {
         }
         return returnValue;
     }
+
+    /**
+     * Values read in a line of trade zone, whatever its form.
+     */
+    private static class TradeZoneLine {
+        /** Income earned by a total monopoly. */
+        private int monopoly;
+        /** Income earned by presence. */
+        private int presence;
+        /** Name of the country, for the ZP in a country. */
+        private String country;
+        /** X coordinate. */
+        private double x;
+        /** Y coordinate. */
+        private double y;
+    }
 }
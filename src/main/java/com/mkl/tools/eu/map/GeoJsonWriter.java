@@ -0,0 +1,66 @@
+package com.mkl.tools.eu.map;
+
+import com.mkl.tools.eu.util.DecimalFormatter;
+import com.mkl.tools.eu.util.FileChannelWriter;
+
+import java.io.IOException;
+
+/**
+ * Writer of a geo.json or topo.json file.
+ * <p>
+ * The numbers are written with a fixed number of decimals.
+ * </p>
+ *
+ * @author MKL
+ */
+public class GeoJsonWriter extends FileChannelWriter {
+    /** Formatter of the numbers. */
+    private final DecimalFormatter formatter;
+    /** Number being formatted. */
+    private final StringBuilder number = new StringBuilder(32);
+
+    /**
+     * Constructor. If parent directory does not exist, it is created.
+     *
+     * @param fileName path of the file.
+     * @param decimals number of decimals of the numbers.
+     * @throws IOException exception.
+     */
+    public GeoJsonWriter(String fileName, int decimals) throws IOException {
+        super(fileName, false, false);
+        this.formatter = new DecimalFormatter(decimals);
+    }
+
+    /** @return the formatter of the numbers. */
+    public DecimalFormatter getFormatter() {
+        return formatter;
+    }
+
+    /**
+     * Appends a number with the fixed number of decimals.
+     *
+     * @param value the number.
+     * @return this writer.
+     * @throws IOException exception.
+     */
+    public GeoJsonWriter appendNumber(double value) throws IOException {
+        number.setLength(0);
+        formatter.append(number, value);
+        append(number);
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public GeoJsonWriter append(CharSequence csq) throws IOException {
+        super.append(csq);
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public GeoJsonWriter append(char c) throws IOException {
+        super.append(c);
+        return this;
+    }
+}
@@ -0,0 +1,198 @@
+package com.mkl.tools.eu.map;
+
+import com.mkl.tools.eu.vo.province.DirectedPath;
+import com.mkl.tools.eu.vo.province.Path;
+import com.mkl.tools.eu.vo.province.Polygon;
+import com.mkl.tools.eu.vo.province.Province;
+import com.mkl.tools.eu.vo.province.SubProvince;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Map coordinates of the paths and of the polygons of the provinces, used by the files of the client.
+ * <p>
+ * The client coordinates of the grids are transformed to the coordinates of the map of the client: linearly on the
+ * x axis, with a factor depending on y on the y axis. Each path is transformed once, in a single pass over its packed
+ * coordinates, even if it borders two provinces. The coordinates of the polygons are then copied from their paths.
+ * </p>
+ * <p>
+ * Everything is computed by the constructor: an instance can then be read by several threads.
+ * </p>
+ *
+ * @author MKL
+ */
+public class MapCoordinates {
+    /** Offset on the x axis of the europe map. */
+    private static final double EUROPE_X_OFFSET = 4.658;
+    /** Width of the europe map, in map coordinates. */
+    private static final double EUROPE_X_WIDTH = 12.859;
+    /** Width of the europe map, in client coordinates. */
+    private static final double EUROPE_X_CLIENT_WIDTH = 8425;
+    /** Offset on the y axis of the europe map. */
+    private static final double EUROPE_Y_OFFSET = 2.109;
+    /** Factor on the y axis of the europe map at y = 0. */
+    private static final double EUROPE_Y_FACTOR = 0.001525;
+    /** Decrease of the factor on the y axis of the europe map by 1000 in client coordinates. */
+    private static final double EUROPE_Y_SLOPE = 0.00000179;
+    /** Offset on the x axis of the rotw map. */
+    private static final double ROTW_X_OFFSET = 4.659;
+    /** Width of the rotw map, in map coordinates. */
+    private static final double ROTW_X_WIDTH = 12.484;
+    /** Width of the rotw map, in client coordinates. */
+    private static final double ROTW_X_CLIENT_WIDTH = 8183;
+    /** Offset on the y axis of the rotw map. */
+    private static final double ROTW_Y_OFFSET = 11.409;
+    /** Factor on the y axis of the rotw map at y = 0. */
+    private static final double ROTW_Y_FACTOR = 0.001499;
+    /** Decrease of the factor on the y axis of the rotw map by 1000 in client coordinates. */
+    private static final double ROTW_Y_SLOPE = 0.00000519;
+    /** Map coordinates of the paths of the europe map, interleaved. */
+    private final Map<Path, double[]> europePaths = new IdentityHashMap<>();
+    /** Map coordinates of the paths of the rotw map, interleaved. */
+    private final Map<Path, double[]> rotwPaths = new IdentityHashMap<>();
+    /** Map coordinates of the polygons, interleaved. */
+    private final Map<Polygon, double[]> polygons = new IdentityHashMap<>();
+
+    /**
+     * Constructor: transforms the paths of the restructured provinces, then computes the coordinates of their polygons.
+     *
+     * @param provinces the restructured provinces.
+     */
+    public MapCoordinates(Map<String, Province> provinces) {
+        for (Province province : provinces.values()) {
+            for (SubProvince portion : province.getPortions()) {
+                Map<Path, double[]> paths = portion.isRotw() ? rotwPaths : europePaths;
+                for (DirectedPath path : portion.getPaths()) {
+                    paths.computeIfAbsent(path.getPath(), key -> transform(key, portion.isRotw()));
+                }
+            }
+        }
+
+        for (Province province : provinces.values()) {
+            for (int i = 0; i < province.getCoords().size(); i++) {
+                Polygon polygon = province.getCoords().get(i);
+                polygons.put(polygon, computeCoords(polygon, province.getPortions().get(i)));
+            }
+        }
+    }
+
+    /**
+     * @param path a path of a restructured province.
+     * @param rotw flag saying that the path is drawn in the rotw map.
+     * @return the map coordinates of the path, interleaved. Must not be modified.
+     */
+    public double[] getCoords(Path path, boolean rotw) {
+        return (rotw ? rotwPaths : europePaths).get(path);
+    }
+
+    /**
+     * @param polygon a polygon of a restructured province.
+     * @return the map coordinates of the polygon, interleaved. Must not be modified.
+     */
+    public double[] getCoords(Polygon polygon) {
+        return polygons.get(polygon);
+    }
+
+    /**
+     * Transform a client x coordinate to a map x coordinate.
+     *
+     * @param xCoordinate client x coordinate.
+     * @param rotw        flag saying that the coordinate is in the rotw map.
+     * @return the map x coordinate.
+     */
+    public static double getX(double xCoordinate, boolean rotw) {
+        double x;
+        if (rotw) {
+            x = ROTW_X_OFFSET + xCoordinate * ROTW_X_WIDTH / ROTW_X_CLIENT_WIDTH;
+        } else {
+            x = EUROPE_X_OFFSET + xCoordinate * EUROPE_X_WIDTH / EUROPE_X_CLIENT_WIDTH;
+        }
+
+        return x;
+    }
+
+    /**
+     * Transform a client y coordinate to a map y coordinate.
+     *
+     * @param yCoordinate client y coordinate.
+     * @param rotw        flag saying that the coordinate is in the rotw map.
+     * @return the map y coordinate.
+     */
+    public static double getY(double yCoordinate, boolean rotw) {
+        double y;
+        /*
+            The map is linear on the X axis but not on the Y axis.
+            I have no idea of the real function on the Y axis.
+         */
+        if (rotw) {
+            double factor = ROTW_Y_FACTOR - ROTW_Y_SLOPE * (yCoordinate / 1000);
+            y = ROTW_Y_OFFSET + yCoordinate * factor;
+        } else {
+            double factor = EUROPE_Y_FACTOR - EUROPE_Y_SLOPE * (yCoordinate / 1000);
+            y = EUROPE_Y_OFFSET + yCoordinate * factor;
+        }
+
+        return y;
+    }
+
+    /**
+     * Transforms the coordinates of a path in a single pass, with the constants of its map chosen once.
+     * The operations are the same as in {@link #getX(double, boolean)} and {@link #getY(double, boolean)} so that
+     * the results are identical.
+     *
+     * @param path the path.
+     * @param rotw flag saying that the path is drawn in the rotw map.
+     * @return the map coordinates of the path, interleaved.
+     */
+    private static double[] transform(Path path, boolean rotw) {
+        double xOffset = rotw ? ROTW_X_OFFSET : EUROPE_X_OFFSET;
+        double xWidth = rotw ? ROTW_X_WIDTH : EUROPE_X_WIDTH;
+        double xClientWidth = rotw ? ROTW_X_CLIENT_WIDTH : EUROPE_X_CLIENT_WIDTH;
+        double yOffset = rotw ? ROTW_Y_OFFSET : EUROPE_Y_OFFSET;
+        double yFactor = rotw ? ROTW_Y_FACTOR : EUROPE_Y_FACTOR;
+        double ySlope = rotw ? ROTW_Y_SLOPE : EUROPE_Y_SLOPE;
+
+        int nbCoords = path.getNbCoords();
+        double[] coords = new double[2 * nbCoords];
+        for (int i = 0; i < nbCoords; i++) {
+            double x = path.getX(i);
+            double y = path.getY(i);
+            coords[2 * i] = xOffset + x * xWidth / xClientWidth;
+            coords[2 * i + 1] = yOffset + y * (yFactor - ySlope * (y / 1000));
+        }
+        return coords;
+    }
+
+    /**
+     * Computes the map coordinates of a polygon by copying the coordinates of the paths its points come from.
+     * The points that come before the first path, if any, are transformed one by one.
+     *
+     * @param polygon the polygon.
+     * @param portion the portion of province of the polygon, holding its paths.
+     * @return the map coordinates of the polygon, interleaved.
+     */
+    private double[] computeCoords(Polygon polygon, SubProvince portion) {
+        double[] coords = new double[2 * polygon.getNbCoords()];
+        int covered = polygon.getNbPaths() > 0 ? polygon.getPathStart(0) : polygon.getNbCoords();
+        for (int i = 0; i < covered; i++) {
+            coords[2 * i] = getX(polygon.getX(i), polygon.isRotw());
+            coords[2 * i + 1] = getY(polygon.getY(i), polygon.isRotw());
+        }
+        for (int path = 0; path < polygon.getNbPaths(); path++) {
+            DirectedPath directedPath = portion.getPaths().get(polygon.getPathIndex(path));
+            double[] pathCoords = getCoords(directedPath.getPath(), polygon.isRotw());
+            int start = polygon.getPathStart(path);
+            int size = polygon.getPathEnd(path) - start;
+            if (!directedPath.isInverse()) {
+                System.arraycopy(pathCoords, 0, coords, 2 * start, 2 * size);
+            } else {
+                for (int i = 0; i < size; i++) {
+                    coords[2 * (start + i)] = pathCoords[2 * (size - 1 - i)];
+                    coords[2 * (start + i) + 1] = pathCoords[2 * (size - 1 - i) + 1];
+                }
+            }
+        }
+        return coords;
+    }
+}
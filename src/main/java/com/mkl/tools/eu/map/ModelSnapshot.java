@@ -0,0 +1,461 @@
+package com.mkl.tools.eu.map;
+
+import com.mkl.tools.eu.util.CoordinateScanner;
+import com.mkl.tools.eu.util.LineDispatcher;
+import com.mkl.tools.eu.util.LineRule;
+import com.mkl.tools.eu.util.ToolsUtil;
+import com.mkl.tools.eu.vo.province.Border;
+import com.mkl.tools.eu.vo.province.DirectedPath;
+import com.mkl.tools.eu.vo.province.Grid;
+import com.mkl.tools.eu.vo.province.Path;
+import com.mkl.tools.eu.vo.province.Region;
+import com.mkl.tools.eu.vo.province.SubProvince;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary snapshot of the model extracted from the input files (aliases, regions and grids) with the log
+ * of each extraction. It is keyed by the hash of the input files, of the classes of the extraction and of the default
+ * encoding so that it is used only while they are unchanged.
+ * <p>
+ * The maps are written in their iteration order and read back in the same order so that the restored maps
+ * are iterated as the extracted ones.
+ * </p>
+ *
+ * @author MKL.
+ */
+public class ModelSnapshot {
+    /** Logger. */
+    private static final Logger LOGGER = LoggerFactory.getLogger(ModelSnapshot.class);
+    /** Version of the format, to change each time the format or the extraction changes. */
+    private static final int VERSION = 2;
+    /** Classes of the extraction and of the snapshot: a change in their code outdates the snapshot. */
+    private static final Class<?>[] EXTRACTION_CLASSES = {ModelSnapshot.class, DataExtractor.class, AliasIndex.class,
+            CoordinateScanner.class, LineDispatcher.class, LineRule.class, ToolsUtil.class, Grid.class, Region.class,
+            Path.class, DirectedPath.class, SubProvince.class, Border.class};
+    /** The aliases. */
+    private AliasIndex aliases;
+    /** The regions. */
+    private Map<String, Region> regions;
+    /** Content of the europe grid. */
+    private Grid europe;
+    /** Content of the rotw grid. */
+    private Grid rotw;
+    /** Logs of the extractions by stage. */
+    private Map<String, String> logs = new HashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param aliases the aliases.
+     * @param regions the regions.
+     * @param europe  content of the europe grid.
+     * @param rotw    content of the rotw grid.
+     */
+    public ModelSnapshot(AliasIndex aliases, Map<String, Region> regions, Grid europe, Grid rotw) {
+        this.aliases = aliases;
+        this.regions = regions;
+        this.europe = europe;
+        this.rotw = rotw;
+    }
+
+    /** @return the aliases. */
+    public AliasIndex getAliases() {
+        return aliases;
+    }
+
+    /** @return the regions. */
+    public Map<String, Region> getRegions() {
+        return regions;
+    }
+
+    /** @return the europe. */
+    public Grid getEurope() {
+        return europe;
+    }
+
+    /** @return the rotw. */
+    public Grid getRotw() {
+        return rotw;
+    }
+
+    /** @return the logs. */
+    public Map<String, String> getLogs() {
+        return logs;
+    }
+
+    /**
+     * Computes the key of the snapshot given the input files.
+     *
+     * @param inputFiles resources used by the extraction.
+     * @return the key of the snapshot.
+     * @throws IOException exception.
+     */
+    public static String computeKey(String... inputFiles) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        digest.update(Integer.toString(VERSION).getBytes(StandardCharsets.UTF_8));
+        // The input files are read with the default encoding.
+        digest.update(String.valueOf(System.getProperty("file.encoding")).getBytes(StandardCharsets.UTF_8));
+        for (Class<?> extractionClass : EXTRACTION_CLASSES) {
+            updateDigest(digest, extractionClass);
+        }
+        for (String inputFile : inputFiles) {
+            try (InputStream input = ModelSnapshot.class.getClassLoader().getResourceAsStream(inputFile)) {
+                digest.update(inputFile.getBytes(StandardCharsets.UTF_8));
+                digest.update(IOUtils.toByteArray(input));
+            }
+        }
+
+        StringBuilder key = new StringBuilder();
+        for (byte b : digest.digest()) {
+            key.append(String.format("%02x", b));
+        }
+
+        return key.toString();
+    }
+
+    /**
+     * Adds the byte code of a class and of its nested classes to a digest.
+     *
+     * @param digest the digest.
+     * @param clazz  the class.
+     * @throws IOException exception.
+     */
+    static void updateDigest(MessageDigest digest, Class<?> clazz) throws IOException {
+        String resource = clazz.getName().replace('.', '/') + ".class";
+        try (InputStream input = ModelSnapshot.class.getClassLoader().getResourceAsStream(resource)) {
+            if (input == null) {
+                throw new IOException("Can't find the byte code of " + clazz.getName());
+            }
+            digest.update(resource.getBytes(StandardCharsets.UTF_8));
+            digest.update(IOUtils.toByteArray(input));
+        }
+        for (Class<?> nestedClass : clazz.getDeclaredClasses()) {
+            updateDigest(digest, nestedClass);
+        }
+    }
+
+    /**
+     * Loads a snapshot.
+     *
+     * @param fileName path of the snapshot.
+     * @param key      expected key of the snapshot.
+     * @return the snapshot, or <code>null</code> if it does not exist or if the inputs have changed.
+     */
+    public static ModelSnapshot load(String fileName, String key) {
+        File file = new File(fileName);
+        if (!file.exists()) {
+            return null;
+        }
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+            if (!key.equals(ToolsUtil.readString(input))) {
+                LOGGER.info("Snapshot {} is outdated", fileName);
+                return null;
+            }
+
+            AliasIndex aliases = new AliasIndex(readAliases(input));
+            Map<String, Region> regions = readRegions(input);
+            Grid europe = readGrid(input);
+            Grid rotw = readGrid(input);
+            ModelSnapshot snapshot = new ModelSnapshot(aliases, regions, europe, rotw);
+            int nbLogs = input.readInt();
+            for (int i = 0; i < nbLogs; i++) {
+                snapshot.getLogs().put(ToolsUtil.readString(input), ToolsUtil.readString(input));
+            }
+
+            return snapshot;
+        } catch (IOException e) {
+            LOGGER.warn("Snapshot " + fileName + " can't be read", e);
+            return null;
+        }
+    }
+
+    /**
+     * Saves the snapshot.
+     *
+     * @param fileName path of the snapshot.
+     * @param key      key of the snapshot.
+     * @throws IOException exception.
+     */
+    public void save(String fileName, String key) throws IOException {
+        File file = new File(fileName);
+        if (file.getParentFile() != null && !file.getParentFile().exists() && !file.getParentFile().mkdirs()) {
+            throw new IOException("Can't create directory of " + fileName);
+        }
+
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16))) {
+            ToolsUtil.writeString(output, key);
+            writeAliases(output, aliases.getAliases());
+            writeRegions(output, regions);
+            writeGrid(output, europe);
+            writeGrid(output, rotw);
+            output.writeInt(logs.size());
+            for (Map.Entry<String, String> log : logs.entrySet()) {
+                ToolsUtil.writeString(output, log.getKey());
+                ToolsUtil.writeString(output, log.getValue());
+            }
+        }
+    }
+
+    /**
+     * Writes the aliases.
+     *
+     * @param output  stream.
+     * @param aliases to write.
+     * @throws IOException exception.
+     */
+    private static void writeAliases(DataOutputStream output, Map<String, Map<String, List<String>>> aliases) throws IOException {
+        output.writeInt(aliases.size());
+        for (Map.Entry<String, Map<String, List<String>>> type : aliases.entrySet()) {
+            ToolsUtil.writeString(output, type.getKey());
+            output.writeInt(type.getValue().size());
+            for (Map.Entry<String, List<String>> alias : type.getValue().entrySet()) {
+                ToolsUtil.writeString(output, alias.getKey());
+                output.writeInt(alias.getValue().size());
+                for (String value : alias.getValue()) {
+                    ToolsUtil.writeString(output, value);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the aliases.
+     *
+     * @param input stream.
+     * @return the aliases.
+     * @throws IOException exception.
+     */
+    private static Map<String, Map<String, List<String>>> readAliases(DataInputStream input) throws IOException {
+        Map<String, Map<String, List<String>>> aliases = new HashMap<>();
+        int nbTypes = input.readInt();
+        for (int i = 0; i < nbTypes; i++) {
+            Map<String, List<String>> type = new HashMap<>();
+            aliases.put(ToolsUtil.readString(input), type);
+            int nbAliases = input.readInt();
+            for (int j = 0; j < nbAliases; j++) {
+                String key = ToolsUtil.readString(input);
+                int nbValues = input.readInt();
+                List<String> values = new ArrayList<>(nbValues);
+                for (int k = 0; k < nbValues; k++) {
+                    values.add(ToolsUtil.readString(input));
+                }
+                type.put(key, values);
+            }
+        }
+
+        return aliases;
+    }
+
+    /**
+     * Writes the regions.
+     *
+     * @param output  stream.
+     * @param regions to write.
+     * @throws IOException exception.
+     */
+    private static void writeRegions(DataOutputStream output, Map<String, Region> regions) throws IOException {
+        output.writeInt(regions.size());
+        for (Region region : regions.values()) {
+            ToolsUtil.writeString(output, region.getName());
+            output.writeInt(region.getNumber());
+            output.writeInt(region.getIncome());
+            output.writeInt(region.getDifficulty());
+            output.writeInt(region.getTolerance());
+            output.writeInt(region.getNativesNumber());
+            ToolsUtil.writeString(output, region.getNativesType());
+            output.writeBoolean(region.getColdArea() != null);
+            if (region.getColdArea() != null) {
+                output.writeInt(region.getColdArea());
+            }
+            output.writeInt(region.getResources().size());
+            for (Region.Resources resources : region.getResources()) {
+                ToolsUtil.writeString(output, resources.getName());
+                output.writeInt(resources.getNumber());
+            }
+        }
+    }
+
+    /**
+     * Reads the regions.
+     *
+     * @param input stream.
+     * @return the regions.
+     * @throws IOException exception.
+     */
+    private static Map<String, Region> readRegions(DataInputStream input) throws IOException {
+        Map<String, Region> regions = new HashMap<>();
+        int nbRegions = input.readInt();
+        for (int i = 0; i < nbRegions; i++) {
+            Region region = new Region(ToolsUtil.readString(input));
+            region.setNumber(input.readInt());
+            region.setIncome(input.readInt());
+            region.setDifficulty(input.readInt());
+            region.setTolerance(input.readInt());
+            region.setNativesNumber(input.readInt());
+            region.setNativesType(ToolsUtil.readString(input));
+            if (input.readBoolean()) {
+                region.setColdArea(input.readInt());
+            }
+            int nbResources = input.readInt();
+            for (int j = 0; j < nbResources; j++) {
+                region.addRessource(ToolsUtil.readString(input), input.readInt());
+            }
+            regions.put(region.getName(), region);
+        }
+
+        return regions;
+    }
+
+    /**
+     * Writes a grid. The paths are written once and then referenced by their index.
+     *
+     * @param output stream.
+     * @param grid   to write.
+     * @throws IOException exception.
+     */
+    private static void writeGrid(DataOutputStream output, Grid grid) throws IOException {
+        Map<Path, Integer> indexes = new IdentityHashMap<>();
+        List<Path> paths = new ArrayList<>();
+        for (Path path : grid.getPaths().values()) {
+            indexPath(path, indexes, paths);
+        }
+        for (Grid.Placement placement : grid.getPlacements()) {
+            for (DirectedPath path : placement.getPortion().getPaths()) {
+                indexPath(path.getPath(), indexes, paths);
+            }
+        }
+
+        output.writeBoolean(grid.isRotw());
+        output.writeInt(paths.size());
+        for (Path path : paths) {
+            ToolsUtil.writeString(output, path.getName());
+            output.writeBoolean(path.isBegin());
+            output.writeBoolean(path.isRotw());
+            output.writeInt(path.getNbCoords());
+            for (int i = 0; i < path.getNbCoords(); i++) {
+                output.writeDouble(path.getX(i));
+                output.writeDouble(path.getY(i));
+            }
+        }
+
+        output.writeInt(grid.getPaths().size());
+        for (Map.Entry<String, Path> path : grid.getPaths().entrySet()) {
+            ToolsUtil.writeString(output, path.getKey());
+            output.writeInt(indexes.get(path.getValue()));
+        }
+
+        output.writeInt(grid.getSpecialBorders().size());
+        for (Map.Entry<Border.BorderType, List<Path>> specialBorder : grid.getSpecialBorders().entrySet()) {
+            ToolsUtil.writeString(output, specialBorder.getKey().name());
+            output.writeInt(specialBorder.getValue().size());
+            for (Path path : specialBorder.getValue()) {
+                output.writeInt(indexes.get(path));
+            }
+        }
+
+        output.writeInt(grid.getPlacements().size());
+        for (Grid.Placement placement : grid.getPlacements()) {
+            SubProvince portion = placement.getPortion();
+            ToolsUtil.writeString(output, placement.getProvinceName());
+            output.writeBoolean(placement.isZoom());
+            ToolsUtil.writeString(output, portion.getTerrain());
+            output.writeBoolean(portion.isSecondary());
+            output.writeBoolean(portion.isRotw());
+            output.writeBoolean(portion.isLight());
+            output.writeInt(portion.getPaths().size());
+            for (DirectedPath path : portion.getPaths()) {
+                output.writeInt(indexes.get(path.getPath()));
+                output.writeBoolean(path.isInverse());
+            }
+        }
+    }
+
+    /**
+     * Gives an index to a path if it has none.
+     *
+     * @param path    to index.
+     * @param indexes index of the paths already indexed.
+     * @param paths   paths already indexed.
+     */
+    private static void indexPath(Path path, Map<Path, Integer> indexes, List<Path> paths) {
+        if (!indexes.containsKey(path)) {
+            indexes.put(path, paths.size());
+            paths.add(path);
+        }
+    }
+
+    /**
+     * Reads a grid.
+     *
+     * @param input stream.
+     * @return the grid.
+     * @throws IOException exception.
+     */
+    private static Grid readGrid(DataInputStream input) throws IOException {
+        Grid grid = new Grid(input.readBoolean());
+
+        Path[] paths = new Path[input.readInt()];
+        for (int i = 0; i < paths.length; i++) {
+            paths[i] = new Path(ToolsUtil.readString(input), input.readBoolean(), input.readBoolean());
+            int nbCoords = input.readInt();
+            for (int j = 0; j < nbCoords; j++) {
+                paths[i].addCoords(input.readDouble(), input.readDouble());
+            }
+        }
+
+        int nbNames = input.readInt();
+        for (int i = 0; i < nbNames; i++) {
+            grid.getPaths().put(ToolsUtil.readString(input), paths[input.readInt()]);
+        }
+
+        int nbSpecialBorders = input.readInt();
+        for (int i = 0; i < nbSpecialBorders; i++) {
+            List<Path> specialBorder = new ArrayList<>();
+            grid.getSpecialBorders().put(Border.BorderType.valueOf(ToolsUtil.readString(input)), specialBorder);
+            int nbPaths = input.readInt();
+            for (int j = 0; j < nbPaths; j++) {
+                specialBorder.add(paths[input.readInt()]);
+            }
+        }
+
+        int nbPlacements = input.readInt();
+        for (int i = 0; i < nbPlacements; i++) {
+            String provinceName = ToolsUtil.readString(input);
+            boolean zoom = input.readBoolean();
+            SubProvince portion = new SubProvince(ToolsUtil.readString(input), input.readBoolean(), input.readBoolean(), input.readBoolean());
+            int nbPaths = input.readInt();
+            for (int j = 0; j < nbPaths; j++) {
+                portion.getPaths().add(new DirectedPath(paths[input.readInt()], input.readBoolean()));
+            }
+            grid.getPlacements().add(new Grid.Placement(provinceName, portion, zoom));
+        }
+
+        return grid;
+    }
+}
@@ -0,0 +1,166 @@
+package com.mkl.tools.eu.map;
+
+import com.mkl.tools.eu.vo.province.Polygon;
+
+/**
+ * Ring of a polygon prepared for many containment tests.
+ * <p>
+ * The bounding box of the ring rejects most of the points. The edges are then sorted in horizontal bands
+ * so that a test only looks at the edges of the band of the point, which are the only ones that can cross its scanline.
+ * The test of each edge is the one of the polygon containment algorithm described here:
+ * http://www.ecse.rpi.edu/Homepages/wrf/Research/Short_Notes/pnpoly.html
+ * so the result is exactly the one of a test on all the edges.
+ * </p>
+ *
+ * @author MKL
+ */
+public class PreparedRing {
+    /** Average number of edges in a band. */
+    private static final int EDGES_BY_BAND = 4;
+    /** Relative margin on the x bounds. */
+    private static final double MARGIN = 1e-9;
+    /** The polygon. */
+    private final Polygon polygon;
+    /** Index of the first point of the ring. */
+    private final int start;
+    /** Index following the last point of the ring. */
+    private final int end;
+    /** Minimum x of the ring. */
+    private double minX = Double.MAX_VALUE;
+    /** Minimum y of the ring. */
+    private double minY = Double.MAX_VALUE;
+    /** Maximum x of the ring. */
+    private double maxX = -Double.MAX_VALUE;
+    /** Maximum y of the ring. */
+    private double maxY = -Double.MAX_VALUE;
+    /** Number of bands. */
+    private int nbBands;
+    /** Height of a band. */
+    private double bandHeight;
+    /** Edges of the band b are bandEdges[bandStarts[b]] to bandEdges[bandStarts[b + 1] - 1]. */
+    private int[] bandStarts;
+    /** Edges by band, an edge being identified by the index of its ending point (it starts at the previous point). */
+    private int[] bandEdges;
+
+    /**
+     * Constructor. The bands are computed on the first test that passes the bounding box.
+     *
+     * @param polygon the polygon.
+     * @param ring    index of the ring in the polygon.
+     */
+    public PreparedRing(Polygon polygon, int ring) {
+        this.polygon = polygon;
+        this.start = polygon.getRingStart(ring);
+        this.end = polygon.getRingEnd(ring);
+        for (int i = start; i < end; i++) {
+            minX = Math.min(minX, polygon.getX(i));
+            minY = Math.min(minY, polygon.getY(i));
+            maxX = Math.max(maxX, polygon.getX(i));
+            maxY = Math.max(maxY, polygon.getY(i));
+        }
+    }
+
+    /** @return the polygon. */
+    public Polygon getPolygon() {
+        return polygon;
+    }
+
+    /** @return the minX. */
+    public double getMinX() {
+        return minX;
+    }
+
+    /** @return the minY. */
+    public double getMinY() {
+        return minY;
+    }
+
+    /** @return the maxX. */
+    public double getMaxX() {
+        return maxX;
+    }
+
+    /** @return the maxY. */
+    public double getMaxY() {
+        return maxY;
+    }
+
+    /**
+     * Checks whether the position is within the ring.
+     *
+     * @param checkX The x position to check if inside.
+     * @param checkY The y position to check if inside.
+     * @return True if inside, false otherwise.
+     */
+    public boolean contains(double checkX, double checkY) {
+        // pnpoly can't be true outside of the bounding box (the upper bound is exclusive for y).
+        // A margin is kept on x as the computed crossings can be one ulp outside of it.
+        double margin = MARGIN * (1 + Math.abs(minX) + Math.abs(maxX));
+        if (start == end || checkY < minY || checkY >= maxY || checkX < minX - margin || checkX > maxX + margin) {
+            return false;
+        }
+        if (bandStarts == null) {
+            prepare();
+        }
+
+        int band = band(checkY);
+        boolean inside = false;
+        for (int e = bandStarts[band]; e < bandStarts[band + 1]; e++) {
+            int i = bandEdges[e];
+            int j = i == start ? end - 1 : i - 1;
+            double xi = polygon.getX(i);
+            double yi = polygon.getY(i);
+            double xj = polygon.getX(j);
+            double yj = polygon.getY(j);
+            if ((((yi <= checkY) && (checkY < yj)) || ((yj <= checkY) && (checkY < yi)))
+                    && (checkX < (xj - xi) * (checkY - yi) / (yj - yi) + xi)) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    /**
+     * Sorts the edges in bands. An edge is put in all the bands that its y range [min, max) crosses.
+     * The horizontal edges are never crossed by a scanline and are left out.
+     */
+    private void prepare() {
+        int nbEdges = end - start;
+        nbBands = Math.max(1, nbEdges / EDGES_BY_BAND);
+        bandHeight = (maxY - minY) / nbBands;
+        int[] counts = new int[nbBands + 1];
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = start, j = end - 1; i < end; j = i++) {
+                double yi = polygon.getY(i);
+                double yj = polygon.getY(j);
+                if (yi == yj) {
+                    continue;
+                }
+                int first = band(Math.min(yi, yj));
+                int last = band(Math.max(yi, yj));
+                for (int band = first; band <= last; band++) {
+                    if (pass == 0) {
+                        counts[band + 1]++;
+                    } else {
+                        bandEdges[counts[band]++] = i;
+                    }
+                }
+            }
+            if (pass == 0) {
+                for (int band = 0; band < nbBands; band++) {
+                    counts[band + 1] += counts[band];
+                }
+                bandEdges = new int[counts[nbBands]];
+                bandStarts = counts.clone();
+            }
+        }
+    }
+
+    /**
+     * @param y coordinate.
+     * @return the band of the coordinate, bounded to the existing bands.
+     */
+    private int band(double y) {
+        return Math.max(0, Math.min(nbBands - 1, (int) ((y - minY) / bandHeight)));
+    }
+}
@@ -0,0 +1,253 @@
+package com.mkl.tools.eu.map;
+
+import com.mkl.tools.eu.vo.province.Polygon;
+import com.mkl.tools.eu.vo.province.Province;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spatial index of the restructured provinces to find the province at given coordinates.
+ * <p>
+ * Each sheet (europe and rotw) is cut in a uniform grid of cells and each ring of each province is
+ * registered in the cells covered by its bounding box. A lookup only tests the rings of one cell,
+ * with a {@link PreparedRing} that is kept for all the lookups.
+ * </p>
+ * <p>
+ * The result is the same as a scan of the provinces in the iteration order of the map: the first
+ * matching province that is not a sea zone, or else the last matching sea zone. As the map can be modified
+ * (trade zones are added while the sea data are extracted), the index is refreshed when its size changes.
+ * </p>
+ *
+ * @author MKL
+ */
+public class ProvinceIndex {
+    /** Number of cells on each side of the grid of a sheet. */
+    private static final int GRID_SIZE = 64;
+    /** The indexed provinces. */
+    private final Map<String, Province> provinces;
+    /** Position of each province in the iteration order of the map. */
+    private final Map<Province, Integer> ordinals = new IdentityHashMap<>();
+    /** Index of the europe map. */
+    private Sheet europe;
+    /** Index of the rotw map. */
+    private Sheet rotw;
+    /** Size of the map when the index was last refreshed. */
+    private int indexedSize = -1;
+
+    /**
+     * Constructor. The provinces must have been restructured.
+     *
+     * @param provinces the provinces to index.
+     */
+    public ProvinceIndex(Map<String, Province> provinces) {
+        this.provinces = provinces;
+        List<RingEntry> europeEntries = new ArrayList<>();
+        List<RingEntry> rotwEntries = new ArrayList<>();
+        for (Province province : provinces.values()) {
+            for (RingEntry entry : createEntries(province)) {
+                if (entry.ring.getPolygon().isRotw()) {
+                    rotwEntries.add(entry);
+                } else {
+                    europeEntries.add(entry);
+                }
+            }
+        }
+        europe = new Sheet(europeEntries);
+        rotw = new Sheet(rotwEntries);
+        refresh();
+    }
+
+    /**
+     * Find the province at the given coordinates.
+     *
+     * @param terrain terrain to filter search.
+     * @param x       coordinate.
+     * @param y       coordinate.
+     * @param rotw    search must be done on rotw provinces.
+     * @return the province at the given coordinates, <code>null</code> if none.
+     */
+    public Province findProvinceAtCoordinates(Province.Terrain terrain, double x, double y, boolean rotw) {
+        if (provinces.size() != indexedSize) {
+            refresh();
+        }
+
+        Sheet sheet = rotw ? this.rotw : europe;
+        Province firstLand = null;
+        int firstLandOrdinal = Integer.MAX_VALUE;
+        Province lastSea = null;
+        int lastSeaOrdinal = -1;
+        for (RingEntry entry : sheet.getCell(x, y)) {
+            Integer ordinal = ordinals.get(entry.province);
+            if (ordinal == null || !entry.ring.contains(x, y)
+                    || (terrain != null && terrain != entry.province.getTerrain())) {
+                continue;
+            }
+            if (entry.province.getTerrain() != Province.Terrain.SEA && terrain != Province.Terrain.SEA) {
+                if (ordinal < firstLandOrdinal) {
+                    firstLand = entry.province;
+                    firstLandOrdinal = ordinal;
+                }
+            } else if (ordinal > lastSeaOrdinal) {
+                lastSea = entry.province;
+                lastSeaOrdinal = ordinal;
+            }
+        }
+
+        return firstLand != null ? firstLand : lastSea;
+    }
+
+    /**
+     * Refreshes the iteration order of the provinces and indexes the new ones.
+     * The provinces that are no more in the map are ignored by the lookups.
+     */
+    private void refresh() {
+        Map<Province, Integer> oldOrdinals = new IdentityHashMap<>(ordinals);
+        ordinals.clear();
+        int ordinal = 0;
+        for (Province province : provinces.values()) {
+            ordinals.put(province, ordinal++);
+            if (indexedSize >= 0 && !oldOrdinals.containsKey(province)) {
+                for (RingEntry entry : createEntries(province)) {
+                    (entry.ring.getPolygon().isRotw() ? rotw : europe).add(entry);
+                }
+            }
+        }
+        indexedSize = provinces.size();
+    }
+
+    /**
+     * Creates the entries of all the rings of a province.
+     *
+     * @param province the province.
+     * @return the entries of the rings of the province.
+     */
+    private static List<RingEntry> createEntries(Province province) {
+        List<RingEntry> entries = new ArrayList<>();
+        if (province.getCoords() != null) {
+            for (Polygon polygon : province.getCoords()) {
+                for (int ring = 0; ring < polygon.getNbRings(); ring++) {
+                    if (polygon.getRingSize(ring) > 0) {
+                        entries.add(new RingEntry(province, polygon, ring));
+                    }
+                }
+            }
+        }
+
+        return entries;
+    }
+
+    /**
+     * Uniform grid of the rings of a sheet.
+     */
+    private static class Sheet {
+        /** Minimum x of the grid. */
+        private double minX;
+        /** Minimum y of the grid. */
+        private double minY;
+        /** Width of a cell. */
+        private double cellWidth;
+        /** Height of a cell. */
+        private double cellHeight;
+        /** Rings whose bounding box intersects each cell. */
+        private List<List<RingEntry>> cells = new ArrayList<>();
+
+        /**
+         * Constructor.
+         *
+         * @param entries the rings of the sheet.
+         */
+        private Sheet(List<RingEntry> entries) {
+            minX = Double.MAX_VALUE;
+            minY = Double.MAX_VALUE;
+            double maxX = -Double.MAX_VALUE;
+            double maxY = -Double.MAX_VALUE;
+            for (RingEntry entry : entries) {
+                minX = Math.min(minX, entry.ring.getMinX());
+                minY = Math.min(minY, entry.ring.getMinY());
+                maxX = Math.max(maxX, entry.ring.getMaxX());
+                maxY = Math.max(maxY, entry.ring.getMaxY());
+            }
+            if (entries.isEmpty()) {
+                minX = 0;
+                minY = 0;
+                maxX = 1;
+                maxY = 1;
+            }
+            cellWidth = Math.max(maxX - minX, 1) / GRID_SIZE;
+            cellHeight = Math.max(maxY - minY, 1) / GRID_SIZE;
+            for (int i = 0; i < GRID_SIZE * GRID_SIZE; i++) {
+                cells.add(new ArrayList<>());
+            }
+            for (RingEntry entry : entries) {
+                add(entry);
+            }
+        }
+
+        /**
+         * Registers a ring in the cells covered by its bounding box.
+         *
+         * @param entry the ring.
+         */
+        private void add(RingEntry entry) {
+            int minColumn = column(entry.ring.getMinX());
+            int maxColumn = column(entry.ring.getMaxX());
+            int minRow = row(entry.ring.getMinY());
+            int maxRow = row(entry.ring.getMaxY());
+            for (int row = minRow; row <= maxRow; row++) {
+                for (int column = minColumn; column <= maxColumn; column++) {
+                    cells.get(row * GRID_SIZE + column).add(entry);
+                }
+            }
+        }
+
+        /**
+         * @param x coordinate.
+         * @param y coordinate.
+         * @return the rings that can contain the point.
+         */
+        private List<RingEntry> getCell(double x, double y) {
+            return cells.get(row(y) * GRID_SIZE + column(x));
+        }
+
+        /**
+         * @param x coordinate.
+         * @return the column of the coordinate, bounded to the grid.
+         */
+        private int column(double x) {
+            return Math.max(0, Math.min(GRID_SIZE - 1, (int) Math.floor((x - minX) / cellWidth)));
+        }
+
+        /**
+         * @param y coordinate.
+         * @return the row of the coordinate, bounded to the grid.
+         */
+        private int row(double y) {
+            return Math.max(0, Math.min(GRID_SIZE - 1, (int) Math.floor((y - minY) / cellHeight)));
+        }
+    }
+
+    /**
+     * A ring of a province.
+     */
+    private static class RingEntry {
+        /** The province. */
+        private final Province province;
+        /** The ring. */
+        private final PreparedRing ring;
+
+        /**
+         * Constructor.
+         *
+         * @param province the province.
+         * @param polygon  the portion of the province.
+         * @param ring     index of the ring in the portion.
+         */
+        private RingEntry(Province province, Polygon polygon, int ring) {
+            this.province = province;
+            this.ring = new PreparedRing(polygon, ring);
+        }
+    }
+}
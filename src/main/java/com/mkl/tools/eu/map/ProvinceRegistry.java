@@ -0,0 +1,89 @@
+package com.mkl.tools.eu.map;
+
+import com.mkl.tools.eu.vo.province.Province;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dense integer ids of the provinces.
+ * <p>
+ * The ids are given once all the provinces are known, trade zones included, in the alphabetical order of the names:
+ * data by province can then be kept in arrays indexed by id, and the provinces whose names share a prefix
+ * (like the real provinces of a rotw region) have consecutive ids.
+ * </p>
+ *
+ * @author MKL
+ */
+public class ProvinceRegistry {
+    /** Names of the provinces, by id. */
+    private final String[] names;
+    /** Provinces, by id. */
+    private final Province[] provinces;
+    /** Id of each name. */
+    private final Map<String, Integer> ids = new HashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param provinces all the provinces.
+     */
+    public ProvinceRegistry(Map<String, Province> provinces) {
+        names = provinces.keySet().toArray(new String[provinces.size()]);
+        Arrays.sort(names);
+        this.provinces = new Province[names.length];
+        for (int i = 0; i < names.length; i++) {
+            this.provinces[i] = provinces.get(names[i]);
+            ids.put(names[i], i);
+        }
+    }
+
+    /** @return the number of provinces. */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * @param name name of a province.
+     * @return the id of the province, -1 if it is unknown.
+     */
+    public int getId(String name) {
+        Integer id = ids.get(name);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * @param id id of a province.
+     * @return the name of the province.
+     */
+    public String getName(int id) {
+        return names[id];
+    }
+
+    /**
+     * @param id id of a province.
+     * @return the province.
+     */
+    public Province getProvince(int id) {
+        return provinces[id];
+    }
+
+    /**
+     * @param prefix beginning of names.
+     * @return the number of provinces whose name starts with the prefix.
+     */
+    public int countWithPrefix(String prefix) {
+        // The names starting with the prefix are between the prefix and the prefix followed by the last character.
+        return lowerBound(prefix + Character.MAX_VALUE) - lowerBound(prefix);
+    }
+
+    /**
+     * @param name a name.
+     * @return the id of the first province whose name is not lower than the given one.
+     */
+    private int lowerBound(String name) {
+        int index = Arrays.binarySearch(names, name);
+        return index >= 0 ? index : -index - 1;
+    }
+}
@@ -0,0 +1,312 @@
+package com.mkl.tools.eu.map;
+
+import com.mkl.tools.eu.util.DecimalFormatter;
+import com.mkl.tools.eu.util.FileChannelWriter;
+import com.mkl.tools.eu.util.ToolsUtil;
+import com.mkl.tools.eu.vo.province.DirectedPath;
+import com.mkl.tools.eu.vo.province.Path;
+import com.mkl.tools.eu.vo.province.Polygon;
+import com.mkl.tools.eu.vo.province.Province;
+import com.mkl.tools.eu.vo.province.SubProvince;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cache of the restructuration of the provinces between two runs.
+ * <p>
+ * Each province is keyed by the content hash of the paths it depends on (with the flags of its portions).
+ * A province is restructured again only if one of its paths changed; otherwise its coords, terrain, log
+ * and geo.json geometry are taken from the previous run.
+ * </p>
+ * <p>
+ * The whole cache is keyed by the hash of the classes of the restructuration and of the geo.json geometry (with the
+ * number of decimals of geo.json) so that it is dropped as soon as their code changes.
+ * </p>
+ *
+ * @author MKL
+ */
+public class RestructureCache {
+    /** Logger. */
+    private static final Logger LOGGER = LoggerFactory.getLogger(RestructureCache.class);
+    /** Version of the format, to change each time the format or the restructuration changes. */
+    private static final int VERSION = 5;
+    /** Classes of the restructuration and of the geo.json geometry: a change in their code outdates the cache. */
+    private static final Class<?>[] CACHED_CLASSES = {RestructureCache.class, Province.class, SubProvince.class,
+            Polygon.class, Path.class, DirectedPath.class, MapCoordinates.class, ClientGenerator.class, GeoJsonWriter.class,
+            FileChannelWriter.class, DecimalFormatter.class};
+    /** Key of the code that computed the entries. */
+    private final String codeKey;
+    /** Restructuration of the provinces by name. */
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    /** Number of provinces taken from the cache. */
+    private final AtomicInteger hits = new AtomicInteger();
+    /** Number of provinces restructured. */
+    private final AtomicInteger misses = new AtomicInteger();
+
+    /**
+     * Constructor.
+     *
+     * @param codeKey key of the code that computes the entries.
+     */
+    private RestructureCache(String codeKey) {
+        this.codeKey = codeKey;
+    }
+
+    /**
+     * Restructures a province if its paths changed since the previous run, restores it from the cache otherwise.
+     * Thread safe as long as each province is processed once.
+     *
+     * @param province to restructure.
+     * @param log      log writer.
+     * @throws Exception exception.
+     */
+    public void restructure(Province province, Writer log) throws Exception {
+        long key = computeKey(province);
+        Entry entry = entries.get(province.getName());
+        if (entry != null && entry.key == key) {
+            hits.incrementAndGet();
+            province.restore(entry.coords, entry.terrainName);
+        } else {
+            misses.incrementAndGet();
+            StringWriter provinceLog = new StringWriter();
+            province.restructure(provinceLog);
+            entry = new Entry(key, province.getCoords(), province.getTerrainName(), provinceLog.toString());
+            entries.put(province.getName(), entry);
+        }
+        entry.used = true;
+        log.append(entry.log);
+    }
+
+    /**
+     * Returns the geo.json geometry of a province computed by a previous run.
+     *
+     * @param province the province.
+     * @return the geo.json geometry of the province, <code>null</code> if it has to be computed.
+     */
+    public String getGeometry(Province province) {
+        Entry entry = entries.get(province.getName());
+        return entry != null && entry.used ? entry.geometry : null;
+    }
+
+    /**
+     * Keeps the geo.json geometry of a restructured province for the next runs.
+     *
+     * @param province the province.
+     * @param geometry its geo.json geometry.
+     */
+    public void putGeometry(Province province, String geometry) {
+        Entry entry = entries.get(province.getName());
+        if (entry != null && entry.used) {
+            entry.geometry = geometry;
+        }
+    }
+
+    /**
+     * Computes the key of a province: the hash of the flags of its portions and of the content of their paths.
+     *
+     * @param province the province.
+     * @return the key of the province.
+     */
+    private static long computeKey(Province province) {
+        long key = Path.hash(Path.FNV_OFFSET, province.getName().hashCode());
+        for (SubProvince portion : province.getPortions()) {
+            key = Path.hash(key, portion.getTerrain() == null ? 0 : portion.getTerrain().hashCode());
+            key = Path.hash(key, (portion.isSecondary() ? 1 : 0) | (portion.isRotw() ? 2 : 0) | (portion.isLight() ? 4 : 0));
+            key = Path.hash(key, portion.getPaths().size());
+            for (DirectedPath path : portion.getPaths()) {
+                key = Path.hash(key, path.isInverse() ? 1 : 0);
+                key = Path.hash(key, path.getPath().getContentHash());
+            }
+        }
+
+        return key;
+    }
+
+    /**
+     * Computes the key of the code that computes the entries.
+     *
+     * @return the key of the code.
+     * @throws IOException exception.
+     */
+    private static String computeCodeKey() throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        digest.update(Integer.toString(VERSION).getBytes(StandardCharsets.UTF_8));
+        digest.update(Integer.toString(ClientGenerator.GEO_JSON_DECIMALS).getBytes(StandardCharsets.UTF_8));
+        for (Class<?> cachedClass : CACHED_CLASSES) {
+            ModelSnapshot.updateDigest(digest, cachedClass);
+        }
+
+        StringBuilder key = new StringBuilder();
+        for (byte b : digest.digest()) {
+            key.append(String.format("%02x", b));
+        }
+
+        return key.toString();
+    }
+
+    /**
+     * Loads the cache. Returns an empty cache if the file does not exist, can't be read or was saved by another code.
+     *
+     * @param fileName path of the cache.
+     * @return the cache.
+     * @throws IOException if the key of the code can't be computed.
+     */
+    public static RestructureCache load(String fileName) throws IOException {
+        RestructureCache cache = new RestructureCache(computeCodeKey());
+        File file = new File(fileName);
+        if (!file.exists()) {
+            return cache;
+        }
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+            if (input.readInt() != VERSION || !cache.codeKey.equals(ToolsUtil.readString(input))) {
+                LOGGER.info("Restructure cache {} is outdated", fileName);
+                return cache;
+            }
+            int nbEntries = input.readInt();
+            for (int i = 0; i < nbEntries; i++) {
+                String name = ToolsUtil.readString(input);
+                long key = input.readLong();
+                String terrainName = ToolsUtil.readString(input);
+                String log = ToolsUtil.readString(input);
+                String geometry = ToolsUtil.readString(input);
+                int nbPortions = input.readInt();
+                List<Polygon> coords = new ArrayList<>(nbPortions);
+                for (int j = 0; j < nbPortions; j++) {
+                    Polygon polygon = new Polygon(input.readBoolean());
+                    int nbRings = input.readInt();
+                    for (int k = 0; k < nbRings; k++) {
+                        polygon.addRing();
+                        int nbCoords = input.readInt();
+                        for (int l = 0; l < nbCoords; l++) {
+                            polygon.addCoords(input.readDouble(), input.readDouble());
+                        }
+                    }
+                    int nbPaths = input.readInt();
+                    for (int k = 0; k < nbPaths; k++) {
+                        polygon.markPath(input.readInt(), input.readInt());
+                    }
+                    polygon.trim();
+                    coords.add(polygon);
+                }
+                Entry entry = new Entry(key, coords, terrainName, log);
+                entry.geometry = geometry;
+                cache.entries.put(name, entry);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Restructure cache " + fileName + " can't be read", e);
+            cache.entries.clear();
+        }
+
+        return cache;
+    }
+
+    /**
+     * Saves the provinces processed during this run.
+     *
+     * @param fileName path of the cache.
+     * @throws IOException exception.
+     */
+    public void save(String fileName) throws IOException {
+        LOGGER.info("{} provinces restructured, {} taken from the cache", misses.get(), hits.get());
+        File file = new File(fileName);
+        if (file.getParentFile() != null && !file.getParentFile().exists() && !file.getParentFile().mkdirs()) {
+            throw new IOException("Can't create directory of " + fileName);
+        }
+
+        List<Map.Entry<String, Entry>> used = new ArrayList<>();
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            if (entry.getValue().used) {
+                used.add(entry);
+            }
+        }
+
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16))) {
+            output.writeInt(VERSION);
+            ToolsUtil.writeString(output, codeKey);
+            output.writeInt(used.size());
+            for (Map.Entry<String, Entry> usedEntry : used) {
+                Entry entry = usedEntry.getValue();
+                ToolsUtil.writeString(output, usedEntry.getKey());
+                output.writeLong(entry.key);
+                ToolsUtil.writeString(output, entry.terrainName);
+                ToolsUtil.writeString(output, entry.log);
+                ToolsUtil.writeString(output, entry.geometry);
+                output.writeInt(entry.coords.size());
+                for (Polygon polygon : entry.coords) {
+                    output.writeBoolean(polygon.isRotw());
+                    output.writeInt(polygon.getNbRings());
+                    for (int ring = 0; ring < polygon.getNbRings(); ring++) {
+                        output.writeInt(polygon.getRingSize(ring));
+                        for (int i = polygon.getRingStart(ring); i < polygon.getRingEnd(ring); i++) {
+                            output.writeDouble(polygon.getX(i));
+                            output.writeDouble(polygon.getY(i));
+                        }
+                    }
+                    output.writeInt(polygon.getNbPaths());
+                    for (int path = 0; path < polygon.getNbPaths(); path++) {
+                        output.writeInt(polygon.getPathIndex(path));
+                        output.writeInt(polygon.getPathStart(path));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Restructuration of a province.
+     */
+    private static class Entry {
+        /** Key of the province when it was restructured. */
+        private final long key;
+        /** Restructurated coords. */
+        private final List<Polygon> coords;
+        /** Name of the terrain derived from the portions. */
+        private final String terrainName;
+        /** Log of the restructuration. */
+        private final String log;
+        /** geo.json geometry. */
+        private String geometry;
+        /** Flag saying that the province is still valid in this run. */
+        private volatile boolean used;
+
+        /**
+         * Constructor.
+         *
+         * @param key         key of the province.
+         * @param coords      restructurated coords.
+         * @param terrainName name of the terrain derived from the portions.
+         * @param log         log of the restructuration.
+         */
+        private Entry(long key, List<Polygon> coords, String terrainName, String log) {
+            this.key = key;
+            this.coords = coords;
+            this.terrainName = terrainName;
+            this.log = log;
+        }
+    }
+}
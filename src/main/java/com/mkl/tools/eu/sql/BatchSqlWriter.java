@@ -0,0 +1,104 @@
+package com.mkl.tools.eu.sql;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes the rows grouped by table with multi-row INSERT statements.
+ * <p>
+ * The named rows are given an explicit ID so that the references are written as IDs instead of sub queries.
+ * A reference to an unknown row is written as null, as the sub query would give. A reference to a table which is not
+ * written by this writer is still written as a sub query.
+ * </p>
+ *
+ * @author MKL
+ */
+public class BatchSqlWriter extends BufferedSqlWriter {
+    /** Maximum number of rows in a statement, to stay under the maximum packet size of the database. */
+    private static final int ROWS_BY_STATEMENT = 500;
+    /** Where to write the db instructions. */
+    private final Writer writer;
+
+    /**
+     * Constructor.
+     *
+     * @param writer where to write the db instructions.
+     */
+    public BatchSqlWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void writeTable(String table, List<SqlRow> rows) throws IOException {
+        int start = 0;
+        while (start < rows.size()) {
+            // A statement holds consecutive rows with the same columns.
+            String[] columns = rows.get(start).getColumns();
+            int end = start + 1;
+            while (end < rows.size() && end - start < ROWS_BY_STATEMENT && Arrays.equals(columns, rows.get(end).getColumns())) {
+                end++;
+            }
+            writeStatement(table, rows, start, end);
+            start = end;
+        }
+        writer.append("\n");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void finishTables(List<String> tables) throws IOException {
+        writer.flush();
+    }
+
+    /**
+     * Writes a multi-row INSERT statement.
+     *
+     * @param table name of the table.
+     * @param rows  rows of the table.
+     * @param start index of the first row of the statement.
+     * @param end   index following the last row of the statement.
+     * @throws IOException exception.
+     */
+    private void writeStatement(String table, List<SqlRow> rows, int start, int end) throws IOException {
+        boolean identified = rows.get(start).getName() != null;
+        writer.append("INSERT INTO ").append(table).append(" (");
+        if (identified) {
+            writer.append("ID, ");
+        }
+        writer.append(String.join(", ", rows.get(start).getColumns())).append(") VALUES\n");
+        for (int i = start; i < end; i++) {
+            SqlRow row = rows.get(i);
+            writer.append("    (");
+            if (identified) {
+                writer.append(Integer.toString(i + 1)).append(", ");
+            }
+            Object[] values = row.getValues();
+            for (int j = 0; j < values.length; j++) {
+                if (j > 0) {
+                    writer.append(", ");
+                }
+                writer.append(toLiteral(values[j]));
+            }
+            writer.append(i < end - 1 ? "),\n" : ");\n");
+        }
+    }
+
+    /**
+     * @param value a SQL literal or a reference.
+     * @return the SQL literal of the value, the reference being resolved to the ID of the row.
+     */
+    private String toLiteral(Object value) {
+        if (value instanceof SqlRow.Reference) {
+            SqlRow.Reference reference = (SqlRow.Reference) value;
+            if (!isResolved(reference.getTable())) {
+                return reference.toSubQuery();
+            }
+            Integer id = getId(reference);
+            return id != null ? id.toString() : "null";
+        }
+        return (String) value;
+    }
+}
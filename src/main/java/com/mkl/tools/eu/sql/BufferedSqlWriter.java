@@ -0,0 +1,92 @@
+package com.mkl.tools.eu.sql;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the rows grouped by table until {@link #finish()} so that the references can be resolved to IDs.
+ * <p>
+ * The named rows are given an explicit ID (1, 2,... in each table). The tables are written in the order of their
+ * first row, which is the order of the foreign keys as the rows of a table are written after the rows they refer to.
+ * </p>
+ *
+ * @author MKL
+ */
+public abstract class BufferedSqlWriter implements SqlRowWriter {
+    /** Rows by table, in the order of the first row of each table. */
+    private final Map<String, TableRows> tables = new LinkedHashMap<>();
+
+    /** {@inheritDoc} */
+    @Override
+    public void write(SqlRow row) {
+        TableRows table = tables.computeIfAbsent(row.getTable(), key -> new TableRows());
+        table.rows.add(row);
+        if (row.getName() != null) {
+            table.ids.putIfAbsent(row.getName(), table.rows.size());
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void endGroup() {
+        // The rows are grouped by table.
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void finish() throws IOException {
+        for (Map.Entry<String, TableRows> table : tables.entrySet()) {
+            writeTable(table.getKey(), table.getValue().rows);
+        }
+        finishTables(new ArrayList<>(tables.keySet()));
+        tables.clear();
+    }
+
+    /**
+     * Writes the rows of a table. The ID of the row at index i is i + 1.
+     *
+     * @param table name of the table.
+     * @param rows  rows of the table.
+     * @throws IOException exception.
+     */
+    protected abstract void writeTable(String table, List<SqlRow> rows) throws IOException;
+
+    /**
+     * Called once all the tables are written.
+     *
+     * @param tables names of the tables, in the order they were written.
+     * @throws IOException exception.
+     */
+    protected abstract void finishTables(List<String> tables) throws IOException;
+
+    /**
+     * @param table name of a table.
+     * @return <code>true</code> if rows of the table were written, so that the references to it can be resolved.
+     */
+    protected boolean isResolved(String table) {
+        return tables.containsKey(table);
+    }
+
+    /**
+     * @param reference reference to a row of a resolved table.
+     * @return the ID of the row, <code>null</code> if it is unknown, as the sub query would give.
+     */
+    protected Integer getId(SqlRow.Reference reference) {
+        TableRows table = tables.get(reference.getTable());
+        return table != null ? table.ids.get(reference.getName()) : null;
+    }
+
+    /**
+     * Rows of a table.
+     */
+    private static class TableRows {
+        /** Rows in the order they were written. */
+        private final List<SqlRow> rows = new ArrayList<>();
+        /** ID of the named rows by name. */
+        private final Map<String, Integer> ids = new HashMap<>();
+    }
+}
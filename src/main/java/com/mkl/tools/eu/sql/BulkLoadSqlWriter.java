@@ -0,0 +1,258 @@
+package com.mkl.tools.eu.sql;
+
+import com.mkl.tools.eu.util.FileChannelWriter;
+import com.mkl.tools.eu.util.ToolsUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the rows as tab separated files, one by table, with the script loading them through LOAD DATA.
+ * <p>
+ * The files use the default format of LOAD DATA: fields separated by a tab, lines ended by a new line, special
+ * characters escaped by a backslash and null written \N. The first line holds the names of the columns.
+ * The references to the rows written by this writer are resolved to their ID, the references to the other tables are
+ * written as names and resolved by a sub query when loading. The bits are written 0 or 1 and cast when loading.
+ * The rows of a table whose columns differ are written in another file (R_PROVINCE_EU-2.tsv,...).
+ * </p>
+ * <p>
+ * The script deletes the rows of the tables in the reverse order of the foreign keys and resets their auto increment,
+ * so that the rows loaded without ID get the same IDs as with the insert script, then loads the files.
+ * It must be run from the directory of the files.
+ * </p>
+ *
+ * @author MKL
+ */
+public class BulkLoadSqlWriter extends BufferedSqlWriter {
+    /** Extension of the data files. */
+    private static final String DATA_EXTENSION = ".tsv";
+    /** Directory where to write the files. */
+    private final File directory;
+    /** Name of the loading script. */
+    private final String scriptName;
+    /** Load instructions of the files, in the order of the tables. */
+    private final StringBuilder loads = new StringBuilder();
+
+    /**
+     * Constructor.
+     *
+     * @param directory  directory where to write the files.
+     * @param scriptName name of the loading script.
+     */
+    public BulkLoadSqlWriter(File directory, String scriptName) {
+        this.directory = directory;
+        this.scriptName = scriptName;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void writeTable(String table, List<SqlRow> rows) throws IOException {
+        // The rows are grouped by columns, each group in its own file.
+        Map<List<String>, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < rows.size(); i++) {
+            groups.computeIfAbsent(Arrays.asList(rows.get(i).getColumns()), key -> new ArrayList<>()).add(i);
+        }
+        int group = 1;
+        for (List<Integer> indexes : groups.values()) {
+            String fileName = table + (group > 1 ? "-" + group : "") + DATA_EXTENSION;
+            writeFile(table, fileName, rows, indexes);
+            group++;
+        }
+    }
+
+    /**
+     * Writes a data file and its load instruction.
+     *
+     * @param table    name of the table.
+     * @param fileName name of the data file.
+     * @param rows     rows of the table.
+     * @param indexes  indexes of the rows of the file, all with the same columns.
+     * @throws IOException exception.
+     */
+    private void writeFile(String table, String fileName, List<SqlRow> rows, List<Integer> indexes) throws IOException {
+        SqlRow first = rows.get(indexes.get(0));
+        boolean identified = first.getName() != null;
+        String[] columns = first.getColumns();
+        // How each column is loaded: null if as is, else the expression setting it from its variable.
+        String[] expressions = new String[columns.length];
+        for (int index : indexes) {
+            Object[] values = rows.get(index).getValues();
+            for (int j = 0; j < values.length; j++) {
+                if (expressions[j] == null) {
+                    expressions[j] = getExpression(columns[j], values[j]);
+                }
+            }
+        }
+
+        FileChannelWriter writer = openFile(fileName);
+        try {
+            List<String> header = new ArrayList<>();
+            if (identified) {
+                header.add("ID");
+            }
+            for (String column : columns) {
+                header.add(unquote(column));
+            }
+            writer.append(String.join("\t", header)).append("\n");
+            for (int index : indexes) {
+                if (identified) {
+                    writer.append(Integer.toString(index + 1)).append("\t");
+                }
+                Object[] values = rows.get(index).getValues();
+                for (int j = 0; j < values.length; j++) {
+                    if (j > 0) {
+                        writer.append("\t");
+                    }
+                    writer.append(toField(values[j]));
+                }
+                writer.append("\n");
+            }
+        } catch (IOException | RuntimeException e) {
+            writer.abort();
+            throw e;
+        }
+        writer.close();
+
+        List<String> fields = new ArrayList<>();
+        List<String> sets = new ArrayList<>();
+        if (identified) {
+            fields.add("ID");
+        }
+        for (int j = 0; j < columns.length; j++) {
+            if (expressions[j] != null) {
+                fields.add("@" + unquote(columns[j]));
+                sets.add(columns[j] + " = " + expressions[j]);
+            } else {
+                fields.add(columns[j]);
+            }
+        }
+        loads.append("LOAD DATA LOCAL INFILE '").append(fileName).append("'\n")
+                .append("    INTO TABLE ").append(table).append("\n")
+                .append("    CHARACTER SET utf8mb4\n")
+                .append("    FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\'\n")
+                .append("    LINES TERMINATED BY '\\n'\n")
+                .append("    IGNORE 1 LINES\n")
+                .append("    (").append(String.join(", ", fields)).append(")");
+        if (!sets.isEmpty()) {
+            loads.append("\n    SET ").append(String.join(", ", sets));
+        }
+        loads.append(";\n");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void finishTables(List<String> tables) throws IOException {
+        FileChannelWriter writer = openFile(scriptName);
+        try {
+            for (int i = tables.size() - 1; i >= 0; i--) {
+                writer.append("DELETE FROM ").append(tables.get(i)).append(";\n")
+                        .append("ALTER TABLE ").append(tables.get(i)).append(" AUTO_INCREMENT = 1;\n");
+            }
+            writer.append("\n").append(loads);
+        } catch (IOException | RuntimeException e) {
+            writer.abort();
+            throw e;
+        }
+        writer.close();
+        loads.setLength(0);
+    }
+
+    /**
+     * Opens a file of the directory, creating the directory if needed.
+     *
+     * @param fileName name of the file.
+     * @return the writer of the file, in UTF-8.
+     * @throws IOException exception.
+     */
+    private FileChannelWriter openFile(String fileName) throws IOException {
+        return ToolsUtil.createFileWriter(new File(directory, fileName).getPath(), false);
+    }
+
+    /**
+     * @param column name of the column.
+     * @param value  a value of the column.
+     * @return the expression setting the column from its variable if the value can not be loaded as is,
+     * <code>null</code> otherwise.
+     */
+    private String getExpression(String column, Object value) {
+        String variable = "@" + unquote(column);
+        if (value instanceof SqlRow.Reference) {
+            String table = ((SqlRow.Reference) value).getTable();
+            if (!isResolved(table)) {
+                return "(SELECT ID FROM " + table + " WHERE NAME = " + variable + ")";
+            }
+        } else if (value != null && ((String) value).startsWith("b'")) {
+            return "CAST(" + variable + " AS UNSIGNED)";
+        }
+        return null;
+    }
+
+    /**
+     * @param value a SQL literal or a reference.
+     * @return the field of the value in the data file.
+     */
+    private String toField(Object value) {
+        if (value instanceof SqlRow.Reference) {
+            SqlRow.Reference reference = (SqlRow.Reference) value;
+            if (!isResolved(reference.getTable())) {
+                return escape(reference.getName());
+            }
+            Integer id = getId(reference);
+            return id != null ? id.toString() : "\\N";
+        }
+        String literal = (String) value;
+        if (literal == null || "null".equals(literal)) {
+            return "\\N";
+        } else if (literal.startsWith("b'")) {
+            return literal.substring(2, literal.length() - 1);
+        } else if (literal.startsWith("'")) {
+            return escape(literal.substring(1, literal.length() - 1).replace("''", "'"));
+        }
+        return literal;
+    }
+
+    /**
+     * @param text a text.
+     * @return the text with the special characters of the data file escaped.
+     */
+    private static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\':
+                    escaped.append("\\\\");
+                    break;
+                case '\t':
+                    escaped.append("\\t");
+                    break;
+                case '\n':
+                    escaped.append("\\n");
+                    break;
+                case '\r':
+                    escaped.append("\\r");
+                    break;
+                case '\0':
+                    escaped.append("\\0");
+                    break;
+                default:
+                    escaped.append(c);
+                    break;
+            }
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * @param column name of a column, maybe quoted because it is a reserved word.
+     * @return the name of the column without the quotes.
+     */
+    private static String unquote(String column) {
+        return column.replace("`", "");
+    }
+}
@@ -0,0 +1,46 @@
+package com.mkl.tools.eu.sql;
+
+import java.io.IOException;
+
+/**
+ * Writes the rows with several writers, to produce several outputs in a single run.
+ *
+ * @author MKL
+ */
+public class CompositeSqlWriter implements SqlRowWriter {
+    /** Writers of the rows. */
+    private final SqlRowWriter[] writers;
+
+    /**
+     * Constructor.
+     *
+     * @param writers writers of the rows.
+     */
+    public CompositeSqlWriter(SqlRowWriter... writers) {
+        this.writers = writers;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void write(SqlRow row) throws IOException {
+        for (SqlRowWriter writer : writers) {
+            writer.write(row);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void endGroup() throws IOException {
+        for (SqlRowWriter writer : writers) {
+            writer.endGroup();
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void finish() throws IOException {
+        for (SqlRowWriter writer : writers) {
+            writer.finish();
+        }
+    }
+}
@@ -0,0 +1,423 @@
+package com.mkl.tools.eu.sql;
+
+import com.mkl.tools.eu.util.FileChannelWriter;
+import com.mkl.tools.eu.util.ToolsUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes the script updating the database from the rows of the previous run to the rows of this run.
+ * <p>
+ * The rows of each run are kept in a state file. The rows of a table are matched by their natural key (the name of a
+ * province, the die and the column of a result,...), given by table. A row whose key is not in the previous run is
+ * inserted, a row whose key is no more in this run is deleted and a row whose other columns changed is updated.
+ * When a key matches several rows or when the columns of a row changed, the rows of the key are deleted and inserted
+ * again. A table without key has all its columns as key, so that its rows are only deleted and inserted.
+ * The rows referring to a deleted row are deleted and inserted again too, as the inserted row has another ID.
+ * </p>
+ * <p>
+ * The deletions are written first, in the reverse order of the foreign keys, then the updates and the insertions.
+ * Without state file, the script deletes all the rows of the tables and inserts them again. The state file is only
+ * written once the script is complete, which supposes that each script is applied to the database.
+ * </p>
+ *
+ * @author MKL
+ */
+public class DeltaSqlWriter extends BufferedSqlWriter {
+    /** Logger. */
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeltaSqlWriter.class);
+    /** Version of the format of the state file. */
+    private static final int VERSION = 1;
+    /** Value of a String in the state file. */
+    private static final byte LITERAL = 0;
+    /** Value of a reference in the state file. */
+    private static final byte REFERENCE = 1;
+    /** Separator of the values of a key. */
+    private static final String KEY_SEPARATOR = "\u0000";
+    /** File of the script. */
+    private final File scriptFile;
+    /** File of the rows of the previous run. */
+    private final File stateFile;
+    /** Key columns by table. */
+    private final Map<String, String[]> keys;
+    /** Rows of this run by table, in the order of the tables. */
+    private final Map<String, List<SqlRow>> current = new LinkedHashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param scriptFile file of the script.
+     * @param stateFile  file of the rows of the previous run.
+     * @param keys       key columns by table.
+     */
+    public DeltaSqlWriter(File scriptFile, File stateFile, Map<String, String[]> keys) {
+        this.scriptFile = scriptFile;
+        this.stateFile = stateFile;
+        this.keys = keys;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void writeTable(String table, List<SqlRow> rows) {
+        current.put(table, rows);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    protected void finishTables(List<String> tables) throws IOException {
+        Map<String, List<SqlRow>> previous = loadState();
+
+        // The tables of the previous run which are no more written come last so that they are deleted first.
+        Set<String> allTables = new LinkedHashSet<>(tables);
+        if (previous != null) {
+            allTables.addAll(previous.keySet());
+        }
+        List<String> deletes = new ArrayList<>();
+        Set<String> deletedNames = new HashSet<>();
+        StringWriter changes = new StringWriter();
+        ScriptSqlWriter changeWriter = new ScriptSqlWriter(changes);
+        for (String table : allTables) {
+            List<SqlRow> rows = current.getOrDefault(table, Collections.emptyList());
+            if (previous == null) {
+                deletes.add("DELETE FROM " + table + ";\n");
+                for (SqlRow row : rows) {
+                    changeWriter.write(row);
+                }
+            } else {
+                StringBuilder tableDeletes = new StringBuilder();
+                computeDelta(table, previous.getOrDefault(table, Collections.emptyList()), rows, deletedNames, tableDeletes,
+                        changes, changeWriter);
+                deletes.add(tableDeletes.toString());
+            }
+        }
+
+        FileChannelWriter writer = ToolsUtil.createFileWriter(scriptFile.getPath(), false);
+        try {
+            for (int i = deletes.size() - 1; i >= 0; i--) {
+                writer.append(deletes.get(i));
+            }
+            writer.append("\n").append(changes.toString());
+        } catch (IOException | RuntimeException e) {
+            writer.abort();
+            throw e;
+        }
+        writer.close();
+
+        saveState();
+        current.clear();
+    }
+
+    /**
+     * Computes the changes of a table.
+     *
+     * @param table        name of the table.
+     * @param oldRows      rows of the previous run.
+     * @param newRows      rows of this run.
+     * @param deletedNames table and name of the deleted rows, completed with the rows of this table.
+     * @param deletes      where to write the deletions.
+     * @param changes      where to write the updates.
+     * @param changeWriter where to write the insertions.
+     * @throws IOException exception.
+     */
+    private void computeDelta(String table, List<SqlRow> oldRows, List<SqlRow> newRows, Set<String> deletedNames,
+                              StringBuilder deletes, StringWriter changes, SqlRowWriter changeWriter) throws IOException {
+        Map<String, List<SqlRow>> oldByKey = groupByKey(table, oldRows);
+        Map<String, List<SqlRow>> newByKey = groupByKey(table, newRows);
+
+        Set<String> deletedKeys = new HashSet<>();
+        for (Map.Entry<String, List<SqlRow>> oldEntry : oldByKey.entrySet()) {
+            List<SqlRow> oldKeyRows = oldEntry.getValue();
+            List<SqlRow> newKeyRows = newByKey.get(oldEntry.getKey());
+            if (newKeyRows == null || isReferringTo(oldKeyRows, deletedNames)
+                    || (!isSameRows(oldKeyRows, newKeyRows) && !isUpdate(oldKeyRows, newKeyRows))) {
+                appendDelete(table, oldKeyRows.get(0), deletes);
+                deletedKeys.add(oldEntry.getKey());
+                for (SqlRow row : oldKeyRows) {
+                    if (row.getName() != null) {
+                        deletedNames.add(table + KEY_SEPARATOR + row.getName());
+                    }
+                }
+            }
+        }
+
+        for (Map.Entry<String, List<SqlRow>> newEntry : newByKey.entrySet()) {
+            List<SqlRow> newKeyRows = newEntry.getValue();
+            List<SqlRow> oldKeyRows = deletedKeys.contains(newEntry.getKey()) ? null : oldByKey.get(newEntry.getKey());
+            if (oldKeyRows != null && isSameRows(oldKeyRows, newKeyRows)) {
+                continue;
+            }
+            if (oldKeyRows != null && isUpdate(oldKeyRows, newKeyRows)) {
+                appendUpdate(table, oldKeyRows.get(0), newKeyRows.get(0), changes);
+            } else {
+                for (SqlRow row : newKeyRows) {
+                    changeWriter.write(row);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param table name of the table.
+     * @param rows  rows of the table.
+     * @return the rows by key, in the order of the rows.
+     */
+    private Map<String, List<SqlRow>> groupByKey(String table, List<SqlRow> rows) {
+        Map<String, List<SqlRow>> byKey = new LinkedHashMap<>();
+        for (SqlRow row : rows) {
+            StringBuilder key = new StringBuilder();
+            for (String column : getKeyColumns(table, row)) {
+                key.append(getLiteral(row, column)).append(KEY_SEPARATOR);
+            }
+            byKey.computeIfAbsent(key.toString(), k -> new ArrayList<>()).add(row);
+        }
+        return byKey;
+    }
+
+    /**
+     * @param table name of the table.
+     * @param row   a row of the table.
+     * @return the key columns of the table, all the columns of the row if the table has no key.
+     */
+    private String[] getKeyColumns(String table, SqlRow row) {
+        String[] keyColumns = keys.get(table);
+        return keyColumns != null ? keyColumns : row.getColumns();
+    }
+
+    /**
+     * @param rows         rows of a key in the previous run.
+     * @param deletedNames table and name of the deleted rows.
+     * @return <code>true</code> if one of the rows refers to a deleted row.
+     */
+    private static boolean isReferringTo(List<SqlRow> rows, Set<String> deletedNames) {
+        for (SqlRow row : rows) {
+            for (Object value : row.getValues()) {
+                if (value instanceof SqlRow.Reference
+                        && deletedNames.contains(((SqlRow.Reference) value).getTable() + KEY_SEPARATOR + ((SqlRow.Reference) value).getName())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param oldRows rows of a key in the previous run.
+     * @param newRows rows of the key in this run.
+     * @return <code>true</code> if the rows are the same.
+     */
+    private static boolean isSameRows(List<SqlRow> oldRows, List<SqlRow> newRows) {
+        if (oldRows.size() != newRows.size()) {
+            return false;
+        }
+        for (int i = 0; i < oldRows.size(); i++) {
+            SqlRow oldRow = oldRows.get(i);
+            SqlRow newRow = newRows.get(i);
+            if (!Arrays.equals(oldRow.getColumns(), newRow.getColumns())) {
+                return false;
+            }
+            for (int j = 0; j < oldRow.getValues().length; j++) {
+                if (!toLiteral(oldRow.getValues()[j]).equals(toLiteral(newRow.getValues()[j]))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param oldRows rows of a key in the previous run.
+     * @param newRows rows of the key in this run.
+     * @return <code>true</code> if the row of the key can be updated.
+     */
+    private static boolean isUpdate(List<SqlRow> oldRows, List<SqlRow> newRows) {
+        return oldRows.size() == 1 && newRows.size() == 1 && Arrays.equals(oldRows.get(0).getColumns(), newRows.get(0).getColumns());
+    }
+
+    /**
+     * Writes the deletion of the rows having the key of a row.
+     *
+     * @param table   name of the table.
+     * @param row     the row.
+     * @param deletes where to write the deletion.
+     */
+    private void appendDelete(String table, SqlRow row, StringBuilder deletes) {
+        deletes.append("DELETE FROM ").append(table).append(" WHERE ");
+        appendWhere(table, row, deletes);
+        deletes.append(";\n");
+    }
+
+    /**
+     * Writes the update of the changed columns of a row.
+     *
+     * @param table   name of the table.
+     * @param oldRow  the row in the previous run.
+     * @param newRow  the row in this run.
+     * @param changes where to write the update.
+     */
+    private void appendUpdate(String table, SqlRow oldRow, SqlRow newRow, StringWriter changes) {
+        List<String> sets = new ArrayList<>();
+        for (int i = 0; i < newRow.getColumns().length; i++) {
+            String literal = toLiteral(newRow.getValues()[i]);
+            if (!toLiteral(oldRow.getValues()[i]).equals(literal)) {
+                sets.add(newRow.getColumns()[i] + " = " + literal);
+            }
+        }
+        StringBuilder update = new StringBuilder("UPDATE ").append(table).append(" SET ").append(String.join(", ", sets)).append(" WHERE ");
+        appendWhere(table, oldRow, update);
+        changes.append(update).append(";\n");
+    }
+
+    /**
+     * Writes the condition on the key of a row.
+     *
+     * @param table   name of the table.
+     * @param row     the row.
+     * @param builder where to write the condition.
+     */
+    private void appendWhere(String table, SqlRow row, StringBuilder builder) {
+        String[] keyColumns = getKeyColumns(table, row);
+        for (int i = 0; i < keyColumns.length; i++) {
+            if (i > 0) {
+                builder.append(" AND ");
+            }
+            String literal = getLiteral(row, keyColumns[i]);
+            builder.append(keyColumns[i]).append("null".equals(literal) ? " IS NULL" : " = " + literal);
+        }
+    }
+
+    /**
+     * @param row    a row.
+     * @param column a column.
+     * @return the SQL literal of the column of the row, null if the row has not this column.
+     */
+    private static String getLiteral(SqlRow row, String column) {
+        for (int i = 0; i < row.getColumns().length; i++) {
+            if (row.getColumns()[i].equals(column)) {
+                return toLiteral(row.getValues()[i]);
+            }
+        }
+        return "null";
+    }
+
+    /**
+     * @param value a SQL literal or a reference.
+     * @return the SQL literal of the value, the reference being a sub query.
+     */
+    private static String toLiteral(Object value) {
+        if (value instanceof SqlRow.Reference) {
+            return ((SqlRow.Reference) value).toSubQuery();
+        }
+        return value != null ? (String) value : "null";
+    }
+
+    /**
+     * @return the rows of the previous run by table, <code>null</code> if there are none.
+     */
+    private Map<String, List<SqlRow>> loadState() {
+        if (!stateFile.exists()) {
+            return null;
+        }
+
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(stateFile), 1 << 16))) {
+            if (input.readInt() != VERSION) {
+                LOGGER.info("State {} is outdated", stateFile);
+                return null;
+            }
+            Map<String, List<SqlRow>> tables = new LinkedHashMap<>();
+            int nbTables = input.readInt();
+            for (int i = 0; i < nbTables; i++) {
+                String table = ToolsUtil.readString(input);
+                int nbRows = input.readInt();
+                List<SqlRow> rows = new ArrayList<>(nbRows);
+                String[] columns = null;
+                for (int j = 0; j < nbRows; j++) {
+                    String name = ToolsUtil.readString(input);
+                    int nbColumns = input.readInt();
+                    // The columns are written again only when they change.
+                    if (nbColumns >= 0) {
+                        columns = new String[nbColumns];
+                        for (int k = 0; k < nbColumns; k++) {
+                            columns[k] = ToolsUtil.readString(input);
+                        }
+                    }
+                    Object[] values = new Object[columns.length];
+                    for (int k = 0; k < values.length; k++) {
+                        if (input.readByte() == REFERENCE) {
+                            values[k] = new SqlRow.Reference(ToolsUtil.readString(input), ToolsUtil.readString(input));
+                        } else {
+                            values[k] = ToolsUtil.readString(input);
+                        }
+                    }
+                    rows.add(new SqlRow(table, columns, values).named(name));
+                }
+                tables.put(table, rows);
+            }
+            return tables;
+        } catch (IOException e) {
+            LOGGER.warn("State " + stateFile + " can't be read", e);
+            return null;
+        }
+    }
+
+    /**
+     * Saves the rows of this run.
+     *
+     * @throws IOException exception.
+     */
+    private void saveState() throws IOException {
+        if (stateFile.getParentFile() != null && !stateFile.getParentFile().exists() && !stateFile.getParentFile().mkdirs()) {
+            throw new IOException("Can't create directory of " + stateFile);
+        }
+
+        try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(stateFile), 1 << 16))) {
+            output.writeInt(VERSION);
+            output.writeInt(current.size());
+            for (Map.Entry<String, List<SqlRow>> table : current.entrySet()) {
+                ToolsUtil.writeString(output, table.getKey());
+                output.writeInt(table.getValue().size());
+                String[] columns = null;
+                for (SqlRow row : table.getValue()) {
+                    ToolsUtil.writeString(output, row.getName());
+                    if (Arrays.equals(columns, row.getColumns())) {
+                        output.writeInt(-1);
+                    } else {
+                        columns = row.getColumns();
+                        output.writeInt(columns.length);
+                        for (String column : columns) {
+                            ToolsUtil.writeString(output, column);
+                        }
+                    }
+                    for (Object value : row.getValues()) {
+                        if (value instanceof SqlRow.Reference) {
+                            output.writeByte(REFERENCE);
+                            ToolsUtil.writeString(output, ((SqlRow.Reference) value).getTable());
+                            ToolsUtil.writeString(output, ((SqlRow.Reference) value).getName());
+                        } else {
+                            output.writeByte(LITERAL);
+                            ToolsUtil.writeString(output, (String) value);
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
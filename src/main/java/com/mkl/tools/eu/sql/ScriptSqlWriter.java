@@ -0,0 +1,69 @@
+package com.mkl.tools.eu.sql;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Writes one INSERT statement for each row, as soon as it is written, the references being resolved by sub queries.
+ *
+ * @author MKL
+ */
+public class ScriptSqlWriter implements SqlRowWriter {
+    /** Where to write the db instructions. */
+    private final Writer writer;
+    /** Tables whose rows are written with a reference by line. */
+    private final Set<String> multilineTables;
+
+    /**
+     * Constructor.
+     *
+     * @param writer          where to write the db instructions.
+     * @param multilineTables tables whose rows are written with a reference by line.
+     */
+    public ScriptSqlWriter(Writer writer, String... multilineTables) {
+        this.writer = writer;
+        this.multilineTables = new HashSet<>(Arrays.asList(multilineTables));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void write(SqlRow row) throws IOException {
+        boolean multiline = multilineTables.contains(row.getTable());
+        writer.append("INSERT INTO ").append(row.getTable()).append(" (").append(String.join(", ", row.getColumns())).append(")\n")
+                .append("    VALUES (");
+        Object[] values = row.getValues();
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] instanceof SqlRow.Reference) {
+                if (multiline) {
+                    writer.append(",\n        ");
+                } else if (i > 0) {
+                    writer.append(", ");
+                } else {
+                    writer.append(" ");
+                }
+                writer.append(((SqlRow.Reference) values[i]).toSubQuery());
+            } else {
+                if (i > 0) {
+                    writer.append(", ");
+                }
+                writer.append((String) values[i]);
+            }
+        }
+        writer.append(");\n");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void endGroup() throws IOException {
+        writer.append("\n");
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void finish() throws IOException {
+        writer.flush();
+    }
+}
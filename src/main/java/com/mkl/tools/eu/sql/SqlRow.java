@@ -0,0 +1,104 @@
+package com.mkl.tools.eu.sql;
+
+/**
+ * Row to insert in a table of the database.
+ * <p>
+ * The values are either SQL literals ('text', null, b'1', 5,...) or {@link Reference}s to a row of another table
+ * identified by its name. A row that is referenced by other rows must be given its name.
+ * </p>
+ *
+ * @author MKL
+ */
+public class SqlRow {
+    /** Name of the table. */
+    private final String table;
+    /** Columns of the row. */
+    private final String[] columns;
+    /** Values of the columns: SQL literals or references. */
+    private final Object[] values;
+    /** Natural key of the row if other rows refer to it. */
+    private String name;
+
+    /**
+     * Constructor.
+     *
+     * @param table   name of the table.
+     * @param columns columns of the row.
+     * @param values  values of the columns: SQL literals or references.
+     */
+    public SqlRow(String table, String[] columns, Object... values) {
+        if (columns.length != values.length) {
+            throw new IllegalArgumentException(table + " row has " + values.length + " values for " + columns.length + " columns");
+        }
+        this.table = table;
+        this.columns = columns;
+        this.values = values;
+    }
+
+    /**
+     * Gives a name to the row so that other rows can refer to it.
+     *
+     * @param name natural key of the row.
+     * @return this row.
+     */
+    public SqlRow named(String name) {
+        this.name = name;
+        return this;
+    }
+
+    /** @return the table. */
+    public String getTable() {
+        return table;
+    }
+
+    /** @return the columns. */
+    public String[] getColumns() {
+        return columns;
+    }
+
+    /** @return the values. */
+    public Object[] getValues() {
+        return values;
+    }
+
+    /** @return the name. */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Reference to the ID of a named row.
+     */
+    public static class Reference {
+        /** Table of the row. */
+        private final String table;
+        /** Name of the row. */
+        private final String name;
+
+        /**
+         * Constructor.
+         *
+         * @param table table of the row.
+         * @param name  name of the row.
+         */
+        public Reference(String table, String name) {
+            this.table = table;
+            this.name = name;
+        }
+
+        /** @return the table. */
+        public String getTable() {
+            return table;
+        }
+
+        /** @return the name. */
+        public String getName() {
+            return name;
+        }
+
+        /** @return the sub query selecting the ID of the row. */
+        public String toSubQuery() {
+            return "(SELECT ID FROM " + table + " WHERE NAME = '" + name + "')";
+        }
+    }
+}
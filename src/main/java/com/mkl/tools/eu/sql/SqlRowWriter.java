@@ -0,0 +1,32 @@
+package com.mkl.tools.eu.sql;
+
+import java.io.IOException;
+
+/**
+ * Writer of the rows to insert in the database.
+ *
+ * @author MKL
+ */
+public interface SqlRowWriter {
+    /**
+     * Writes a row. The rows of a table must be written after the rows they refer to.
+     *
+     * @param row the row.
+     * @throws IOException exception.
+     */
+    void write(SqlRow row) throws IOException;
+
+    /**
+     * Ends a group of rows.
+     *
+     * @throws IOException exception.
+     */
+    void endGroup() throws IOException;
+
+    /**
+     * Writes the rows still pending once all the rows are written.
+     *
+     * @throws IOException exception.
+     */
+    void finish() throws IOException;
+}
@@ -1,6 +1,14 @@
 package com.mkl.tools.eu.tables;
 
 import com.mkl.tools.eu.map.DataExtractor;
+import com.mkl.tools.eu.sql.BulkLoadSqlWriter;
+import com.mkl.tools.eu.sql.CompositeSqlWriter;
+import com.mkl.tools.eu.sql.DeltaSqlWriter;
+import com.mkl.tools.eu.sql.ScriptSqlWriter;
+import com.mkl.tools.eu.sql.SqlRow;
+import com.mkl.tools.eu.sql.SqlRowWriter;
+import com.mkl.tools.eu.util.FileChannelWriter;
+import com.mkl.tools.eu.util.LineRule;
 import com.mkl.tools.eu.util.ToolsUtil;
 import com.mkl.tools.eu.vo.Leader;
 import org.apache.commons.lang3.StringUtils;
@@ -11,11 +19,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.BufferedReader;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -29,8 +40,129 @@ public class TablesGenerator {
     private static final Logger LOGGER = LoggerFactory.getLogger(TablesGenerator.class);
     /** Leaders without image. */
     private static final List<String> leadersWithoutImage;
+    /** Header of the general tables: \newcommand{\name}{. */
+    private static final String GENERAL_TABLE_HEADER = "\\newcommand{\\";
+    /** Type of the general tables by the name of their command. */
+    private static final Map<String, String> GENERAL_TABLE_TYPES = new HashMap<>();
+    /** Command of the general table whose header can be followed by its content. */
+    private static final String GENERAL_TABLE_OPEN_HEADER = "table@@resistance";
+    /** Row of the trade tables. */
+    private static final LineRule TRADE_ROW = LineRule.contains("&", "(\\\\leq|\\d+|\\\\geq|\\\\textgreatequal)-?-?(\\d+)\\s*&\\s*(\\d*)\\s*&\\s*(\\d*)\\s*&\\s*(\\d*)\\s*&\\s*(\\d*)\\s*&\\s*(\\d*).*");
+    /** Possible results of the administrative actions. */
+    private static final String ADMIN_POSSIBILITIES = "F\\\\textetoile|F|\\\\undemi|\\\\undemi\\s*\\\\textetoile|S|S\\\\textetoile";
+    /** Row of the administrative actions table. */
+    private static final LineRule ADMIN_ROW = LineRule.contains("&", "[\\\\a-z]*(\\d+)&(" + ADMIN_POSSIBILITIES + ")&(" + ADMIN_POSSIBILITIES + ")&(" + ADMIN_POSSIBILITIES + ")&(" + ADMIN_POSSIBILITIES + ")" +
+            "&(" + ADMIN_POSSIBILITIES + ")&(" + ADMIN_POSSIBILITIES + ")&(" + ADMIN_POSSIBILITIES + ")&(" + ADMIN_POSSIBILITIES + ")&(" + ADMIN_POSSIBILITIES + ")" +
+            "(\\\\\\\\\\\\ghline)?");
+    /** Row of the battle tech tables. */
+    private static final LineRule BATTLE_TECH_ROW = LineRule.startsWith("\\", "\\\\([^\\s]*).*");
+    /** Moral in the last column of the battle tech tables. */
+    private static final Pattern BATTLE_TECH_MORAL = Pattern.compile("^(\\d).*");
+    /** Veteran bonus in the last column of the naval tech table. */
+    private static final Pattern BATTLE_TECH_BONUS = Pattern.compile(".*\\\\textdag.*");
+    /** Fire and shock columns of the battle tech tables. */
+    private static final Pattern BATTLE_TECH_COLUMNS = Pattern.compile(".*([ABCDE-])/.*([ABCDE]).*");
+    /** Loss in a result. */
+    private static final Pattern LOSS = Pattern.compile(".*(\\d).*");
+    /** Row of the army classes table. */
+    private static final LineRule ARMY_CLASS_ROW = LineRule.startsWith("\\CA", "\\\\CA([^&]*)&[^&]*&(\\d)&(\\d)&(\\d)&(\\d)&(\\d)&(\\d)&(\\d)&.*");
+    /** Row of the artillery value table. */
+    private static final LineRule ARTILLERY_ROW = LineRule.contains("ghline", "([^&]*)&([^&]*)&([^&]*)&([^&]*)&([^&]*)&([^&]*)&([^&]*)&([^&]*)\\\\\\\\\\\\ghline.*");
+    /** Two army classes in the header of a row of the artillery value table. */
+    private static final Pattern ARTILLERY_CLASSES = Pattern.compile(".*\\\\quad.*\\\\CA([^\\s/\\\\]*).*\\\\CA([^\\s/\\\\]*).");
+    /** One army class in the header of a row of the artillery value table. */
+    private static final Pattern ARTILLERY_CLASS = Pattern.compile(".*\\\\quad.*\\\\CA([^\\s/\\\\]*).*");
+    /** Row of the artillery bonus table. */
+    private static final LineRule ARTILLERY_BONUS_ROW = LineRule.startsWith("&", "&([^&]*)&([^&]*)&([^&]*)&([^&]*)&([^&]*)&([^&]*)&.*\\+([^&]*)\\\\\\\\.*");
+    /** Row of the fortress resistance table. */
+    private static final LineRule RESISTANCE_ROW = LineRule.contains("&", "([^&]*)&([^&]*)&([^&]*)&([^&]*)&([^&]*)&([^&]*)&([^&]*).*");
+    /** Row of the assault table. */
+    private static final LineRule ASSAULT_ROW = LineRule.contains("ghline", "([^&]*)&([^&]*)&([^&]*)&([^&]*)&([^&]*)&([^&]*)&([^&]*)&([^&]*)&([^&]*)&([^&]*)&([^&]*)\\\\\\\\\\\\ghline.*");
+    /** Row of the exchequer table. */
+    private static final LineRule EXCHEQUER_ROW = LineRule.contains("\\%", "([^&]*)&\\s*(\\d*)\\s*&\\s*(\\d*)\\s*&\\s*(\\d*)\\s*&\\s*(\\d*)\\s*\\\\%.*");
+    /** Row of the discoveries and attrition table. */
+    private static final LineRule ATTRITION_ROW = LineRule.endsWith("ghline", "[^\\d]*([\\d]+)\\s*&\\s*([^&]*)\\s*&\\s*([^&]*)\\s*&\\s*(\\d+)\\\\%\\s*&\\s*([^&]*)\\s*&\\s*([^&]*)\\s*&\\s*([^&]*)\\s*&\\s*([^&]*)\\s*\\\\\\\\\\\\ghline");
+    /** Row of the replacement leaders table. */
+    private static final LineRule REPLACEMENT_ROW = LineRule.contains("&", "([^&]*)&\\s*(\\d{3})\\s*&\\s*(\\d{3})\\s*&\\s*(\\d{3})\\s*&\\s*(\\d{3})\\s*&\\s*(\\d{3})\\s*&\\s*(\\d{3})\\s*&\\s*(\\d{3})\\s*&\\s*(\\d{3})\\s*&\\s*(\\d{3})\\s*&\\s*(\\d{3}).*");
+    /** Statistics of a replacement leader. */
+    private static final Pattern REPLACEMENT_STATS = Pattern.compile("(\\d)(\\d)(\\d)");
+    /** Option to write the tables as bulk load files too. */
+    private static final String BULK_LOAD_OPTION = "--bulk-load";
+    /** Directory of the bulk load files. */
+    private static final String BULK_LOAD_DIRECTORY = "src/main/resources/output/bulk";
+    /** Option to write the script of the changes of the tables since the previous run too. */
+    private static final String DELTA_SQL_OPTION = "--delta-sql";
+    /** Directory of the script of the changes and of the rows of the previous run. */
+    private static final String DELTA_SQL_DIRECTORY = "src/main/resources/output";
+    /** Columns of T_UNIT. */
+    private static final String[] UNIT_COLUMNS = {"ID", "R_COUNTRY", "ID_TECH", "PRICE", "TYPE", "ACTION", "SPECIAL"};
+    /** Columns of T_BASIC_FORCE. */
+    private static final String[] BASIC_FORCE_COLUMNS = {"R_COUNTRY", "ID_PERIOD", "NUMBER", "TYPE"};
+    /** Columns of T_LIMIT. */
+    private static final String[] LIMIT_COLUMNS = {"R_COUNTRY", "ID_PERIOD", "NUMBER", "TYPE"};
+    /** Columns of T_TRADE. */
+    private static final String[] TRADE_COLUMNS = {"COUNTRY_VALUE", "MIN_VALUE", "MAX_VALUE", "VALUE", "FOREIGN_TRADE"};
+    /** Columns of T_RESULT. */
+    private static final String[] RESULT_COLUMNS = {"DIE", "`COLUMN`", "RESULT"};
+    /** Columns of T_BATTLE_TECH. */
+    private static final String[] BATTLE_TECH_TABLE_COLUMNS = {"TECH_FOR", "`TECH_AGAINST`", "LAND", "COLUMN_FIRE", "COLUMN_SHOCK", "MORAL", "MORAL_BONUS_VETERAN"};
+    /** Columns of T_COMBAT_RESULT. */
+    private static final String[] COMBAT_RESULT_COLUMNS = {"`COLUMN`", "DICE", "ROUNDLOSS", "THIRDLOSS", "MORALELOSS"};
+    /** Columns of T_ARMY_CLASS. */
+    private static final String[] ARMY_CLASS_COLUMNS = {"CLASS", "PERIOD", "SIZE"};
+    /** Columns of T_ARMY_ARTILLERY. */
+    private static final String[] ARMY_ARTILLERY_COLUMNS = {"R_COUNTRY", "CLASS", "PERIOD", "ARTILLERY"};
+    /** Columns of T_ARTILLERY_SIEGE. */
+    private static final String[] ARTILLERY_SIEGE_COLUMNS = {"FORTRESS", "ARTILLERY", "BONUS"};
+    /** Columns of T_FORTRESS_RESISTANCE. */
+    private static final String[] FORTRESS_RESISTANCE_COLUMNS = {"FORTRESS", "ROUND", "THIRD", "BREACH"};
+    /** Columns of T_ASSAULT_RESULT. */
+    private static final String[] ASSAULT_RESULT_COLUMNS = {"DICE", "FIRE", "ROUNDLOSS", "THIRDLOSS", "MORALELOSS", "BREACH", "BESIEGER"};
+    /** Columns of T_EXCHEQUER. */
+    private static final String[] EXCHEQUER_COLUMNS = {"RESULT", "REGULAR", "PRESTIGE", "NATLOAN", "INTERLOAN"};
+    /** Columns of T_DISCOVERY. */
+    private static final String[] DISCOVERY_COLUMNS = {"DICE", "LAND", "RESULT", "CHECKLEADER", "CHECKLEADERNOTROOPS"};
+    /** Columns of T_ATTRITION_OTHER. */
+    private static final String[] ATTRITION_OTHER_COLUMNS = {"DICE", "LOSSPERCENTAGE"};
+    /** Columns of T_ATTRITION_LAND_EUROPE. */
+    private static final String[] ATTRITION_LAND_EUROPE_COLUMNS = {"DICE", "MINSIZE", "MAXSIZE", "LOSS", "PILLAGE"};
+    /** Columns of T_LEADER. */
+    private static final String[] LEADER_COLUMNS = {"CODE", "T_LEADER", "NAME", "R_COUNTRY", "EVENT", "BEGIN", "END", "`RANK`",
+            "MANOEUVRE", "FIRE", "SHOCK", "SIEGE", "TYPE", "ROTW", "ASIA", "AMERICA", "MEDITERRANEE", "PRIVATEER", "MAIN", "ANONYMOUS", "SIZE"};
+    /** Natural key of the tables, the tables without key being keyed by all their columns. */
+    private static final Map<String, String[]> TABLE_KEYS = new HashMap<>();
 
     static {
+        TABLE_KEYS.put("T_UNIT", new String[]{"ID"});
+        TABLE_KEYS.put("T_TRADE", new String[]{"COUNTRY_VALUE", "MIN_VALUE", "FOREIGN_TRADE"});
+        TABLE_KEYS.put("T_RESULT", new String[]{"DIE", "`COLUMN`"});
+        TABLE_KEYS.put("T_BATTLE_TECH", new String[]{"TECH_FOR", "`TECH_AGAINST`", "LAND"});
+        TABLE_KEYS.put("T_COMBAT_RESULT", new String[]{"`COLUMN`", "DICE"});
+        TABLE_KEYS.put("T_ARMY_CLASS", new String[]{"CLASS", "PERIOD"});
+        TABLE_KEYS.put("T_ARTILLERY_SIEGE", new String[]{"FORTRESS", "ARTILLERY"});
+        TABLE_KEYS.put("T_FORTRESS_RESISTANCE", new String[]{"FORTRESS", "BREACH"});
+        TABLE_KEYS.put("T_ASSAULT_RESULT", new String[]{"DICE", "FIRE", "BREACH", "BESIEGER"});
+        TABLE_KEYS.put("T_EXCHEQUER", new String[]{"RESULT"});
+        TABLE_KEYS.put("T_DISCOVERY", new String[]{"DICE", "LAND"});
+        TABLE_KEYS.put("T_ATTRITION_OTHER", new String[]{"DICE"});
+        TABLE_KEYS.put("T_ATTRITION_LAND_EUROPE", new String[]{"DICE", "MINSIZE"});
+        TABLE_KEYS.put("T_LEADER", new String[]{"CODE"});
+
+        GENERAL_TABLE_TYPES.put("foreigntrade", "foreigntrade");
+        GENERAL_TABLE_TYPES.put("domestictrade", "domestictrade");
+        GENERAL_TABLE_TYPES.put("admintbl", "adminresults");
+        GENERAL_TABLE_TYPES.put("navaltech", "navaltech");
+        GENERAL_TABLE_TYPES.put("landtech", "landtech");
+        GENERAL_TABLE_TYPES.put("table@combatresults", "combatresults");
+        GENERAL_TABLE_TYPES.put("armyclasses", "armyclasses");
+        GENERAL_TABLE_TYPES.put("artilleryvalue", "artilleryvalue");
+        GENERAL_TABLE_TYPES.put("artillerybonus", "artillerybonus");
+        GENERAL_TABLE_TYPES.put(GENERAL_TABLE_OPEN_HEADER, "fortressResistance");
+        GENERAL_TABLE_TYPES.put("table@assault", "assault");
+        GENERAL_TABLE_TYPES.put("etatsauvrai", "etatsauvrai");
+        GENERAL_TABLE_TYPES.put("replacement", "leader");
+        GENERAL_TABLE_TYPES.put("table@discoveriesattrition", "attrition");
+
         // TODO TG-152 cannot import leaders that have no image
         leadersWithoutImage = new ArrayList<>();
         leadersWithoutImage.add("van Bylandt");
@@ -102,11 +234,23 @@ public class TablesGenerator {
     /**
      * Main.
      *
-     * @param args none.
+     * @param args {@value #BULK_LOAD_OPTION} to write the tables as bulk load files too,
+     *             {@value #DELTA_SQL_OPTION} to write the script of the changes since the previous run too.
      * @throws Exception Exception.
      */
     public static void main(String... args) throws Exception {
-        Writer sqlWriter = ToolsUtil.createFileWriter("src/main/resources/output/tables-auto.sql", false);
+        FileChannelWriter sqlWriter = ToolsUtil.createFileWriter("src/main/resources/output/tables-auto.sql", false);
+        List<String> options = Arrays.asList(args);
+        List<SqlRowWriter> rowWriters = new ArrayList<>();
+        rowWriters.add(new ScriptSqlWriter(sqlWriter));
+        if (options.contains(BULK_LOAD_OPTION)) {
+            rowWriters.add(new BulkLoadSqlWriter(new File(BULK_LOAD_DIRECTORY), "load_tables.sql"));
+        }
+        if (options.contains(DELTA_SQL_OPTION)) {
+            rowWriters.add(new DeltaSqlWriter(new File(DELTA_SQL_DIRECTORY, "delta_tables.sql"),
+                    new File(DELTA_SQL_DIRECTORY, "tables.rows"), TABLE_KEYS));
+        }
+        SqlRowWriter rowWriter = new CompositeSqlWriter(rowWriters.toArray(new SqlRowWriter[rowWriters.size()]));
 
         sqlWriter.append("DELETE FROM T_UNIT;\n")
                 .append("ALTER TABLE T_UNIT AUTO_INCREMENT = 1;\n")
@@ -144,21 +288,27 @@ public class TablesGenerator {
                 .append("ALTER TABLE T_ATTRITION_OTHER AUTO_INCREMENT = 1;\n")
                 .append("\n");
 
-        computeCountryTables(sqlWriter);
-        computeGeneralTables(sqlWriter);
-        computeLeaders(sqlWriter);
+        try {
+            computeCountryTables(rowWriter);
+            computeGeneralTables(rowWriter);
+            computeLeaders(rowWriter);
 
-        sqlWriter.flush();
+            rowWriter.finish();
+        } catch (IOException | RuntimeException e) {
+            // A failed run keeps the previous script.
+            sqlWriter.abort();
+            throw e;
+        }
         sqlWriter.close();
     }
 
     /**
      * Compute the country tables.
      *
-     * @param sqlWriter the writer with all database instructions.
+     * @param rowWriter the writer with all database instructions.
      * @throws IOException
      */
-    public static void computeCountryTables(Writer sqlWriter) throws IOException {
+    public static void computeCountryTables(SqlRowWriter rowWriter) throws IOException {
         BufferedReader reader = new BufferedReader(new InputStreamReader(DataExtractor.class.getClassLoader().getResourceAsStream("input/tables/engCountryTables.tex")));
         String line;
         String country = null;
@@ -203,15 +353,15 @@ public class TablesGenerator {
                                 if (i >= 2 && i <= 4 && tech.getRight()) {
                                     String[] subPrices = price.split("/");
                                     Integer subPrice = Integer.parseInt(subPrices[0].trim());
-                                    id = addUnitLine(sqlWriter, country, tech.getLeft(), subPrice, getType(i, tech.getRight()), getAction(i, tech.getRight()), false, id);
+                                    id = addUnitLine(rowWriter, country, tech.getLeft(), subPrice, getType(i, tech.getRight()), getAction(i, tech.getRight()), false, id);
                                     subPrice = Integer.parseInt(subPrices[1].trim());
-                                    id = addUnitLine(sqlWriter, country, tech.getLeft(), subPrice, getType(i, tech.getRight()), getAction(i, tech.getRight()), true, id);
+                                    id = addUnitLine(rowWriter, country, tech.getLeft(), subPrice, getType(i, tech.getRight()), getAction(i, tech.getRight()), true, id);
                                 } else {
                                     Integer realPrice = null;
                                     if (!price.equals("---")) {
                                         realPrice = Integer.parseInt(price);
                                     }
-                                    id = addUnitLine(sqlWriter, country, tech.getLeft(), realPrice, getType(i, tech.getRight()), getAction(i, tech.getRight()), false, id);
+                                    id = addUnitLine(rowWriter, country, tech.getLeft(), realPrice, getType(i, tech.getRight()), getAction(i, tech.getRight()), false, id);
                                 }
 
                                 i++;
@@ -236,11 +386,11 @@ public class TablesGenerator {
                         String period = m.group(1);
                         String[] limits = m.group(2).split("&");
 
-                        addLimitLine(sqlWriter, country, period, getLimitNumber(limits[0]), "ACTION_DIPLO");
-                        addLimitLine(sqlWriter, country, period, getLimitNumber(limits[1]), "ACTION_TFI");
-                        addLimitLine(sqlWriter, country, period, getLimitNumber(limits[2]), "ACTION_COL");
-                        addLimitLine(sqlWriter, country, period, getLimitNumber(limits[3]), "ACTION_TP");
-                        addLimitLine(sqlWriter, country, period, getLimitNumber(limits[4]), "ACTION_CONCURRENCY");
+                        addLimitLine(rowWriter, country, period, getLimitNumber(limits[0]), "ACTION_DIPLO");
+                        addLimitLine(rowWriter, country, period, getLimitNumber(limits[1]), "ACTION_TFI");
+                        addLimitLine(rowWriter, country, period, getLimitNumber(limits[2]), "ACTION_COL");
+                        addLimitLine(rowWriter, country, period, getLimitNumber(limits[3]), "ACTION_TP");
+                        addLimitLine(rowWriter, country, period, getLimitNumber(limits[4]), "ACTION_CONCURRENCY");
 
                         String[] basicForces = limits[5].trim().split(" ");
                         if (StringUtils.equals("hollande", country)) {
@@ -258,10 +408,10 @@ public class TablesGenerator {
                                 typeInput = m.group(2);
                             }
                             if (StringUtils.equals("\\LeaderG;", typeInput) && StringUtils.equals("pologne", country)) {
-                                addLimitLine(sqlWriter, country, period, number, "LEADER_GENERAL");
+                                addLimitLine(rowWriter, country, period, number, "LEADER_GENERAL");
                             } else {
                                 String force = getBasicForceType(typeInput);
-                                addBasicForceLine(sqlWriter, country, period, number, force);
+                                addBasicForceLine(rowWriter, country, period, number, force);
                             }
                         }
 
@@ -274,8 +424,8 @@ public class TablesGenerator {
                         String unitLimits = limits[unitLimitNumber].trim();
                         m = Pattern.compile("(\\d)\\\\ND[\\\\xadb]* ?/ ?(\\d)\\\\LD[\\\\xadc]*").matcher(unitLimits);
                         if (m.matches()) {
-                            addLimitLine(sqlWriter, country, period, Integer.parseInt(m.group(1)), "PURCHASE_NAVAL_TROOPS");
-                            addLimitLine(sqlWriter, country, period, Integer.parseInt(m.group(2)), "PURCHASE_LAND_TROOPS");
+                            addLimitLine(rowWriter, country, period, Integer.parseInt(m.group(1)), "PURCHASE_NAVAL_TROOPS");
+                            addLimitLine(rowWriter, country, period, Integer.parseInt(m.group(2)), "PURCHASE_LAND_TROOPS");
                         } else {
                             LOGGER.error("Can't parse " + country + " unit limits: " + unitLimits);
                         }
@@ -290,7 +440,7 @@ public class TablesGenerator {
                                 if (StringUtils.isEmpty(number)) {
                                     number = "1";
                                 }
-                                addLimitLine(sqlWriter, country, period, Integer.parseInt(number), leader);
+                                addLimitLine(rowWriter, country, period, Integer.parseInt(number), leader);
                             }
                         }
                     }
@@ -310,17 +460,17 @@ public class TablesGenerator {
                         String period = m.group(1);
                         String[] limits = m.group(2).split("&");
 
-                        addLimitLine(sqlWriter, country, period, getLimitNumber(limits[0]), "MAX_DTI");
+                        addLimitLine(rowWriter, country, period, getLimitNumber(limits[0]), "MAX_DTI");
                         if (limits[1].contains("/")) {
-                            addLimitLine(sqlWriter, country, period, getLimitNumber(limits[1].split("/")[0]), "MAX_FTI");
-                            addLimitLine(sqlWriter, country, period, getLimitNumber(limits[1].split("/")[1]), "MAX_FTI_ROTW");
+                            addLimitLine(rowWriter, country, period, getLimitNumber(limits[1].split("/")[0]), "MAX_FTI");
+                            addLimitLine(rowWriter, country, period, getLimitNumber(limits[1].split("/")[1]), "MAX_FTI_ROTW");
                         } else {
-                            addLimitLine(sqlWriter, country, period, getLimitNumber(limits[1]), "MAX_FTI");
+                            addLimitLine(rowWriter, country, period, getLimitNumber(limits[1]), "MAX_FTI");
                         }
-                        addLimitLine(sqlWriter, country, period, getLimitNumber(limits[2]), "MAX_MNU");
-                        addLimitLine(sqlWriter, country, period, getLimitNumber(limits[3]), "MAX_COL");
-                        addLimitLine(sqlWriter, country, period, getLimitNumber(limits[4]), "MAX_TP");
-                        addLimitLine(sqlWriter, country, period, getLimitNumber(limits[5]), "MAX_ND");
+                        addLimitLine(rowWriter, country, period, getLimitNumber(limits[2]), "MAX_MNU");
+                        addLimitLine(rowWriter, country, period, getLimitNumber(limits[3]), "MAX_COL");
+                        addLimitLine(rowWriter, country, period, getLimitNumber(limits[4]), "MAX_TP");
+                        addLimitLine(rowWriter, country, period, getLimitNumber(limits[5]), "MAX_ND");
                         int fleetMinus = 6;
                         int fleetPlus = 7;
                         int artillery = 8;
@@ -330,14 +480,14 @@ public class TablesGenerator {
                             artillery = 9;
                         }
                         if (!StringUtils.equals("---", limits[fleetMinus].trim())) {
-                            addLimitLine(sqlWriter, country, period, getLimitNumber(limits[fleetMinus].split("/")[0]), "MAX_ND_F_MOINS");
-                            addLimitLine(sqlWriter, country, period, getLimitNumber(limits[fleetMinus].split("/")[1]), "MAX_NTR_F_MOINS");
+                            addLimitLine(rowWriter, country, period, getLimitNumber(limits[fleetMinus].split("/")[0]), "MAX_ND_F_MOINS");
+                            addLimitLine(rowWriter, country, period, getLimitNumber(limits[fleetMinus].split("/")[1]), "MAX_NTR_F_MOINS");
                         }
                         if (!StringUtils.equals("---", limits[fleetPlus].trim())) {
-                            addLimitLine(sqlWriter, country, period, getLimitNumber(limits[fleetPlus].split("/")[0]), "MAX_ND_F_PLUS");
-                            addLimitLine(sqlWriter, country, period, getLimitNumber(limits[fleetPlus].split("/")[1]), "MAX_NTR_F_PLUS");
+                            addLimitLine(rowWriter, country, period, getLimitNumber(limits[fleetPlus].split("/")[0]), "MAX_ND_F_PLUS");
+                            addLimitLine(rowWriter, country, period, getLimitNumber(limits[fleetPlus].split("/")[1]), "MAX_NTR_F_PLUS");
                         }
-                        addLimitLine(sqlWriter, country, period, getLimitNumber(limits[artillery]), "ARTILLERY_A_PLUS");
+                        addLimitLine(rowWriter, country, period, getLimitNumber(limits[artillery]), "ARTILLERY_A_PLUS");
                     }
                 }
             }
@@ -691,7 +841,7 @@ public class TablesGenerator {
     /**
      * Creates an insert for a unit.
      *
-     * @param sqlWriter where to write the db instructions.
+     * @param rowWriter where to write the db instructions.
      * @param country   owning the unit.
      * @param tech      of the unit.
      * @param price     of the unit.
@@ -702,16 +852,15 @@ public class TablesGenerator {
      * @return the next id of the unit.
      * @throws IOException if the writer fails.
      */
-    private static int addUnitLine(Writer sqlWriter, String country, String tech, Integer price, String type, String action, boolean special, Integer id) throws IOException {
-        sqlWriter.append("INSERT INTO T_UNIT (ID, R_COUNTRY, ID_TECH, PRICE, TYPE, ACTION, SPECIAL)\n" +
-                "    VALUES (")
-                .append(integerToInteger(id)).append(", ")
-                .append(stringToString(country)).append(", ")
-                .append("(SELECT ID FROM T_TECH WHERE NAME = ").append(stringToString(tech)).append("), ")
-                .append(integerToInteger(price)).append(", ")
-                .append(stringToString(type)).append(", ")
-                .append(stringToString(action)).append(", ")
-                .append(booleanToBit(special)).append(");\n");
+    private static int addUnitLine(SqlRowWriter rowWriter, String country, String tech, Integer price, String type, String action, boolean special, Integer id) throws IOException {
+        rowWriter.write(new SqlRow("T_UNIT", UNIT_COLUMNS,
+                integerToInteger(id),
+                stringToString(country),
+                reference("T_TECH", tech),
+                integerToInteger(price),
+                stringToString(type),
+                stringToString(action),
+                booleanToBit(special)));
 
         return ++id;
     }
@@ -719,48 +868,46 @@ public class TablesGenerator {
     /**
      * Creates an insert for a basic force.
      *
-     * @param sqlWriter where to write the db instructions.
+     * @param rowWriter where to write the db instructions.
      * @param country   owning the basic force.
      * @param period    of the basic force.
      * @param number    of the basic force.
      * @param type      of the basic force.
      * @throws IOException if the writer fails.
      */
-    private static void addBasicForceLine(Writer sqlWriter, String country, String period, Integer number, String type) throws IOException {
-        sqlWriter.append("INSERT INTO T_BASIC_FORCE (R_COUNTRY, ID_PERIOD, NUMBER, TYPE)\n" +
-                "    VALUES (")
-                .append(stringToString(country)).append(", ")
-                .append("(SELECT ID FROM T_PERIOD WHERE NAME = ").append(stringToString(period)).append("), ")
-                .append(integerToInteger(number)).append(", ")
-                .append(stringToString(type)).append(");\n");
+    private static void addBasicForceLine(SqlRowWriter rowWriter, String country, String period, Integer number, String type) throws IOException {
+        rowWriter.write(new SqlRow("T_BASIC_FORCE", BASIC_FORCE_COLUMNS,
+                stringToString(country),
+                reference("T_PERIOD", period),
+                integerToInteger(number),
+                stringToString(type)));
     }
 
     /**
      * Creates an insert for a limit.
      *
-     * @param sqlWriter where to write the db instructions.
+     * @param rowWriter where to write the db instructions.
      * @param country   owning the limit.
      * @param period    of the limit.
      * @param number    of the limit.
      * @param type      of the limit.
      * @throws IOException if the writer fails.
      */
-    private static void addLimitLine(Writer sqlWriter, String country, String period, Integer number, String type) throws IOException {
-        sqlWriter.append("INSERT INTO T_LIMIT (R_COUNTRY, ID_PERIOD, NUMBER, TYPE)\n" +
-                "    VALUES (")
-                .append(stringToString(country)).append(", ")
-                .append("(SELECT ID FROM T_PERIOD WHERE NAME = ").append(stringToString(period)).append("), ")
-                .append(integerToInteger(number)).append(", ")
-                .append(stringToString(type)).append(");\n");
+    private static void addLimitLine(SqlRowWriter rowWriter, String country, String period, Integer number, String type) throws IOException {
+        rowWriter.write(new SqlRow("T_LIMIT", LIMIT_COLUMNS,
+                stringToString(country),
+                reference("T_PERIOD", period),
+                integerToInteger(number),
+                stringToString(type)));
     }
 
     /**
      * Compute the general tables.
      *
-     * @param sqlWriter the writer with all database instructions.
+     * @param rowWriter the writer with all database instructions.
      * @throws IOException if the writer fails.
      */
-    public static void computeGeneralTables(Writer sqlWriter) throws IOException {
+    public static void computeGeneralTables(SqlRowWriter rowWriter) throws IOException {
         BufferedReader reader = new BufferedReader(new InputStreamReader(DataExtractor.class.getClassLoader().getResourceAsStream("input/tables/engGeneralTables.tex")));
         String line;
         String type = null;
@@ -769,30 +916,51 @@ public class TablesGenerator {
             line = line.trim();
             type = getGeneralTableType(line, type);
 
-            if (StringUtils.equals("foreigntrade", type) || StringUtils.equals("domestictrade", type)) {
-                computeTrade(line, type, sqlWriter);
-            } else if (StringUtils.equals("adminresults", type)) {
-                computeAdminResult(line, sqlWriter);
-            } else if (StringUtils.equals("navaltech", type) || StringUtils.equals("landtech", type)) {
-                computeBattleTech(line, type, sqlWriter);
-            } else if (StringUtils.equals("combatresults", type)) {
-                pendingLine = computeCombatResult(line, pendingLine, sqlWriter);
-            } else if (StringUtils.equals("armyclasses", type)) {
-                computeArmyClass(line, sqlWriter);
-            } else if (StringUtils.equals("artilleryvalue", type)) {
-                computeArmyArtillery(line, sqlWriter);
-            } else if (StringUtils.equals("artillerybonus", type)) {
-                computeArtilleryBonus(line, sqlWriter);
-            } else if (StringUtils.equals("fortressResistance", type)) {
-                computeFortressResistance(line, sqlWriter);
-            } else if (StringUtils.equals("assault", type)) {
-                computeAssaultResult(line, sqlWriter);
-            } else if (StringUtils.equals("etatsauvrai", type)) {
-                computeExchequer(line, sqlWriter);
-            } else if (StringUtils.equals("leader", type)) {
-                computeReplacementLeader(line, sqlWriter);
-            } else if (StringUtils.equals("attrition", type)) {
-                computeDiscoveryAttrition(line, sqlWriter);
+            if (type == null) {
+                continue;
+            }
+
+            switch (type) {
+                case "foreigntrade":
+                case "domestictrade":
+                    computeTrade(line, type, rowWriter);
+                    break;
+                case "adminresults":
+                    computeAdminResult(line, rowWriter);
+                    break;
+                case "navaltech":
+                case "landtech":
+                    computeBattleTech(line, type, rowWriter);
+                    break;
+                case "combatresults":
+                    pendingLine = computeCombatResult(line, pendingLine, rowWriter);
+                    break;
+                case "armyclasses":
+                    computeArmyClass(line, rowWriter);
+                    break;
+                case "artilleryvalue":
+                    computeArmyArtillery(line, rowWriter);
+                    break;
+                case "artillerybonus":
+                    computeArtilleryBonus(line, rowWriter);
+                    break;
+                case "fortressResistance":
+                    computeFortressResistance(line, rowWriter);
+                    break;
+                case "assault":
+                    computeAssaultResult(line, rowWriter);
+                    break;
+                case "etatsauvrai":
+                    computeExchequer(line, rowWriter);
+                    break;
+                case "leader":
+                    computeReplacementLeader(line, rowWriter);
+                    break;
+                case "attrition":
+                    computeDiscoveryAttrition(line, rowWriter);
+                    break;
+                default:
+                    break;
             }
         }
     }
@@ -804,61 +972,16 @@ public class TablesGenerator {
      */
     private static String getGeneralTableType(String line, String previousType) {
         String type = previousType;
-        Matcher m = Pattern.compile("\\\\newcommand\\{\\\\foreigntrade\\}\\{").matcher(line);
-        if (m.matches()) {
-            type = "foreigntrade";
-        }
-        m = Pattern.compile("\\\\newcommand\\{\\\\domestictrade\\}\\{").matcher(line);
-        if (m.matches()) {
-            type = "domestictrade";
-        }
-        m = Pattern.compile("\\\\newcommand\\{\\\\admintbl\\}\\{").matcher(line);
-        if (m.matches()) {
-            type = "adminresults";
-        }
-        m = Pattern.compile("\\\\newcommand\\{\\\\navaltech\\}\\{").matcher(line);
-        if (m.matches()) {
-            type = "navaltech";
-        }
-        m = Pattern.compile("\\\\newcommand\\{\\\\landtech\\}\\{").matcher(line);
-        if (m.matches()) {
-            type = "landtech";
-        }
-        m = Pattern.compile("\\\\newcommand\\{\\\\table@combatresults\\}\\{").matcher(line);
-        if (m.matches()) {
-            type = "combatresults";
-        }
-        m = Pattern.compile("\\\\newcommand\\{\\\\armyclasses\\}\\{").matcher(line);
-        if (m.matches()) {
-            type = "armyclasses";
-        }
-        m = Pattern.compile("\\\\newcommand\\{\\\\artilleryvalue\\}\\{").matcher(line);
-        if (m.matches()) {
-            type = "artilleryvalue";
-        }
-        m = Pattern.compile("\\\\newcommand\\{\\\\artillerybonus\\}\\{").matcher(line);
-        if (m.matches()) {
-            type = "artillerybonus";
-        }
-        m = Pattern.compile("\\\\newcommand\\{\\\\table@@resistance\\}\\{.*").matcher(line);
-        if (m.matches()) {
-            type = "fortressResistance";
-        }
-        m = Pattern.compile("\\\\newcommand\\{\\\\table@assault\\}\\{").matcher(line);
-        if (m.matches()) {
-            type = "assault";
-        }
-        m = Pattern.compile("\\\\newcommand\\{\\\\etatsauvrai\\}\\{").matcher(line);
-        if (m.matches()) {
-            type = "etatsauvrai";
-        }
-        m = Pattern.compile("\\\\newcommand\\{\\\\replacement\\}\\{").matcher(line);
-        if (m.matches()) {
-            type = "leader";
-        }
-        m = Pattern.compile("\\\\newcommand\\{\\\\table@discoveriesattrition\\}\\{").matcher(line);
-        if (m.matches()) {
-            type = "attrition";
+        if (line.startsWith(GENERAL_TABLE_HEADER)) {
+            int end = line.indexOf('}', GENERAL_TABLE_HEADER.length());
+            if (end >= 0) {
+                String name = line.substring(GENERAL_TABLE_HEADER.length(), end);
+                String rest = line.substring(end + 1);
+                if (GENERAL_TABLE_TYPES.containsKey(name)
+                        && (StringUtils.equals("{", rest) || (StringUtils.equals(GENERAL_TABLE_OPEN_HEADER, name) && rest.startsWith("{")))) {
+                    type = GENERAL_TABLE_TYPES.get(name);
+                }
+            }
         }
         if (line.equals("}")) {
             type = null;
@@ -871,13 +994,13 @@ public class TablesGenerator {
      *
      * @param line      the line to compute.
      * @param type      type of block.
-     * @param sqlWriter the writer with all database instructions.
+     * @param rowWriter the writer with all database instructions.
      * @throws IOException if the writer fails.
      */
-    private static void computeTrade(String line, String type, Writer sqlWriter) throws IOException {
+    private static void computeTrade(String line, String type, SqlRowWriter rowWriter) throws IOException {
         boolean foreign = StringUtils.equals("foreigntrade", type);
-        Matcher m = Pattern.compile("(\\\\leq|\\d+|\\\\geq|\\\\textgreatequal)-?-?(\\d+)\\s*&\\s*(\\d*)\\s*&\\s*(\\d*)\\s*&\\s*(\\d*)\\s*&\\s*(\\d*)\\s*&\\s*(\\d*).*").matcher(line);
-        if (m.matches()) {
+        Matcher m = TRADE_ROW.match(line);
+        if (m != null) {
             Integer startTrade;
             String startTradeString = m.group(1);
             Integer endTrade = Integer.parseInt(m.group(2));
@@ -896,18 +1019,18 @@ public class TablesGenerator {
                 startTrade = Integer.parseInt(startTradeString);
             }
 
-            addTradeLine(sqlWriter, 1, startTrade, endTrade, valueTrade1, foreign);
-            addTradeLine(sqlWriter, 2, startTrade, endTrade, valueTrade2, foreign);
-            addTradeLine(sqlWriter, 3, startTrade, endTrade, valueTrade3, foreign);
-            addTradeLine(sqlWriter, 4, startTrade, endTrade, valueTrade4, foreign);
-            addTradeLine(sqlWriter, 5, startTrade, endTrade, valueTrade5, foreign);
+            addTradeLine(rowWriter, 1, startTrade, endTrade, valueTrade1, foreign);
+            addTradeLine(rowWriter, 2, startTrade, endTrade, valueTrade2, foreign);
+            addTradeLine(rowWriter, 3, startTrade, endTrade, valueTrade3, foreign);
+            addTradeLine(rowWriter, 4, startTrade, endTrade, valueTrade4, foreign);
+            addTradeLine(rowWriter, 5, startTrade, endTrade, valueTrade5, foreign);
         }
     }
 
     /**
      * Creates an insert for a foreign trade.
      *
-     * @param sqlWriter    where to write the db instructions.
+     * @param rowWriter    where to write the db instructions.
      * @param countryValue DTI/FTI of the country.
      * @param min          minimum value of foreign/domestic trade.
      * @param max          maximum value of the foreign/domestic trade.
@@ -915,57 +1038,52 @@ public class TablesGenerator {
      * @param foreign      flag saying if it is foreign or domestic trade.
      * @throws IOException if the writer fails.
      */
-    private static void addTradeLine(Writer sqlWriter, Integer countryValue, Integer min, Integer max, Integer value, boolean foreign) throws IOException {
-        sqlWriter.append("INSERT INTO T_TRADE (COUNTRY_VALUE, MIN_VALUE, MAX_VALUE, VALUE, FOREIGN_TRADE)\n" +
-                "    VALUES (")
-                .append(integerToInteger(countryValue)).append(", ")
-                .append(integerToInteger(min)).append(", ")
-                .append(integerToInteger(max)).append(", ")
-                .append(integerToInteger(value)).append(", ")
-                .append(booleanToBit(foreign)).append(");\n");
+    private static void addTradeLine(SqlRowWriter rowWriter, Integer countryValue, Integer min, Integer max, Integer value, boolean foreign) throws IOException {
+        rowWriter.write(new SqlRow("T_TRADE", TRADE_COLUMNS,
+                integerToInteger(countryValue),
+                integerToInteger(min),
+                integerToInteger(max),
+                integerToInteger(value),
+                booleanToBit(foreign)));
     }
 
     /**
      * Creates the admin result tables insertion for this line.
      *
      * @param line      the line to compute.
-     * @param sqlWriter the writer with all database instructions.
+     * @param rowWriter the writer with all database instructions.
      * @throws IOException if the writer fails.
      */
-    private static void computeAdminResult(String line, Writer sqlWriter) throws IOException {
-        String possibilites = "F\\\\textetoile|F|\\\\undemi|\\\\undemi\\s*\\\\textetoile|S|S\\\\textetoile";
-        Matcher m = Pattern.compile("[\\\\a-z]*(\\d+)&(" + possibilites + ")&(" + possibilites + ")&(" + possibilites + ")&(" + possibilites + ")" +
-                "&(" + possibilites + ")&(" + possibilites + ")&(" + possibilites + ")&(" + possibilites + ")&(" + possibilites + ")" +
-                "(\\\\\\\\\\\\ghline)?").matcher(line);
-        if (m.matches()) {
+    private static void computeAdminResult(String line, SqlRowWriter rowWriter) throws IOException {
+        Matcher m = ADMIN_ROW.match(line);
+        if (m != null) {
             Integer die = Integer.parseInt(m.group(1));
-            addAdminResultLine(sqlWriter, die, -4, possibilityToResult(m.group(2)));
-            addAdminResultLine(sqlWriter, die, -3, possibilityToResult(m.group(3)));
-            addAdminResultLine(sqlWriter, die, -2, possibilityToResult(m.group(4)));
-            addAdminResultLine(sqlWriter, die, -1, possibilityToResult(m.group(5)));
-            addAdminResultLine(sqlWriter, die, 0, possibilityToResult(m.group(6)));
-            addAdminResultLine(sqlWriter, die, 1, possibilityToResult(m.group(7)));
-            addAdminResultLine(sqlWriter, die, 2, possibilityToResult(m.group(8)));
-            addAdminResultLine(sqlWriter, die, 3, possibilityToResult(m.group(9)));
-            addAdminResultLine(sqlWriter, die, 4, possibilityToResult(m.group(10)));
+            addAdminResultLine(rowWriter, die, -4, possibilityToResult(m.group(2)));
+            addAdminResultLine(rowWriter, die, -3, possibilityToResult(m.group(3)));
+            addAdminResultLine(rowWriter, die, -2, possibilityToResult(m.group(4)));
+            addAdminResultLine(rowWriter, die, -1, possibilityToResult(m.group(5)));
+            addAdminResultLine(rowWriter, die, 0, possibilityToResult(m.group(6)));
+            addAdminResultLine(rowWriter, die, 1, possibilityToResult(m.group(7)));
+            addAdminResultLine(rowWriter, die, 2, possibilityToResult(m.group(8)));
+            addAdminResultLine(rowWriter, die, 3, possibilityToResult(m.group(9)));
+            addAdminResultLine(rowWriter, die, 4, possibilityToResult(m.group(10)));
         }
     }
 
     /**
      * Creates an insert for a result.
      *
-     * @param sqlWriter where to write the db instructions.
+     * @param rowWriter where to write the db instructions.
      * @param die       modified die roll.
      * @param column    column used.
      * @param result    result of the action.
      * @throws IOException if the writer fails.
      */
-    private static void addAdminResultLine(Writer sqlWriter, Integer die, Integer column, String result) throws IOException {
-        sqlWriter.append("INSERT INTO T_RESULT (DIE, `COLUMN`, RESULT)\n" +
-                "    VALUES (")
-                .append(integerToInteger(die)).append(", ")
-                .append(integerToInteger(column)).append(", ")
-                .append(stringToString(result)).append(");\n");
+    private static void addAdminResultLine(SqlRowWriter rowWriter, Integer die, Integer column, String result) throws IOException {
+        rowWriter.write(new SqlRow("T_RESULT", RESULT_COLUMNS,
+                integerToInteger(die),
+                integerToInteger(column),
+                stringToString(result)));
     }
 
     /**
@@ -1001,13 +1119,13 @@ public class TablesGenerator {
      *
      * @param line      the line to compute.
      * @param type      type of block.
-     * @param sqlWriter the writer with all database instructions.
+     * @param rowWriter the writer with all database instructions.
      * @throws IOException if the writer fails.
      */
-    private static void computeBattleTech(String line, String type, Writer sqlWriter) throws IOException {
+    private static void computeBattleTech(String line, String type, SqlRowWriter rowWriter) throws IOException {
         boolean land = StringUtils.equals("landtech", type);
-        Matcher m = Pattern.compile("\\\\([^\\s]*).*").matcher(line);
-        if (m.matches()) {
+        Matcher m = BATTLE_TECH_ROW.match(line);
+        if (m != null) {
             String tech = m.group(1);
             String[] split = line.split("&");
             if (land && split.length != 9) {
@@ -1017,19 +1135,19 @@ public class TablesGenerator {
                 LOGGER.error("Naval tech battle line should have 10 columns. " + line);
             }
             int moral = 0;
-            m = Pattern.compile("^(\\d).*").matcher(split[split.length - 1].trim());
+            m = BATTLE_TECH_MORAL.matcher(split[split.length - 1].trim());
             if (m.matches()) {
                 moral = Integer.parseInt(m.group(1));
             } else {
                 LOGGER.error("Can't retrieve moral for battle tech. " + line);
             }
-            m = Pattern.compile(".*\\\\textdag.*").matcher(split[split.length - 1]);
+            m = BATTLE_TECH_BONUS.matcher(split[split.length - 1]);
             boolean bonus = land || m.matches();
             for (int i = 1; i < split.length - 1; i++) {
                 String s = split[i];
-                m = Pattern.compile(".*([ABCDE-])/.*([ABCDE]).*").matcher(s);
+                m = BATTLE_TECH_COLUMNS.matcher(s);
                 if (m.matches()) {
-                    addBattleTechLine(sqlWriter, transformTech(tech), getTech(land, i), land, m.group(1), m.group(2), moral, bonus);
+                    addBattleTechLine(rowWriter, transformTech(tech), getTech(land, i), land, m.group(1), m.group(2), moral, bonus);
                 } else {
                     LOGGER.error("Can't parse battle tech. " + s);
                 }
@@ -1040,7 +1158,7 @@ public class TablesGenerator {
     /**
      * Creates an insert for a result.
      *
-     * @param sqlWriter   where to write the db instructions.
+     * @param rowWriter   where to write the db instructions.
      * @param techFor     the technology of the stack.
      * @param techAgainst the technology facing the stack.
      * @param land        if it is land battle.
@@ -1050,7 +1168,7 @@ public class TablesGenerator {
      * @param bonus       bonus moral if the stack is veteran.
      * @throws IOException if the writer fails.
      */
-    private static void addBattleTechLine(Writer sqlWriter, String techFor, String techAgainst, boolean land,
+    private static void addBattleTechLine(SqlRowWriter rowWriter, String techFor, String techAgainst, boolean land,
                                           String columnFire, String columnShock, int moral, boolean bonus) throws IOException {
         if (StringUtils.equals("-", columnFire)) {
             columnFire = null;
@@ -1058,15 +1176,14 @@ public class TablesGenerator {
         if (StringUtils.equals("-", columnShock)) {
             columnShock = null;
         }
-        sqlWriter.append("INSERT INTO T_BATTLE_TECH (TECH_FOR, `TECH_AGAINST`, LAND, COLUMN_FIRE, COLUMN_SHOCK, MORAL, MORAL_BONUS_VETERAN)\n" +
-                "    VALUES (")
-                .append(stringToString(techFor)).append(", ")
-                .append(stringToString(techAgainst)).append(", ")
-                .append(booleanToBit(land)).append(", ")
-                .append(stringToString(columnFire)).append(", ")
-                .append(stringToString(columnShock)).append(", ")
-                .append(integerToInteger(moral)).append(", ")
-                .append(booleanToBit(bonus)).append(");\n");
+        rowWriter.write(new SqlRow("T_BATTLE_TECH", BATTLE_TECH_TABLE_COLUMNS,
+                stringToString(techFor),
+                stringToString(techAgainst),
+                booleanToBit(land),
+                stringToString(columnFire),
+                stringToString(columnShock),
+                integerToInteger(moral),
+                booleanToBit(bonus)));
     }
 
     /**
@@ -1193,25 +1310,25 @@ public class TablesGenerator {
      * Creates the combat result table insertions for this line.
      *
      * @param line      the line to compute.
-     * @param sqlWriter the writer with all database instructions.
+     * @param rowWriter the writer with all database instructions.
      * @throws IOException if the writer fails.
      */
-    private static String computeCombatResult(String line, String pendingLine, Writer sqlWriter) throws IOException {
+    private static String computeCombatResult(String line, String pendingLine, SqlRowWriter rowWriter) throws IOException {
         if (line.endsWith("ghline")) {
             String[] split = line.split("&");
             if (split.length == 11) {
                 int dice = Integer.parseInt(split[0].replace("\\leq", "").replace("\\geq", "").trim());
 
-                addBattleResultLine("A", dice, split[1], split[2], sqlWriter);
-                addBattleResultLine("B", dice, split[3], split[4], sqlWriter);
-                addBattleResultLine("C", dice, split[5], split[6], sqlWriter);
-                addBattleResultLine("D", dice, split[7], split[8], sqlWriter);
-                addBattleResultLine("E", dice, split[9], split[10], sqlWriter);
+                addBattleResultLine("A", dice, split[1], split[2], rowWriter);
+                addBattleResultLine("B", dice, split[3], split[4], rowWriter);
+                addBattleResultLine("C", dice, split[5], split[6], rowWriter);
+                addBattleResultLine("D", dice, split[7], split[8], rowWriter);
+                addBattleResultLine("E", dice, split[9], split[10], rowWriter);
 
                 return null;
             } else {
 
-                return computeCombatResult((pendingLine != null ? pendingLine : "") + line, null, sqlWriter);
+                return computeCombatResult((pendingLine != null ? pendingLine : "") + line, null, rowWriter);
             }
         }
 
@@ -1225,12 +1342,12 @@ public class TablesGenerator {
      * @param dice      the modified dice.
      * @param army      the part of the line concerning round and third losses.
      * @param moral     the part of the line concerning moral losses.
-     * @param sqlWriter the writer with all database instructions.
+     * @param rowWriter the writer with all database instructions.
      * @throws IOException if the writer fails.
      */
-    private static void addBattleResultLine(String column, int dice, String army, String moral, Writer sqlWriter) throws IOException {
+    private static void addBattleResultLine(String column, int dice, String army, String moral, SqlRowWriter rowWriter) throws IOException {
         Integer roundLoss = 0;
-        Matcher m = Pattern.compile(".*(\\d).*").matcher(army);
+        Matcher m = LOSS.matcher(army);
         if (m.matches()) {
             roundLoss = Integer.parseInt(m.group(1));
         }
@@ -1241,13 +1358,13 @@ public class TablesGenerator {
             thirdLoss = 1;
         }
         Integer moralLoss = StringUtils.countMatches(moral, "\\textetoilex");
-        addBattleResultLine(sqlWriter, column, dice, roundLoss, thirdLoss, moralLoss);
+        addBattleResultLine(rowWriter, column, dice, roundLoss, thirdLoss, moralLoss);
     }
 
     /**
      * Creates an insert for a result.
      *
-     * @param sqlWriter where to write the db instructions.
+     * @param rowWriter where to write the db instructions.
      * @param column    the column resulting from the technology.
      * @param dice      the result of the modified dice.
      * @param roundLoss the number of round losses.
@@ -1255,89 +1372,87 @@ public class TablesGenerator {
      * @param moralLoss the number of moral losses.
      * @throws IOException if the writer fails.
      */
-    private static void addBattleResultLine(Writer sqlWriter, String column, int dice, Integer roundLoss,
+    private static void addBattleResultLine(SqlRowWriter rowWriter, String column, int dice, Integer roundLoss,
                                             Integer thirdLoss, Integer moralLoss) throws IOException {
-        sqlWriter.append("INSERT INTO T_COMBAT_RESULT (`COLUMN`, DICE, ROUNDLOSS, THIRDLOSS, MORALELOSS)\n" +
-                "    VALUES (")
-                .append(stringToString(column)).append(", ")
-                .append(integerToInteger(dice)).append(", ")
-                .append(integerToInteger(roundLoss)).append(", ")
-                .append(integerToInteger(thirdLoss)).append(", ")
-                .append(integerToInteger(moralLoss)).append(");\n");
+        rowWriter.write(new SqlRow("T_COMBAT_RESULT", COMBAT_RESULT_COLUMNS,
+                stringToString(column),
+                integerToInteger(dice),
+                integerToInteger(roundLoss),
+                integerToInteger(thirdLoss),
+                integerToInteger(moralLoss)));
     }
 
     /**
      * Creates the combat result table insertions for this line.
      *
      * @param line      the line to compute.
-     * @param sqlWriter the writer with all database instructions.
+     * @param rowWriter the writer with all database instructions.
      * @throws IOException if the writer fails.
      */
-    private static void computeArmyClass(String line, Writer sqlWriter) throws IOException {
-        Matcher m = Pattern.compile("\\\\CA([^&]*)&[^&]*&(\\d)&(\\d)&(\\d)&(\\d)&(\\d)&(\\d)&(\\d)&.*").matcher(line);
-        if (m.matches()) {
+    private static void computeArmyClass(String line, SqlRowWriter rowWriter) throws IOException {
+        Matcher m = ARMY_CLASS_ROW.match(line);
+        if (m != null) {
             String armyClass = m.group(1);
 
-            addArmyClassLine(sqlWriter, armyClass, "I", Integer.parseInt(m.group(2)));
-            addArmyClassLine(sqlWriter, armyClass, "II", Integer.parseInt(m.group(3)));
-            addArmyClassLine(sqlWriter, armyClass, "III", Integer.parseInt(m.group(4)));
-            addArmyClassLine(sqlWriter, armyClass, "IV", Integer.parseInt(m.group(5)));
-            addArmyClassLine(sqlWriter, armyClass, "V", Integer.parseInt(m.group(6)));
-            addArmyClassLine(sqlWriter, armyClass, "VI", Integer.parseInt(m.group(7)));
-            addArmyClassLine(sqlWriter, armyClass, "VII", Integer.parseInt(m.group(8)));
+            addArmyClassLine(rowWriter, armyClass, "I", Integer.parseInt(m.group(2)));
+            addArmyClassLine(rowWriter, armyClass, "II", Integer.parseInt(m.group(3)));
+            addArmyClassLine(rowWriter, armyClass, "III", Integer.parseInt(m.group(4)));
+            addArmyClassLine(rowWriter, armyClass, "IV", Integer.parseInt(m.group(5)));
+            addArmyClassLine(rowWriter, armyClass, "V", Integer.parseInt(m.group(6)));
+            addArmyClassLine(rowWriter, armyClass, "VI", Integer.parseInt(m.group(7)));
+            addArmyClassLine(rowWriter, armyClass, "VII", Integer.parseInt(m.group(8)));
         }
     }
 
     /**
      * Creates an insert for a result.
      *
-     * @param sqlWriter where to write the db instructions.
+     * @param rowWriter where to write the db instructions.
      * @param armyClass the class of the army.
      * @param period    the period.
      * @param size      the size of the army.
      * @throws IOException if the writer fails.
      */
-    private static void addArmyClassLine(Writer sqlWriter, String armyClass, String period, int size) throws IOException {
-        sqlWriter.append("INSERT INTO T_ARMY_CLASS (CLASS, PERIOD, SIZE)\n" +
-                "    VALUES (")
-                .append(stringToString(armyClass)).append(", ")
-                .append(stringToString(period)).append(", ")
-                .append(integerToInteger(size)).append(");\n");
+    private static void addArmyClassLine(SqlRowWriter rowWriter, String armyClass, String period, int size) throws IOException {
+        rowWriter.write(new SqlRow("T_ARMY_CLASS", ARMY_CLASS_COLUMNS,
+                stringToString(armyClass),
+                stringToString(period),
+                integerToInteger(size)));
     }
 
     /**
      * Creates the combat result table insertions for this line.
      *
      * @param line      the line to compute.
-     * @param sqlWriter the writer with all database instructions.
+     * @param rowWriter the writer with all database instructions.
      * @throws IOException if the writer fails.
      */
-    private static void computeArmyArtillery(String line, Writer sqlWriter) throws IOException {
-        Matcher m = Pattern.compile("([^&]*)&([^&]*)&([^&]*)&([^&]*)&([^&]*)&([^&]*)&([^&]*)&([^&]*)\\\\\\\\\\\\ghline.*").matcher(line);
-        if (m.matches()) {
+    private static void computeArmyArtillery(String line, SqlRowWriter rowWriter) throws IOException {
+        Matcher m = ARTILLERY_ROW.match(line);
+        if (m != null) {
             String header = m.group(1);
             List<String> classes = extractClassesFromArmyArtilleryHeader(header);
 
             if (classes.isEmpty()) {
                 String country = extractCountryFromArmyArtilleryHeader(header);
                 if (StringUtils.isNotEmpty(country)) {
-                    addArmyArtilleryLine(sqlWriter, country, null, "I", NumberUtils.toInt(m.group(2)));
-                    addArmyArtilleryLine(sqlWriter, country, null, "II", NumberUtils.toInt(m.group(3)));
-                    addArmyArtilleryLine(sqlWriter, country, null, "III", NumberUtils.toInt(m.group(4)));
-                    addArmyArtilleryLine(sqlWriter, country, null, "IV", NumberUtils.toInt(m.group(5)));
-                    addArmyArtilleryLine(sqlWriter, country, null, "V", NumberUtils.toInt(m.group(6)));
-                    addArmyArtilleryLine(sqlWriter, country, null, "VI", NumberUtils.toInt(m.group(7)));
-                    addArmyArtilleryLine(sqlWriter, country, null, "VII", NumberUtils.toInt(m.group(8)));
+                    addArmyArtilleryLine(rowWriter, country, null, "I", NumberUtils.toInt(m.group(2)));
+                    addArmyArtilleryLine(rowWriter, country, null, "II", NumberUtils.toInt(m.group(3)));
+                    addArmyArtilleryLine(rowWriter, country, null, "III", NumberUtils.toInt(m.group(4)));
+                    addArmyArtilleryLine(rowWriter, country, null, "IV", NumberUtils.toInt(m.group(5)));
+                    addArmyArtilleryLine(rowWriter, country, null, "V", NumberUtils.toInt(m.group(6)));
+                    addArmyArtilleryLine(rowWriter, country, null, "VI", NumberUtils.toInt(m.group(7)));
+                    addArmyArtilleryLine(rowWriter, country, null, "VII", NumberUtils.toInt(m.group(8)));
                 }
             } else {
                 for (String armyClass : classes) {
-                    addArmyArtilleryLine(sqlWriter, null, armyClass, "I", NumberUtils.toInt(m.group(2)));
-                    addArmyArtilleryLine(sqlWriter, null, armyClass, "II", NumberUtils.toInt(m.group(3)));
-                    addArmyArtilleryLine(sqlWriter, null, armyClass, "III", NumberUtils.toInt(m.group(4)));
-                    addArmyArtilleryLine(sqlWriter, null, armyClass, "IV", NumberUtils.toInt(m.group(5)));
-                    addArmyArtilleryLine(sqlWriter, null, armyClass, "V", NumberUtils.toInt(m.group(6)));
-                    addArmyArtilleryLine(sqlWriter, null, armyClass, "VI", NumberUtils.toInt(m.group(7)));
-                    addArmyArtilleryLine(sqlWriter, null, armyClass, "VII", NumberUtils.toInt(m.group(8)));
+                    addArmyArtilleryLine(rowWriter, null, armyClass, "I", NumberUtils.toInt(m.group(2)));
+                    addArmyArtilleryLine(rowWriter, null, armyClass, "II", NumberUtils.toInt(m.group(3)));
+                    addArmyArtilleryLine(rowWriter, null, armyClass, "III", NumberUtils.toInt(m.group(4)));
+                    addArmyArtilleryLine(rowWriter, null, armyClass, "IV", NumberUtils.toInt(m.group(5)));
+                    addArmyArtilleryLine(rowWriter, null, armyClass, "V", NumberUtils.toInt(m.group(6)));
+                    addArmyArtilleryLine(rowWriter, null, armyClass, "VI", NumberUtils.toInt(m.group(7)));
+                    addArmyArtilleryLine(rowWriter, null, armyClass, "VII", NumberUtils.toInt(m.group(8)));
                 }
             }
         }
@@ -1347,15 +1462,15 @@ public class TablesGenerator {
      * Creates the artillery bonus table insertions for this line.
      *
      * @param line      the line to compute.
-     * @param sqlWriter the writer with all database instructions.
+     * @param rowWriter the writer with all database instructions.
      * @throws IOException if the writer fails.
      */
-    private static void computeArtilleryBonus(String line, Writer sqlWriter) throws IOException {
-        Matcher m = Pattern.compile("&([^&]*)&([^&]*)&([^&]*)&([^&]*)&([^&]*)&([^&]*)&.*\\+([^&]*)\\\\\\\\.*").matcher(line);
-        if (m.matches()) {
+    private static void computeArtilleryBonus(String line, SqlRowWriter rowWriter) throws IOException {
+        Matcher m = ARTILLERY_BONUS_ROW.match(line);
+        if (m != null) {
             int bonus = NumberUtils.toInt(m.group(7).trim());
             for (int i = 0; i < 6; i++) {
-                addArtilleryBonusLine(sqlWriter, i, NumberUtils.toInt(m.group(i + 1).trim()), bonus);
+                addArtilleryBonusLine(rowWriter, i, NumberUtils.toInt(m.group(i + 1).trim()), bonus);
             }
         }
     }
@@ -1364,12 +1479,12 @@ public class TablesGenerator {
      * Creates the fortress resistance table insertions for this line.
      *
      * @param line      the line to compute.
-     * @param sqlWriter the writer with all database instructions.
+     * @param rowWriter the writer with all database instructions.
      * @throws IOException if the writer fails.
      */
-    private static void computeFortressResistance(String line, Writer sqlWriter) throws IOException {
-        Matcher m = Pattern.compile("([^&]*)&([^&]*)&([^&]*)&([^&]*)&([^&]*)&([^&]*)&([^&]*).*").matcher(line);
-        if (m.matches()) {
+    private static void computeFortressResistance(String line, SqlRowWriter rowWriter) throws IOException {
+        Matcher m = RESISTANCE_ROW.match(line);
+        if (m != null) {
             String title = m.group(1).trim();
             if (StringUtils.equals("Level", title)) {
                 return;
@@ -1379,7 +1494,7 @@ public class TablesGenerator {
                 String res = m.group(i + 2).trim();
                 int third = 0;
                 int round = 0;
-                Matcher m2 = Pattern.compile(".*(\\d).*").matcher(res);
+                Matcher m2 = LOSS.matcher(res);
                 if (m2.matches()) {
                     round = Integer.parseInt(m2.group(1));
                 }
@@ -1389,7 +1504,7 @@ public class TablesGenerator {
                     third = 1;
                 }
 
-                addFortressResistanceLine(sqlWriter, i, round, third, breach);
+                addFortressResistanceLine(rowWriter, i, round, third, breach);
             }
         }
     }
@@ -1398,27 +1513,27 @@ public class TablesGenerator {
      * Creates the fortress resistance table insertions for this line.
      *
      * @param line      the line to compute.
-     * @param sqlWriter the writer with all database instructions.
+     * @param rowWriter the writer with all database instructions.
      * @throws IOException if the writer fails.
      */
-    private static void computeAssaultResult(String line, Writer sqlWriter) throws IOException {
-        Matcher m = Pattern.compile("([^&]*)&([^&]*)&([^&]*)&([^&]*)&([^&]*)&([^&]*)&([^&]*)&([^&]*)&([^&]*)&([^&]*)&([^&]*)\\\\\\\\\\\\ghline.*").matcher(line);
-        if (m.matches()) {
+    private static void computeAssaultResult(String line, SqlRowWriter rowWriter) throws IOException {
+        Matcher m = ASSAULT_ROW.match(line);
+        if (m != null) {
             String dieString = m.group(1);
             dieString = dieString.replace("\\leq", "").replace("\\geq", "").trim();
             int die = NumberUtils.toInt(dieString);
-            computeAssaultResult(sqlWriter, die, true, m.group(2), m.group(3), false, false);
-            computeAssaultResult(sqlWriter, die, true, m.group(4), m.group(3), true, false);
-            computeAssaultResult(sqlWriter, die, false, m.group(5), m.group(6), false, false);
-            computeAssaultResult(sqlWriter, die, false, m.group(7), m.group(6), true, false);
-            computeAssaultResult(sqlWriter, die, true, m.group(8), m.group(9), false, true);
-            computeAssaultResult(sqlWriter, die, false, m.group(10), m.group(11), false, true);
+            computeAssaultResult(rowWriter, die, true, m.group(2), m.group(3), false, false);
+            computeAssaultResult(rowWriter, die, true, m.group(4), m.group(3), true, false);
+            computeAssaultResult(rowWriter, die, false, m.group(5), m.group(6), false, false);
+            computeAssaultResult(rowWriter, die, false, m.group(7), m.group(6), true, false);
+            computeAssaultResult(rowWriter, die, true, m.group(8), m.group(9), false, true);
+            computeAssaultResult(rowWriter, die, false, m.group(10), m.group(11), false, true);
         }
     }
 
-    private static void computeAssaultResult(Writer sqlWriter, int die, boolean fire, String result, String moral, boolean breach, boolean besieger) throws IOException {
+    private static void computeAssaultResult(SqlRowWriter rowWriter, int die, boolean fire, String result, String moral, boolean breach, boolean besieger) throws IOException {
         Integer roundLoss = 0;
-        Matcher m = Pattern.compile(".*(\\d).*").matcher(result);
+        Matcher m = LOSS.matcher(result);
         if (m.matches()) {
             roundLoss = Integer.parseInt(m.group(1));
         }
@@ -1429,7 +1544,7 @@ public class TablesGenerator {
             thirdLoss = 1;
         }
         Integer moralLoss = StringUtils.countMatches(moral, "\\textetoilex");
-        addAssaultResultLine(sqlWriter, die, fire, roundLoss, thirdLoss, moralLoss, breach, besieger);
+        addAssaultResultLine(rowWriter, die, fire, roundLoss, thirdLoss, moralLoss, breach, besieger);
     }
 
     private static String extractCountryFromArmyArtilleryHeader(String header) {
@@ -1496,14 +1611,14 @@ public class TablesGenerator {
     private static List<String> extractClassesFromArmyArtilleryHeader(String header) {
         List<String> armyClasses = new ArrayList<>();
 
-        Matcher m = Pattern.compile(".*\\\\quad.*\\\\CA([^\\s/\\\\]*).*\\\\CA([^\\s/\\\\]*).").matcher(header);
+        Matcher m = ARTILLERY_CLASSES.matcher(header);
         if (m.matches()) {
             String armyClass = m.group(1);
             armyClasses.add(armyClass);
             armyClass = m.group(2);
             armyClasses.add(armyClass);
         } else {
-            m = Pattern.compile(".*\\\\quad.*\\\\CA([^\\s/\\\\]*).*").matcher(header);
+            m = ARTILLERY_CLASS.matcher(header);
             if (m.matches()) {
                 String armyClass = m.group(1);
                 armyClasses.add(armyClass);
@@ -1516,64 +1631,61 @@ public class TablesGenerator {
     /**
      * Creates an insert for a result.
      *
-     * @param sqlWriter where to write the db instructions.
+     * @param rowWriter where to write the db instructions.
      * @param country   the name of the owner of the army.
      * @param armyClass the class of the army.
      * @param period    the period.
      * @param artillery the number of artillery of the army.
      * @throws IOException if the writer fails.
      */
-    private static void addArmyArtilleryLine(Writer sqlWriter, String country, String armyClass, String period, int artillery) throws IOException {
+    private static void addArmyArtilleryLine(SqlRowWriter rowWriter, String country, String armyClass, String period, int artillery) throws IOException {
         if (artillery > 0) {
-            sqlWriter.append("INSERT INTO T_ARMY_ARTILLERY (R_COUNTRY, CLASS, PERIOD, ARTILLERY)\n" +
-                    "    VALUES (")
-                    .append(stringToString(country)).append(", ")
-                    .append(stringToString(armyClass)).append(", ")
-                    .append(stringToString(period)).append(", ")
-                    .append(integerToInteger(artillery)).append(");\n");
+            rowWriter.write(new SqlRow("T_ARMY_ARTILLERY", ARMY_ARTILLERY_COLUMNS,
+                    stringToString(country),
+                    stringToString(armyClass),
+                    stringToString(period),
+                    integerToInteger(artillery)));
         }
     }
 
     /**
      * Creates an insert for a result.
      *
-     * @param sqlWriter where to write the db instructions.
+     * @param rowWriter where to write the db instructions.
      * @param fortress  the level of the fortress.
      * @param artillery the number of artillery of the army.
      * @param bonus     the bonus given by the artllery on the fortress.
      * @throws IOException if the writer fails.
      */
-    private static void addArtilleryBonusLine(Writer sqlWriter, int fortress, int artillery, int bonus) throws IOException {
-        sqlWriter.append("INSERT INTO T_ARTILLERY_SIEGE (FORTRESS, ARTILLERY, BONUS)\n" +
-                "    VALUES (")
-                .append(integerToInteger(fortress)).append(", ")
-                .append(integerToInteger(artillery)).append(", ")
-                .append(integerToInteger(bonus)).append(");\n");
+    private static void addArtilleryBonusLine(SqlRowWriter rowWriter, int fortress, int artillery, int bonus) throws IOException {
+        rowWriter.write(new SqlRow("T_ARTILLERY_SIEGE", ARTILLERY_SIEGE_COLUMNS,
+                integerToInteger(fortress),
+                integerToInteger(artillery),
+                integerToInteger(bonus)));
     }
 
     /**
      * Creates an insert for a result.
      *
-     * @param sqlWriter where to write the db instructions.
+     * @param rowWriter where to write the db instructions.
      * @param fortress  the level of the fortress.
      * @param round     the resistance of the fortress (round number).
      * @param third     the resistance of the fortress (third number).
      * @param breach    if the fortress is breached.
      * @throws IOException if the writer fails.
      */
-    private static void addFortressResistanceLine(Writer sqlWriter, int fortress, int round, int third, boolean breach) throws IOException {
-        sqlWriter.append("INSERT INTO T_FORTRESS_RESISTANCE (FORTRESS, ROUND, THIRD, BREACH)\n" +
-                "    VALUES (")
-                .append(integerToInteger(fortress)).append(", ")
-                .append(integerToInteger(round)).append(", ")
-                .append(integerToInteger(third)).append(", ")
-                .append(booleanToBit(breach)).append(");\n");
+    private static void addFortressResistanceLine(SqlRowWriter rowWriter, int fortress, int round, int third, boolean breach) throws IOException {
+        rowWriter.write(new SqlRow("T_FORTRESS_RESISTANCE", FORTRESS_RESISTANCE_COLUMNS,
+                integerToInteger(fortress),
+                integerToInteger(round),
+                integerToInteger(third),
+                booleanToBit(breach)));
     }
 
     /**
      * Creates an insert for a result.
      *
-     * @param sqlWriter where to write the db instructions.
+     * @param rowWriter where to write the db instructions.
      * @param die       the die roll.
      * @param fire      fire or shock phase.
      * @param roundLoss the round losses.
@@ -1583,29 +1695,28 @@ public class TablesGenerator {
      * @param besieger  if it si the besieger.
      * @throws IOException if the writer fails.
      */
-    private static void addAssaultResultLine(Writer sqlWriter, int die, boolean fire, int roundLoss, int thirdLoss, int moral, boolean breach, boolean besieger) throws IOException {
-        sqlWriter.append("INSERT INTO T_ASSAULT_RESULT (DICE, FIRE, ROUNDLOSS, THIRDLOSS, MORALELOSS, BREACH, BESIEGER)\n" +
-                "    VALUES (")
-                .append(integerToInteger(die)).append(", ")
-                .append(booleanToBit(fire)).append(", ")
-                .append(integerToInteger(roundLoss)).append(", ")
-                .append(integerToInteger(thirdLoss)).append(", ")
-                .append(integerToInteger(moral)).append(", ")
-                .append(booleanToBit(breach)).append(", ")
-                .append(booleanToBit(besieger)).append(");\n");
+    private static void addAssaultResultLine(SqlRowWriter rowWriter, int die, boolean fire, int roundLoss, int thirdLoss, int moral, boolean breach, boolean besieger) throws IOException {
+        rowWriter.write(new SqlRow("T_ASSAULT_RESULT", ASSAULT_RESULT_COLUMNS,
+                integerToInteger(die),
+                booleanToBit(fire),
+                integerToInteger(roundLoss),
+                integerToInteger(thirdLoss),
+                integerToInteger(moral),
+                booleanToBit(breach),
+                booleanToBit(besieger)));
     }
 
     /**
      * Creates the exchequer table insertion for this line.
      *
      * @param line      the line to compute.
-     * @param sqlWriter the writer with all database instructions.
+     * @param rowWriter the writer with all database instructions.
      * @throws IOException if the writer fails.
      */
-    private static void computeExchequer(String line, Writer sqlWriter) throws IOException {
-        Matcher m = Pattern.compile("([^&]*)&\\s*(\\d*)\\s*&\\s*(\\d*)\\s*&\\s*(\\d*)\\s*&\\s*(\\d*)\\s*\\\\%.*").matcher(line);
-        if (m.matches()) {
-            addExchequerLine(sqlWriter, possibilityToResult(m.group(1)), Integer.parseInt(m.group(2)), Integer.parseInt(m.group(3)),
+    private static void computeExchequer(String line, SqlRowWriter rowWriter) throws IOException {
+        Matcher m = EXCHEQUER_ROW.match(line);
+        if (m != null) {
+            addExchequerLine(rowWriter, possibilityToResult(m.group(1)), Integer.parseInt(m.group(2)), Integer.parseInt(m.group(3)),
                     Integer.parseInt(m.group(4)), Integer.parseInt(m.group(5)));
         }
     }
@@ -1613,7 +1724,7 @@ public class TablesGenerator {
     /**
      * Creates an insert for a exchequer.
      *
-     * @param sqlWriter         where to write the db instructions.
+     * @param rowWriter         where to write the db instructions.
      * @param result            the result of the exchequer test.
      * @param regular           the regular income.
      * @param prestige          the prestige income.
@@ -1621,26 +1732,25 @@ public class TablesGenerator {
      * @param internationalLoan the maximum international loan.
      * @throws IOException if the writer fails.
      */
-    private static void addExchequerLine(Writer sqlWriter, String result, int regular, int prestige, int nationalLoan, int internationalLoan) throws IOException {
-        sqlWriter.append("INSERT INTO T_EXCHEQUER (RESULT, REGULAR, PRESTIGE, NATLOAN, INTERLOAN)\n" +
-                "    VALUES (")
-                .append(stringToString(result)).append(", ")
-                .append(integerToInteger(regular)).append(", ")
-                .append(integerToInteger(prestige)).append(", ")
-                .append(integerToInteger(nationalLoan)).append(", ")
-                .append(integerToInteger(internationalLoan)).append(");\n");
+    private static void addExchequerLine(SqlRowWriter rowWriter, String result, int regular, int prestige, int nationalLoan, int internationalLoan) throws IOException {
+        rowWriter.write(new SqlRow("T_EXCHEQUER", EXCHEQUER_COLUMNS,
+                stringToString(result),
+                integerToInteger(regular),
+                integerToInteger(prestige),
+                integerToInteger(nationalLoan),
+                integerToInteger(internationalLoan)));
     }
 
     /**
      * Creates the discovery/attrition table insertion for this line.
      *
      * @param line      the line to compute.
-     * @param sqlWriter the writer with all database instructions.
+     * @param rowWriter the writer with all database instructions.
      * @throws IOException if the writer fails.
      */
-    private static void computeDiscoveryAttrition(String line, Writer sqlWriter) throws IOException {
-        Matcher m = Pattern.compile("[^\\d]*([\\d]+)\\s*&\\s*([^&]*)\\s*&\\s*([^&]*)\\s*&\\s*(\\d+)\\\\%\\s*&\\s*([^&]*)\\s*&\\s*([^&]*)\\s*&\\s*([^&]*)\\s*&\\s*([^&]*)\\s*\\\\\\\\\\\\ghline").matcher(line);
-        if (m.matches()) {
+    private static void computeDiscoveryAttrition(String line, SqlRowWriter rowWriter) throws IOException {
+        Matcher m = ATTRITION_ROW.match(line);
+        if (m != null) {
             int dice = Integer.parseInt(m.group(1));
             String resultSea = m.group(2);
             String resultLand = m.group(3);
@@ -1649,13 +1759,13 @@ public class TablesGenerator {
             String result2 = m.group(6);
             String result35 = m.group(7);
             String result6 = m.group(8);
-            addDiscoveryLine(sqlWriter, dice, true, getResult(resultLand), isCheckLeader(resultLand), isCheckLeaderNoTroops(resultLand));
-            addDiscoveryLine(sqlWriter, dice, false, getResult(resultSea), isCheckLeader(resultSea), isCheckLeaderNoTroops(resultSea));
-            addAttritionOtherLine(sqlWriter, dice, percentage);
-            addAttritionLandEuropeLine(sqlWriter, dice, 1, 2, getLoss(result1), isPillage(result1));
-            addAttritionLandEuropeLine(sqlWriter, dice, 2, 3, getLoss(result2), isPillage(result2));
-            addAttritionLandEuropeLine(sqlWriter, dice, 3, 6, getLoss(result35), isPillage(result35));
-            addAttritionLandEuropeLine(sqlWriter, dice, 6, null, getLoss(result6), isPillage(result6));
+            addDiscoveryLine(rowWriter, dice, true, getResult(resultLand), isCheckLeader(resultLand), isCheckLeaderNoTroops(resultLand));
+            addDiscoveryLine(rowWriter, dice, false, getResult(resultSea), isCheckLeader(resultSea), isCheckLeaderNoTroops(resultSea));
+            addAttritionOtherLine(rowWriter, dice, percentage);
+            addAttritionLandEuropeLine(rowWriter, dice, 1, 2, getLoss(result1), isPillage(result1));
+            addAttritionLandEuropeLine(rowWriter, dice, 2, 3, getLoss(result2), isPillage(result2));
+            addAttritionLandEuropeLine(rowWriter, dice, 3, 6, getLoss(result35), isPillage(result35));
+            addAttritionLandEuropeLine(rowWriter, dice, 6, null, getLoss(result6), isPillage(result6));
         }
     }
 
@@ -1696,7 +1806,7 @@ public class TablesGenerator {
     /**
      * Creates an insert for a discovery.
      *
-     * @param sqlWriter           where to write the db instructions.
+     * @param rowWriter           where to write the db instructions.
      * @param land                flag saying if it is land or naval.
      * @param dice                result of the modified dice.
      * @param result              result of the discovery.
@@ -1704,35 +1814,33 @@ public class TablesGenerator {
      * @param checkLeaderNoTroops flag saying if a leader without troops should check death.
      * @throws IOException if the writer fails.
      */
-    private static void addDiscoveryLine(Writer sqlWriter, int dice, boolean land, String result, boolean checkLeader, boolean checkLeaderNoTroops) throws IOException {
-        sqlWriter.append("INSERT INTO T_DISCOVERY (DICE, LAND, RESULT, CHECKLEADER, CHECKLEADERNOTROOPS)\n" +
-                "    VALUES (")
-                .append(integerToInteger(dice)).append(", ")
-                .append(booleanToBit(land)).append(", ")
-                .append(stringToString(result)).append(", ")
-                .append(booleanToBit(checkLeader)).append(", ")
-                .append(booleanToBit(checkLeaderNoTroops)).append(");\n");
+    private static void addDiscoveryLine(SqlRowWriter rowWriter, int dice, boolean land, String result, boolean checkLeader, boolean checkLeaderNoTroops) throws IOException {
+        rowWriter.write(new SqlRow("T_DISCOVERY", DISCOVERY_COLUMNS,
+                integerToInteger(dice),
+                booleanToBit(land),
+                stringToString(result),
+                booleanToBit(checkLeader),
+                booleanToBit(checkLeaderNoTroops)));
     }
 
     /**
      * Creates an insert for an attrition naval or rotw.
      *
-     * @param sqlWriter      where to write the db instructions.
+     * @param rowWriter      where to write the db instructions.
      * @param dice           result of the modified dice.
      * @param lossPercentage percentage of loss due to the attrition.
      * @throws IOException if the writer fails.
      */
-    private static void addAttritionOtherLine(Writer sqlWriter, int dice, Integer lossPercentage) throws IOException {
-        sqlWriter.append("INSERT INTO T_ATTRITION_OTHER (DICE, LOSSPERCENTAGE)\n" +
-                "    VALUES (")
-                .append(integerToInteger(dice)).append(", ")
-                .append(integerToInteger(lossPercentage)).append(");\n");
+    private static void addAttritionOtherLine(SqlRowWriter rowWriter, int dice, Integer lossPercentage) throws IOException {
+        rowWriter.write(new SqlRow("T_ATTRITION_OTHER", ATTRITION_OTHER_COLUMNS,
+                integerToInteger(dice),
+                integerToInteger(lossPercentage)));
     }
 
     /**
      * Creates an insert for an attrition land in Europe.
      *
-     * @param sqlWriter where to write the db instructions.
+     * @param rowWriter where to write the db instructions.
      * @param min       minimum number of LD for land attrition in Europe.
      * @param max       maximum number of LD for land attrition in Europe.
      * @param dice      result of the modified dice.
@@ -1740,26 +1848,25 @@ public class TablesGenerator {
      * @param pillage   pillage due to the attrition.
      * @throws IOException if the writer fails.
      */
-    private static void addAttritionLandEuropeLine(Writer sqlWriter, int dice, Integer min, Integer max, Integer loss, boolean pillage) throws IOException {
-        sqlWriter.append("INSERT INTO T_ATTRITION_LAND_EUROPE (DICE, MINSIZE, MAXSIZE, LOSS, PILLAGE)\n" +
-                "    VALUES (")
-                .append(integerToInteger(dice)).append(", ")
-                .append(integerToInteger(min)).append(", ")
-                .append(integerToInteger(max)).append(", ")
-                .append(integerToInteger(loss)).append(", ")
-                .append(booleanToBit(pillage)).append(");\n");
+    private static void addAttritionLandEuropeLine(SqlRowWriter rowWriter, int dice, Integer min, Integer max, Integer loss, boolean pillage) throws IOException {
+        rowWriter.write(new SqlRow("T_ATTRITION_LAND_EUROPE", ATTRITION_LAND_EUROPE_COLUMNS,
+                integerToInteger(dice),
+                integerToInteger(min),
+                integerToInteger(max),
+                integerToInteger(loss),
+                booleanToBit(pillage)));
     }
 
     /**
      * Creates the replacement leader table insertion for this line.
      *
      * @param line      the line to compute.
-     * @param sqlWriter the writer with all database instructions.
+     * @param rowWriter the writer with all database instructions.
      * @throws IOException if the writer fails.
      */
-    private static void computeReplacementLeader(String line, Writer sqlWriter) throws IOException {
-        Matcher m = Pattern.compile("([^&]*)&\\s*(\\d{3})\\s*&\\s*(\\d{3})\\s*&\\s*(\\d{3})\\s*&\\s*(\\d{3})\\s*&\\s*(\\d{3})\\s*&\\s*(\\d{3})\\s*&\\s*(\\d{3})\\s*&\\s*(\\d{3})\\s*&\\s*(\\d{3})\\s*&\\s*(\\d{3}).*").matcher(line);
-        if (m.matches()) {
+    private static void computeReplacementLeader(String line, SqlRowWriter rowWriter) throws IOException {
+        Matcher m = REPLACEMENT_ROW.match(line);
+        if (m != null) {
             String country = m.group(1).trim();
             boolean badAdmiralManoeuvre = country.contains("\\xxa");
             boolean badAdmiralFire = country.contains("\\xxb");
@@ -1769,7 +1876,7 @@ public class TablesGenerator {
             }
             country = extractCountryFromArmyArtilleryHeader(country);
             for (int i = 1; i <= 10; i++) {
-                Matcher mStats = Pattern.compile("(\\d)(\\d)(\\d)").matcher(m.group(i + 1));
+                Matcher mStats = REPLACEMENT_STATS.matcher(m.group(i + 1));
                 if (mStats.matches()) {
                     int manoeuvre = Integer.parseInt(mStats.group(1));
                     int fire = Integer.parseInt(mStats.group(2));
@@ -1779,7 +1886,7 @@ public class TablesGenerator {
                         siege++;
                     }
                     String code = country + "-general-" + i;
-                    addLeaderLine(sqlWriter, code, null, code, country, null, null, null, null, manoeuvre, fire, shock, siege, "GENERAL", true, false, false, false, false, false, false, null);
+                    addLeaderLine(rowWriter, code, null, code, country, null, null, null, null, manoeuvre, fire, shock, siege, "GENERAL", true, false, false, false, false, false, false, null);
                     code = country + "-admiral-" + i;
                     if (badAdmiralManoeuvre) {
                         manoeuvre--;
@@ -1787,7 +1894,7 @@ public class TablesGenerator {
                     if (badAdmiralFire) {
                         fire--;
                     }
-                    addLeaderLine(sqlWriter, code, null, code, country, null, null, null, null, manoeuvre, fire, shock, 0, "ADMIRAL", true, false, false, false, false, false, false, null);
+                    addLeaderLine(rowWriter, code, null, code, country, null, null, null, null, manoeuvre, fire, shock, 0, "ADMIRAL", true, false, false, false, false, false, false, null);
                 } else {
                     System.out.println("Bad Stats : " + m.group(i + 1));
                 }
@@ -1798,23 +1905,23 @@ public class TablesGenerator {
     /**
      * Compute the leader.
      *
-     * @param sqlWriter the writer with all database instructions.
+     * @param rowWriter the writer with all database instructions.
      * @throws IOException if the writer fails.
      */
-    public static List<Leader> computeLeaders(Writer sqlWriter) throws IOException {
+    public static List<Leader> computeLeaders(SqlRowWriter rowWriter) throws IOException {
         List<Leader> leaders = new ArrayList<>();
-        leaders.addAll(computeNamedLeaders(sqlWriter));
-        leaders.addAll(computeAnonymousLeaders(sqlWriter));
+        leaders.addAll(computeNamedLeaders(rowWriter));
+        leaders.addAll(computeAnonymousLeaders(rowWriter));
         return leaders;
     }
 
     /**
      * Compute the named leaders.
      *
-     * @param sqlWriter the writer with all database instructions.
+     * @param rowWriter the writer with all database instructions.
      * @throws IOException if the writer fails.
      */
-    private static List<Leader> computeNamedLeaders(Writer sqlWriter) throws IOException {
+    private static List<Leader> computeNamedLeaders(SqlRowWriter rowWriter) throws IOException {
         BufferedReader reader = new BufferedReader(new InputStreamReader(DataExtractor.class.getClassLoader().getResourceAsStream("input/tables/leaders.txt")));
         String line;
         List<Leader> leaders = new ArrayList<>();
@@ -1862,8 +1969,8 @@ public class TablesGenerator {
                     boolean doubleLeader = StringUtils.isNotEmpty(m.group(1));
                     String otherCode = doubleLeader ? code + "-2" : null;
 
-                    if (sqlWriter != null) {
-                        addLeaderLine(sqlWriter, code, otherCode, code, country, event, begin, end, rank,
+                    if (rowWriter != null) {
+                        addLeaderLine(rowWriter, code, otherCode, code, country, event, begin, end, rank,
                                 manoeuvre, fire, shock, siege, type, rotw, asia, america, mediterranee, privateer, main, false, null);
                     }
                     Leader leader = new Leader();
@@ -1894,8 +2001,8 @@ public class TablesGenerator {
                             privateer = typeValue2.contains("P");
                             main = typeValue2.contains("*");
 
-                            if (sqlWriter != null) {
-                                addLeaderLine(sqlWriter, otherCode, code, code, country, event, begin, end, rank,
+                            if (rowWriter != null) {
+                                addLeaderLine(rowWriter, otherCode, code, code, country, event, begin, end, rank,
                                         manoeuvre, fire, shock, siege, type, rotw, asia, america, mediterranee, privateer, main, false, null);
                             }
                         }
@@ -1943,8 +2050,8 @@ public class TablesGenerator {
 
                     String otherCode = code + "-2";
 
-                    if (sqlWriter != null) {
-                        addLeaderLine(sqlWriter, code, otherCode, code, country, event, begin, end, rank,
+                    if (rowWriter != null) {
+                        addLeaderLine(rowWriter, code, otherCode, code, country, event, begin, end, rank,
                                 manoeuvre, fire, shock, siege, type, rotw, asia, america, mediterranee, privateer, main, false, null);
                     }
                     Leader leader = new Leader();
@@ -1988,8 +2095,8 @@ public class TablesGenerator {
                         privateer = typeValue2.contains("P");
                         main = typeValue2.contains("*");
 
-                        if (sqlWriter != null) {
-                            addLeaderLine(sqlWriter, otherCode, code, code, country, event, begin, end, rank,
+                        if (rowWriter != null) {
+                            addLeaderLine(rowWriter, otherCode, code, code, country, event, begin, end, rank,
                                     manoeuvre, fire, shock, siege, type, rotw, asia, america, mediterranee, privateer, main, false, null);
                         }
                     } else {
@@ -2004,10 +2111,10 @@ public class TablesGenerator {
     /**
      * Compute the anonymous leaders.
      *
-     * @param sqlWriter the writer with all database instructions.
+     * @param rowWriter the writer with all database instructions.
      * @throws IOException if the writer fails.
      */
-    private static List<Leader> computeAnonymousLeaders(Writer sqlWriter) throws IOException {
+    private static List<Leader> computeAnonymousLeaders(SqlRowWriter rowWriter) throws IOException {
         BufferedReader reader = new BufferedReader(new InputStreamReader(DataExtractor.class.getClassLoader().getResourceAsStream("input/tables/anonymes.txt")));
         String line;
         List<Leader> leaders = new ArrayList<>();
@@ -2064,8 +2171,8 @@ public class TablesGenerator {
                     boolean doubleLeader = StringUtils.isNotEmpty(m.group(1));
                     String otherCode = doubleLeader ? code + "-2" : null;
 
-                    if (sqlWriter != null) {
-                        addLeaderLine(sqlWriter, code, otherCode, code, country, event, begin, end, rank,
+                    if (rowWriter != null) {
+                        addLeaderLine(rowWriter, code, otherCode, code, country, event, begin, end, rank,
                                 manoeuvre, fire, shock, siege, type, rotw, asia, america, mediterranee, privateer, main, true, null);
                     }
                     Leader leader = new Leader();
@@ -2078,8 +2185,8 @@ public class TablesGenerator {
                     if (doubleLeader) {
                         country = m.group(9);
 
-                        if (sqlWriter != null) {
-                            addLeaderLine(sqlWriter, otherCode, code, code, country, event, begin, end, rank,
+                        if (rowWriter != null) {
+                            addLeaderLine(rowWriter, otherCode, code, code, country, event, begin, end, rank,
                                     manoeuvre, fire, shock, siege, type, rotw, asia, america, mediterranee, privateer, main, true, null);
                         }
                     }
@@ -2105,10 +2212,10 @@ public class TablesGenerator {
                         String otherCode = code + "-2";
                         Integer size = Integer.parseInt(m.group(4));
 
-                        if (sqlWriter != null) {
-                            addLeaderLine(sqlWriter, code, otherCode, code, country, null, null, null, rank,
+                        if (rowWriter != null) {
+                            addLeaderLine(rowWriter, code, otherCode, code, country, null, null, null, rank,
                                     manoeuvre, fire, shock, siege, type, false, false, false, false, false, true, true, size);
-                            addLeaderLine(sqlWriter, otherCode, code, code, country, null, null, null, null,
+                            addLeaderLine(rowWriter, otherCode, code, code, country, null, null, null, null,
                                     0, 0, 0, 0, type, false, false, false, false, false, false, true, null);
                         }
                         Leader leader = new Leader();
@@ -2175,7 +2282,7 @@ public class TablesGenerator {
     /**
      * Insert a leader database insert line.
      *
-     * @param sqlWriter    where to write the db instructions.
+     * @param rowWriter    where to write the db instructions.
      * @param code         of the leader.
      * @param otherCode    code of the other side of the leader.
      * @param name         of the leader.
@@ -2199,33 +2306,48 @@ public class TablesGenerator {
      * @param size         of the leader.
      * @throws IOException if the writer fails.
      */
-    private static void addLeaderLine(Writer sqlWriter, String code, String otherCode, String name, String country, String event,
+    private static void addLeaderLine(SqlRowWriter rowWriter, String code, String otherCode, String name, String country, String event,
                                       Integer begin, Integer end, String rank, int manoeuvre, int fire, int shock, int siege,
                                       String type, boolean rotw, boolean asia, boolean america, boolean mediterranee, boolean privateer, boolean main, boolean anonymous, Integer size) throws IOException {
-        sqlWriter.append("INSERT INTO T_LEADER (CODE, T_LEADER, NAME, R_COUNTRY, EVENT, BEGIN, END, " +
-                "`RANK`, MANOEUVRE, FIRE, SHOCK, SIEGE, TYPE, ROTW, ASIA, AMERICA, MEDITERRANEE, PRIVATEER, MAIN, ANONYMOUS, SIZE)\n" +
-                "    VALUES (")
-                .append(stringToString(code)).append(", ")
-                .append(stringToString(otherCode)).append(", ")
-                .append(stringToString(name)).append(", ")
-                .append(stringToString(country)).append(", ")
-                .append(stringToString(event)).append(", ")
-                .append(integerToInteger(begin)).append(", ")
-                .append(integerToInteger(end)).append(", ")
-                .append(stringToString(rank)).append(", ")
-                .append(integerToInteger(manoeuvre)).append(", ")
-                .append(integerToInteger(fire)).append(", ")
-                .append(integerToInteger(shock)).append(", ")
-                .append(integerToInteger(siege)).append(", ")
-                .append(stringToString(type)).append(", ")
-                .append(booleanToBit(rotw)).append(", ")
-                .append(booleanToBit(asia)).append(", ")
-                .append(booleanToBit(america)).append(", ")
-                .append(booleanToBit(mediterranee)).append(", ")
-                .append(booleanToBit(privateer)).append(", ")
-                .append(booleanToBit(main)).append(", ")
-                .append(booleanToBit(anonymous)).append(", ")
-                .append(integerToInteger(size)).append(");\n");
+        rowWriter.write(new SqlRow("T_LEADER", LEADER_COLUMNS,
+                stringToString(code),
+                stringToString(otherCode),
+                stringToString(name),
+                stringToString(country),
+                stringToString(event),
+                integerToInteger(begin),
+                integerToInteger(end),
+                stringToString(rank),
+                integerToInteger(manoeuvre),
+                integerToInteger(fire),
+                integerToInteger(shock),
+                integerToInteger(siege),
+                stringToString(type),
+                booleanToBit(rotw),
+                booleanToBit(asia),
+                booleanToBit(america),
+                booleanToBit(mediterranee),
+                booleanToBit(privateer),
+                booleanToBit(main),
+                booleanToBit(anonymous),
+                integerToInteger(size)));
+    }
+
+    /**
+     * Creates a reference to a row of another table given its name.
+     *
+     * @param table of the row.
+     * @param name  of the row.
+     * @return the reference, or null if there is no name.
+     */
+    private static Object reference(String table, String name) {
+        Object db = "null";
+
+        if (!StringUtils.isEmpty(name)) {
+            db = new SqlRow.Reference(table, name);
+        }
+
+        return db;
     }
 
     /**
@@ -0,0 +1,145 @@
+package com.mkl.tools.eu.util;
+
+/**
+ * Scanner of the numbers of a line, separated by single spaces.
+ * <p>
+ * The line is walked once and the plain decimal numbers ([+-]digits[.digits]) are parsed in place, with the same
+ * result as {@link Double#parseDouble(String)}: a mantissa of less than 53 bits divided by an exact power of ten
+ * is correctly rounded. The other forms accepted by {@link Double#parseDouble(String)} (exponent, suffix, hexadecimal,...)
+ * are rare and are given to it. The scan stops at the first token that is not a number, without any exception
+ * in the usual case of a word.
+ * </p>
+ * <p>
+ * The scanner is reset for each line so that the same instance parses a whole file.
+ * </p>
+ *
+ * @author MKL
+ */
+public class CoordinateScanner {
+    /** Mantissa above which the parsing of a digit could exceed the precision of a double. */
+    private static final long MAX_MANTISSA = (1L << 53) / 10;
+    /** Powers of ten that are exact doubles. */
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+    /** Line scanned. */
+    private String line;
+    /** Index of the beginning of the next token, greater than the length of the line once the scan is over. */
+    private int position;
+    /** Value of the last number scanned. */
+    private double value;
+
+    /**
+     * Starts the scan of a new line.
+     *
+     * @param line the line to scan.
+     */
+    public void reset(String line) {
+        this.line = line;
+        this.position = 0;
+    }
+
+    /** @return the value of the last number scanned. */
+    public double getValue() {
+        return value;
+    }
+
+    /**
+     * Scans the next token of the line.
+     *
+     * @return <code>true</code> if the token is a number, whose value is then given by {@link #getValue()},
+     * <code>false</code> if the line is over or if the token is not a number (the scan is then over).
+     */
+    public boolean next() {
+        if (line == null || position > line.length()) {
+            return false;
+        }
+        int start = position;
+        int end = line.indexOf(' ', start);
+        if (end < 0) {
+            end = line.length();
+        }
+        position = end + 1;
+        if (parse(start, end)) {
+            return true;
+        }
+        position = line.length() + 1;
+        return false;
+    }
+
+    /**
+     * Parses a token.
+     *
+     * @param start index of the first char of the token.
+     * @param end   index following the last char of the token.
+     * @return <code>true</code> if the token is a number.
+     */
+    private boolean parse(int start, int end) {
+        int i = start;
+        boolean negative = false;
+        if (i < end && (line.charAt(i) == '-' || line.charAt(i) == '+')) {
+            negative = line.charAt(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int nbDigits = 0;
+        int nbDecimals = 0;
+        boolean point = false;
+        for (; i < end; i++) {
+            char c = line.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (mantissa >= MAX_MANTISSA) {
+                    return parseOther(start, end);
+                }
+                mantissa = 10 * mantissa + (c - '0');
+                nbDigits++;
+                if (point) {
+                    nbDecimals++;
+                }
+            } else if (c == '.' && !point) {
+                point = true;
+            } else {
+                return parseOther(start, end);
+            }
+        }
+        if (nbDigits == 0 || nbDecimals >= POWERS_OF_TEN.length) {
+            return parseOther(start, end);
+        }
+
+        double absolute = nbDecimals == 0 ? mantissa : mantissa / POWERS_OF_TEN[nbDecimals];
+        value = negative ? -absolute : absolute;
+        return true;
+    }
+
+    /**
+     * Parses a token that is not a plain decimal number with {@link Double#parseDouble(String)}.
+     * The tokens that can't be numbers (not beginning by a digit, a point or the start of NaN or Infinity)
+     * are rejected before.
+     *
+     * @param start index of the first char of the token.
+     * @param end   index following the last char of the token.
+     * @return <code>true</code> if the token is a number.
+     */
+    private boolean parseOther(int start, int end) {
+        int i = start;
+        while (i < end && line.charAt(i) <= ' ') {
+            i++;
+        }
+        if (i < end && (line.charAt(i) == '-' || line.charAt(i) == '+')) {
+            i++;
+        }
+        if (i == end) {
+            return false;
+        }
+        char first = line.charAt(i);
+        if ((first < '0' || first > '9') && first != '.' && first != 'N' && first != 'I') {
+            return false;
+        }
+
+        try {
+            value = Double.parseDouble(line.substring(start, end));
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.mkl.tools.eu.util;
+
+/**
+ * Formatter of the doubles with a fixed number of decimals.
+ * <p>
+ * The value is rounded to the nearest multiple of 10^-decimals and written without exponent nor trailing zeros
+ * (11.5, 3, -0.25), which is shorter than {@link Double#toString(double)} and needs no allocation. The values that are
+ * too large for the rounding to be exact on a long, NaN and the infinities are given to {@link Double#toString(double)}.
+ * </p>
+ * <p>
+ * An instance is not thread safe.
+ * </p>
+ *
+ * @author MKL
+ */
+public class DecimalFormatter {
+    /** Maximum number of decimals. */
+    public static final int MAX_DECIMALS = 9;
+    /** Powers of ten. */
+    private static final long[] POWERS_OF_TEN = {1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L};
+    /** Number of decimals. */
+    private final int decimals;
+    /** 10^decimals. */
+    private final long scale;
+    /** Largest absolute value that is formatted without {@link Double#toString(double)}. */
+    private final double limit;
+    /** Decimals of the value being formatted. */
+    private final char[] digits = new char[MAX_DECIMALS];
+
+    /**
+     * Constructor.
+     *
+     * @param decimals number of decimals, between 0 and {@value #MAX_DECIMALS}.
+     */
+    public DecimalFormatter(int decimals) {
+        if (decimals < 0 || decimals > MAX_DECIMALS) {
+            throw new IllegalArgumentException("Number of decimals must be between 0 and " + MAX_DECIMALS + ": " + decimals);
+        }
+        this.decimals = decimals;
+        this.scale = POWERS_OF_TEN[decimals];
+        this.limit = (double) (1L << 52) / scale;
+    }
+
+    /** @return the number of decimals. */
+    public int getDecimals() {
+        return decimals;
+    }
+
+    /**
+     * Appends a value.
+     *
+     * @param builder where to append the value.
+     * @param value   the value.
+     */
+    public void append(StringBuilder builder, double value) {
+        if (!(Math.abs(value) < limit)) {
+            builder.append(Double.toString(value));
+            return;
+        }
+        long scaled = Math.round(Math.abs(value) * scale);
+        if (scaled == 0) {
+            builder.append('0');
+            return;
+        }
+        if (value < 0) {
+            builder.append('-');
+        }
+        long integer = scaled / scale;
+        long fraction = scaled % scale;
+        builder.append(integer);
+        if (fraction != 0) {
+            int length = decimals;
+            while (fraction % 10 == 0) {
+                fraction /= 10;
+                length--;
+            }
+            for (int i = length - 1; i >= 0; i--) {
+                digits[i] = (char) ('0' + fraction % 10);
+                fraction /= 10;
+            }
+            builder.append('.').append(digits, 0, length);
+        }
+    }
+
+    /**
+     * @param value the value.
+     * @return the value formatted.
+     */
+    public String format(double value) {
+        StringBuilder builder = new StringBuilder(24);
+        append(builder, value);
+        return builder.toString();
+    }
+}
@@ -0,0 +1,275 @@
+package com.mkl.tools.eu.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writer of a text file in UTF-8.
+ * <p>
+ * The characters are kept in a large buffer and encoded straight to the channel of the file, without the locks and
+ * the small buffers of a FileWriter. Unless it is appended to, the file is written under a temporary name and renamed
+ * when the writer is closed, so that a reader never sees a partial file. When the content can not be completed, the
+ * writer must be aborted instead of closed so that the file keeps its previous content. It can be compressed in gzip.
+ * </p>
+ * <p>
+ * The buffers are flipped and cleared as {@link Buffer}s: their covariant overrides do not exist before Java 9.
+ * </p>
+ * <p>
+ * The writer is not thread safe: it must be used by one thread at a time.
+ * </p>
+ *
+ * @author MKL
+ */
+public class FileChannelWriter extends Writer {
+    /** Logger. */
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileChannelWriter.class);
+    /** Size of the buffers. */
+    private static final int BUFFER_SIZE = 1 << 20;
+    /** Suffix of the temporary file. */
+    private static final String TEMP_SUFFIX = ".tmp";
+    /** The file. */
+    private final File file;
+    /** File written until the writer is closed, <code>null</code> if the file is written directly. */
+    private final File tempFile;
+    /** Channel of the written file. */
+    private final FileChannel channel;
+    /** Compression of the bytes, <code>null</code> if the file is not compressed. */
+    private final OutputStream gzip;
+    /** Encoder of the characters. */
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    /** Characters not yet encoded. */
+    private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+    /** Bytes not yet written. */
+    private final ByteBuffer bytes;
+    /** Number of bytes encoded, before compression. */
+    private long byteCount;
+    /** Time spent to write the bytes, in nanoseconds. */
+    private long writeTime;
+
+    /**
+     * Constructor. If parent directory does not exist, it is created.
+     *
+     * @param fileName path of the file.
+     * @param append   <code>true</code> to write at the end of the file.
+     * @param gzip     <code>true</code> to compress the file in gzip.
+     * @throws IOException exception.
+     */
+    public FileChannelWriter(String fileName, boolean append, boolean gzip) throws IOException {
+        file = new File(fileName);
+        if (file.getParentFile() != null && !file.getParentFile().exists() && !file.getParentFile().mkdirs()) {
+            throw new IOException("Can't create directory of " + fileName);
+        }
+        if (append) {
+            tempFile = null;
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+        } else {
+            tempFile = new File(fileName + TEMP_SUFFIX);
+            channel = FileChannel.open(tempFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        }
+        // The compression needs the bytes in an array.
+        this.gzip = gzip ? new GZIPOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE) : null;
+        bytes = gzip ? ByteBuffer.allocate(BUFFER_SIZE) : ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+
+    /** @return the number of bytes written so far, before compression. */
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    /** @return the time spent to write the bytes so far, in milliseconds. */
+    public long getWriteTime() {
+        return writeTime / 1000000;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public FileChannelWriter append(CharSequence csq) throws IOException {
+        CharSequence sequence = csq != null ? csq : "null";
+        put(sequence, 0, sequence.length());
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public FileChannelWriter append(CharSequence csq, int start, int end) throws IOException {
+        CharSequence sequence = csq != null ? csq : "null";
+        put(sequence, start, end);
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public FileChannelWriter append(char c) throws IOException {
+        if (!chars.hasRemaining()) {
+            drain(false);
+        }
+        chars.put(c);
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void write(int c) throws IOException {
+        append((char) c);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void write(String str, int off, int len) throws IOException {
+        put(str, off, off + len);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        put(CharBuffer.wrap(cbuf), off, off + len);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void flush() throws IOException {
+        drain(false);
+        if (gzip != null) {
+            gzip.flush();
+        }
+    }
+
+    /**
+     * Writes the last characters, closes the file and gives it its name.
+     *
+     * @throws IOException exception.
+     */
+    @Override
+    public void close() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+
+        boolean written = false;
+        try {
+            drain(true);
+            encoder.flush(bytes);
+            writeBytes();
+            if (gzip != null) {
+                gzip.close();
+            }
+            written = true;
+        } finally {
+            channel.close();
+            if (tempFile != null && !written) {
+                Files.deleteIfExists(tempFile.toPath());
+            }
+        }
+
+        if (tempFile != null) {
+            try {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                // Nothing is left behind if the file can not be renamed.
+                Files.deleteIfExists(tempFile.toPath());
+            }
+        }
+        LOGGER.info("{} written: {} bytes in {} ms", new Object[]{file.getName(), byteCount, getWriteTime()});
+    }
+
+    /**
+     * Closes the file without writing the characters not yet written. Unless it is appended to, the file keeps its
+     * previous content. Does nothing if the writer is already closed.
+     *
+     * @throws IOException exception.
+     */
+    public void abort() throws IOException {
+        if (!channel.isOpen()) {
+            return;
+        }
+
+        try {
+            channel.close();
+        } finally {
+            if (tempFile != null) {
+                Files.deleteIfExists(tempFile.toPath());
+            }
+        }
+        LOGGER.warn("{} not written", file.getName());
+    }
+
+    /**
+     * Puts characters in the buffer, encoding it each time it is full.
+     *
+     * @param sequence the characters.
+     * @param start    index of the first character.
+     * @param end      index following the last character.
+     * @throws IOException exception.
+     */
+    private void put(CharSequence sequence, int start, int end) throws IOException {
+        int index = start;
+        while (index < end) {
+            if (!chars.hasRemaining()) {
+                drain(false);
+            }
+            int next = Math.min(end, index + chars.remaining());
+            chars.append(sequence, index, next);
+            index = next;
+        }
+    }
+
+    /**
+     * Encodes the buffered characters and writes them to the file.
+     *
+     * @param endOfInput <code>true</code> if no character will follow.
+     * @throws IOException exception.
+     */
+    private void drain(boolean endOfInput) throws IOException {
+        ((Buffer) chars).flip();
+        CoderResult result;
+        do {
+            result = encoder.encode(chars, bytes, endOfInput);
+            if (result.isError()) {
+                result.throwException();
+            }
+            writeBytes();
+        } while (result.isOverflow());
+        // A high surrogate whose low surrogate is not yet written stays in the buffer.
+        chars.compact();
+    }
+
+    /**
+     * Writes the encoded bytes to the file.
+     *
+     * @throws IOException exception.
+     */
+    private void writeBytes() throws IOException {
+        long start = System.nanoTime();
+        ((Buffer) bytes).flip();
+        byteCount += bytes.remaining();
+        if (gzip != null) {
+            gzip.write(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+        } else {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        }
+        ((Buffer) bytes).clear();
+        writeTime += System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,75 @@
+package com.mkl.tools.eu.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+
+/**
+ * Table of rules dispatching the lines of an input file to their handler.
+ * <p>
+ * The rules are tried in the order they were added and a line is given to the handler of the first rule
+ * that matches it, with the captured groups. Thanks to the pre-filters of the rules, a line is usually
+ * matched against one pattern at most.
+ * </p>
+ * <p>
+ * Once built, a dispatcher can be shared by several threads as long as the handlers only modify the context.
+ * </p>
+ *
+ * @param <C> type of the context given to the handlers.
+ * @author MKL
+ */
+public class LineDispatcher<C> {
+    /** The rules. */
+    private final List<LineRule> rules = new ArrayList<>();
+    /** Handler of each rule. */
+    private final List<Handler<C>> handlers = new ArrayList<>();
+
+    /**
+     * Adds a rule at the end of the table.
+     *
+     * @param rule    the rule.
+     * @param handler the handler of the lines matching the rule.
+     * @return this dispatcher.
+     */
+    public LineDispatcher<C> add(LineRule rule, Handler<C> handler) {
+        rules.add(rule);
+        handlers.add(handler);
+        return this;
+    }
+
+    /**
+     * Gives a line to the handler of the first rule that matches it.
+     *
+     * @param line    the line.
+     * @param context context given to the handler.
+     * @return <code>true</code> if a rule matched the line.
+     * @throws Exception exception.
+     */
+    public boolean dispatch(String line, C context) throws Exception {
+        for (int i = 0; i < rules.size(); i++) {
+            Matcher matcher = rules.get(i).match(line);
+            if (matcher != null) {
+                handlers.get(i).handle(matcher, context);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Handler of the lines matching a rule.
+     *
+     * @param <C> type of the context.
+     */
+    @FunctionalInterface
+    public interface Handler<C> {
+        /**
+         * Handles a line.
+         *
+         * @param matcher the matcher holding the captured groups.
+         * @param context the context.
+         * @throws Exception exception.
+         */
+        void handle(Matcher matcher, C context) throws Exception;
+    }
+}
@@ -0,0 +1,78 @@
+package com.mkl.tools.eu.util;
+
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Precompiled pattern of a line of an input file, with a cheap pre-filter.
+ * <p>
+ * The pre-filter (a prefix, a suffix, a part of the line) must accept all the lines that the pattern matches:
+ * it only spares the regex matching of the lines that can't match.
+ * </p>
+ *
+ * @author MKL
+ */
+public class LineRule {
+    /** Necessary condition for a line to match the pattern. */
+    private final Predicate<String> filter;
+    /** The pattern that the whole line must match. */
+    private final Pattern pattern;
+
+    /**
+     * Constructor.
+     *
+     * @param filter necessary condition for a line to match the pattern.
+     * @param regex  the pattern that the whole line must match.
+     */
+    public LineRule(Predicate<String> filter, String regex) {
+        this.filter = filter;
+        this.pattern = Pattern.compile(regex);
+    }
+
+    /**
+     * @param prefix prefix of all the lines matching the pattern.
+     * @param regex  the pattern that the whole line must match.
+     * @return a rule filtering the lines on their prefix.
+     */
+    public static LineRule startsWith(String prefix, String regex) {
+        return new LineRule(line -> line.startsWith(prefix), regex);
+    }
+
+    /**
+     * @param suffix suffix of all the lines matching the pattern.
+     * @param regex  the pattern that the whole line must match.
+     * @return a rule filtering the lines on their suffix.
+     */
+    public static LineRule endsWith(String suffix, String regex) {
+        return new LineRule(line -> line.endsWith(suffix), regex);
+    }
+
+    /**
+     * @param part  part of all the lines matching the pattern.
+     * @param regex the pattern that the whole line must match.
+     * @return a rule filtering the lines on a part of them.
+     */
+    public static LineRule contains(String part, String regex) {
+        return new LineRule(line -> line.contains(part), regex);
+    }
+
+    /** @return the pattern. */
+    public Pattern getPattern() {
+        return pattern;
+    }
+
+    /**
+     * Matches a whole line.
+     *
+     * @param line the line.
+     * @return the matcher holding the captured groups, <code>null</code> if the line does not match.
+     */
+    public Matcher match(String line) {
+        if (line == null || !filter.test(line)) {
+            return null;
+        }
+        Matcher matcher = pattern.matcher(line);
+        return matcher.matches() ? matcher : null;
+    }
+}
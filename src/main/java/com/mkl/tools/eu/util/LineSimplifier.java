@@ -0,0 +1,157 @@
+package com.mkl.tools.eu.util;
+
+import java.util.Arrays;
+
+/**
+ * Simplification of a line by the Douglas-Peucker algorithm.
+ * <p>
+ * The first and last points are always kept, so that lines sharing their ends still join once simplified.
+ * A closed line (same first and last point) keeps at least the point the farthest from its start and the farthest
+ * point of each of its halves, so that it still has an area.
+ * </p>
+ *
+ * @author MKL
+ */
+public final class LineSimplifier {
+
+    /** No instance. */
+    private LineSimplifier() {
+    }
+
+    /**
+     * Simplifies a line.
+     *
+     * @param coords    coordinates of the points of the line, interleaved (x0, y0, x1, y1, ...).
+     * @param tolerance maximum distance between a removed point and the simplified line.
+     * @return the indexes of the points kept, in ascending order.
+     */
+    public static int[] simplify(double[] coords, double tolerance) {
+        int nbPoints = coords.length / 2;
+        if (nbPoints <= 2) {
+            int[] all = new int[nbPoints];
+            for (int i = 0; i < nbPoints; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+
+        boolean[] kept = new boolean[nbPoints];
+        kept[0] = true;
+        kept[nbPoints - 1] = true;
+        // Segments still to simplify, as pairs of indexes.
+        int[] stack = new int[64];
+        int size = 0;
+        int last = nbPoints - 1;
+        if (coords[0] == coords[2 * last] && coords[1] == coords[2 * last + 1]) {
+            int middle = farthest(coords, 0, last);
+            kept[middle] = true;
+            int first = farthest(coords, 0, middle);
+            int second = farthest(coords, middle, last);
+            stack = push(stack, size, 0, middle, first);
+            size += first > 0 ? 4 : 2;
+            stack = push(stack, size, middle, last, second);
+            size += second > 0 ? 4 : 2;
+            if (first > 0) {
+                kept[first] = true;
+            }
+            if (second > 0) {
+                kept[second] = true;
+            }
+        } else {
+            stack[size++] = 0;
+            stack[size++] = last;
+        }
+
+        double squareTolerance = tolerance * tolerance;
+        while (size > 0) {
+            int end = stack[--size];
+            int start = stack[--size];
+            int index = farthest(coords, start, end);
+            if (index > 0 && squareDistance(coords, index, start, end) > squareTolerance) {
+                kept[index] = true;
+                stack = push(stack, size, start, index, index);
+                size += 4;
+            }
+        }
+
+        int nbKept = 0;
+        int[] indexes = new int[nbPoints];
+        for (int i = 0; i < nbPoints; i++) {
+            if (kept[i]) {
+                indexes[nbKept++] = i;
+            }
+        }
+        return Arrays.copyOf(indexes, nbKept);
+    }
+
+    /**
+     * Pushes the segments around a point, or the whole segment if there is no point.
+     *
+     * @param stack segments still to simplify.
+     * @param size  number of indexes in the stack.
+     * @param start index of the first point of the segment.
+     * @param end   index of the last point of the segment.
+     * @param split index of the point splitting the segment, 0 if the segment is not split.
+     * @return the stack, grown if needed.
+     */
+    private static int[] push(int[] stack, int size, int start, int end, int split) {
+        int[] result = size + 4 > stack.length ? Arrays.copyOf(stack, 2 * stack.length) : stack;
+        if (split > 0) {
+            result[size] = start;
+            result[size + 1] = split;
+            result[size + 2] = split;
+            result[size + 3] = end;
+        } else {
+            result[size] = start;
+            result[size + 1] = end;
+        }
+        return result;
+    }
+
+    /**
+     * @param coords coordinates of the points of the line.
+     * @param start  index of the first point of the segment.
+     * @param end    index of the last point of the segment.
+     * @return the index of the point between start and end the farthest from the segment, 0 if there is none.
+     */
+    private static int farthest(double[] coords, int start, int end) {
+        int index = 0;
+        double max = -1;
+        for (int i = start + 1; i < end; i++) {
+            double distance = squareDistance(coords, i, start, end);
+            if (distance > max) {
+                max = distance;
+                index = i;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * @param coords coordinates of the points of the line.
+     * @param index  index of the point.
+     * @param start  index of the first point of the segment.
+     * @param end    index of the last point of the segment.
+     * @return the square of the distance between the point and the segment.
+     */
+    private static double squareDistance(double[] coords, int index, int start, int end) {
+        double x = coords[2 * start];
+        double y = coords[2 * start + 1];
+        double dx = coords[2 * end] - x;
+        double dy = coords[2 * end + 1] - y;
+        double px = coords[2 * index];
+        double py = coords[2 * index + 1];
+        double length = dx * dx + dy * dy;
+        if (length > 0) {
+            double t = ((px - x) * dx + (py - y) * dy) / length;
+            if (t > 1) {
+                x += dx;
+                y += dy;
+            } else if (t > 0) {
+                x += t * dx;
+                y += t * dy;
+            }
+        }
+        return (px - x) * (px - x) + (py - y) * (py - y);
+    }
+}
@@ -0,0 +1,248 @@
+package com.mkl.tools.eu.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+/**
+ * Executes named stages on a fork-join pool. A stage is started as soon as all the stages it depends on are done,
+ * so independent stages run at the same time.
+ * <p>
+ * Each stage logs in its own buffer and the buffers are appended to the log in the order the stages were added,
+ * so the log is the same as the one of a serial run whatever the scheduling. When a stage fails, the log stops after
+ * the first failed stage in this order, as a serial run would; a stage before it that was skipped has no log.
+ * </p>
+ *
+ * @author MKL
+ */
+public class StageExecutor {
+    /** Logger. */
+    private static final Logger LOGGER = LoggerFactory.getLogger(StageExecutor.class);
+    /** Stages in the order they were added. */
+    private final Map<String, Stage> stages = new LinkedHashMap<>();
+    /** Pool running the stages. */
+    private final ForkJoinPool pool;
+    /** Log writer. */
+    private final Writer log;
+    /** Flag set when a stage fails, so that the stages not yet started are skipped. */
+    private final AtomicBoolean failed = new AtomicBoolean();
+
+    /**
+     * Constructor using a pool with as many threads as available processors.
+     *
+     * @param log log writer.
+     */
+    public StageExecutor(Writer log) {
+        this(log, new ForkJoinPool());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param log  log writer.
+     * @param pool pool running the stages.
+     */
+    public StageExecutor(Writer log, ForkJoinPool pool) {
+        this.log = log;
+        this.pool = pool;
+    }
+
+    /**
+     * Adds a stage. The dependencies must have been added before, so the order of addition is a serial order of the stages.
+     *
+     * @param name         name of the stage.
+     * @param action       what the stage does.
+     * @param dependencies names of the stages that must be done before this one.
+     */
+    public void addStage(String name, Action action, String... dependencies) {
+        if (stages.containsKey(name)) {
+            throw new IllegalArgumentException("Stage already exists: " + name);
+        }
+        List<Stage> previous = new ArrayList<>();
+        for (String dependency : dependencies) {
+            Stage stage = stages.get(dependency);
+            if (stage == null) {
+                throw new IllegalArgumentException("Stage " + name + " depends on unknown stage " + dependency);
+            }
+            previous.add(stage);
+        }
+
+        stages.put(name, new Stage(name, action, previous));
+    }
+
+    /**
+     * Executes all the stages and waits for their completion, then shuts the pool down.
+     * <p>
+     * When a stage fails, the stages not yet started are skipped and the running ones are waited for, so that no
+     * stage still writes once this method returns. The logs of the stages added after the first failing one are
+     * dropped.
+     * </p>
+     *
+     * @throws Exception the exception of the first failing stage.
+     */
+    public void execute() throws Exception {
+        try {
+            for (Stage stage : stages.values()) {
+                CompletableFuture<?>[] previous = new CompletableFuture<?>[stage.previous.size()];
+                for (int i = 0; i < previous.length; i++) {
+                    previous[i] = stage.previous.get(i).future;
+                }
+                stage.future = CompletableFuture.allOf(previous).thenRunAsync(() -> stage.run(failed), pool);
+            }
+
+            CompletableFuture<?>[] all = new CompletableFuture<?>[stages.size()];
+            int index = 0;
+            for (Stage stage : stages.values()) {
+                all[index++] = stage.future;
+            }
+            CompletableFuture.allOf(all).handle((result, exception) -> null).join();
+
+            for (Stage stage : stages.values()) {
+                log.append(stage.log.getBuffer());
+                if (stage.failure instanceof Exception) {
+                    throw (Exception) stage.failure;
+                } else if (stage.failure instanceof Error) {
+                    throw (Error) stage.failure;
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Returns what a stage has logged so far. To be called by a stage depending on it to have the whole log.
+     *
+     * @param name name of the stage.
+     * @return what the stage has logged so far.
+     */
+    public String getLog(String name) {
+        return stages.get(name).log.toString();
+    }
+
+    /**
+     * Executes an action on each item in parallel. Each item logs in its own buffer and the buffers are appended
+     * to the log in the order of the items.
+     *
+     * @param items  to process.
+     * @param action to execute on each item.
+     * @param log    log writer.
+     * @param <T>    type of the items.
+     * @throws Exception the exception of the first failing item.
+     */
+    public static <T> void forEach(Collection<T> items, ItemAction<T> action, Writer log) throws Exception {
+        List<T> list = new ArrayList<>(items);
+        StringWriter[] logs = new StringWriter[list.size()];
+        Exception[] exceptions = new Exception[list.size()];
+        IntStream.range(0, list.size()).parallel().forEach(i -> {
+            logs[i] = new StringWriter();
+            try {
+                action.run(list.get(i), logs[i]);
+            } catch (Exception e) {
+                exceptions[i] = e;
+            }
+        });
+
+        for (int i = 0; i < logs.length; i++) {
+            log.append(logs[i].getBuffer());
+            if (exceptions[i] != null) {
+                throw exceptions[i];
+            }
+        }
+    }
+
+    /**
+     * Action of a stage.
+     */
+    @FunctionalInterface
+    public interface Action {
+        /**
+         * Executes the stage.
+         *
+         * @param log log writer of the stage.
+         * @throws Exception exception.
+         */
+        void run(Writer log) throws Exception;
+    }
+
+    /**
+     * Action executed on each item of a collection.
+     *
+     * @param <T> type of the items.
+     */
+    @FunctionalInterface
+    public interface ItemAction<T> {
+        /**
+         * Executes the action on an item.
+         *
+         * @param item to process.
+         * @param log  log writer of the item.
+         * @throws Exception exception.
+         */
+        void run(T item, Writer log) throws Exception;
+    }
+
+    /**
+     * A stage and its state.
+     */
+    private static class Stage {
+        /** Name of the stage. */
+        private final String name;
+        /** What the stage does. */
+        private final Action action;
+        /** Stages that must be done before this one. */
+        private final List<Stage> previous;
+        /** Log of the stage. */
+        private final StringWriter log = new StringWriter();
+        /** Completion of the stage. */
+        private CompletableFuture<Void> future;
+        /** Exception or error thrown by the action of the stage, <code>null</code> if it did not fail. */
+        private volatile Throwable failure;
+
+        /**
+         * Constructor.
+         *
+         * @param name     name of the stage.
+         * @param action   what the stage does.
+         * @param previous stages that must be done before this one.
+         */
+        private Stage(String name, Action action, List<Stage> previous) {
+            this.name = name;
+            this.action = action;
+            this.previous = previous;
+        }
+
+        /**
+         * Runs the action of the stage, unless a stage has failed.
+         *
+         * @param failed flag set when a stage fails.
+         */
+        private void run(AtomicBoolean failed) {
+            if (failed.get()) {
+                throw new CancellationException("Stage " + name + " skipped after a failure");
+            }
+            long start = System.nanoTime();
+            try {
+                action.run(log);
+            } catch (Exception | Error e) {
+                failure = e;
+                failed.set(true);
+                throw new CompletionException(e);
+            }
+            LOGGER.info("Stage {} done in {} ms", name, (System.nanoTime() - start) / 1000000);
+        }
+    }
+}
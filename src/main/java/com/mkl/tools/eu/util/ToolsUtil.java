@@ -1,6 +1,7 @@
 package com.mkl.tools.eu.util;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -16,34 +17,30 @@ public final class ToolsUtil {
     }
 
     /**
-     * Creates a FileWriter given a path. If parent directory does not exist, will attempt to create it and then retry.
+     * Creates a buffered writer in UTF-8 given a path. If parent directory does not exist, it is created.
+     * Unless it is appended to, the file appears when the writer is closed.
      *
      * @param fileName the path
      * @param append   true to writes at the end of the file.
-     * @return a FileWriter
+     * @return a writer of the file.
      * @throws java.io.IOException erreur de lecture.
      */
-    public static Writer createFileWriter(final String fileName, final boolean append) throws IOException {
-        Writer writer;
-        try {
-            writer = new FileWriter(fileName, append);
-        } catch (FileNotFoundException e) {
-            // if parent directory does not exist then
-            // attempt to create it and try to create file
-            String parentName = new File(fileName).getParent();
-            if (parentName != null) {
-                File parentDir = new File(parentName);
-                if (!parentDir.exists() && parentDir.mkdirs()) {
-                    writer = new FileWriter(fileName, append);
-                } else {
-                    throw e;
-                }
-            } else {
-                throw e;
-            }
-        }
+    public static FileChannelWriter createFileWriter(final String fileName, final boolean append) throws IOException {
+        return createFileWriter(fileName, append, false);
+    }
 
-        return writer;
+    /**
+     * Creates a buffered writer in UTF-8 given a path, compressed in gzip or not. If parent directory does not exist,
+     * it is created. Unless it is appended to, the file appears when the writer is closed.
+     *
+     * @param fileName the path
+     * @param append   true to writes at the end of the file.
+     * @param gzip     true to compress the file in gzip.
+     * @return a writer of the file.
+     * @throws java.io.IOException erreur de lecture.
+     */
+    public static FileChannelWriter createFileWriter(final String fileName, final boolean append, final boolean gzip) throws IOException {
+        return new FileChannelWriter(fileName, append, gzip);
     }
 
     /**
@@ -169,4 +166,39 @@ public final class ToolsUtil {
 
         return split.toArray(new String[split.size()]);
     }
-}
\ No newline at end of file
+
+    /**
+     * Writes a String that can be <code>null</code> and longer than what writeUTF supports.
+     *
+     * @param output stream.
+     * @param string to write.
+     * @throws IOException exception.
+     */
+    public static void writeString(DataOutput output, String string) throws IOException {
+        if (string == null) {
+            output.writeInt(-1);
+        } else {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+    }
+
+    /**
+     * Reads a String written by {@link #writeString(DataOutput, String)}.
+     *
+     * @param input stream.
+     * @return the String.
+     * @throws IOException exception.
+     */
+    public static String readString(DataInput input) throws IOException {
+        int length = input.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
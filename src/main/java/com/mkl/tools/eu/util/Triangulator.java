@@ -0,0 +1,796 @@
+package com.mkl.tools.eu.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Triangulation of a polygon with holes by ear clipping, as done by the earcut library used by the map renderers.
+ * <p>
+ * The holes are first bridged to the outer ring so that the polygon is a single ring, then the ears are clipped.
+ * Above 80 points, the points are indexed on a z-order curve to speed up the search of the points inside an ear.
+ * If no ear can be found, the points are filtered, then the local self intersections are cured, then the polygon
+ * is split in two, so that an invalid polygon is still covered.
+ * </p>
+ * <p>
+ * Each triangulation uses its own instance, so that polygons can be triangulated in parallel.
+ * </p>
+ *
+ * @author MKL
+ */
+public final class Triangulator {
+    /** Number of points above which the points are indexed on a z-order curve. */
+    private static final int HASH_THRESHOLD = 80;
+    /** Coordinates of the points. */
+    private final double[] coords;
+    /** Indexes of the points of the triangles. */
+    private int[] triangles;
+    /** Number of indexes in triangles. */
+    private int size;
+    /** Lowest x coordinate, for the z-order curve. */
+    private double minX;
+    /** Lowest y coordinate, for the z-order curve. */
+    private double minY;
+    /** Inverse of the size of the bounding box (scaled to 32767), 0 if the z-order curve is not used. */
+    private double invSize;
+
+    /**
+     * Constructor.
+     *
+     * @param coords coordinates of the points.
+     */
+    private Triangulator(double[] coords) {
+        this.coords = coords;
+        this.triangles = new int[Math.max(3 * (coords.length / 2), 3)];
+    }
+
+    /**
+     * Triangulates a polygon.
+     *
+     * @param coords     coordinates of the points of all the rings, interleaved (x0, y0, x1, y1, ...).
+     * @param holeStarts index of the first point of each hole. The outer ring goes from 0 to the first hole.
+     * @return the indexes of the points of the triangles, three by triangle.
+     */
+    public static int[] triangulate(double[] coords, int[] holeStarts) {
+        return new Triangulator(coords).run(holeStarts);
+    }
+
+    /**
+     * Triangulates the polygon.
+     *
+     * @param holeStarts index of the first point of each hole.
+     * @return the indexes of the points of the triangles.
+     */
+    private int[] run(int[] holeStarts) {
+        int nbPoints = coords.length / 2;
+        int outerEnd = holeStarts.length > 0 ? holeStarts[0] : nbPoints;
+        Node outer = linkedList(0, outerEnd, true);
+        if (outer == null || outer.next == outer.prev) {
+            return new int[0];
+        }
+        if (holeStarts.length > 0) {
+            outer = eliminateHoles(holeStarts, outer);
+        }
+
+        if (nbPoints > HASH_THRESHOLD) {
+            minX = coords[0];
+            minY = coords[1];
+            double maxX = minX;
+            double maxY = minY;
+            for (int i = 1; i < outerEnd; i++) {
+                minX = Math.min(minX, coords[2 * i]);
+                minY = Math.min(minY, coords[2 * i + 1]);
+                maxX = Math.max(maxX, coords[2 * i]);
+                maxY = Math.max(maxY, coords[2 * i + 1]);
+            }
+            double boxSize = Math.max(maxX - minX, maxY - minY);
+            invSize = boxSize != 0 ? 32767 / boxSize : 0;
+        }
+
+        earcutLinked(outer, 0);
+        return Arrays.copyOf(triangles, size);
+    }
+
+    /**
+     * Creates a circular linked list of the points of a ring in the given winding.
+     *
+     * @param start     index of the first point.
+     * @param end       index following the last point.
+     * @param clockwise the winding.
+     * @return the last node of the list, <code>null</code> if the ring is empty.
+     */
+    private Node linkedList(int start, int end, boolean clockwise) {
+        Node last = null;
+        if (clockwise == (signedArea(start, end) > 0)) {
+            for (int i = start; i < end; i++) {
+                last = insertNode(i, last);
+            }
+        } else {
+            for (int i = end - 1; i >= start; i--) {
+                last = insertNode(i, last);
+            }
+        }
+        if (last != null && equals(last, last.next)) {
+            removeNode(last);
+            last = last.next;
+        }
+        return last;
+    }
+
+    /**
+     * Removes the duplicate and the collinear points.
+     *
+     * @param start first node.
+     * @param stop  node where to stop, <code>null</code> to stop at start.
+     * @return a remaining node.
+     */
+    private static Node filterPoints(Node start, Node stop) {
+        if (start == null) {
+            return null;
+        }
+        Node end = stop != null ? stop : start;
+        Node p = start;
+        boolean again;
+        do {
+            again = false;
+            if (!p.steiner && (equals(p, p.next) || area(p.prev, p, p.next) == 0)) {
+                removeNode(p);
+                p = p.prev;
+                end = p;
+                if (p == p.next) {
+                    break;
+                }
+                again = true;
+            } else {
+                p = p.next;
+            }
+        } while (again || p != end);
+        return end;
+    }
+
+    /**
+     * Clips the ears of a ring.
+     *
+     * @param start a node of the ring.
+     * @param pass  0 on the first pass, 1 after the points are filtered, 2 after the intersections are cured.
+     */
+    private void earcutLinked(Node start, int pass) {
+        if (start == null) {
+            return;
+        }
+        if (pass == 0 && invSize != 0) {
+            indexCurve(start);
+        }
+
+        Node ear = start;
+        Node stop = ear;
+        while (ear.prev != ear.next) {
+            Node prev = ear.prev;
+            Node next = ear.next;
+            if (invSize != 0 ? isEarHashed(ear) : isEar(ear)) {
+                addTriangle(prev, ear, next);
+                removeNode(ear);
+                ear = next.next;
+                stop = next.next;
+                continue;
+            }
+            ear = next;
+            if (ear == stop) {
+                if (pass == 0) {
+                    earcutLinked(filterPoints(ear, null), 1);
+                } else if (pass == 1) {
+                    earcutLinked(cureLocalIntersections(filterPoints(ear, null)), 2);
+                } else {
+                    splitEarcut(ear);
+                }
+                break;
+            }
+        }
+    }
+
+    /**
+     * @param ear a node.
+     * @return <code>true</code> if the node is an ear: convex with no point inside.
+     */
+    private static boolean isEar(Node ear) {
+        Node a = ear.prev;
+        Node b = ear;
+        Node c = ear.next;
+        if (area(a, b, c) >= 0) {
+            return false;
+        }
+        double x0 = Math.min(a.x, Math.min(b.x, c.x));
+        double y0 = Math.min(a.y, Math.min(b.y, c.y));
+        double x1 = Math.max(a.x, Math.max(b.x, c.x));
+        double y1 = Math.max(a.y, Math.max(b.y, c.y));
+        Node p = c.next;
+        while (p != a) {
+            if (p.x >= x0 && p.x <= x1 && p.y >= y0 && p.y <= y1 && pointInTriangle(a, b, c, p) && area(p.prev, p, p.next) >= 0) {
+                return false;
+            }
+            p = p.next;
+        }
+        return true;
+    }
+
+    /**
+     * @param ear a node.
+     * @return <code>true</code> if the node is an ear, the points inside being searched on the z-order curve.
+     */
+    private boolean isEarHashed(Node ear) {
+        Node a = ear.prev;
+        Node b = ear;
+        Node c = ear.next;
+        if (area(a, b, c) >= 0) {
+            return false;
+        }
+        double x0 = Math.min(a.x, Math.min(b.x, c.x));
+        double y0 = Math.min(a.y, Math.min(b.y, c.y));
+        double x1 = Math.max(a.x, Math.max(b.x, c.x));
+        double y1 = Math.max(a.y, Math.max(b.y, c.y));
+        int minZ = zOrder(x0, y0);
+        int maxZ = zOrder(x1, y1);
+
+        Node p = ear.prevZ;
+        Node n = ear.nextZ;
+        while (p != null && p.z >= minZ && n != null && n.z <= maxZ) {
+            if (isInEar(p, a, b, c, x0, y0, x1, y1)) {
+                return false;
+            }
+            p = p.prevZ;
+            if (isInEar(n, a, b, c, x0, y0, x1, y1)) {
+                return false;
+            }
+            n = n.nextZ;
+        }
+        while (p != null && p.z >= minZ) {
+            if (isInEar(p, a, b, c, x0, y0, x1, y1)) {
+                return false;
+            }
+            p = p.prevZ;
+        }
+        while (n != null && n.z <= maxZ) {
+            if (isInEar(n, a, b, c, x0, y0, x1, y1)) {
+                return false;
+            }
+            n = n.nextZ;
+        }
+        return true;
+    }
+
+    /**
+     * @param p  a node.
+     * @param a  previous node of the ear.
+     * @param b  the ear.
+     * @param c  next node of the ear.
+     * @param x0 lowest x of the ear.
+     * @param y0 lowest y of the ear.
+     * @param x1 highest x of the ear.
+     * @param y1 highest y of the ear.
+     * @return <code>true</code> if the node is a reflex point inside the ear, which then can't be clipped.
+     */
+    private static boolean isInEar(Node p, Node a, Node b, Node c, double x0, double y0, double x1, double y1) {
+        return p.x >= x0 && p.x <= x1 && p.y >= y0 && p.y <= y1 && p != a && p != c
+                && pointInTriangle(a, b, c, p) && area(p.prev, p, p.next) >= 0;
+    }
+
+    /**
+     * Clips the triangles around the small self intersections of a ring.
+     *
+     * @param first a node of the ring.
+     * @return a remaining node.
+     */
+    private Node cureLocalIntersections(Node first) {
+        Node start = first;
+        Node p = start;
+        do {
+            Node a = p.prev;
+            Node b = p.next.next;
+            if (!equals(a, b) && intersects(a, p, p.next, b) && locallyInside(a, b) && locallyInside(b, a)) {
+                addTriangle(a, p, b);
+                removeNode(p);
+                removeNode(p.next);
+                p = b;
+                start = b;
+            }
+            p = p.next;
+        } while (p != start);
+        return filterPoints(p, null);
+    }
+
+    /**
+     * Splits the ring in two along a valid diagonal and triangulates both parts.
+     *
+     * @param start a node of the ring.
+     */
+    private void splitEarcut(Node start) {
+        Node a = start;
+        do {
+            Node b = a.next.next;
+            while (b != a.prev) {
+                if (a.index != b.index && isValidDiagonal(a, b)) {
+                    Node c = splitPolygon(a, b);
+                    a = filterPoints(a, a.next);
+                    c = filterPoints(c, c.next);
+                    earcutLinked(a, 0);
+                    earcutLinked(c, 0);
+                    return;
+                }
+                b = b.next;
+            }
+            a = a.next;
+        } while (a != start);
+    }
+
+    /**
+     * Links the holes to the outer ring, from the leftmost hole to the rightmost one.
+     *
+     * @param holeStarts index of the first point of each hole.
+     * @param outer      a node of the outer ring.
+     * @return a node of the resulting ring.
+     */
+    private Node eliminateHoles(int[] holeStarts, Node outer) {
+        int nbPoints = coords.length / 2;
+        List<Node> queue = new ArrayList<>();
+        for (int i = 0; i < holeStarts.length; i++) {
+            int end = i < holeStarts.length - 1 ? holeStarts[i + 1] : nbPoints;
+            Node list = linkedList(holeStarts[i], end, false);
+            if (list == null) {
+                continue;
+            }
+            if (list == list.next) {
+                list.steiner = true;
+            }
+            queue.add(getLeftmost(list));
+        }
+        queue.sort((first, second) -> Double.compare(first.x, second.x));
+
+        Node result = outer;
+        for (Node hole : queue) {
+            Node bridge = findHoleBridge(hole, result);
+            if (bridge != null) {
+                Node bridgeReverse = splitPolygon(bridge, hole);
+                filterPoints(bridgeReverse, bridgeReverse.next);
+                result = filterPoints(bridge, bridge.next);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the point of the outer ring to link a hole to (David Eberly's algorithm).
+     *
+     * @param hole  the leftmost node of the hole.
+     * @param outer a node of the outer ring.
+     * @return the node of the outer ring, <code>null</code> if there is none.
+     */
+    private static Node findHoleBridge(Node hole, Node outer) {
+        double hx = hole.x;
+        double hy = hole.y;
+        double qx = Double.NEGATIVE_INFINITY;
+        Node m = null;
+        Node p = outer;
+        // The segment of the ring on the left of the hole, the closest to it, on its horizontal.
+        do {
+            if (hy <= p.y && hy >= p.next.y && p.next.y != p.y) {
+                double x = p.x + (hy - p.y) * (p.next.x - p.x) / (p.next.y - p.y);
+                if (x <= hx && x > qx) {
+                    qx = x;
+                    m = p.x < p.next.x ? p : p.next;
+                    if (x == hx) {
+                        return m;
+                    }
+                }
+            }
+            p = p.next;
+        } while (p != outer);
+        if (m == null) {
+            return null;
+        }
+
+        // The points of the ring inside the triangle (hole, intersection, end of the segment) hide the end of the segment:
+        // the one with the lowest angle with the horizontal is taken instead.
+        Node stop = m;
+        double mx = m.x;
+        double my = m.y;
+        double tanMin = Double.POSITIVE_INFINITY;
+        p = m;
+        do {
+            if (hx >= p.x && p.x >= mx && hx != p.x
+                    && pointInTriangle(hy < my ? hx : qx, hy, mx, my, hy < my ? qx : hx, hy, p.x, p.y)) {
+                double tan = Math.abs(hy - p.y) / (hx - p.x);
+                if (locallyInside(p, hole) && (tan < tanMin || (tan == tanMin && (p.x > m.x || (p.x == m.x && sectorContainsSector(m, p)))))) {
+                    m = p;
+                    tanMin = tan;
+                }
+            }
+            p = p.next;
+        } while (p != stop);
+        return m;
+    }
+
+    /**
+     * @param m a node.
+     * @param p another node.
+     * @return <code>true</code> if the sector of m contains the sector of p.
+     */
+    private static boolean sectorContainsSector(Node m, Node p) {
+        return area(m.prev, m, p.prev) < 0 && area(p.next, m, m.next) < 0;
+    }
+
+    /**
+     * Computes the z-order of the nodes and sorts them by it.
+     *
+     * @param start a node of the ring.
+     */
+    private void indexCurve(Node start) {
+        Node p = start;
+        do {
+            if (p.z == 0) {
+                p.z = zOrder(p.x, p.y);
+            }
+            p.prevZ = p.prev;
+            p.nextZ = p.next;
+            p = p.next;
+        } while (p != start);
+        p.prevZ.nextZ = null;
+        p.prevZ = null;
+        sortLinked(p);
+    }
+
+    /**
+     * Sorts the nodes by z-order (merge sort of the linked list).
+     *
+     * @param first first node of the list.
+     */
+    private static void sortLinked(Node first) {
+        Node list = first;
+        int inSize = 1;
+        int nbMerges;
+        do {
+            Node p = list;
+            list = null;
+            Node tail = null;
+            nbMerges = 0;
+            while (p != null) {
+                nbMerges++;
+                Node q = p;
+                int pSize = 0;
+                for (int i = 0; i < inSize; i++) {
+                    pSize++;
+                    q = q.nextZ;
+                    if (q == null) {
+                        break;
+                    }
+                }
+                int qSize = inSize;
+                while (pSize > 0 || (qSize > 0 && q != null)) {
+                    Node e;
+                    if (pSize != 0 && (qSize == 0 || q == null || p.z <= q.z)) {
+                        e = p;
+                        p = p.nextZ;
+                        pSize--;
+                    } else {
+                        e = q;
+                        q = q.nextZ;
+                        qSize--;
+                    }
+                    if (tail != null) {
+                        tail.nextZ = e;
+                    } else {
+                        list = e;
+                    }
+                    e.prevZ = tail;
+                    tail = e;
+                }
+                p = q;
+            }
+            tail.nextZ = null;
+            inSize *= 2;
+        } while (nbMerges > 1);
+    }
+
+    /**
+     * @param x x coordinate.
+     * @param y y coordinate.
+     * @return the z-order of the point (interleaved bits of the coordinates scaled to 15 bits).
+     */
+    private int zOrder(double x, double y) {
+        int ix = (int) ((x - minX) * invSize);
+        int iy = (int) ((y - minY) * invSize);
+        ix = (ix | (ix << 8)) & 0x00FF00FF;
+        ix = (ix | (ix << 4)) & 0x0F0F0F0F;
+        ix = (ix | (ix << 2)) & 0x33333333;
+        ix = (ix | (ix << 1)) & 0x55555555;
+        iy = (iy | (iy << 8)) & 0x00FF00FF;
+        iy = (iy | (iy << 4)) & 0x0F0F0F0F;
+        iy = (iy | (iy << 2)) & 0x33333333;
+        iy = (iy | (iy << 1)) & 0x55555555;
+        return ix | (iy << 1);
+    }
+
+    /**
+     * @param start a node of the ring.
+     * @return the leftmost node of the ring (the lowest if several).
+     */
+    private static Node getLeftmost(Node start) {
+        Node p = start;
+        Node leftmost = start;
+        do {
+            if (p.x < leftmost.x || (p.x == leftmost.x && p.y < leftmost.y)) {
+                leftmost = p;
+            }
+            p = p.next;
+        } while (p != start);
+        return leftmost;
+    }
+
+    /**
+     * @param a first point of the triangle.
+     * @param b second point of the triangle.
+     * @param c third point of the triangle.
+     * @param p the point.
+     * @return <code>true</code> if the point is inside the triangle.
+     */
+    private static boolean pointInTriangle(Node a, Node b, Node c, Node p) {
+        return pointInTriangle(a.x, a.y, b.x, b.y, c.x, c.y, p.x, p.y);
+    }
+
+    /**
+     * @param ax x of the first point of the triangle.
+     * @param ay y of the first point of the triangle.
+     * @param bx x of the second point of the triangle.
+     * @param by y of the second point of the triangle.
+     * @param cx x of the third point of the triangle.
+     * @param cy y of the third point of the triangle.
+     * @param px x of the point.
+     * @param py y of the point.
+     * @return <code>true</code> if the point is inside the triangle.
+     */
+    private static boolean pointInTriangle(double ax, double ay, double bx, double by, double cx, double cy, double px, double py) {
+        return (cx - px) * (ay - py) >= (ax - px) * (cy - py)
+                && (ax - px) * (by - py) >= (bx - px) * (ay - py)
+                && (bx - px) * (cy - py) >= (cx - px) * (by - py);
+    }
+
+    /**
+     * @param a a node.
+     * @param b another node.
+     * @return <code>true</code> if the diagonal between the nodes splits the ring in two valid rings.
+     */
+    private static boolean isValidDiagonal(Node a, Node b) {
+        return a.next.index != b.index && a.prev.index != b.index && !intersectsPolygon(a, b)
+                && (locallyInside(a, b) && locallyInside(b, a) && middleInside(a, b) && (area(a.prev, a, b.prev) != 0 || area(a, b.prev, b) != 0)
+                || equals(a, b) && area(a.prev, a, a.next) > 0 && area(b.prev, b, b.next) > 0);
+    }
+
+    /**
+     * @param p first node.
+     * @param q second node.
+     * @param r third node.
+     * @return the signed area of the triangle, twice.
+     */
+    private static double area(Node p, Node q, Node r) {
+        return (q.y - p.y) * (r.x - q.x) - (q.x - p.x) * (r.y - q.y);
+    }
+
+    /**
+     * @param p1 a node.
+     * @param p2 another node.
+     * @return <code>true</code> if the nodes are at the same place.
+     */
+    private static boolean equals(Node p1, Node p2) {
+        return p1.x == p2.x && p1.y == p2.y;
+    }
+
+    /**
+     * @param p1 start of the first segment.
+     * @param q1 end of the first segment.
+     * @param p2 start of the second segment.
+     * @param q2 end of the second segment.
+     * @return <code>true</code> if the segments intersect.
+     */
+    private static boolean intersects(Node p1, Node q1, Node p2, Node q2) {
+        int o1 = sign(area(p1, q1, p2));
+        int o2 = sign(area(p1, q1, q2));
+        int o3 = sign(area(p2, q2, p1));
+        int o4 = sign(area(p2, q2, q1));
+        return o1 != o2 && o3 != o4
+                || o1 == 0 && onSegment(p1, p2, q1)
+                || o2 == 0 && onSegment(p1, q2, q1)
+                || o3 == 0 && onSegment(p2, p1, q2)
+                || o4 == 0 && onSegment(p2, q1, q2);
+    }
+
+    /**
+     * @param p start of the segment.
+     * @param q a node collinear to the segment.
+     * @param r end of the segment.
+     * @return <code>true</code> if the node lies on the segment.
+     */
+    private static boolean onSegment(Node p, Node q, Node r) {
+        return q.x <= Math.max(p.x, r.x) && q.x >= Math.min(p.x, r.x) && q.y <= Math.max(p.y, r.y) && q.y >= Math.min(p.y, r.y);
+    }
+
+    /**
+     * @param value a number.
+     * @return its sign.
+     */
+    private static int sign(double value) {
+        return value > 0 ? 1 : value < 0 ? -1 : 0;
+    }
+
+    /**
+     * @param a a node.
+     * @param b another node.
+     * @return <code>true</code> if the diagonal between the nodes intersects an edge of the ring.
+     */
+    private static boolean intersectsPolygon(Node a, Node b) {
+        Node p = a;
+        do {
+            if (p.index != a.index && p.next.index != a.index && p.index != b.index && p.next.index != b.index && intersects(p, p.next, a, b)) {
+                return true;
+            }
+            p = p.next;
+        } while (p != a);
+        return false;
+    }
+
+    /**
+     * @param a a node.
+     * @param b another node.
+     * @return <code>true</code> if the diagonal from a to b is inside the ring near a.
+     */
+    private static boolean locallyInside(Node a, Node b) {
+        return area(a.prev, a, a.next) < 0
+                ? area(a, b, a.next) >= 0 && area(a, a.prev, b) >= 0
+                : area(a, b, a.prev) < 0 || area(a, a.next, b) < 0;
+    }
+
+    /**
+     * @param a a node.
+     * @param b another node.
+     * @return <code>true</code> if the middle of the diagonal between the nodes is inside the ring.
+     */
+    private static boolean middleInside(Node a, Node b) {
+        Node p = a;
+        boolean inside = false;
+        double px = (a.x + b.x) / 2;
+        double py = (a.y + b.y) / 2;
+        do {
+            if ((p.y > py) != (p.next.y > py) && p.next.y != p.y && px < (p.next.x - p.x) * (py - p.y) / (p.next.y - p.y) + p.x) {
+                inside = !inside;
+            }
+            p = p.next;
+        } while (p != a);
+        return inside;
+    }
+
+    /**
+     * Links two nodes by a diagonal, splitting the ring in two, or merging two rings in one.
+     *
+     * @param a a node.
+     * @param b another node.
+     * @return the copy of b in the other ring.
+     */
+    private Node splitPolygon(Node a, Node b) {
+        Node a2 = new Node(a.index, a.x, a.y);
+        Node b2 = new Node(b.index, b.x, b.y);
+        Node an = a.next;
+        Node bp = b.prev;
+        a.next = b;
+        b.prev = a;
+        a2.next = an;
+        an.prev = a2;
+        b2.next = a2;
+        a2.prev = b2;
+        bp.next = b2;
+        b2.prev = bp;
+        return b2;
+    }
+
+    /**
+     * Creates a node after another one.
+     *
+     * @param index index of the point.
+     * @param last  the node after which to insert, <code>null</code> for a new ring.
+     * @return the node.
+     */
+    private Node insertNode(int index, Node last) {
+        Node p = new Node(index, coords[2 * index], coords[2 * index + 1]);
+        if (last == null) {
+            p.prev = p;
+            p.next = p;
+        } else {
+            p.next = last.next;
+            p.prev = last;
+            last.next.prev = p;
+            last.next = p;
+        }
+        return p;
+    }
+
+    /**
+     * Removes a node from its ring and from the z-order list.
+     *
+     * @param p the node.
+     */
+    private static void removeNode(Node p) {
+        p.next.prev = p.prev;
+        p.prev.next = p.next;
+        if (p.prevZ != null) {
+            p.prevZ.nextZ = p.nextZ;
+        }
+        if (p.nextZ != null) {
+            p.nextZ.prevZ = p.prevZ;
+        }
+    }
+
+    /**
+     * Adds a triangle.
+     *
+     * @param a first node.
+     * @param b second node.
+     * @param c third node.
+     */
+    private void addTriangle(Node a, Node b, Node c) {
+        if (size + 3 > triangles.length) {
+            triangles = Arrays.copyOf(triangles, 2 * triangles.length);
+        }
+        triangles[size++] = a.index;
+        triangles[size++] = b.index;
+        triangles[size++] = c.index;
+    }
+
+    /**
+     * @param start index of the first point.
+     * @param end   index following the last point.
+     * @return the signed area of the ring, twice.
+     */
+    private double signedArea(int start, int end) {
+        double sum = 0;
+        int j = end - 1;
+        for (int i = start; i < end; i++) {
+            sum += (coords[2 * j] - coords[2 * i]) * (coords[2 * i + 1] + coords[2 * j + 1]);
+            j = i;
+        }
+        return sum;
+    }
+
+    /**
+     * Point of a ring in a circular doubly linked list.
+     */
+    private static class Node {
+        /** Index of the point. */
+        private final int index;
+        /** X coordinate. */
+        private final double x;
+        /** Y coordinate. */
+        private final double y;
+        /** Previous node of the ring. */
+        private Node prev;
+        /** Next node of the ring. */
+        private Node next;
+        /** Z-order of the point. */
+        private int z;
+        /** Previous node by z-order. */
+        private Node prevZ;
+        /** Next node by z-order. */
+        private Node nextZ;
+        /** Flag saying that the node is a single point hole. */
+        private boolean steiner;
+
+        /**
+         * Constructor.
+         *
+         * @param index index of the point.
+         * @param x     x coordinate.
+         * @param y     y coordinate.
+         */
+        Node(int index, double x, double y) {
+            this.index = index;
+            this.x = x;
+            this.y = y;
+        }
+    }
+}
@@ -16,7 +16,7 @@ public class Country {
     /** Long label of the country. */
     private String longLabel;
     /** Type of the country. */
-    private String type;
+    private CountryType type;
     /** Religion at start of the country. */
     private String religion;
     /** Cultural group of this country. */
@@ -67,7 +67,7 @@ public class Country {
      *
      * @param type of the country.
      */
-    public Country(String type) {
+    public Country(CountryType type) {
         this.type = type;
     }
 
@@ -102,7 +102,7 @@ public class Country {
     }
 
     /** @return the type. */
-    public String getType() {
+    public CountryType getType() {
         return type;
     }
 
@@ -541,4 +541,17 @@ public class Country {
             return type;
         }
     }
+
+    /**
+     * Type of a country.
+     */
+    public enum CountryType {
+        MAJOR,
+        MINOR,
+        MINORMAJOR,
+        REVOLT,
+        VIRTUAL,
+        HAB,
+        ROTW
+    }
 }
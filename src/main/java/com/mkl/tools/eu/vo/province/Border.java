@@ -1,6 +1,5 @@
 package com.mkl.tools.eu.vo.province;
 
-import com.thoughtworks.xstream.annotations.XStreamAlias;
 import org.apache.commons.lang3.StringUtils;
 
 /**
@@ -8,17 +7,13 @@ import org.apache.commons.lang3.StringUtils;
  *
  * @author MKL
  */
-@XStreamAlias("border")
 public class Border {
     /** First province (alphabetical order) of the border. */
-    @XStreamAlias("first")
     private String first;
     /** Second province (alphabetical order) of the border. */
-    @XStreamAlias("second")
     private String second;
     /** Type of border. */
-    @XStreamAlias("type")
-    private String type;
+    private BorderType type;
 
     /**
      * Constructor.
@@ -27,7 +22,7 @@ public class Border {
      * @param province2 second province.
      * @param type      type.
      */
-    public Border(Province province1, Province province2, String type) {
+    public Border(Province province1, Province province2, BorderType type) {
         if (province1 == null || province2 == null || province1 == province2) {
             throw new IllegalStateException();
         }
@@ -54,12 +49,12 @@ public class Border {
     }
 
     /** @return the type. */
-    public String getType() {
+    public BorderType getType() {
         return type;
     }
 
     /** @param type the type to set. */
-    public void setType(String type) {
+    public void setType(BorderType type) {
         this.type = type;
     }
 
@@ -88,4 +83,18 @@ public class Border {
 
         return equals;
     }
-}
\ No newline at end of file
+
+    /**
+     * Type of a special border.
+     * <p>
+     * The rivers, mountain passes and straits are declared in order of priority: when a path is in several lists of
+     * special borders, the last type wins.
+     * </p>
+     */
+    public enum BorderType {
+        STRAIT,
+        PASS,
+        RIVER,
+        BERING_STRAIT
+    }
+}
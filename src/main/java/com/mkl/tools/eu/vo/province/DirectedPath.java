@@ -31,4 +31,29 @@ public class DirectedPath {
     public boolean isInverse() {
         return inverse;
     }
-}
\ No newline at end of file
+
+    /** @return the number of points of the path. */
+    public int getNbCoords() {
+        return path.getNbCoords();
+    }
+
+    /**
+     * Returns the x coordinate of a point in the direction of this path, without copying the path.
+     *
+     * @param index index of the point in the direction of this path.
+     * @return the x coordinate of the point.
+     */
+    public double getX(int index) {
+        return path.getX(inverse ? path.getNbCoords() - 1 - index : index);
+    }
+
+    /**
+     * Returns the y coordinate of a point in the direction of this path, without copying the path.
+     *
+     * @param index index of the point in the direction of this path.
+     * @return the y coordinate of the point.
+     */
+    public double getY(int index) {
+        return path.getY(inverse ? path.getNbCoords() - 1 - index : index);
+    }
+}
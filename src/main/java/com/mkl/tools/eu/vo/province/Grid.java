@@ -0,0 +1,92 @@
+package com.mkl.tools.eu.vo.province;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Content of a grid file (europe or rotw) before it is merged in the provinces.
+ *
+ * @author MKL
+ */
+public class Grid {
+    /** Flag saying that this grid is the ROTW map. */
+    private boolean rotw;
+    /** Paths of the grid by name. */
+    private Map<String, Path> paths = new HashMap<>();
+    /** Rivers, mountain passes and straits of the grid, in the order of the file. */
+    private Map<Border.BorderType, List<Path>> specialBorders = new LinkedHashMap<>();
+    /** Portions of provinces, in the order of the file. */
+    private List<Placement> placements = new ArrayList<>();
+
+    /**
+     * Constructor.
+     *
+     * @param rotw flag saying that the grid is the rotw map.
+     */
+    public Grid(boolean rotw) {
+        this.rotw = rotw;
+    }
+
+    /** @return the rotw. */
+    public boolean isRotw() {
+        return rotw;
+    }
+
+    /** @return the paths. */
+    public Map<String, Path> getPaths() {
+        return paths;
+    }
+
+    /** @return the specialBorders. */
+    public Map<Border.BorderType, List<Path>> getSpecialBorders() {
+        return specialBorders;
+    }
+
+    /** @return the placements. */
+    public List<Placement> getPlacements() {
+        return placements;
+    }
+
+    /**
+     * Portion of a province found in the grid.
+     */
+    public static class Placement {
+        /** Real name of the province. */
+        private String provinceName;
+        /** The portion. */
+        private SubProvince portion;
+        /** Flag saying that the portion is in a zoom (for Europe map). */
+        private boolean zoom;
+
+        /**
+         * Constructor.
+         *
+         * @param provinceName real name of the province.
+         * @param portion      the portion.
+         * @param zoom         flag saying that the portion is in a zoom.
+         */
+        public Placement(String provinceName, SubProvince portion, boolean zoom) {
+            this.provinceName = provinceName;
+            this.portion = portion;
+            this.zoom = zoom;
+        }
+
+        /** @return the provinceName. */
+        public String getProvinceName() {
+            return provinceName;
+        }
+
+        /** @return the portion. */
+        public SubProvince getPortion() {
+            return portion;
+        }
+
+        /** @return the zoom. */
+        public boolean isZoom() {
+            return zoom;
+        }
+    }
+}
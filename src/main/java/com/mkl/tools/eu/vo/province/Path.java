@@ -2,11 +2,8 @@ package com.mkl.tools.eu.vo.province;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
-import org.apache.commons.lang3.tuple.Pair;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
+import java.util.Arrays;
 
 /**
  * Inner class describing a path (can be border, mer or path).
@@ -14,14 +11,22 @@ import java.util.List;
  * @author MKL
  */
 public class Path {
+    /** Initial value of a FNV-1a hash. */
+    public static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    /** Prime of a FNV-1a hash. */
+    private static final long FNV_PRIME = 0x100000001b3L;
     /** Name of the path. */
     private String name;
     /** Flag saying that the path begins by itself (and does not continue the previous one). */
     private boolean begin;
     /** Flag saying that this SubProvince is located in the ROTW map. */
     private boolean rotw;
-    /** Coordinates of the path. */
-    private List<Pair<Double, Double>> coords = new ArrayList<>();
+    /** Coordinates of the path, interleaved (x0, y0, x1, y1, ...). */
+    private double[] coords = new double[8];
+    /** Number of points of the path. */
+    private int nbCoords;
+    /** Hash of the content of the path, computed on first use. <code>0</code> if not computed yet. */
+    private volatile long contentHash;
 
     /**
      * Constructor.
@@ -51,21 +56,81 @@ public class Path {
         return rotw;
     }
 
-    /** @return the coords. */
-    public List<Pair<Double, Double>> getCoords() {
-        return coords;
+    /** @return the number of points of the path. */
+    public int getNbCoords() {
+        return nbCoords;
     }
 
     /**
-     * Returns the inverted coords of the path.
+     * @param index index of the point.
+     * @return the x coordinate of the point.
+     */
+    public double getX(int index) {
+        return coords[2 * index];
+    }
+
+    /**
+     * @param index index of the point.
+     * @return the y coordinate of the point.
+     */
+    public double getY(int index) {
+        return coords[2 * index + 1];
+    }
+
+    /**
+     * Adds a point at the end of the path.
+     *
+     * @param x coordinate.
+     * @param y coordinate.
+     */
+    public void addCoords(double x, double y) {
+        if (2 * nbCoords == coords.length) {
+            coords = Arrays.copyOf(coords, 2 * coords.length);
+        }
+        coords[2 * nbCoords] = x;
+        coords[2 * nbCoords + 1] = y;
+        nbCoords++;
+    }
+
+    /**
+     * Returns a hash of the content of the path (name, flags and coordinates) used to detect the paths that changed
+     * since a previous run. It is computed once, so the coordinates must not change afterwards.
      *
-     * @return the inverted coords of the path.
+     * @return a hash of the content of the path.
      */
-    public List<Pair<Double, Double>> getInvertedCoords() {
-        List<Pair<Double, Double>> invertedCoords = new ArrayList<>(coords);
-        Collections.reverse(invertedCoords);
+    public long getContentHash() {
+        long hash = contentHash;
+        if (hash == 0) {
+            hash = hash(FNV_OFFSET, name.hashCode());
+            hash = hash(hash, begin ? 1 : 0);
+            hash = hash(hash, rotw ? 1 : 0);
+            for (int i = 0; i < 2 * nbCoords; i++) {
+                hash = hash(hash, Double.doubleToLongBits(coords[i]));
+            }
+            if (hash == 0) {
+                hash = 1;
+            }
+            contentHash = hash;
+        }
+
+        return hash;
+    }
+
+    /**
+     * Adds a value to a FNV-1a hash.
+     *
+     * @param hash  current hash.
+     * @param value to add.
+     * @return the new hash.
+     */
+    public static long hash(long hash, long value) {
+        long result = hash;
+        for (int i = 0; i < 8; i++) {
+            result ^= (value >>> (8 * i)) & 0xFF;
+            result *= FNV_PRIME;
+        }
 
-        return invertedCoords;
+        return result;
     }
 
     /** {@inheritDoc} */
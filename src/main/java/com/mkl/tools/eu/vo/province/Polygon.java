@@ -0,0 +1,221 @@
+package com.mkl.tools.eu.vo.province;
+
+import java.util.Arrays;
+
+/**
+ * Restructurated coordinates of a portion of province: one or more rings (an outer border and its enclaves)
+ * stored in a single interleaved array (x0, y0, x1, y1, ...).
+ * <p>
+ * The polygon also remembers which paths of the portion its points come from, so that the topology can be written
+ * with each path once.
+ * </p>
+ *
+ * @author MKL
+ */
+public class Polygon {
+    /** Coordinates of all the rings, interleaved. */
+    private double[] coords;
+    /** Number of points. */
+    private int nbCoords;
+    /** Index of the first point of each ring. The ring r goes from ringStarts[r] to ringStarts[r + 1] (or nbCoords for the last one). */
+    private int[] ringStarts;
+    /** Number of rings. */
+    private int nbRings;
+    /** Index in the paths of the portion of each path added. */
+    private int[] pathIndexes;
+    /** Index of the first point of each path added. */
+    private int[] pathStarts;
+    /** Number of paths added. */
+    private int nbPaths;
+    /** Flag saying that the polygon is in the rotw map. */
+    private boolean rotw;
+
+    /**
+     * Constructor of an empty polygon (with no ring).
+     *
+     * @param rotw flag saying that the polygon is in the rotw map.
+     */
+    public Polygon(boolean rotw) {
+        this(rotw, 16);
+    }
+
+    /**
+     * Constructor of an empty polygon (with no ring).
+     *
+     * @param rotw     flag saying that the polygon is in the rotw map.
+     * @param capacity number of points to allocate.
+     */
+    public Polygon(boolean rotw, int capacity) {
+        this.rotw = rotw;
+        this.coords = new double[2 * Math.max(capacity, 1)];
+        this.ringStarts = new int[2];
+        this.pathIndexes = new int[4];
+        this.pathStarts = new int[4];
+    }
+
+    /** @return the rotw. */
+    public boolean isRotw() {
+        return rotw;
+    }
+
+    /** @return the number of rings. */
+    public int getNbRings() {
+        return nbRings;
+    }
+
+    /** @return the number of points of all the rings. */
+    public int getNbCoords() {
+        return nbCoords;
+    }
+
+    /**
+     * @param ring index of the ring.
+     * @return the index of the first point of the ring.
+     */
+    public int getRingStart(int ring) {
+        return ringStarts[ring];
+    }
+
+    /**
+     * @param ring index of the ring.
+     * @return the index following the last point of the ring.
+     */
+    public int getRingEnd(int ring) {
+        return ring + 1 < nbRings ? ringStarts[ring + 1] : nbCoords;
+    }
+
+    /**
+     * @param ring index of the ring.
+     * @return the number of points of the ring.
+     */
+    public int getRingSize(int ring) {
+        return getRingEnd(ring) - getRingStart(ring);
+    }
+
+    /** @return the number of paths added. */
+    public int getNbPaths() {
+        return nbPaths;
+    }
+
+    /**
+     * @param path index of the path in this polygon.
+     * @return the index of the path in the paths of the portion.
+     */
+    public int getPathIndex(int path) {
+        return pathIndexes[path];
+    }
+
+    /**
+     * @param path index of the path in this polygon.
+     * @return the index of the first point of the path.
+     */
+    public int getPathStart(int path) {
+        return pathStarts[path];
+    }
+
+    /**
+     * @param path index of the path in this polygon.
+     * @return the index following the last point of the path.
+     */
+    public int getPathEnd(int path) {
+        return path + 1 < nbPaths ? pathStarts[path + 1] : nbCoords;
+    }
+
+    /**
+     * @param index index of the point.
+     * @return the x coordinate of the point.
+     */
+    public double getX(int index) {
+        return coords[2 * index];
+    }
+
+    /**
+     * @param index index of the point.
+     * @return the y coordinate of the point.
+     */
+    public double getY(int index) {
+        return coords[2 * index + 1];
+    }
+
+    /**
+     * Starts a new ring, the next points will be added to it.
+     */
+    public void addRing() {
+        if (nbRings == ringStarts.length) {
+            ringStarts = Arrays.copyOf(ringStarts, Math.max(2 * nbRings, 2));
+        }
+        ringStarts[nbRings++] = nbCoords;
+    }
+
+    /**
+     * Adds a point to the last ring.
+     *
+     * @param x coordinate.
+     * @param y coordinate.
+     */
+    public void addCoords(double x, double y) {
+        ensureCapacity(nbCoords + 1);
+        coords[2 * nbCoords] = x;
+        coords[2 * nbCoords + 1] = y;
+        nbCoords++;
+    }
+
+    /**
+     * Adds the points of a path to the last ring, in the direction of the path.
+     *
+     * @param path  the path.
+     * @param index index of the path in the paths of the portion.
+     */
+    public void addPath(DirectedPath path, int index) {
+        markPath(index, nbCoords);
+        int size = path.getNbCoords();
+        ensureCapacity(nbCoords + size);
+        for (int i = 0; i < size; i++) {
+            coords[2 * nbCoords] = path.getX(i);
+            coords[2 * nbCoords + 1] = path.getY(i);
+            nbCoords++;
+        }
+    }
+
+    /**
+     * Records that the points from a given index come from a path of the portion, until the next path.
+     *
+     * @param index index of the path in the paths of the portion.
+     * @param start index of the first point of the path.
+     */
+    public void markPath(int index, int start) {
+        if (nbPaths == pathStarts.length) {
+            pathIndexes = Arrays.copyOf(pathIndexes, Math.max(2 * nbPaths, 4));
+            pathStarts = Arrays.copyOf(pathStarts, Math.max(2 * nbPaths, 4));
+        }
+        pathIndexes[nbPaths] = index;
+        pathStarts[nbPaths++] = start;
+    }
+
+    /**
+     * Releases the unused capacity once the polygon is complete.
+     */
+    public void trim() {
+        if (coords.length > 2 * nbCoords) {
+            coords = Arrays.copyOf(coords, 2 * nbCoords);
+        }
+        if (ringStarts.length > nbRings) {
+            ringStarts = Arrays.copyOf(ringStarts, nbRings);
+        }
+        if (pathStarts.length > nbPaths) {
+            pathIndexes = Arrays.copyOf(pathIndexes, nbPaths);
+            pathStarts = Arrays.copyOf(pathStarts, nbPaths);
+        }
+    }
+
+    /**
+     * Makes sure that the polygon can hold the given number of points.
+     *
+     * @param capacity number of points.
+     */
+    private void ensureCapacity(int capacity) {
+        if (2 * capacity > coords.length) {
+            coords = Arrays.copyOf(coords, Math.max(2 * capacity, 2 * coords.length));
+        }
+    }
+}
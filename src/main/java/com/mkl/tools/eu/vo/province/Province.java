@@ -1,7 +1,6 @@
 package com.mkl.tools.eu.vo.province;
 
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.tuple.Pair;
 
 import java.io.Writer;
 import java.util.ArrayList;
@@ -16,7 +15,9 @@ public class Province {
     /** The name of the province. */
     private String name;
     /** Terrain derived from the portions. */
-    private String terrain;
+    private Terrain terrain;
+    /** Name of the terrain derived from the portions in the input files when it is not a known terrain. */
+    private String unknownTerrain;
     /** Additional info for european province. */
     private ProvinceInfo info;
     /** Additional info for rotw province. */
@@ -28,19 +29,15 @@ public class Province {
     /** Portions of the province. */
     private List<SubProvince> portions = new ArrayList<>();
     /** Restructuring of the coordinates for the geo.json export. */
-    private List<Pair<List<List<Pair<Double, Double>>>, Boolean>> coords;
-    /** Log writer. */
-    private Writer log;
+    private List<Polygon> coords;
 
     /**
      * Constructor.
      *
      * @param name of the province.
-     * @param log  log writer.
      */
-    public Province(String name, Writer log) {
+    public Province(String name) {
         this.name = name;
-        this.log = log;
         if (name.contains("~")) {
             setRotwInfo(new RotwInfo());
             getRotwInfo().setRegion(name.substring(1, name.indexOf('~')));
@@ -52,11 +49,16 @@ public class Province {
         return name;
     }
 
-    /** @return the terrain. */
-    public String getTerrain() {
+    /** @return the terrain, <code>null</code> if there is none or if it is unknown. */
+    public Terrain getTerrain() {
         return terrain;
     }
 
+    /** @return the name of the terrain, as in the input files if it is unknown. */
+    public String getTerrainName() {
+        return terrain != null ? terrain.name() : unknownTerrain;
+    }
+
     /** @return the info. */
     public ProvinceInfo getInfo() {
         return info;
@@ -103,61 +105,71 @@ public class Province {
     }
 
     /** @return the coords. */
-    public List<Pair<List<List<Pair<Double, Double>>>, Boolean>> getCoords() {
+    public List<Polygon> getCoords() {
         return coords;
     }
 
+    /**
+     * Adds a portion to the province. A main portion is put before the secondary or light ones.
+     *
+     * @param portion     to add.
+     * @param zoomParsing flag saying that the portion is in a zoom (for Europe map).
+     */
+    public void addPortion(SubProvince portion, boolean zoomParsing) {
+        if ((zoomParsing && !portion.isLight() && !portion.isSecondary())
+                || (!portions.isEmpty() && portions.get(0).isSecondary() && !portion.isSecondary())
+                || (!portions.isEmpty() && portions.get(0).isLight() && !portion.isLight())) {
+            portions.add(0, portion);
+        } else {
+            portions.add(portion);
+        }
+    }
+
     /**
      * Generates the restructurated coords of the province.
      *
+     * @param log log writer.
      * @throws Exception exception.
      */
-    public void restructure() throws Exception {
+    public void restructure(Writer log) throws Exception {
         coords = new ArrayList<>();
+        // The terrains of the portions are the ones of the input files.
+        String portionsTerrain = getTerrainName();
         for (SubProvince portion : portions) {
             coords.add(portion.getStructuratedCoords(this, log));
-            if (terrain == null && !StringUtils.equals("lac", portion.getTerrain()) && portion.getTerrain() != null && !portion.getTerrain().startsWith("europe")) {
-                terrain = portion.getTerrain();
-            } else if (!StringUtils.equals(terrain, portion.getTerrain()) && !StringUtils.equals("lac", portion.getTerrain())
+            if (portionsTerrain == null && !StringUtils.equals("lac", portion.getTerrain()) && portion.getTerrain() != null && !portion.getTerrain().startsWith("europe")) {
+                portionsTerrain = portion.getTerrain();
+            } else if (!StringUtils.equals(portionsTerrain, portion.getTerrain()) && !StringUtils.equals("lac", portion.getTerrain())
                     && portion.getTerrain() != null && !portion.getTerrain().startsWith("europe")) {
-                log.append(getName()).append("\t").append("Terrain not consistent").append("\t").append(terrain).append("\t").append(portion.getTerrain()).append("\n");
+                log.append(getName()).append("\t").append("Terrain not consistent").append("\t").append(portionsTerrain).append("\t").append(portion.getTerrain()).append("\n");
             }
         }
 
-        convertTerrain();
+        setTerrain(portionsTerrain);
+        if (unknownTerrain != null) {
+            log.append(getName()).append("\t").append("Unknown terrain").append("\t").append(unknownTerrain).append("\n");
+        }
     }
 
     /**
-     * Convert the terrain to the value of TerrainEnum.
+     * Restores the restructurated coords and the terrain computed by a previous run on the same portions.
+     *
+     * @param coords      restructurated coords.
+     * @param terrainName name of the terrain derived from the portions.
      */
-    private void convertTerrain() {
-        if (terrain != null) {
-            switch (terrain) {
-                case "desert":
-                    terrain = "DESERT";
-                    break;
-                case "foret":
-                    terrain = "DENSE_FOREST";
-                    break;
-                case "foreto":
-                    terrain = "SPARSE_FOREST";
-                    break;
-                case "marais":
-                    terrain = "SWAMP";
-                    break;
-                case "mer":
-                    terrain = "SEA";
-                    break;
-                case "monts":
-                    terrain = "MOUNTAIN";
-                    break;
-                case "plaine":
-                    terrain = "PLAIN";
-                    break;
-                default:
-                    break;
-            }
-        }
+    public void restore(List<Polygon> coords, String terrainName) {
+        this.coords = coords;
+        setTerrain(terrainName);
+    }
+
+    /**
+     * Sets the terrain, keeping its name if it is unknown.
+     *
+     * @param terrainName name of the terrain in the input files, or name of the constant.
+     */
+    private void setTerrain(String terrainName) {
+        terrain = Terrain.fromName(terrainName);
+        unknownTerrain = terrain == null ? terrainName : null;
     }
 
     /** {@inheritDoc} */
@@ -180,4 +192,42 @@ public class Province {
     public int hashCode() {
         return name.hashCode();
     }
-}
\ No newline at end of file
+
+    /**
+     * Terrain of a province, with its name in the input files.
+     */
+    public enum Terrain {
+        DESERT("desert"),
+        DENSE_FOREST("foret"),
+        SPARSE_FOREST("foreto"),
+        SWAMP("marais"),
+        SEA("mer"),
+        MOUNTAIN("monts"),
+        PLAIN("plaine");
+
+        /** Name of the terrain in the input files. */
+        private final String inputName;
+
+        /**
+         * Constructor.
+         *
+         * @param inputName name of the terrain in the input files.
+         */
+        Terrain(String inputName) {
+            this.inputName = inputName;
+        }
+
+        /**
+         * @param name name of a terrain in the input files, or name of the constant.
+         * @return the terrain, <code>null</code> if the name is unknown.
+         */
+        public static Terrain fromName(String name) {
+            for (Terrain terrain : values()) {
+                if (terrain.inputName.equals(name) || terrain.name().equals(name)) {
+                    return terrain;
+                }
+            }
+            return null;
+        }
+    }
+}
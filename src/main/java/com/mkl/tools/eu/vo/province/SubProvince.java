@@ -1,8 +1,6 @@
 package com.mkl.tools.eu.vo.province;
 
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.tuple.ImmutablePair;
-import org.apache.commons.lang3.tuple.Pair;
 
 import java.io.Writer;
 import java.util.ArrayList;
@@ -50,6 +48,21 @@ public class SubProvince {
         this.rotw = rotw;
     }
 
+    /**
+     * Constructor of an already parsed sub province (the terrain is not transformed).
+     *
+     * @param terrain   of the province.
+     * @param secondary flag saying that the subProvince is not the primal one.
+     * @param rotw      flag saying that the object is in the rotw map.
+     * @param light     flag saying that the subProvince is a light one.
+     */
+    public SubProvince(String terrain, boolean secondary, boolean rotw, boolean light) {
+        this.terrain = terrain;
+        this.secondary = secondary;
+        this.rotw = rotw;
+        this.light = light;
+    }
+
     /** @return the terrain. */
     public String getTerrain() {
         return terrain;
@@ -83,44 +96,42 @@ public class SubProvince {
      * @return the restructurated coords of the province.
      * @throws Exception exception.
      */
-    public Pair<List<List<Pair<Double, Double>>>, Boolean> getStructuratedCoords(Province province, Writer log) throws Exception {
-        List<List<Pair<Double, Double>>> coordsPortion = new ArrayList<>();
-        coordsPortion.add(new ArrayList<>());
-        boolean sawBeginPath = false;
+    public Polygon getStructuratedCoords(Province province, Writer log) throws Exception {
+        int capacity = 0;
         for (DirectedPath path : getPaths()) {
-            List<Pair<Double, Double>> pathValues;
-            if (path.isInverse()) {
-                pathValues = path.getPath().getInvertedCoords();
-            } else {
-                pathValues = path.getPath().getCoords();
-            }
-
+            capacity += path.getPath().getNbCoords();
+        }
+        Polygon coordsPortion = new Polygon(rotw, capacity);
+        coordsPortion.addRing();
+        boolean sawBeginPath = false;
+        for (int pathIndex = 0; pathIndex < getPaths().size(); pathIndex++) {
+            DirectedPath path = getPaths().get(pathIndex);
             // Should not happen but too many !pathValues.isEmpty() in code.
-            if (pathValues.isEmpty()) {
+            if (path.getNbCoords() == 0) {
                 continue;
             }
 
             if (path.getPath().isBegin()) {
                 // if path is a begin path, we must check if it is en enclave or a continuation from last coords.
-                Pair<Double, Double> lastCoords;
-                if (!lastElement(coordsPortion).isEmpty()) {
-                    lastCoords = lastElement(lastElement(coordsPortion));
+                double lastX;
+                double lastY;
+                if (!isLastRingEmpty(coordsPortion)) {
+                    lastX = coordsPortion.getX(coordsPortion.getNbCoords() - 1);
+                    lastY = coordsPortion.getY(coordsPortion.getNbCoords() - 1);
                 } else {
                     // if this is the first path, we take the last path to check.
-                    DirectedPath lastElement = lastElement(getPaths());
-                    if (lastElement.isInverse()) {
-                        lastCoords = lastElement(path.getPath().getInvertedCoords());
-                    } else {
-                        lastCoords = lastElement(path.getPath().getCoords());
-                    }
+                    DirectedPath lastElement = getPaths().get(getPaths().size() - 1);
+                    int index = lastElement.isInverse() ? 0 : path.getNbCoords() - 1;
+                    lastX = path.getPath().getX(index);
+                    lastY = path.getPath().getY(index);
                 }
 
-                double nextDistance = distance(lastCoords, firstElement(pathValues));
+                double nextDistance = distance(lastX, lastY, path.getX(0), path.getY(0));
                 if (nextDistance > 0 && sawBeginPath) {
                     // if it is not a continuation and this is not the first begin path that we saw, we check if it is an error in the file or an enclave.
                     double distance;
-                    if (!lastElement(coordsPortion).isEmpty()) {
-                        distance = distanceToClosePolygone(lastElement(coordsPortion));
+                    if (!isLastRingEmpty(coordsPortion)) {
+                        distance = distanceToClosePolygone(coordsPortion);
                     } else {
                         // if this is the first path of the SubProvince, we consider it is an error in the file.
                         distance = 2 * nextDistance;
@@ -129,22 +140,22 @@ public class SubProvince {
                     if (distance > 0) {
                         if (distance > nextDistance) {
                             log.append(province.getName()).append("\t").append("Border not consistent (ignored)").append("\t").append(path.getPath().getName())
-                                    .append("\t").append(firstElement(pathValues).toString()).append("\t").append(lastElement(lastElement(coordsPortion)).toString()).append("\t").append(firstElement(lastElement(coordsPortion)).toString()).append("\n");
+                                    .append("\t").append(toString(path.getX(0), path.getY(0))).append("\t").append(lastCoordsToString(coordsPortion)).append("\t").append(firstCoordsToString(coordsPortion)).append("\n");
                         } else {
                             log.append(province.getName()).append("\t").append("Border not consistent (enclave)").append("\t").append(path.getPath().getName())
-                                    .append("\t").append(firstElement(pathValues).toString()).append("\t").append(lastElement(lastElement(coordsPortion)).toString()).append("\t").append(firstElement(lastElement(coordsPortion)).toString())
+                                    .append("\t").append(toString(path.getX(0), path.getY(0))).append("\t").append(lastCoordsToString(coordsPortion)).append("\t").append(firstCoordsToString(coordsPortion))
                                     .append("\t").append(Double.toString(distance)).append("\t").append(Double.toString(nextDistance)).append("\n");
-                            coordsPortion.add(new ArrayList<>());
+                            coordsPortion.addRing();
                             sawBeginPath = false;
                         }
                     } else {
-                        coordsPortion.add(new ArrayList<>());
+                        coordsPortion.addRing();
                         sawBeginPath = false;
                     }
                 } else if (nextDistance > 0) {
                     // if it is not a continuation and this is the first begin path that we saw, we flag it and keep the process.
                     if (path.getPath().getName().startsWith("carre")) {
-                        coordsPortion.add(new ArrayList<>());
+                        coordsPortion.addRing();
                         sawBeginPath = false;
                     } else {
                         sawBeginPath = true;
@@ -152,76 +163,83 @@ public class SubProvince {
                 }
             }
 
-            lastElement(coordsPortion).addAll(pathValues);
+            coordsPortion.addPath(path, pathIndex);
         }
 
-        double distance = distanceToClosePolygone(lastElement(coordsPortion));
+        double distance = distanceToClosePolygone(coordsPortion);
 
 
         if (distance > 0) {
-            log.append(province.getName()).append("\t").append("Border not closed").append("\t").append(firstElement(getPaths()).getPath().getName())
-                    .append("\t").append(lastElement(lastElement(coordsPortion)).toString()).append("\t").append(firstElement(lastElement(coordsPortion)).toString()).append("\n");
+            log.append(province.getName()).append("\t").append("Border not closed").append("\t").append(getPaths().get(0).getPath().getName())
+                    .append("\t").append(lastCoordsToString(coordsPortion)).append("\t").append(firstCoordsToString(coordsPortion)).append("\n");
         }
 
-        return new ImmutablePair<>(coordsPortion, rotw);
+        coordsPortion.trim();
+        return coordsPortion;
     }
 
     /**
-     * Returns the first element of the list.
-     *
-     * @param list the list.
-     * @param <E>  generic of the list.
-     * @return the first element of the list.
+     * @param polygon the polygon.
+     * @return <code>true</code> if the last ring of the polygon has no point.
      */
-    private static <E> E firstElement(List<E> list) {
-        E elem = null;
-
-        if (list != null && !list.isEmpty()) {
-            elem = list.get(0);
-        }
-
-        return elem;
+    private static boolean isLastRingEmpty(Polygon polygon) {
+        return polygon.getRingSize(polygon.getNbRings() - 1) == 0;
     }
 
     /**
-     * Returns the last element of the list.
-     *
-     * @param list the list.
-     * @param <E>  generic of the list.
-     * @return the last element of the list.
+     * @param polygon the polygon.
+     * @return the last point of the last ring, formatted as (x,y).
      */
-    private static <E> E lastElement(List<E> list) {
-        E elem = null;
+    private static String lastCoordsToString(Polygon polygon) {
+        int index = polygon.getNbCoords() - 1;
+        return toString(polygon.getX(index), polygon.getY(index));
+    }
 
-        if (list != null && !list.isEmpty()) {
-            elem = list.get(list.size() - 1);
-        }
+    /**
+     * @param polygon the polygon.
+     * @return the first point of the last ring, formatted as (x,y).
+     */
+    private static String firstCoordsToString(Polygon polygon) {
+        int index = polygon.getRingStart(polygon.getNbRings() - 1);
+        return toString(polygon.getX(index), polygon.getY(index));
+    }
 
-        return elem;
+    /**
+     * @param x coordinate.
+     * @param y coordinate.
+     * @return the point, formatted as (x,y).
+     */
+    private static String toString(double x, double y) {
+        return "(" + x + "," + y + ")";
     }
 
     /**
-     * Return the distance that is needed in order to close the polygone. Returns 0 if the polygone is closed.
+     * Return the distance that is needed in order to close the last ring of the polygone. Returns 0 if the ring is closed.
      *
      * @param polygone to check.
-     * @return the distance that is needed in order to close the polygone. Returns 0 if the polygone is closed.
+     * @return the distance that is needed in order to close the last ring of the polygone. Returns 0 if the ring is closed.
      */
-    private static double distanceToClosePolygone(List<Pair<Double, Double>> polygone) {
-        return distance(firstElement(polygone), lastElement(polygone));
+    private static double distanceToClosePolygone(Polygon polygone) {
+        int ring = polygone.getNbRings() - 1;
+        if (polygone.getRingSize(ring) == 0) {
+            return 0;
+        }
+        int first = polygone.getRingStart(ring);
+        int last = polygone.getNbCoords() - 1;
+
+        return distance(polygone.getX(first), polygone.getY(first), polygone.getX(last), polygone.getY(last));
     }
 
     /**
      * Returns the distance between the two points.
      *
-     * @param first  one point.
-     * @param second another point.
+     * @param firstX  x coordinate of one point.
+     * @param firstY  y coordinate of one point.
+     * @param secondX x coordinate of another point.
+     * @param secondY y coordinate of another point.
      * @return the distance between the two points.
      */
-    private static double distance(Pair<Double, Double> first, Pair<Double, Double> second) {
-        if (first == null || second == null) {
-            return 0;
-        }
-
-        return Math.sqrt((first.getLeft() - second.getLeft()) * (first.getLeft() - second.getLeft()) + (first.getRight() - second.getRight()) * (first.getRight() - second.getRight()));
+    private static double distance(double firstX, double firstY, double secondX, double secondY) {
+        return Math.sqrt((firstX - secondX) * (firstX - secondX) + (firstY - secondY) * (firstY - secondY));
     }
-}
\ No newline at end of file
+}
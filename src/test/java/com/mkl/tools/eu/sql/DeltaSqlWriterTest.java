@@ -0,0 +1,385 @@
+package com.mkl.tools.eu.sql;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Test of DeltaSqlWriter: the delta script applied to the database of the previous run must give the rows of this run.
+ *
+ * @author MKL
+ */
+public class DeltaSqlWriterTest {
+    /** Columns of a region. */
+    private static final String[] REGION_COLUMNS = {"NAME", "TAX"};
+    /** Columns of a province. */
+    private static final String[] PROVINCE_COLUMNS = {"NAME", "TERRAIN", "ID_REGION"};
+    /** Columns of a province with an income. */
+    private static final String[] PROVINCE_INCOME_COLUMNS = {"NAME", "TERRAIN", "INCOME", "ID_REGION"};
+    /** Columns of a border. */
+    private static final String[] BORDER_COLUMNS = {"ID_PROVINCE_FROM", "ID_PROVINCE_TO", "TYPE"};
+    /** Columns of a gold. */
+    private static final String[] GOLD_COLUMNS = {"PROVINCE", "VALUE"};
+    /** Key columns by table, R_GOLD having none. */
+    private static final Map<String, String[]> KEYS = new HashMap<>();
+    /** Statement deleting rows. */
+    private static final Pattern DELETE = Pattern.compile("DELETE FROM (\\w+)(?: WHERE (.*))?", Pattern.DOTALL);
+    /** Statement inserting a row. */
+    private static final Pattern INSERT = Pattern.compile("INSERT INTO (\\w+) \\((.*?)\\)\\s+VALUES \\((.*)\\)", Pattern.DOTALL);
+    /** Statement updating a row. */
+    private static final Pattern UPDATE = Pattern.compile("UPDATE (\\w+) SET (.*) WHERE (.*)", Pattern.DOTALL);
+    /** Sub query of a reference. */
+    private static final Pattern SUB_QUERY = Pattern.compile("\\(SELECT ID FROM (\\w+) WHERE NAME = (.*)\\)", Pattern.DOTALL);
+    /** Condition on a column. */
+    private static final Pattern CONDITION = Pattern.compile("(\\w+)(?: IS NULL| = (.*))", Pattern.DOTALL);
+
+    static {
+        KEYS.put("R_REGION", new String[]{"NAME"});
+        KEYS.put("R_PROVINCE", new String[]{"NAME"});
+        KEYS.put("R_BORDER", new String[]{"ID_PROVINCE_FROM", "ID_PROVINCE_TO"});
+    }
+
+    /** Directory of the scripts and of the state. */
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testDelta() throws Exception {
+        File stateFile = new File(folder.getRoot(), "test.rows");
+        Database database = new Database();
+
+        String firstScript = writeRun(folder.newFile("first.sql"), stateFile, false);
+        Assert.assertTrue(firstScript.contains("DELETE FROM R_REGION;"));
+        database.execute(firstScript);
+        Assert.assertEquals(expectedRows(false), database.getRows());
+
+        String delta = writeRun(folder.newFile("delta.sql"), stateFile, true);
+        database.execute(delta);
+        Assert.assertEquals(expectedRows(true), database.getRows());
+
+        // Unchanged rows are not written again.
+        Assert.assertFalse(delta.contains("R_REGION SET") || delta.contains("INTO R_REGION"));
+        Assert.assertFalse(delta.contains("NAME = 'eBrest';") || delta.contains("VALUES ('eBrest'"));
+        // Update of a changed column.
+        Assert.assertTrue(delta.contains("UPDATE R_PROVINCE SET TERRAIN = 'monts' WHERE NAME = 'eParis';"));
+        // Rename: the rows referring to the old name go with it.
+        Assert.assertTrue(delta.contains("DELETE FROM R_PROVINCE WHERE NAME = 'eLyon';"));
+        Assert.assertTrue(delta.indexOf("DELETE FROM R_BORDER") < delta.indexOf("DELETE FROM R_PROVINCE"));
+        // Changed columns: the unchanged border of the province is inserted again.
+        Assert.assertTrue(delta.contains("DELETE FROM R_PROVINCE WHERE NAME = 'eDijon';"));
+        Assert.assertTrue(delta.contains("DELETE FROM R_BORDER WHERE ID_PROVINCE_FROM = (SELECT ID FROM R_PROVINCE WHERE NAME = 'eBrest')"
+                + " AND ID_PROVINCE_TO = (SELECT ID FROM R_PROVINCE WHERE NAME = 'eDijon');"));
+        // Table without key: the duplicated row is deleted and inserted once.
+        Assert.assertTrue(delta.contains("DELETE FROM R_GOLD WHERE PROVINCE = 'eParis' AND VALUE = 5;"));
+
+        // Nothing changed since the last run.
+        String empty = writeRun(folder.newFile("empty.sql"), stateFile, true);
+        Assert.assertEquals("\n", empty);
+    }
+
+    /**
+     * Writes the rows of a run.
+     *
+     * @param scriptFile file of the script.
+     * @param stateFile  file of the rows of the previous run.
+     * @param second     <code>true</code> for the rows of the second run.
+     * @return the script written.
+     * @throws IOException exception.
+     */
+    private static String writeRun(File scriptFile, File stateFile, boolean second) throws IOException {
+        DeltaSqlWriter writer = new DeltaSqlWriter(scriptFile, stateFile, KEYS);
+        writer.write(new SqlRow("R_REGION", REGION_COLUMNS, "'Europe'", "1").named("Europe"));
+        writer.write(new SqlRow("R_REGION", REGION_COLUMNS, "'Asia'", "2").named("Asia"));
+
+        writer.write(province("eParis", second ? "monts" : "plaine"));
+        writer.write(province(second ? "eLugdunum" : "eLyon", "monts"));
+        writer.write(province("eBrest", "plaine"));
+        if (second) {
+            writer.write(new SqlRow("R_PROVINCE", PROVINCE_INCOME_COLUMNS, "'eDijon'", "'plaine'", "3", region()).named("eDijon"));
+        } else {
+            writer.write(province("eDijon", "plaine"));
+        }
+
+        String lyon = second ? "eLugdunum" : "eLyon";
+        writer.write(border("eParis", lyon, "'RIVER'"));
+        writer.write(border(lyon, "eBrest", "null"));
+        writer.write(border("eBrest", "eDijon", "null"));
+
+        writer.write(new SqlRow("R_GOLD", GOLD_COLUMNS, "'eParis'", "5"));
+        if (!second) {
+            writer.write(new SqlRow("R_GOLD", GOLD_COLUMNS, "'eParis'", "5"));
+        }
+        writer.write(new SqlRow("R_GOLD", GOLD_COLUMNS, "'" + lyon + "'", "3"));
+
+        writer.finish();
+        return FileUtils.readFileToString(scriptFile, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param name    name of the province.
+     * @param terrain terrain of the province.
+     * @return the row of the province.
+     */
+    private static SqlRow province(String name, String terrain) {
+        return new SqlRow("R_PROVINCE", PROVINCE_COLUMNS, "'" + name + "'", "'" + terrain + "'", region()).named(name);
+    }
+
+    /** @return the reference to the region of the provinces. */
+    private static SqlRow.Reference region() {
+        return new SqlRow.Reference("R_REGION", "Europe");
+    }
+
+    /**
+     * @param from first province.
+     * @param to   second province.
+     * @param type type of the border.
+     * @return the row of the border.
+     */
+    private static SqlRow border(String from, String to, String type) {
+        return new SqlRow("R_BORDER", BORDER_COLUMNS, new SqlRow.Reference("R_PROVINCE", from),
+                new SqlRow.Reference("R_PROVINCE", to), type);
+    }
+
+    /**
+     * @param second <code>true</code> for the rows of the second run.
+     * @return the rows of a run as given by {@link Database#getRows()}.
+     * @throws IOException exception.
+     */
+    private Map<String, List<String>> expectedRows(boolean second) throws IOException {
+        Database database = new Database();
+        database.execute(writeRun(folder.newFile(), new File(folder.getRoot(), "expected" + second + ".rows"), second));
+        return database.getRows();
+    }
+
+    /**
+     * Database in memory running the statements written by the writer and checking the foreign keys.
+     */
+    private static class Database {
+        /** Rows by table, a row being its values by column. */
+        private final Map<String, List<Map<String, String>>> tables = new TreeMap<>();
+        /** Referred table by column and table. */
+        private final Map<String, Map<String, String>> foreignKeys = new HashMap<>();
+        /** Next ID by table. */
+        private final Map<String, Integer> nextIds = new HashMap<>();
+
+        /**
+         * Runs a script.
+         *
+         * @param script the script.
+         */
+        void execute(String script) {
+            for (String statement : script.split(";\n")) {
+                statement = statement.trim();
+                if (statement.isEmpty()) {
+                    continue;
+                }
+                Matcher matcher;
+                if ((matcher = DELETE.matcher(statement)).matches()) {
+                    delete(matcher.group(1), matcher.group(2));
+                } else if ((matcher = INSERT.matcher(statement)).matches()) {
+                    insert(matcher.group(1), split(matcher.group(2), ","), split(matcher.group(3), ","));
+                } else if ((matcher = UPDATE.matcher(statement)).matches()) {
+                    update(matcher.group(1), split(matcher.group(2), ","), matcher.group(3));
+                } else {
+                    Assert.fail("Unexpected statement " + statement);
+                }
+            }
+        }
+
+        /**
+         * @return the rows by table, sorted, the IDs being replaced by the name of the referred row.
+         */
+        Map<String, List<String>> getRows() {
+            Map<String, List<String>> rows = new TreeMap<>();
+            for (Map.Entry<String, List<Map<String, String>>> table : tables.entrySet()) {
+                List<String> tableRows = new ArrayList<>();
+                for (Map<String, String> row : table.getValue()) {
+                    Map<String, String> values = new TreeMap<>(row);
+                    values.remove("ID");
+                    for (Map.Entry<String, String> value : values.entrySet()) {
+                        String referred = foreignKeys.getOrDefault(table.getKey(), Collections.emptyMap()).get(value.getKey());
+                        if (referred != null) {
+                            value.setValue("-> " + findById(referred, value.getValue()).get("NAME"));
+                        }
+                    }
+                    tableRows.add(values.toString());
+                }
+                Collections.sort(tableRows);
+                if (!tableRows.isEmpty()) {
+                    rows.put(table.getKey(), tableRows);
+                }
+            }
+            return rows;
+        }
+
+        /**
+         * @param table     the table.
+         * @param condition condition on the rows to delete, <code>null</code> to delete all the rows.
+         */
+        private void delete(String table, String condition) {
+            List<Map<String, String>> rows = tables.computeIfAbsent(table, key -> new ArrayList<>());
+            List<Map<String, String>> deleted = new ArrayList<>();
+            for (Map<String, String> row : rows) {
+                if (condition == null || matches(row, condition)) {
+                    deleted.add(row);
+                }
+            }
+            for (Map<String, String> row : deleted) {
+                checkNotReferred(table, row.get("ID"));
+            }
+            Assert.assertTrue("No row of " + table + " where " + condition, condition == null || !deleted.isEmpty());
+            rows.removeAll(deleted);
+        }
+
+        /**
+         * @param table   the table.
+         * @param columns columns of the row.
+         * @param values  values of the row.
+         */
+        private void insert(String table, List<String> columns, List<String> values) {
+            Map<String, String> row = new LinkedHashMap<>();
+            int id = nextIds.merge(table, 1, Integer::sum);
+            row.put("ID", Integer.toString(id));
+            for (int i = 0; i < columns.size(); i++) {
+                row.put(columns.get(i), evaluate(table, columns.get(i), values.get(i)));
+            }
+            tables.computeIfAbsent(table, key -> new ArrayList<>()).add(row);
+        }
+
+        /**
+         * @param table     the table.
+         * @param sets      the changes of the columns.
+         * @param condition condition on the rows to update.
+         */
+        private void update(String table, List<String> sets, String condition) {
+            int nbUpdates = 0;
+            for (Map<String, String> row : tables.getOrDefault(table, Collections.emptyList())) {
+                if (matches(row, condition)) {
+                    for (String set : sets) {
+                        int equal = set.indexOf(" = ");
+                        String column = set.substring(0, equal);
+                        row.put(column, evaluate(table, column, set.substring(equal + 3)));
+                    }
+                    nbUpdates++;
+                }
+            }
+            Assert.assertEquals("Rows of " + table + " updated where " + condition, 1, nbUpdates);
+        }
+
+        /**
+         * @param row       a row.
+         * @param condition a condition on the columns.
+         * @return <code>true</code> if the row matches the condition.
+         */
+        private boolean matches(Map<String, String> row, String condition) {
+            for (String term : split(condition, " AND")) {
+                Matcher matcher = CONDITION.matcher(term);
+                Assert.assertTrue("Unexpected condition " + term, matcher.matches());
+                String expected = matcher.group(2) == null ? "null" : evaluate(null, null, matcher.group(2));
+                if (!expected.equals(row.getOrDefault(matcher.group(1), "null"))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * @param table  table of the column, <code>null</code> in a condition.
+         * @param column the column.
+         * @param value  a literal or a sub query.
+         * @return the value, the sub query being replaced by the ID of the row.
+         */
+        private String evaluate(String table, String column, String value) {
+            Matcher matcher = SUB_QUERY.matcher(value);
+            if (!matcher.matches()) {
+                return value;
+            }
+            if (table != null) {
+                foreignKeys.computeIfAbsent(table, key -> new HashMap<>()).put(column, matcher.group(1));
+            }
+            for (Map<String, String> row : tables.getOrDefault(matcher.group(1), Collections.emptyList())) {
+                if (matcher.group(2).equals(row.get("NAME"))) {
+                    return row.get("ID");
+                }
+            }
+            Assert.assertNull("Reference to a missing row " + value, table);
+            return "null";
+        }
+
+        /**
+         * @param table the table.
+         * @param id    ID of a row of the table.
+         * @return the row.
+         */
+        private Map<String, String> findById(String table, String id) {
+            for (Map<String, String> row : tables.get(table)) {
+                if (row.get("ID").equals(id)) {
+                    return row;
+                }
+            }
+            throw new AssertionError("Missing row " + id + " of " + table);
+        }
+
+        /**
+         * Fails if a row refers to a row.
+         *
+         * @param table the table.
+         * @param id    ID of a row of the table.
+         */
+        private void checkNotReferred(String table, String id) {
+            for (Map.Entry<String, Map<String, String>> foreignKey : foreignKeys.entrySet()) {
+                for (Map.Entry<String, String> column : foreignKey.getValue().entrySet()) {
+                    if (!column.getValue().equals(table)) {
+                        continue;
+                    }
+                    for (Map<String, String> row : tables.getOrDefault(foreignKey.getKey(), Collections.emptyList())) {
+                        Assert.assertNotEquals("Row " + id + " of " + table + " referred by " + foreignKey.getKey() + " " + row,
+                                id, row.get(column.getKey()));
+                    }
+                }
+            }
+        }
+
+        /**
+         * @param text      a list.
+         * @param separator separator of the items, outside of quotes and parentheses.
+         * @return the items, trimmed.
+         */
+        private static List<String> split(String text, String separator) {
+            List<String> items = new ArrayList<>();
+            int depth = 0;
+            boolean quoted = false;
+            int start = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '\'') {
+                    quoted = !quoted;
+                } else if (!quoted && c == '(') {
+                    depth++;
+                } else if (!quoted && c == ')') {
+                    depth--;
+                } else if (!quoted && depth == 0 && text.startsWith(separator, i)) {
+                    items.add(text.substring(start, i).trim());
+                    start = i + separator.length();
+                }
+            }
+            items.add(text.substring(start).trim());
+            return items;
+        }
+    }
+}
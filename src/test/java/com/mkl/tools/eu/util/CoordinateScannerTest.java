@@ -0,0 +1,139 @@
+package com.mkl.tools.eu.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Test of CoordinateScanner: the numbers must be the ones of {@link Double#parseDouble(String)}, to the bit.
+ *
+ * @author MKL
+ */
+public class CoordinateScannerTest {
+
+    @Test
+    public void testSigns() {
+        checkNumbers("1.5 -2.25 +3 -0.5 -.5 .5 5. 0 0.0");
+    }
+
+    @Test
+    public void testNegativeZero() {
+        checkNumbers("-0 -0.0 +0 -0.000");
+        CoordinateScanner scanner = scan("-0");
+        Assert.assertTrue(scanner.next());
+        Assert.assertEquals(Double.doubleToRawLongBits(-0d), Double.doubleToRawLongBits(scanner.getValue()));
+    }
+
+    @Test
+    public void testExponent() {
+        checkNumbers("1e3 1.5E-2 -2.5e+10 1e400 4.9e-324 0x1p3 NaN -Infinity 1d 2f");
+    }
+
+    @Test
+    public void testManyDigits() {
+        // More than 15 significant digits: the mantissa can exceed 53 bits.
+        checkNumbers("1234567890123456 12345678901234567890 0.1234567890123456789 9007199254740993 -9007199254740992"
+                + " 0.30000000000000004 1.00000000000000000000001 0.0000000000000000000000123");
+    }
+
+    @Test
+    public void testEmptyToken() {
+        // Two spaces give an empty token, which ends the scan as Double.parseDouble("") would fail.
+        CoordinateScanner scanner = scan("1  2");
+        Assert.assertTrue(scanner.next());
+        Assert.assertEquals(1d, scanner.getValue(), 0);
+        Assert.assertFalse(scanner.next());
+        Assert.assertFalse(scanner.next());
+
+        Assert.assertFalse(scan("").next());
+        Assert.assertFalse(scan(" 1").next());
+    }
+
+    @Test
+    public void testEndOfNumbers() {
+        // An odd number of coordinates is scanned as is, the caller checks the pairs.
+        CoordinateScanner scanner = scan("10 20 30");
+        for (double expected : new double[]{10, 20, 30}) {
+            Assert.assertTrue(scanner.next());
+            Assert.assertEquals(expected, scanner.getValue(), 0);
+        }
+        Assert.assertFalse(scanner.next());
+
+        // The scan stops at the first word, even if numbers follow it.
+        scanner = scan("1 2 lineto 3");
+        Assert.assertTrue(scanner.next());
+        Assert.assertTrue(scanner.next());
+        Assert.assertEquals(2d, scanner.getValue(), 0);
+        Assert.assertFalse(scanner.next());
+        Assert.assertFalse(scanner.next());
+
+        for (String word : new String[]{"-", "+", ".", "-.", "1.2.3", "1-2", "abc", "N", "In", "--1"}) {
+            Assert.assertFalse(word, scan(word).next());
+        }
+    }
+
+    @Test
+    public void testReset() {
+        CoordinateScanner scanner = new CoordinateScanner();
+        Assert.assertFalse(scanner.next());
+        scanner.reset("word");
+        Assert.assertFalse(scanner.next());
+        scanner.reset("7.25");
+        Assert.assertTrue(scanner.next());
+        Assert.assertEquals(7.25, scanner.getValue(), 0);
+    }
+
+    @Test
+    public void testRandom() {
+        Random random = new Random(42);
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            if (line.length() > 0) {
+                line.append(' ');
+            }
+            switch (i % 4) {
+                case 0:
+                    // Coordinates as in the input files.
+                    line.append(String.format(Locale.ROOT, "%." + random.nextInt(8) + "f", (random.nextDouble() - 0.5) * 20000));
+                    break;
+                case 1:
+                    line.append(random.nextInt(2000000) - 1000000);
+                    break;
+                case 2:
+                    line.append(Double.toString((random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(30) - 15)));
+                    break;
+                default:
+                    line.append(Double.toString(Double.longBitsToDouble(random.nextLong())).replace("NaN", "1"));
+                    break;
+            }
+        }
+        checkNumbers(line.toString());
+    }
+
+    /**
+     * @param line a line.
+     * @return a scanner of the line.
+     */
+    private static CoordinateScanner scan(String line) {
+        CoordinateScanner scanner = new CoordinateScanner();
+        scanner.reset(line);
+        return scanner;
+    }
+
+    /**
+     * Checks that the scanner gives all the numbers of a line as {@link Double#parseDouble(String)}.
+     *
+     * @param line numbers separated by single spaces.
+     */
+    private static void checkNumbers(String line) {
+        CoordinateScanner scanner = scan(line);
+        for (String token : line.split(" ")) {
+            Assert.assertTrue(token, scanner.next());
+            Assert.assertEquals(token, Double.doubleToRawLongBits(Double.parseDouble(token)),
+                    Double.doubleToRawLongBits(scanner.getValue()));
+        }
+        Assert.assertFalse(scanner.next());
+    }
+}
@@ -0,0 +1,109 @@
+package com.mkl.tools.eu.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Test of DecimalFormatter.
+ *
+ * @author MKL
+ */
+public class DecimalFormatterTest {
+
+    @Test
+    public void testRoundingCarry() {
+        DecimalFormatter formatter = new DecimalFormatter(5);
+        Assert.assertEquals("1", formatter.format(0.999995));
+        Assert.assertEquals("1", formatter.format(0.9999999));
+        Assert.assertEquals("10", formatter.format(9.999999));
+        Assert.assertEquals("-100", formatter.format(-99.999999));
+        Assert.assertEquals("1.1", formatter.format(1.099999));
+        Assert.assertEquals("0.00001", formatter.format(0.000006));
+        Assert.assertEquals("3", new DecimalFormatter(0).format(2.5));
+    }
+
+    @Test
+    public void testNegativeToZero() {
+        DecimalFormatter formatter = new DecimalFormatter(5);
+        Assert.assertEquals("0", formatter.format(-0.000001));
+        Assert.assertEquals("0", formatter.format(-0.0000049));
+        Assert.assertEquals("0", formatter.format(-0d));
+        Assert.assertEquals("0", formatter.format(0d));
+        Assert.assertEquals("-0.00001", formatter.format(-0.000006));
+        Assert.assertEquals("0", new DecimalFormatter(0).format(-0.4));
+    }
+
+    @Test
+    public void testTrailingZeros() {
+        DecimalFormatter formatter = new DecimalFormatter(5);
+        Assert.assertEquals("1.5", formatter.format(1.5));
+        Assert.assertEquals("2", formatter.format(2));
+        Assert.assertEquals("-0.25", formatter.format(-0.25));
+        Assert.assertEquals("11.5", formatter.format(11.500001));
+        Assert.assertEquals("0.1", formatter.format(0.1));
+        Assert.assertEquals("0.00101", formatter.format(0.00101));
+        Assert.assertEquals("1234.56789", formatter.format(1234.56789));
+        Assert.assertEquals("2", new DecimalFormatter(0).format(2.25));
+        Assert.assertEquals("0.123456789", new DecimalFormatter(9).format(0.123456789));
+    }
+
+    @Test
+    public void testFallback() {
+        DecimalFormatter formatter = new DecimalFormatter(5);
+        double limit = (double) (1L << 52) / 100000;
+        Assert.assertEquals(Double.toString(limit), formatter.format(limit));
+        Assert.assertEquals(Double.toString(-limit), formatter.format(-limit));
+        Assert.assertEquals("1.0E12", formatter.format(1e12));
+        Assert.assertEquals("-1.0E12", formatter.format(-1e12));
+        Assert.assertEquals("NaN", formatter.format(Double.NaN));
+        Assert.assertEquals("Infinity", formatter.format(Double.POSITIVE_INFINITY));
+        Assert.assertEquals("-Infinity", formatter.format(Double.NEGATIVE_INFINITY));
+        // Just below the limit, the value is still rounded.
+        Assert.assertEquals("45035996273.5", formatter.format(45035996273.5));
+    }
+
+    @Test
+    public void testAppend() {
+        DecimalFormatter formatter = new DecimalFormatter(2);
+        StringBuilder builder = new StringBuilder("[");
+        formatter.append(builder, 1.005);
+        builder.append(',');
+        formatter.append(builder, -3.14159);
+        Assert.assertEquals("[1,-3.14", builder.toString());
+        Assert.assertEquals(2, formatter.getDecimals());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooManyDecimals() {
+        new DecimalFormatter(DecimalFormatter.MAX_DECIMALS + 1);
+    }
+
+    @Test
+    public void testRandom() {
+        Random random = new Random(42);
+        for (int decimals = 0; decimals <= DecimalFormatter.MAX_DECIMALS; decimals++) {
+            DecimalFormatter formatter = new DecimalFormatter(decimals);
+            double step = Math.pow(10, -decimals);
+            double limit = (double) (1L << 52) / Math.pow(10, decimals);
+            for (int i = 0; i < 10000; i++) {
+                double value = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(10));
+                String text = formatter.format(value);
+                if (Math.abs(value) >= limit) {
+                    Assert.assertEquals(Double.toString(value), text);
+                    continue;
+                }
+                Assert.assertFalse(text, text.contains("E"));
+                int point = text.indexOf('.');
+                if (point >= 0) {
+                    Assert.assertFalse(text, text.endsWith("0"));
+                    Assert.assertTrue(text, text.length() - point - 1 <= decimals);
+                }
+                Assert.assertFalse(text, text.equals("-0"));
+                double parsed = Double.parseDouble(text);
+                Assert.assertEquals(text, value, parsed, step / 2 + Math.ulp(value) * 2);
+            }
+        }
+    }
+}